@@ -0,0 +1,67 @@
+package aim4.bench;
+
+import aim4.map.mixedcpm.maps.AdjustableManualCarPark;
+import aim4.map.mixedcpm.parking.IManualParkingArea;
+import aim4.map.mixedcpm.parking.StallSpec;
+import aim4.map.mixedcpm.parking.StallType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parks a fixed sequence of manual vehicles of mixed sizes in an empty car
+ * park of the size the GUI starts with, one {@code findSpace} call each.
+ * The score is the time to fill the car park.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ManualParkingAreaBenchmark {
+
+    @Param({"10", "40"})
+    public int vehicles;
+
+    private StallSpec[] stallSpecs;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        stallSpecs = new StallSpec[vehicles];
+        for(int i = 0; i < vehicles; i++) {
+            stallSpecs[i] = new StallSpec(1.6 + random.nextDouble() * 0.6,
+                                          3.8 + random.nextDouble() * 1.6,
+                                          StallType.Standard);
+        }
+    }
+
+    @Benchmark
+    public int findSpace() {
+        AdjustableManualCarPark carPark = new AdjustableManualCarPark(
+                40,     // height
+                60,     // width
+                6.0,    // lane width
+                2.7,    // speed limit
+                0.0);   // initial time
+        IManualParkingArea area = carPark.getManualParkingArea();
+        int parked = 0;
+        for(StallSpec stallSpec : stallSpecs) {
+            if(area.findSpace(stallSpec) != null)
+                parked++;
+        }
+        return parked;
+    }
+}
@@ -0,0 +1,95 @@
+package aim4.bench;
+
+import aim4.config.Constants.TurnDirection;
+import aim4.config.SimConfig;
+import aim4.im.aim.Intersection;
+import aim4.im.aim.v2i.V2IManager;
+import aim4.im.aim.v2i.reservation.ReservationGridManager;
+import aim4.map.aim.GridIntersectionMap;
+import aim4.map.aim.GridMapUtil;
+import aim4.map.lane.Lane;
+import aim4.msg.aim.v2i.Request.VehicleSpecForRequestMsg;
+import aim4.sim.SimContext;
+import aim4.vehicle.VehicleSpecDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries the reservation grid of the single intersection of the default
+ * AIM map for a vehicle crossing it straight ahead or turning left, with and
+ * without the trajectory cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ReservationGridBenchmark {
+
+    @Param({"STRAIGHT", "LEFT"})
+    public TurnDirection turn;
+
+    @Param({"0", "1024"})
+    public int trajectoryCacheSize;
+
+    private SimContext previous;
+    private ReservationGridManager manager;
+    private ReservationGridManager.Query query;
+
+    @Setup
+    public void setUp() {
+        previous = new SimContext().enter();
+        GridIntersectionMap layout = new GridIntersectionMap(0.0, 1, 1, 4, 25.0, 3, 1, 150);
+        ReservationGridManager.Config config =
+                new ReservationGridManager.Config(SimConfig.TIME_STEP,
+                        SimConfig.GRID_TIME_STEP,
+                        0.25,   // static buffer size
+                        0.1,    // internal tile time buffer size
+                        0.25,   // edge tile time buffer size
+                        true,   // edge tile time buffer enabled
+                        1.0);   // granularity
+        config.setTrajectoryCache(trajectoryCacheSize, 0.0, 0.0, false);
+        GridMapUtil.setFCFSManagers(layout, 0.0, config);
+        V2IManager im = (V2IManager) layout.getManager(0, 0);
+        manager = im.getReservationGridManager();
+
+        Intersection intersection = im.getIntersection();
+        Lane arrivalLane = intersection.getEntryLanes().get(0);
+        Lane departureLane = null;
+        for(Lane lane : intersection.getExitLanes()) {
+            if(intersection.calcTurnDirection(arrivalLane, lane) == turn) {
+                departureLane = lane;
+                break;
+            }
+        }
+        if(departureLane == null)
+            throw new IllegalStateException("No exit lane for " + turn + " from lane " + arrivalLane.getId());
+        VehicleSpecForRequestMsg spec =
+                new VehicleSpecForRequestMsg(VehicleSpecDatabase.getVehicleSpecByName("SEDAN"));
+        query = new ReservationGridManager.Query(1, 1.0, 10.0,
+                arrivalLane.getId(), departureLane.getId(), spec, 10.0, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SimContext.restore(previous);
+    }
+
+    @Benchmark
+    public ReservationGridManager.Plan query() {
+        return manager.query(query);
+    }
+}
@@ -0,0 +1,161 @@
+package aim4.bench;
+
+import aim4.config.SimConfig;
+import aim4.map.cpm.CPMMapUtil.SpawnSpecType;
+import aim4.map.mixedcpm.MixedCPMMapUtil;
+import aim4.sim.SimContext;
+import aim4.sim.Simulator;
+import aim4.sim.setup.SimFactory;
+import aim4.sim.setup.SimSetup;
+import aim4.sim.setup.aim.AutoDriverOnlySimSetup;
+import aim4.sim.setup.cpm.BasicCPMSimSetup;
+import aim4.sim.setup.cpm.CPMAutoDriverSimSetup;
+import aim4.sim.setup.merge.S2SSimSetup;
+import aim4.sim.setup.merge.enums.ProtocolType;
+import aim4.sim.setup.mixedcpm.BasicMixedCPMSimSetup;
+import aim4.sim.setup.mixedcpm.MixedCPMAutoDriverSimSetup;
+import aim4.util.RandomStreams;
+import javafx.util.Pair;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs whole simulations from a fixed seed for a fixed amount of simulated
+ * time. The primary score is complete runs per second; the {@code steps}
+ * counter gives simulation steps per second. Each run uses a fresh
+ * {@link SimContext}, as the batch runner does, and building it is not
+ * measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class SimulatorBenchmark {
+
+    /**
+     * The simulated scenarios, one per kind of simulator, with the settings
+     * the GUI starts with.
+     */
+    public enum Scenario {
+        AIM {
+            @Override
+            SimSetup createSimSetup() {
+                AutoDriverOnlySimSetup setup = new AutoDriverOnlySimSetup(
+                        1,      // columns
+                        1,      // rows
+                        4,      // lane width
+                        25.0,   // speed limit
+                        3,      // lanes per road
+                        1,      // median size
+                        150,    // distance between
+                        0.28,   // traffic level
+                        1.0);   // stop distance before intersection
+                setup.setUniformRandomTraffic(0.28);
+                return setup;
+            }
+        },
+        S2S {
+            @Override
+            SimSetup createSimSetup() {
+                return new S2SSimSetup(ProtocolType.AIM_GRID,
+                        1500 / 3600.0,  // traffic level
+                        20, 20,         // target and merge speed limits
+                        150, 150,       // target lead in and lead out distances
+                        150,            // merge lead in distance
+                        45);            // merge angle
+            }
+        },
+        CPM {
+            @Override
+            SimSetup createSimSetup() {
+                return new CPMAutoDriverSimSetup(new BasicCPMSimSetup(
+                        5.0,    // speed limit
+                        0.28,   // traffic level
+                        2.0,    // lane width
+                        1,      // number of parking lanes
+                        50.0,   // parking length
+                        1.0,    // access length
+                        SpawnSpecType.SINGLE,
+                        new Pair<Boolean, String>(false, "")));
+            }
+        },
+        MIXED_CPM {
+            @Override
+            SimSetup createSimSetup() {
+                MixedCPMAutoDriverSimSetup setup = new MixedCPMAutoDriverSimSetup(new BasicMixedCPMSimSetup(
+                        2.7,    // speed limit
+                        0.28,   // traffic level
+                        6.0,    // lane width
+                        60,     // car park width
+                        40,     // car park height
+                        MixedCPMMapUtil.SpawnSpecType.FINITE_SINGLE,
+                        MixedCPMMapUtil.MapType.ADJUSTABLE_MANUAL,
+                        new Pair<Boolean, String>(false, "")));
+                setup.setMultipleCSVFile(new Pair<Boolean, String>(false, ""));
+                return setup;
+            }
+        };
+
+        abstract SimSetup createSimSetup();
+    }
+
+    /**
+     * The number of simulation steps taken, reported as a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Steps {
+        public long steps;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            steps = 0;
+        }
+    }
+
+    @Param({"AIM", "S2S", "CPM", "MIXED_CPM"})
+    public Scenario scenario;
+
+    @Param({"60"})
+    public double simulatedSeconds;
+
+    @Param({"1"})
+    public long seed;
+
+    private Simulator sim;
+
+    /**
+     * Build the map and the simulator of the next run, so that only the
+     * steps are measured. The simulator binds its context for each step.
+     */
+    @Setup(Level.Invocation)
+    public void createSimulator() {
+        SimContext context = new SimContext();
+        context.setRandomStreams(new RandomStreams(seed));
+        sim = SimFactory.makeSimulator(scenario.createSimSetup(), context);
+    }
+
+    @Benchmark
+    public int run(Steps steps) {
+        while(sim.getSimulationTime() < simulatedSeconds) {
+            sim.step(SimConfig.TIME_STEP);
+            steps.steps++;
+        }
+        return sim.getNumCompletedVehicles();
+    }
+}
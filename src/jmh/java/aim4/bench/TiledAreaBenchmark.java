@@ -0,0 +1,72 @@
+package aim4.bench;
+
+import aim4.im.aim.Intersection;
+import aim4.im.aim.RoadBasedIntersection;
+import aim4.map.aim.GridIntersectionMap;
+import aim4.map.lane.Lane;
+import aim4.sim.SimContext;
+import aim4.util.TiledArea;
+import aim4.vehicle.VehicleSpecDatabase;
+import aim4.vehicle.aim.AIMBasicAutoVehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Shape;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the tiles of the default AIM intersection occupied by a buffered
+ * vehicle turning across its middle, for several tile sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TiledAreaBenchmark {
+
+    @Param({"1.0", "0.5", "0.25"})
+    public double granularity;
+
+    private SimContext previous;
+    private TiledArea tiledArea;
+    private Shape shape;
+
+    @Setup
+    public void setUp() {
+        previous = new SimContext().enter();
+        GridIntersectionMap layout = new GridIntersectionMap(0.0, 1, 1, 4, 25.0, 3, 1, 150);
+        Intersection intersection = new RoadBasedIntersection(layout.getRoads(0, 0));
+        tiledArea = new TiledArea(intersection.getArea(), granularity);
+
+        Lane lane = intersection.getEntryLanes().get(0);
+        AIMBasicAutoVehicle vehicle = new AIMBasicAutoVehicle(
+                VehicleSpecDatabase.getVehicleSpecByName("SEDAN"),
+                intersection.getCentroid(),
+                intersection.getEntryHeading(lane) + Math.PI / 6,
+                0.0, 10.0, 10.0, 0.0, 0.0);
+        shape = vehicle.getShape(0.25);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SimContext.restore(previous);
+    }
+
+    @Benchmark
+    public List<TiledArea.Tile> findOccupiedTiles() {
+        return tiledArea.findOccupiedTiles(shape);
+    }
+}
@@ -0,0 +1,136 @@
+package aim4.bench;
+
+import aim4.config.SimConfig;
+import aim4.im.aim.Intersection;
+import aim4.im.aim.RoadBasedIntersection;
+import aim4.map.aim.GridIntersectionMap;
+import aim4.map.lane.Lane;
+import aim4.sim.SimContext;
+import aim4.vehicle.VehicleSpecDatabase;
+import aim4.vehicle.VehicleUtil;
+import aim4.vehicle.aim.AIMBasicAutoVehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.geom.Area;
+import java.awt.geom.Point2D;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves a vehicle one time step, and tests whether a vehicle overlaps the
+ * area of the default AIM intersection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VehicleBenchmark {
+
+    /**
+     * A vehicle driving in a straight line or in circles.
+     */
+    @State(Scope.Thread)
+    public static class Moving {
+        @Param({"0.0", "0.2"})
+        public double steeringAngle;
+
+        private AIMBasicAutoVehicle vehicle;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            vehicle = vehicleAt(new Point2D.Double(0, 0), 0.0, steeringAngle);
+        }
+    }
+
+    /**
+     * A vehicle standing somewhere around the intersection.
+     */
+    @State(Scope.Thread)
+    public static class Placed {
+        /**
+         * Where the vehicle is.
+         */
+        public enum Placement {
+            /** At the centre of the intersection; the quick point test succeeds */
+            INSIDE,
+            /**
+             * Across its entry, with its front and rear just outside; only the
+             * shape test finds the overlap
+             */
+            STRADDLING,
+            /** Well away from it; the bounding boxes do not overlap */
+            OUTSIDE
+        }
+
+        @Param({"INSIDE", "STRADDLING", "OUTSIDE"})
+        public Placement placement;
+
+        private SimContext previous;
+        private AIMBasicAutoVehicle vehicle;
+        private Area area;
+
+        @Setup
+        public void setUp() {
+            previous = new SimContext().enter();
+            GridIntersectionMap layout = new GridIntersectionMap(0.0, 1, 1, 4, 25.0, 3, 1, 150);
+            Intersection intersection = new RoadBasedIntersection(layout.getRoads(0, 0));
+            area = intersection.getArea();
+
+            Lane lane = intersection.getEntryLanes().get(0);
+            double heading = intersection.getEntryHeading(lane);
+            Point2D entry = intersection.getEntryPoint(lane);
+            switch(placement) {
+                case INSIDE:
+                    vehicle = vehicleAt(intersection.getCentroid(), heading, 0.0);
+                    break;
+                case STRADDLING:
+                    // half a metre short of the entry, turned across the lane
+                    // so that its side overlaps the intersection
+                    vehicle = vehicleAt(new Point2D.Double(
+                            entry.getX() - 0.5 * Math.cos(heading),
+                            entry.getY() - 0.5 * Math.sin(heading)),
+                            heading + Math.PI / 2, 0.0);
+                    break;
+                case OUTSIDE:
+                    vehicle = vehicleAt(new Point2D.Double(
+                            entry.getX() - 100 * Math.cos(heading),
+                            entry.getY() - 100 * Math.sin(heading)),
+                            heading, 0.0);
+                    break;
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            SimContext.restore(previous);
+        }
+    }
+
+    @Benchmark
+    public Point2D move(Moving moving) {
+        moving.vehicle.move(SimConfig.TIME_STEP);
+        return moving.vehicle.getPosition();
+    }
+
+    @Benchmark
+    public boolean intersects(Placed placed) {
+        return VehicleUtil.intersects(placed.vehicle, placed.area);
+    }
+
+    private static AIMBasicAutoVehicle vehicleAt(Point2D position, double heading, double steeringAngle) {
+        return new AIMBasicAutoVehicle(VehicleSpecDatabase.getVehicleSpecByName("SEDAN"),
+                position, heading, steeringAngle, 10.0, 10.0, 0.0, 0.0);
+    }
+}
@@ -31,6 +31,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package aim4;
 
 import aim4.gui.Viewer;
+import aim4.sim.batch.BatchRunner;
 
 /**
  * The default main class to show the GUI.
@@ -43,13 +44,17 @@ public class Main {
 
   /**
    * The main function of the simulator.
-   * It starts the GUI.
+   * It starts the GUI, or runs a sweep headlessly when given arguments.
    *
-   * @param args  the command-line arguments; it should be empty since the GUI
-   *              does not take any command-line arguments
+   * @param args  the command-line arguments; empty to start the GUI,
+   *              otherwise the arguments of {@link BatchRunner}
    *
    */
   public static void main(String[] args) {
-    new Viewer();
+    if (args.length > 0) {
+      BatchRunner.main(args);
+    } else {
+      new Viewer();
+    }
   }
 }
\ No newline at end of file
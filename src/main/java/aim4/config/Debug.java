@@ -31,13 +31,11 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package aim4.config;
 
 import java.awt.Color;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
 import aim4.gui.ViewerDebugView;
 import aim4.map.aim.BasicIntersectionMap;
+import aim4.sim.SimContext;
 
 /**
  * The configuration for debugging purposes.
@@ -45,9 +43,23 @@ import aim4.map.aim.BasicIntersectionMap;
 public class Debug {
 
   /**
-   * A global variable referring to the global map.
+   * Get the map of the current simulation, in which lanes and roads are
+   * looked up.
+   *
+   * @return the map of the current {@link SimContext}
+   */
+  public static BasicIntersectionMap getCurrentMap() {
+    return SimContext.current().getCurrentMap();
+  }
+
+  /**
+   * Set the map of the current simulation.
+   *
+   * @param map  the map of the current {@link SimContext}
    */
-  public static BasicIntersectionMap currentMap;
+  public static void setCurrentMap(BasicIntersectionMap map) {
+    SimContext.current().setCurrentMap(map);
+  }
 
   /**
    * A global variable referring to the GUI object.
@@ -237,6 +249,13 @@ public class Debug {
    */
   public static final boolean PRINT_SIMULATOR_STAGE = false;
 
+  /**
+   * Whether or not the simulators check for collisions between vehicles
+   * after moving them. Off because the merge protocols still let vehicles
+   * touch.
+   */
+  public static final boolean CHECK_FOR_COLLISIONS = false;
+
   /**
    * Whether or not the proxy vehicle shows the debug message.
    */
@@ -263,32 +282,20 @@ public class Debug {
   // Debug Points
   /////////////////////////////////
 
-  /**
-   * The list of long term debug points.
-   */
-  private static List<DebugPoint> longTermDebugPoints =
-    new LinkedList<DebugPoint>();
-
-  /**
-   * The list of short term debug points.
-   */
-  private static List<DebugPoint> shortTermDebugPoints =
-    new LinkedList<DebugPoint>();
-
   /**
    * Get the long-term debugging points.
    *
    * @return an list of long-term debug points.
    */
   public static List<DebugPoint> getLongTermDebugPoints() {
-    return longTermDebugPoints;
+    return SimContext.current().getLongTermDebugPoints();
   }
 
   /**
    * Clear out all the long-term debug points.
    */
   public static void clearLongTermDebugPoints() {
-    longTermDebugPoints.clear();
+    SimContext.current().getLongTermDebugPoints().clear();
   }
 
   /**
@@ -297,7 +304,7 @@ public class Debug {
    * @param dp  a new long-term debug point.
    */
   public static void addLongTermDebugPoint(DebugPoint dp) {
-    longTermDebugPoints.add(dp);
+    SimContext.current().getLongTermDebugPoints().add(dp);
   }
 
   /**
@@ -306,14 +313,14 @@ public class Debug {
    * @return an list of short-term debug points
    */
   public static List<DebugPoint> getShortTermDebugPoints() {
-    return shortTermDebugPoints;
+    return SimContext.current().getShortTermDebugPoints();
   }
 
   /**
    * Clear out all the short-term debug points.
    */
   public static void clearShortTermDebugPoints() {
-    shortTermDebugPoints.clear();
+    SimContext.current().getShortTermDebugPoints().clear();
   }
 
   /**
@@ -322,19 +329,13 @@ public class Debug {
    * @param dp  a new short-term debug point
    */
   public static void addShortTermDebugPoint(DebugPoint dp) {
-    shortTermDebugPoints.add(dp);
+    SimContext.current().getShortTermDebugPoints().add(dp);
   }
 
   /////////////////////////////////
   // VEHICLE COLORING
   /////////////////////////////////
 
-  /**
-   * A mapping from vehicle's VINs to the color of the vehicles.
-   */
-  private static Map<Integer,Color> vinToVehicleColor =
-    new HashMap<Integer,Color>();
-
   /**
    * Get the color of a vehicle.
    *
@@ -342,7 +343,7 @@ public class Debug {
    * @return the color of the vehicle
    */
   public static Color getVehicleColor(int vin) {
-    return vinToVehicleColor.get(vin);
+    return SimContext.current().getVinToVehicleColor().get(vin);
   }
 
   /**
@@ -352,7 +353,7 @@ public class Debug {
    * @param color the color of the vehicle
    */
   public static void setVehicleColor(int vin, Color color) {
-    vinToVehicleColor.put(vin, color);
+    SimContext.current().getVinToVehicleColor().put(vin, color);
   }
 
   /**
@@ -361,7 +362,7 @@ public class Debug {
    * @param vin the VIN number of the vehicle
    */
   public static void removeVehicleColor(int vin) {
-    vinToVehicleColor.remove(vin);
+    SimContext.current().getVinToVehicleColor().remove(vin);
   }
 
   /////////////////////////////////
@@ -30,15 +30,31 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.config;
 
+import aim4.sim.SimContext;
+
 /**
  * The configuration of a simulation.
  */
 public class SimConfig {
   /**
-   * The time the simulation should run.
+   * Get the time the current simulation should run.
    * If it is less than or equal to zero, the simulation will run forever.
+   *
+   * @return the total simulation time of the current {@link SimContext}
+   */
+  public static double getTotalSimulationTime() {
+    return SimContext.current().getTotalSimulationTime();
+  }
+
+  /**
+   * Set the time the current simulation should run.
+   *
+   * @param time  the total simulation time; less than or equal to zero to
+   *              run forever
    */
-  public static double TOTAL_SIMULATION_TIME = -1.0;
+  public static void setTotalSimulationTime(double time) {
+    SimContext.current().setTotalSimulationTime(time);
+  }
 
   /**
    * The number of cycles per second ({@value}) at which the simulator runs.
@@ -69,14 +85,29 @@ public class SimConfig {
   public static final double SPAWN_TIME_STEP = TIME_STEP / 5.0;
 
   /**
-   * Whether or not the vehicle must stop before an intersection
+   * Whether or not the vehicle must stop before an intersection in the
+   * current simulation.
+   *
+   * @return whether vehicles must stop before an intersection
+   */
+  public static boolean isMustStopBeforeIntersection() {
+    return SimContext.current().isMustStopBeforeIntersection();
+  }
+
+  /**
+   * Set whether or not the vehicle must stop before an intersection in the
+   * current simulation.
+   *
+   * @param mustStop  whether vehicles must stop before an intersection
    */
-  public static boolean MUST_STOP_BEFORE_INTERSECTION = false;
+  public static void setMustStopBeforeIntersection(boolean mustStop) {
+    SimContext.current().setMustStopBeforeIntersection(mustStop);
+  }
 
   /**
    * The distance before the stopping distance before an intersection
    * such that a vehicle can consider moving again when
-   * MUST_STOP_BEFORE_INTERSECTION is true.
+   * {@link #isMustStopBeforeIntersection()} is true.
    */
   public static final double ADDITIONAL_STOP_DIST_BEFORE_INTERSECTION = 0.01;
 }
@@ -40,6 +40,7 @@ import aim4.driver.Coordinator;
 import aim4.im.aim.IntersectionManager;
 import aim4.map.aim.BasicIntersectionMap;
 import aim4.vehicle.AutoVehicleDriverModel;
+import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.aim.AIMAutoVehicleDriverModel;
 
 /**
@@ -272,10 +273,7 @@ public class AIMAutoDriver extends AIMDriver
       // We actually have to check to see if the Area of the
       // Vehicle and the Area of the IntersectionManager have a nonempty
       // intersection
-      Area vehicleArea = new Area(v.gaugeShape());
-      // Important that it is in this order, as it is destructive to the caller
-      vehicleArea.intersect(area);
-      return !vehicleArea.isEmpty();
+      return VehicleUtil.shapeIntersectsArea(v.gaugeShape(), area);
     }
   }
 
@@ -501,7 +501,7 @@ public class V2ICoordinator implements Coordinator {
     private TurnDirection getTurnDirection(Navigator navigator) {
       IntersectionManager im = driver.nextIntersectionManager();
       Lane currentLane = driver.getCurrentLane();
-      Road currentRoad = Debug.currentMap.getRoad(currentLane);
+      Road currentRoad = Debug.getCurrentMap().getRoad(currentLane);
       Road departureRoad =
         navigator.navigate(currentRoad, im, driver.getDestination());
       Lane departureLane = departureRoad.getIndexLane();
@@ -709,9 +709,9 @@ public class V2ICoordinator implements Coordinator {
      */
     public ReservationParameter(Confirm msg) {
       this.arrivalLane =
-        Debug.currentMap.getLaneRegistry().get(msg.getArrivalLaneID());
+        Debug.getCurrentMap().getLaneRegistry().get(msg.getArrivalLaneID());
       this.departureLane =
-        Debug.currentMap.getLaneRegistry().get(msg.getDepartureLaneID());
+        Debug.getCurrentMap().getLaneRegistry().get(msg.getDepartureLaneID());
 //      this.arrivalLane = LaneRegistry.getLaneFromId(msg.getArrivalLaneID());
 //      this.departureLane = LaneRegistry.getLaneFromId(msg.getDepartureLaneID());
       this.arrivalTime = msg.getArrivalTime();
@@ -1307,9 +1307,9 @@ public class V2ICoordinator implements Coordinator {
         }  // else fall through
       }  // else fall through
       if (vehicle.gaugeTime() >= nextAllowedSendingRequestTime) {
-        if (!SimConfig.MUST_STOP_BEFORE_INTERSECTION ||
+        if (!SimConfig.isMustStopBeforeIntersection() ||
             driver.distanceToNextIntersection() <=
-            V2IPilot.DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION +
+            V2IPilot.getDefaultStopDistanceBeforeIntersection() +
             SimConfig.ADDITIONAL_STOP_DIST_BEFORE_INTERSECTION) {
           // prepare reservation
           setState(State.V2I_PREPARING_RESERVATION);
@@ -1582,7 +1582,7 @@ public class V2ICoordinator implements Coordinator {
       List<Lane> departureLanes =
         new ArrayList<Lane>(MAX_LANES_TO_TRY_PER_ROAD);
       Road departureRoad =
-        navigator.navigate(Debug.currentMap.getRoad(driver.getCurrentLane()),
+        navigator.navigate(Debug.getCurrentMap().getRoad(driver.getCurrentLane()),
                            driver.getCurrentIM(),
                            driver.getDestination());
       // Let's just take the highest priority Lane from each Road
@@ -1629,7 +1629,7 @@ public class V2ICoordinator implements Coordinator {
         if (isDebugging) {
           double dTotal =
             driver.distanceToNextIntersection()
-            - V2IPilot.DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION;
+            - V2IPilot.getDefaultStopDistanceBeforeIntersection();
           if (dTotal < 0.0) {
             System.err.printf("vin %d passed point of no return\n",
                               vehicle.getVIN());
@@ -2035,7 +2035,7 @@ public class V2ICoordinator implements Coordinator {
     double d2 = VehicleUtil.distanceToCarInFront(vehicle);
     if (d2 >= Double.MAX_VALUE) return true;  // no car in front
     double d3 = d1 - d2;
-    return (d3 <= V2IPilot.DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION);
+    return (d3 <= V2IPilot.getDefaultStopDistanceBeforeIntersection());
   }
 
 
@@ -2052,7 +2052,7 @@ public class V2ICoordinator implements Coordinator {
     // stop at the buffer distance before intersection
     double dTotal =
       driver.distanceToNextIntersection()
-      - V2IPilot.DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION;
+      - V2IPilot.getDefaultStopDistanceBeforeIntersection();
 
     if (dTotal > 0.0) {
       double time1 = vehicle.gaugeTime();
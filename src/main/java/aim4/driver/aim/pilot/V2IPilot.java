@@ -36,6 +36,7 @@ import aim4.driver.BasicPilot;
 import aim4.driver.DriverUtil;
 import aim4.driver.aim.AIMAutoDriver;
 import aim4.driver.aim.coordinator.V2ICoordinator.ReservationParameter;
+import aim4.sim.SimContext;
 import aim4.vehicle.AutoVehicleDriverModel;
 import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.aim.AIMAutoVehicleDriverModel;
@@ -61,10 +62,25 @@ public class V2IPilot extends BasicPilot {
   public static final double MINIMUM_FOLLOWING_DISTANCE = 0.5; // meters
 
   /**
-   * The default shortest distance before an intersection at which the vehicle
-   * stops if the vehicle can't enter the intersection immediately.
+   * Get the default shortest distance before an intersection at which the
+   * vehicle stops if the vehicle can't enter the intersection immediately.
+   * The distance is configured per simulation.
+   *
+   * @return the stop distance of the current {@link SimContext}
    */
-  public static double DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION = 1.0;
+  public static double getDefaultStopDistanceBeforeIntersection() {
+    return SimContext.current().getStopDistanceBeforeIntersection();
+  }
+
+  /**
+   * Set the default shortest distance before an intersection at which the
+   * vehicle stops for the current simulation.
+   *
+   * @param distance  the stop distance
+   */
+  public static void setDefaultStopDistanceBeforeIntersection(double distance) {
+    SimContext.current().setStopDistanceBeforeIntersection(distance);
+  }
 
   /**
    * The distance, expressed in units of the Vehicle's velocity, at which to
@@ -96,7 +112,7 @@ public class V2IPilot extends BasicPilot {
   public V2IPilot(AIMAutoVehicleDriverModel vehicle, AIMAutoDriver driver) {
     this.vehicle = vehicle;
     this.driver = driver;
-    stopDistanceBeforeIntersection = DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION;
+    stopDistanceBeforeIntersection = getDefaultStopDistanceBeforeIntersection();
   }
 
   // ///////////////////////////////
@@ -133,8 +149,8 @@ public class V2IPilot extends BasicPilot {
     // If we're not already in the departure lane
     if (driver.getCurrentLane() != rp.getDepartureLane()) {
       // If we're changing to a different Roadf
-      if (Debug.currentMap.getRoad(driver.getCurrentLane()) !=
-        Debug.currentMap.getRoad(rp.getDepartureLane())) {
+      if (Debug.getCurrentMap().getRoad(driver.getCurrentLane()) !=
+        Debug.getCurrentMap().getRoad(rp.getDepartureLane())) {
         // Find out how far from it we are
         double distToLane =
           rp.getDepartureLane().nearestDistance(vehicle.gaugePosition());
@@ -281,7 +297,7 @@ public class V2IPilot extends BasicPilot {
 //      VehicleUtil.calcDistanceToStop(vehicle.gaugeVelocity(),
 //                                     vehicle.getSpec().getMaxDeceleration());
     double minDistanceToIntersection =
-      stoppingDistance + DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION;
+      stoppingDistance + getDefaultStopDistanceBeforeIntersection();
     if (vehicle.getDriver().distanceToNextIntersection() <
         minDistanceToIntersection) {
 //      if (Debug.isTargetVIN(vehicle.getVIN())) {
@@ -10,6 +10,7 @@ import aim4.map.cpm.CPMMap;
 import aim4.map.cpm.CPMSpawnPoint;
 import aim4.map.cpm.parking.ParkingLane;
 import aim4.vehicle.AutoVehicleDriverModel;
+import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.cpm.CPMBasicAutoVehicle;
 import aim4.driver.cpm.CPMCoordinator.*;
 
@@ -70,10 +71,7 @@ public class CPMV2VDriver extends BasicDriver
         } else {
             // We actually have to check to see if the Area of the
             // Vehicle and the given Area have a nonempty intersection
-            Area vehicleArea = new Area(vehicle.gaugeShape());
-            // Important that it is in this order, as it is destructive to the caller
-            vehicleArea.intersect(area);
-            return !vehicleArea.isEmpty();
+            return VehicleUtil.shapeIntersectsArea(vehicle.gaugeShape(), area);
         }
     }
 
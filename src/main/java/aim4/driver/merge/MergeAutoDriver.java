@@ -5,6 +5,7 @@ import aim4.driver.merge.coordinator.MergeAutoCoordinator;
 import aim4.driver.merge.coordinator.MergeCoordinator;
 import aim4.map.connections.MergeConnection;
 import aim4.map.merge.MergeMap;
+import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.merge.MergeAutoVehicleDriverModel;
 
 import java.awt.geom.Area;
@@ -74,10 +75,7 @@ public class MergeAutoDriver extends MergeDriver implements AutoDriver {
         } else {
             // We actually have to check to see if the Area of the
             // Vehicle and the given Area have a nonempty intersection
-            Area vehicleArea = new Area(vehicle.gaugeShape());
-            // Important that it is in this order, as it is destructive to the caller
-            vehicleArea.intersect(area);
-            return !vehicleArea.isEmpty();
+            return VehicleUtil.shapeIntersectsArea(vehicle.gaugeShape(), area);
         }
     }
 
@@ -7,6 +7,7 @@ import aim4.im.merge.MergeManager;
 import aim4.map.merge.MergeMap;
 import aim4.sim.setup.merge.enums.ProtocolType;
 import aim4.vehicle.AutoVehicleDriverModel;
+import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.merge.MergeV2IAutoVehicleDriverModel;
 
 import java.awt.geom.Area;
@@ -120,10 +121,7 @@ public class MergeV2IAutoDriver extends MergeAutoDriver {
             // We actually have to check to see if the Area of the
             // Vehicle and the Area of the IntersectionManager have a nonempty
             // intersection
-            Area vehicleArea = new Area(v.gaugeShape());
-            // Important that it is in this order, as it is destructive to the caller
-            vehicleArea.intersect(area);
-            return !vehicleArea.isEmpty();
+            return VehicleUtil.shapeIntersectsArea(v.gaugeShape(), area);
         }
     }
 
@@ -11,8 +11,10 @@ import aim4.map.connections.SimpleIntersection;
 import aim4.map.lane.Lane;
 import aim4.map.mixedcpm.MixedCPMMap;
 import aim4.map.mixedcpm.MixedCPMSpawnPoint;
+import aim4.map.mixedcpm.statusmonitor.IStatusMonitor;
 import aim4.map.mixedcpm.parking.ManualStall;
 import aim4.vehicle.AutoVehicleDriverModel;
+import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.mixedcpm.MixedCPMBasicManualVehicle;
 
 import java.awt.geom.Area;
@@ -76,10 +78,7 @@ public class MixedCPMManualDriver extends MixedCPMDriver {
         } else {
             // We actually have to check to see if the Area of the
             // Vehicle and the given Area have a nonempty intersection
-            Area vehicleArea = new Area(vehicle.gaugeShape());
-            // Important that it is in this order, as it is destructive to the caller
-            vehicleArea.intersect(area);
-            return !vehicleArea.isEmpty();
+            return VehicleUtil.shapeIntersectsArea(vehicle.gaugeShape(), area);
         }
     }
 
@@ -100,10 +99,7 @@ public class MixedCPMManualDriver extends MixedCPMDriver {
         } else {
             // We actually have to check to see if the Area of the
             // Vehicle and the given Area have a nonempty intersection
-            Area vehicleArea = new Area(vehicle.gaugeShape());
-            // Important that it is in this order, as it is destructive to the caller
-            vehicleArea.intersect(area);
-            return !vehicleArea.isEmpty();
+            return VehicleUtil.shapeIntersectsArea(vehicle.gaugeShape(), area);
         }
     }
 
@@ -272,6 +268,23 @@ public class MixedCPMManualDriver extends MixedCPMDriver {
         return coordinator.getParkingStatus() == MixedCPMManualCoordinator.ParkingStatus.PARKED;
     }
 
+    /**
+     * Tell the status monitor of the map that the vehicle has parked, or
+     * that it is no longer parked.
+     *
+     * @param parked whether the vehicle is now parked
+     */
+    public void reportParked(boolean parked){
+        IStatusMonitor statusMonitor = map.getStatusMonitor();
+        if (statusMonitor != null) {
+            if (parked) {
+                statusMonitor.vehicleOnPark(vehicle);
+            } else {
+                statusMonitor.vehicleOnUnpark(vehicle);
+            }
+        }
+    }
+
     public boolean isOnBottomRoad(){
         return map.getBottomRoad().getOnlyLane() == this.getCurrentLane();
     }
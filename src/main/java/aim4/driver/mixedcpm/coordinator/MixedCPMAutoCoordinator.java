@@ -9,6 +9,7 @@ import aim4.map.connections.Corner;
 import aim4.map.connections.Junction;
 import aim4.map.connections.SimpleIntersection;
 import aim4.map.mixedcpm.parking.AutomatedParkingRoad;
+import aim4.util.Logging;
 import aim4.vehicle.mixedcpm.MixedCPMBasicAutoVehicle;
 
 import java.util.EnumMap;
@@ -203,8 +204,8 @@ public class MixedCPMAutoCoordinator implements Coordinator {
     private void checkTimeToExit() {
         if (vehicle.getTimeUntilExit() <= 0
                 && parkingStatus != MixedCPMAutoCoordinator.ParkingStatus.EXIT) {
-            System.out.println("Vehicle " + vehicle.getVIN() +" parking time has elapsed: setting parking status to EXIT.");
-            parkingStatus = MixedCPMAutoCoordinator.ParkingStatus.EXIT;
+            Logging.debug("Vehicle " + vehicle.getVIN() +" parking time has elapsed: setting parking status to EXIT.");
+            setParkingStatus(MixedCPMAutoCoordinator.ParkingStatus.EXIT);
             drivingState = DrivingState.DEFAULT_DRIVING_BEHAVIOUR;
         }
     }
@@ -222,7 +223,7 @@ public class MixedCPMAutoCoordinator implements Coordinator {
                 setParkingStatus(MixedCPMAutoCoordinator.ParkingStatus.PARKING);
                 vehicle.setTargetLane(message);
                 vehicle.clearI2Vinbox();
-                System.out.println("Vehicle " + vehicle.getVIN() + " finding " + message.getName());
+                Logging.debug("Vehicle " + vehicle.getVIN() + " finding " + message.getName());
                 vehicle.setHasEntered();
             }
         }
@@ -315,24 +316,24 @@ public class MixedCPMAutoCoordinator implements Coordinator {
 
             if (driver.isInTargetLane()
                     && parkingStatus == MixedCPMAutoCoordinator.ParkingStatus.PARKING) {
-                System.out.println("Vehicle " + vehicle.getVIN() + " parking in " + vehicle.getTargetLane().getName());
+                Logging.debug("Vehicle " + vehicle.getVIN() + " parking in " + vehicle.getTargetLane().getName());
                 setDrivingState(MixedCPMAutoCoordinator.DrivingState.PARKING_IN_LANE);
             } else {
                 if (driver.inCorner() != null){
-                    System.out.println("Vehicle " + vehicle.getVIN() + " Entering corner.");
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " Entering corner.");
                     currentCorner = driver.inCorner();
                     vehicle.updateEstimatedDistanceTravelled(currentCorner);
                     setDrivingState(MixedCPMAutoCoordinator.DrivingState.TRAVERSING_CORNER);
                 }
                 if (driver.inJunction() != null){
                     currentJunction = driver.inJunction();
-                    System.out.println("Vehicle " + vehicle.getVIN() + " Entering junction with roads " + currentJunction.getRoads().toString());
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " Entering junction with roads " + currentJunction.getRoads().toString());
                     junctionsAlreadyTraversed.add(currentJunction);
                     vehicle.updateEstimatedDistanceTravelled(currentJunction);
                     setDrivingState(MixedCPMAutoCoordinator.DrivingState.TRAVERSING_JUNCTION);
                 }
                 if (driver.inIntersection() != null){
-                    System.out.println("Vehicle " + vehicle.getVIN() + " Entering intersection.");
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " Entering intersection.");
                     SimpleIntersection currentIntersection = driver.inIntersection();
                     vehicle.updateEstimatedDistanceTravelled(currentIntersection);
                     setDrivingState(MixedCPMAutoCoordinator.DrivingState.TRAVERSING_INTERSECTION);
@@ -357,7 +358,7 @@ public class MixedCPMAutoCoordinator implements Coordinator {
             assert driver != null;
             Corner corner = driver.inCorner();
             if (corner == null) {
-                System.out.println("Driver is now out of the corner.");
+                Logging.debug("Driver is now out of the corner.");
                 // The vehicle is out of the corner.
                 // Go back to default driving behaviour
                 currentCorner = null;
@@ -399,10 +400,10 @@ public class MixedCPMAutoCoordinator implements Coordinator {
                 junctionsAlreadyTraversed.clear();
                 if (vehicle.isInTargetLane())
                 {
-                    System.out.println("Vehicle " + vehicle.getVIN() + " has exited junction and is parking in " + vehicle.getTargetLane().getName());
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " has exited junction and is parking in " + vehicle.getTargetLane().getName());
                     setDrivingState(DrivingState.PARKING_IN_LANE);
                 } else {
-                    System.out.println("Vehicle " + vehicle.getVIN() + " is now out of the junction on road " + driver.getCurrentLane().getId());
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " is now out of the junction on road " + driver.getCurrentLane().getId());
                     //System.out.println("Vehicle " + vehicle.getVIN() + " Junction (x,y) " + junction.getCentroid().toString());
                     //System.out.println("Vehicle " + vehicle.getVIN() + " Vehicle  (x,y) " + vehicle.gaugePosition().toString());
                     setDrivingState(DrivingState.DEFAULT_DRIVING_BEHAVIOUR);
@@ -424,14 +425,14 @@ public class MixedCPMAutoCoordinator implements Coordinator {
                                 || (parkingStatus == ParkingStatus.PARKING
                                 && vehicle.getTargetLane() != null
                                 && pilot.getConnectionDepartureLane() != vehicle.getTargetLane().getOnlyLane())) {
-                            System.out.println("Vehicle " + vehicle.getVIN() + " in new junction with roads " + junction.getRoads().toString());
+                            Logging.debug("Vehicle " + vehicle.getVIN() + " in new junction with roads " + junction.getRoads().toString());
                             currentJunction = junction;
                             junctionsAlreadyTraversed.add(currentJunction);
                             vehicle.updateEstimatedDistanceTravelled(currentJunction);
                             pilot.clearDepartureLane();
                         }
                         if (!debugPrintedThisJunctionAlready) {
-                            System.out.println("Vehicle " + vehicle.getVIN() + " in junction with roads " + junction.getRoads().toString());
+                            Logging.debug("Vehicle " + vehicle.getVIN() + " in junction with roads " + junction.getRoads().toString());
                             debugPrintedThisJunctionAlready = true;
                         }
                     }
@@ -455,7 +456,7 @@ public class MixedCPMAutoCoordinator implements Coordinator {
             assert driver != null;
             SimpleIntersection intersection = driver.inIntersection();
             if (intersection == null) {
-                System.out.println("Driver is now out of the intersection.");
+                Logging.debug("Driver is now out of the intersection.");
                 // The vehicle is out of the intersection.
                 // Go back to default driving behaviour
                 pilot.clearDepartureLane();
@@ -483,14 +484,14 @@ public class MixedCPMAutoCoordinator implements Coordinator {
             assert(driver != null);
             if (vehicle.getTargetLane().getOnlyLane() ==
                     driver.getCurrentLane()){
-                parkingStatus = ParkingStatus.PARKING;
+                setParkingStatus(ParkingStatus.PARKING);
                 //vehicle.clearTargetStall();
             }
             // park
             pilot.parkInLane(parkingStatus);
             if(pilot.parkedInLane()){
-                System.out.println(String.format("Vehicle VIN %d parked", vehicle.getVIN()));
-                parkingStatus = ParkingStatus.PARKED;
+                Logging.debug(String.format("Vehicle VIN %d parked", vehicle.getVIN()));
+                setParkingStatus(ParkingStatus.PARKED);
                 setDrivingState(DrivingState.PARKED_IN_LANE);
             }
             return false;
@@ -539,8 +540,18 @@ public class MixedCPMAutoCoordinator implements Coordinator {
         return junctionsAlreadyTraversed.contains(junction);
     }
 
+    /**
+     * Set the parking status of this agent, and tell the status monitor if
+     * the vehicle has parked or is no longer parked.
+     * @param parkingStatus the new parking status for this agent.
+     */
     private void setParkingStatus(MixedCPMAutoCoordinator.ParkingStatus parkingStatus) {
+        boolean wasParked = this.parkingStatus == ParkingStatus.PARKED;
         this.parkingStatus = parkingStatus;
+        boolean isParked = parkingStatus == ParkingStatus.PARKED;
+        if (wasParked != isParked) {
+            driver.reportParked(isParked);
+        }
     }
 
     /**
@@ -10,6 +10,7 @@ import aim4.map.connections.Junction;
 import aim4.map.connections.SimpleIntersection;
 import aim4.map.lane.Lane;
 import aim4.map.mixedcpm.parking.ManualStall;
+import aim4.util.Logging;
 import aim4.vehicle.mixedcpm.MixedCPMBasicManualVehicle;
 import javafx.util.Pair;
 
@@ -207,8 +208,8 @@ public class MixedCPMManualCoordinator implements Coordinator {
     private void checkTimeToExit() {
         if (vehicle.getTimeUntilExit() <= 0
                 && parkingStatus != MixedCPMManualCoordinator.ParkingStatus.EXIT) {
-            System.out.println("Vehicle " + vehicle.getVIN() +" parking time has elapsed: setting parking status to EXIT.");
-            parkingStatus = MixedCPMManualCoordinator.ParkingStatus.EXIT;
+            Logging.debug("Vehicle " + vehicle.getVIN() +" parking time has elapsed: setting parking status to EXIT.");
+            setParkingStatus(MixedCPMManualCoordinator.ParkingStatus.EXIT);
             drivingState = MixedCPMManualCoordinator.DrivingState.EXITING_MANUAL_STALL;
         }
     }
@@ -228,7 +229,7 @@ public class MixedCPMManualCoordinator implements Coordinator {
                     setParkingStatus(MixedCPMManualCoordinator.ParkingStatus.PARKING);
                     vehicle.setTargetStall(I2Vinbox);
                     vehicle.clearI2Vinbox();
-                    System.out.println("Vehicle " + vehicle.getVIN() + " finding " + I2Vinbox.getRoad().getName() + " on parking lane " + I2Vinbox.getParkingRoad().getName());
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " finding " + I2Vinbox.getRoad().getName() + " on parking lane " + I2Vinbox.getParkingRoad().getName());
                     vehicle.setHasEntered();
                     driver.updatePathToTargetStall(path);
                 }
@@ -334,11 +335,11 @@ public class MixedCPMManualCoordinator implements Coordinator {
 
             if (driver.isInStall()
                     && parkingStatus == MixedCPMManualCoordinator.ParkingStatus.PARKING) {
-                System.out.println("Vehicle " + vehicle.getVIN() + " parking in " + vehicle.getTargetStall().getName());
+                Logging.debug("Vehicle " + vehicle.getVIN() + " parking in " + vehicle.getTargetStall().getName());
                 setDrivingState(MixedCPMManualCoordinator.DrivingState.PARKING_IN_MANUAL_STALL);
             } else {
                 if (driver.inCorner() != null){
-                    System.out.println("Vehicle " + vehicle.getVIN() + " Entering corner.");
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " Entering corner.");
                     currentCorner = driver.inCorner();
                     vehicle.updateEstimatedDistanceTravelled(currentCorner);
                     setDrivingState(MixedCPMManualCoordinator.DrivingState.TRAVERSING_CORNER);
@@ -346,7 +347,7 @@ public class MixedCPMManualCoordinator implements Coordinator {
                 if (driver.inJunction() != null){
                     if (!junctionsAlreadyTraversed.contains(driver.inJunction())) {
                         currentJunction = driver.inJunction();
-                        System.out.println("Vehicle " + vehicle.getVIN() + " Entering junction with roads " + currentJunction.getRoads().toString());
+                        Logging.debug("Vehicle " + vehicle.getVIN() + " Entering junction with roads " + currentJunction.getRoads().toString());
                         junctionsAlreadyTraversed.add(currentJunction);
                         vehicle.updateEstimatedDistanceTravelled(currentJunction);
                         setDrivingState(MixedCPMManualCoordinator.DrivingState.TRAVERSING_JUNCTION);
@@ -355,7 +356,7 @@ public class MixedCPMManualCoordinator implements Coordinator {
                     }
                 }
                 if (driver.inIntersection() != null){
-                    System.out.println("Vehicle " + vehicle.getVIN() + " Entering intersection.");
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " Entering intersection.");
                     SimpleIntersection currentIntersection = driver.inIntersection();
                     vehicle.updateEstimatedDistanceTravelled(currentIntersection);
                     setDrivingState(MixedCPMManualCoordinator.DrivingState.TRAVERSING_INTERSECTION);
@@ -380,7 +381,7 @@ public class MixedCPMManualCoordinator implements Coordinator {
             assert driver != null;
             Corner corner = driver.inCorner();
             if (corner == null) {
-                System.out.println("Driver is now out of the corner.");
+                Logging.debug("Driver is now out of the corner.");
                 // The vehicle is out of the corner.
                 // Go back to default driving behaviour
                 currentCorner = null;
@@ -422,10 +423,10 @@ public class MixedCPMManualCoordinator implements Coordinator {
                 junctionsAlreadyTraversed.clear();
                 if (vehicle.inInTargetStall())
                 {
-                    System.out.println("Vehicle " + vehicle.getVIN() + " has exited junction and is parking in " + vehicle.getTargetStall().getName());
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " has exited junction and is parking in " + vehicle.getTargetStall().getName());
                     setDrivingState(DrivingState.PARKING_IN_MANUAL_STALL);
                 } else {
-                    System.out.println("Vehicle " + vehicle.getVIN() + " is now out of the junction on road " + driver.getCurrentLane().getId());
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " is now out of the junction on road " + driver.getCurrentLane().getId());
                     //System.out.println("Vehicle " + vehicle.getVIN() + " Junction (x,y) " + junction.getCentroid().toString());
                     //System.out.println("Vehicle " + vehicle.getVIN() + " Vehicle  (x,y) " + vehicle.gaugePosition().toString());
                     setDrivingState(DrivingState.DEFAULT_DRIVING_BEHAVIOUR);
@@ -443,14 +444,14 @@ public class MixedCPMManualCoordinator implements Coordinator {
                                 || (parkingStatus == ParkingStatus.PARKING
                                 && vehicle.getTargetStall() != null
                                 && pilot.getConnectionDepartureLane() != vehicle.getTargetStall().getLane())) {
-                            System.out.println("Vehicle " + vehicle.getVIN() + " in new junction with roads " + junction.getRoads().toString());
+                            Logging.debug("Vehicle " + vehicle.getVIN() + " in new junction with roads " + junction.getRoads().toString());
                             currentJunction = junction;
                             junctionsAlreadyTraversed.add(currentJunction);
                             vehicle.updateEstimatedDistanceTravelled(currentJunction);
                             pilot.clearDepartureLane();
                         }
                         if (!debugPrintedThisJunctionAlready) {
-                            System.out.println("Vehicle " + vehicle.getVIN() + " in junction with roads " + junction.getRoads().toString());
+                            Logging.debug("Vehicle " + vehicle.getVIN() + " in junction with roads " + junction.getRoads().toString());
                             debugPrintedThisJunctionAlready = true;
                         }
                         // do nothing, keep going through the junction
@@ -460,9 +461,9 @@ public class MixedCPMManualCoordinator implements Coordinator {
                 }
                 //System.out.println("Vehicle " + vehicle.getVIN() + " actual junction is " + currentJunction.getRoads().toString());
                 /*if (pilot.getConnectionDepartureLane() != null) {
-                    System.out.println("Vehicle " + vehicle.getVIN() + " existing departure lane " + pilot.getConnectionDepartureLane().getStartPoint().toString());
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " existing departure lane " + pilot.getConnectionDepartureLane().getStartPoint().toString());
                 }else{
-                    System.out.println("Vehicle " + vehicle.getVIN() + " existing departure lane null");
+                    Logging.debug("Vehicle " + vehicle.getVIN() + " existing departure lane null");
 
                 }*/
 
@@ -486,7 +487,7 @@ public class MixedCPMManualCoordinator implements Coordinator {
             assert driver != null;
             SimpleIntersection intersection = driver.inIntersection();
             if (intersection == null) {
-                System.out.println("Driver is now out of the intersection.");
+                Logging.debug("Driver is now out of the intersection.");
                 // The vehicle is out of the intersection.
                 // Go back to default driving behaviour
                 pilot.clearDepartureLane();
@@ -514,7 +515,7 @@ public class MixedCPMManualCoordinator implements Coordinator {
             assert(driver != null);
             if (vehicle.getTargetStall().getRoad().getOnlyLane() ==
                     driver.getCurrentLane()){
-                parkingStatus = ParkingStatus.PARKING;
+                setParkingStatus(ParkingStatus.PARKING);
                 //vehicle.clearTargetStall();
             }
             // park
@@ -522,8 +523,8 @@ public class MixedCPMManualCoordinator implements Coordinator {
             if(pilot.linedUpWithStall()){
                 junctionsAlreadyTraversed.clear();
                 junctionsAlreadyTraversed.add(vehicle.getTargetStall().getJunction());
-                System.out.println(String.format("Vehicle VIN %d parked", vehicle.getVIN()));
-                parkingStatus = ParkingStatus.PARKED;
+                Logging.debug(String.format("Vehicle VIN %d parked", vehicle.getVIN()));
+                setParkingStatus(ParkingStatus.PARKED);
                 setDrivingState(DrivingState.PARKED_IN_MANUAL_STALL);
             }
             return false;
@@ -606,8 +607,18 @@ public class MixedCPMManualCoordinator implements Coordinator {
         return junctionsAlreadyTraversed.contains(junction);
     }
 
+    /**
+     * Set the parking status of this agent, and tell the status monitor if
+     * the vehicle has parked or is no longer parked.
+     * @param parkingStatus the new parking status for this agent.
+     */
     private void setParkingStatus(MixedCPMManualCoordinator.ParkingStatus parkingStatus) {
+        boolean wasParked = this.parkingStatus == ParkingStatus.PARKED;
         this.parkingStatus = parkingStatus;
+        boolean isParked = parkingStatus == ParkingStatus.PARKED;
+        if (wasParked != isParked) {
+            driver.reportParked(isParked);
+        }
     }
 
     /**
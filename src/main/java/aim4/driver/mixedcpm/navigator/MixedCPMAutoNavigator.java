@@ -8,6 +8,7 @@ import aim4.map.connections.SimpleIntersection;
 import aim4.map.lane.Lane;
 import aim4.map.lane.LineSegmentLane;
 import aim4.map.mixedcpm.parking.ManualStall;
+import aim4.util.Logging;
 import aim4.vehicle.mixedcpm.MixedCPMBasicAutoVehicle;
 import aim4.vehicle.mixedcpm.MixedCPMBasicManualVehicle;
 import aim4.driver.mixedcpm.coordinator.MixedCPMAutoCoordinator.*;
@@ -44,7 +45,7 @@ public class MixedCPMAutoNavigator {
 
                     if (connection.getExitLanes().contains(vehicle.getTargetLane().getOnlyLane())) {
                         // Want to move to next lane if it's connected to this junction
-                        System.out.println("Vehicle " + vehicle.getVIN() + " exiting junction on target AutomatedParkingRoad");
+                        Logging.debug("Vehicle " + vehicle.getVIN() + " exiting junction on target AutomatedParkingRoad");
                         return vehicle.getTargetLane().getOnlyLane();
                     } else {
                         // Otherwise we want to stay on the same road we're on
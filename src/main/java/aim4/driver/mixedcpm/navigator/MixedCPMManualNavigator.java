@@ -7,6 +7,7 @@ import aim4.map.connections.SimpleIntersection;
 import aim4.map.lane.Lane;
 import aim4.map.lane.LineSegmentLane;
 import aim4.map.mixedcpm.parking.ManualStall;
+import aim4.util.Logging;
 import aim4.vehicle.mixedcpm.MixedCPMBasicManualVehicle;
 import aim4.driver.mixedcpm.coordinator.MixedCPMManualCoordinator.*;
 
@@ -48,7 +49,7 @@ public class MixedCPMManualNavigator {
                     }*/
                     if (connection.getExitLanes().contains(nextLane)) {
                         // Want to move to next lane if it's connected to this junction
-                        System.out.println("Vehicle " + vehicle.getVIN() + " exiting junction on next lane in list");
+                        Logging.debug("Vehicle " + vehicle.getVIN() + " exiting junction on next lane in list");
                         return nextLane;
                     } else {
                         // Otherwise we want to stay on the same road we're on
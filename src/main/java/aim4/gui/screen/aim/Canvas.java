@@ -50,13 +50,18 @@ import java.awt.event.MouseWheelListener;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.imageio.ImageIO;
 import javax.swing.JPanel;
@@ -66,6 +71,8 @@ import aim4.config.Debug;
 import aim4.config.DebugPoint;
 import aim4.gui.Viewer;
 import aim4.gui.screen.SimScreen;
+import aim4.gui.screen.aim.FrameSnapshot.ColoredShape;
+import aim4.gui.screen.aim.FrameSnapshot.VehicleFrame;
 import aim4.gui.viewer.SimViewer;
 import aim4.map.BasicMap;
 import aim4.map.DataCollectionLine;
@@ -80,6 +87,11 @@ import java.io.InputStream;
 /**
  * The Canvas is the visual area on which the Layout, IntersectionManagers,
  * Vehicles, and so forth are drawn for the user to see.
+ * <p>
+ * The simulation thread does not draw on the canvas. Instead, {@link
+ * #update()} takes a {@link FrameSnapshot} of the simulator and publishes it,
+ * and the latest published frame is drawn on the event dispatch thread, so
+ * neither thread waits for the other.
  */
 public abstract class Canvas extends JPanel implements ComponentListener,
         MouseListener,
@@ -258,7 +270,30 @@ public abstract class Canvas extends JPanel implements ComponentListener,
     /**
      * Whether other threads can update the canvas via update()
      */
-    private boolean canUpdateCanvas;
+    private volatile boolean canUpdateCanvas;
+    /**
+     * The latest frame published by the simulation thread; null if there is
+     * none yet
+     */
+    private final AtomicReference<FrameSnapshot> latestFrame =
+            new AtomicReference<FrameSnapshot>();
+    /**
+     * Whether the latest frame is waiting to be drawn on the event dispatch
+     * thread
+     */
+    private final AtomicBoolean isRenderPending = new AtomicBoolean(false);
+    /**
+     * The task that draws the latest frame on the event dispatch thread
+     */
+    private final Runnable renderTask = new Runnable() {
+        @Override
+        public void run() {
+            isRenderPending.set(false);
+            if (canUpdateCanvas) {
+                updateCanvas();
+            }
+        }
+    };
     /**
      * Whether to show the simulation time on canvas
      */
@@ -591,6 +626,7 @@ public abstract class Canvas extends JPanel implements ComponentListener,
      * Clean up the canvas
      */
     public synchronized void cleanUp() {
+        latestFrame.set(null);
         paintEntireBuffer(displayBuffer, BACKGROUND_COLOR);
         for (int i = 0; i < SCALE_NUM; i++) {
             mapImageTable[i] = null;
@@ -599,26 +635,40 @@ public abstract class Canvas extends JPanel implements ComponentListener,
     }
 
     /**
-     * Update the canvas to visualize the current state of simulation.
+     * Take a snapshot of the current state of simulation and have it drawn.
+     * This must be called by the thread that steps the simulator, between
+     * steps; the drawing itself happens later on the event dispatch thread.
      */
     public void update() {
         if (canUpdateCanvas) {
-            // TODO: think how to avoid multiple calls of update() are queued here
-            // by synchronized when the the canvas is resized, rescaled, or
-            // repositioned.
-            updateCanvas();
+            Simulator sim = simViewer.getSimulator();
+            if (sim != null) {
+                latestFrame.set(createFrame(sim));
+                redraw();
+            }
+        }
+    }
+
+    /**
+     * Draw the latest frame again, e.g. after a display option has changed.
+     * The drawing happens on the event dispatch thread; requests made before
+     * it starts are merged into one.
+     */
+    public void redraw() {
+        if (isRenderPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(renderTask);
         }
     }
 
     /**
-     * Update the canvas to visualize the current state of simulation.
+     * Update the canvas to visualize the latest frame.
      */
     private synchronized void updateCanvas() {
         doUpdateCanvas();
     }
 
     /**
-     * Update the canvas to visualize the current state of simulation.
+     * Update the canvas to visualize the latest frame.
      */
     protected void doUpdateCanvas() {
         // reset the affine transform
@@ -627,7 +677,137 @@ public abstract class Canvas extends JPanel implements ComponentListener,
         paintEntireBuffer(displayBuffer, BACKGROUND_COLOR);
         // draw the map
         drawImageOnBuffer(displayBuffer, getMapImageTable(scaleIndex));
-        // Get the simulator
+        // draw the latest frame, if any
+        FrameSnapshot frame = latestFrame.get();
+        if (frame != null) {
+            drawFrame(displayBuffer, frame);
+        }
+        // Finally display the new image
+        repaint();
+    }
+
+    /**
+     * Draw a frame on the display buffer.
+     *
+     * @param buffer  the display buffer
+     * @param frame   the frame
+     */
+    protected void drawFrame(Graphics2D buffer, FrameSnapshot frame) {
+        // draw the shapes under the vehicles
+        drawColoredShapes(buffer, frame.getBackgroundShapes());
+        // draw the vehicles
+        for (VehicleFrame v : frame.getVehicles()) {
+            drawVehicle(buffer, v);
+        }
+        // draw the shapes over the vehicles
+        drawColoredShapes(buffer, frame.getForegroundShapes());
+        // draw simulation time.
+        if (isShowSimulationTime) {
+            drawSimulationTime(buffer, frame.getSimulationTime());
+        }
+        // draw the debug points
+        drawDebugPoints(buffer, frame.getDebugPoints());
+        // lastly, draw the vehicles' information string
+        for (VehicleFrame v : frame.getVehicles()) {
+            drawVehicleInfoString(buffer, v);
+        }
+    }
+
+    /////////////////////////////////
+    // FRAME CAPTURE
+    /////////////////////////////////
+
+    /**
+     * Take a snapshot of everything that is drawn of the simulator. It is
+     * called by the thread that steps the simulator.
+     *
+     * @param sim  the simulator
+     * @return the snapshot
+     */
+    protected FrameSnapshot createFrame(Simulator sim) {
+        double currentTime = sim.getSimulationTime();
+        int targetVin = Debug.getTargetVIN();
+        List<ColoredShape> backgroundShapes = new ArrayList<ColoredShape>();
+        addBackgroundShapes(sim, backgroundShapes);
+        List<VehicleFrame> vehicles = new ArrayList<VehicleFrame>();
+        for (VehicleSimModel v : getVehicles(sim)) {
+            // the vehicle's shape is updated in place, so copy it
+            Shape shape = new Path2D.Double(v.getShape());
+            Shape[] wheelShapes =
+                    (v.getVIN() == targetVin) ? v.getWheelShapes() : null;
+            vehicles.add(new VehicleFrame(v.getVIN(),
+                    shape,
+                    wheelShapes,
+                    v.getCenterPoint(),
+                    v.getHeading(),
+                    getVehicleColor(v),
+                    getVehicleInfos(v, currentTime)));
+        }
+        List<ColoredShape> foregroundShapes = new ArrayList<ColoredShape>();
+        addForegroundShapes(sim, foregroundShapes);
+        List<DebugPoint> debugPoints =
+                new ArrayList<DebugPoint>(Debug.getLongTermDebugPoints());
+        debugPoints.addAll(Debug.getShortTermDebugPoints());
+        return new FrameSnapshot(currentTime, backgroundShapes, vehicles,
+                foregroundShapes, debugPoints);
+    }
+
+    /**
+     * Get the vehicles to draw.
+     *
+     * @param sim  the simulator
+     * @return the vehicles to draw
+     */
+    protected abstract Collection<? extends VehicleSimModel> getVehicles(
+            Simulator sim);
+
+    /**
+     * Get the color to fill a vehicle with.
+     *
+     * @param vehicle  the vehicle
+     * @return the color of the vehicle
+     */
+    protected Color getVehicleColor(VehicleSimModel vehicle) {
+        if (Debug.getTargetVIN() == vehicle.getVIN()) {
+            return VEHICLE_SELECTED_COLOR;
+        } else {
+            return VEHICLE_COLOR;
+        }
+    }
+
+    /**
+     * Get the information strings to show next to a vehicle, other than its
+     * VIN.
+     *
+     * @param vehicle      the vehicle
+     * @param currentTime  the current simulated time
+     * @return the information strings
+     */
+    protected List<String> getVehicleInfos(VehicleSimModel vehicle,
+                                           double currentTime) {
+        return new LinkedList<String>();
+    }
+
+    /**
+     * Add the shapes to draw under the vehicles.
+     *
+     * @param sim     the simulator
+     * @param shapes  the list to add the shapes to
+     */
+    protected void addBackgroundShapes(Simulator sim,
+                                       List<ColoredShape> shapes) {
+        // nothing by default
+    }
+
+    /**
+     * Add the shapes to draw over the vehicles.
+     *
+     * @param sim     the simulator
+     * @param shapes  the list to add the shapes to
+     */
+    protected void addForegroundShapes(Simulator sim,
+                                       List<ColoredShape> shapes) {
+        // nothing by default
     }
 
     /**
@@ -661,23 +841,32 @@ public abstract class Canvas extends JPanel implements ComponentListener,
     }
 
     /**
-     * Draw an individual Vehicle, and any associated debug information, if this
-     * Vehicle is a debug Vehicle.
+     * Draw a list of colored shapes.
      *
-     * @param buffer       the display buffer
-     * @param vehicle      the Vehicle to draw now
-     * @param currentTime  the current simulated time
+     * @param buffer  the display buffer
+     * @param shapes  the shapes
      */
-    protected void drawVehicle(Graphics2D buffer,
-                             VehicleSimModel vehicle,
-                             double currentTime) {
-        boolean selectedVehicle = (Debug.getTargetVIN() == vehicle.getVIN());
+    private void drawColoredShapes(Graphics2D buffer,
+                                   List<ColoredShape> shapes) {
+        for (ColoredShape s : shapes) {
+            buffer.setPaint(s.getColor());
+            buffer.fill(s.getShape());
+        }
+    }
 
+    /**
+     * Draw an individual Vehicle, and its wheels if it is the debug Vehicle.
+     *
+     * @param buffer   the display buffer
+     * @param vehicle  the frame of the Vehicle to draw now
+     */
+    protected void drawVehicle(Graphics2D buffer, VehicleFrame vehicle) {
+        buffer.setPaint(vehicle.getColor());
         buffer.setStroke(VEHICLE_STROKE);
         buffer.fill(vehicle.getShape());
 
         // Draw wheels and stuff if needed
-        if (selectedVehicle) {
+        if (vehicle.getWheelShapes() != null) {
             buffer.setPaint(TIRE_COLOR);
             buffer.setStroke(TIRE_STROKE);
             for (Shape wheel : vehicle.getWheelShapes()) {
@@ -689,18 +878,17 @@ public abstract class Canvas extends JPanel implements ComponentListener,
     /**
      * Draw the information string of the vehicle on screen
      *
-     * @param buffer       the display buffer
-     * @param vehicle      the vehicle
-     * @param currentTime  the current simulated time
+     * @param buffer   the display buffer
+     * @param vehicle  the frame of the vehicle
      */
     protected void drawVehicleInfoString(Graphics2D buffer,
-                                       VehicleSimModel vehicle,
-                                       double currentTime) {
+                                         VehicleFrame vehicle) {
         java.util.List<String> infos = new LinkedList<String>();
 
         if (isShowVin) {
             infos.add(Integer.toString(vehicle.getVIN()));
         }
+        infos.addAll(vehicle.getInfos());
 
         if (infos.size() > 0) {
             Point2D centerPoint = vehicle.getCenterPoint();
@@ -968,7 +1156,11 @@ public abstract class Canvas extends JPanel implements ComponentListener,
      *
      * @param outFileName  the output file name
      */
-    public void saveScreenShot(String outFileName) {
+    public synchronized void saveScreenShot(String outFileName) {
+        // the latest frame may not have been drawn yet
+        if (canUpdateCanvas) {
+            doUpdateCanvas();
+        }
         File outfile = new File(outFileName);
         try {
             if (!ImageIO.write((BufferedImage) displayImage, "png", outfile)) {
@@ -1003,10 +1195,10 @@ public abstract class Canvas extends JPanel implements ComponentListener,
      *
      * @param vin  the VIN number of the vehicle
      */
-    public void highlightVehicle(int vin) {
-        Simulator sim = simViewer.getSimulator();
-        if (sim != null) {
-            VehicleSimModel vehicle = sim.getActiveVehicle(vin);
+    public synchronized void highlightVehicle(int vin) {
+        FrameSnapshot frame = latestFrame.get();
+        if (frame != null) {
+            VehicleFrame vehicle = frame.getVehicle(vin);
             if (vehicle != null) {
                 displayBuffer.setPaint(HIGHLIGHTED_VEHICLE_COLOR);
                 displayBuffer.setStroke(HIGHLIGHTED_VEHICLE_STROKE);
@@ -0,0 +1,204 @@
+package aim4.gui.screen.aim;
+
+import aim4.config.DebugPoint;
+
+import java.awt.Color;
+import java.awt.Shape;
+import java.awt.geom.Point2D;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable picture of the simulation at one moment, taken by the
+ * simulation thread and drawn by the {@link Canvas} on the event dispatch
+ * thread. Everything the canvas draws is copied into the snapshot, so the
+ * simulation can carry on stepping while the frame is painted.
+ */
+public final class FrameSnapshot {
+
+    /////////////////////////////////
+    // NESTED CLASSES
+    /////////////////////////////////
+
+    /**
+     * A vehicle as it is drawn in a frame.
+     */
+    public static final class VehicleFrame {
+        /** The VIN of the vehicle */
+        private final int vin;
+        /** A copy of the shape of the vehicle */
+        private final Shape shape;
+        /** The shapes of the wheels; null if they are not drawn */
+        private final Shape[] wheelShapes;
+        /** The center point of the vehicle */
+        private final Point2D centerPoint;
+        /** The heading of the vehicle */
+        private final double heading;
+        /** The color to fill the vehicle with */
+        private final Color color;
+        /** The information strings shown next to the vehicle, except its VIN */
+        private final List<String> infos;
+
+        /**
+         * Create the frame of a vehicle.
+         *
+         * @param vin          the VIN of the vehicle
+         * @param shape        a copy of the shape of the vehicle
+         * @param wheelShapes  the shapes of the wheels; null if they are not
+         *                     drawn
+         * @param centerPoint  the center point of the vehicle
+         * @param heading      the heading of the vehicle
+         * @param color        the color to fill the vehicle with
+         * @param infos        the information strings shown next to the
+         *                     vehicle, except its VIN
+         */
+        public VehicleFrame(int vin, Shape shape, Shape[] wheelShapes,
+                            Point2D centerPoint, double heading, Color color,
+                            List<String> infos) {
+            this.vin = vin;
+            this.shape = shape;
+            this.wheelShapes = wheelShapes;
+            this.centerPoint = centerPoint;
+            this.heading = heading;
+            this.color = color;
+            this.infos = Collections.unmodifiableList(infos);
+        }
+
+        public int getVIN() {
+            return vin;
+        }
+
+        public Shape getShape() {
+            return shape;
+        }
+
+        public Shape[] getWheelShapes() {
+            return wheelShapes;
+        }
+
+        public Point2D getCenterPoint() {
+            return (Point2D) centerPoint.clone();
+        }
+
+        public double getHeading() {
+            return heading;
+        }
+
+        public Color getColor() {
+            return color;
+        }
+
+        public List<String> getInfos() {
+            return infos;
+        }
+    }
+
+    /**
+     * A shape filled with a single color, such as a traffic light.
+     */
+    public static final class ColoredShape {
+        /** The shape */
+        private final Shape shape;
+        /** The color */
+        private final Color color;
+
+        /**
+         * Create a colored shape.
+         *
+         * @param shape  the shape
+         * @param color  the color
+         */
+        public ColoredShape(Shape shape, Color color) {
+            this.shape = shape;
+            this.color = color;
+        }
+
+        public Shape getShape() {
+            return shape;
+        }
+
+        public Color getColor() {
+            return color;
+        }
+    }
+
+    /////////////////////////////////
+    // PRIVATE FIELDS
+    /////////////////////////////////
+
+    /** The simulation time of the frame */
+    private final double simulationTime;
+    /** The shapes drawn under the vehicles */
+    private final List<ColoredShape> backgroundShapes;
+    /** The vehicles */
+    private final List<VehicleFrame> vehicles;
+    /** The shapes drawn over the vehicles */
+    private final List<ColoredShape> foregroundShapes;
+    /** The debug points */
+    private final List<DebugPoint> debugPoints;
+
+    /////////////////////////////////
+    // CLASS CONSTRUCTORS
+    /////////////////////////////////
+
+    /**
+     * Create a frame. The lists are kept, not copied, so they must not be
+     * changed afterwards.
+     *
+     * @param simulationTime    the simulation time of the frame
+     * @param backgroundShapes  the shapes drawn under the vehicles
+     * @param vehicles          the vehicles
+     * @param foregroundShapes  the shapes drawn over the vehicles
+     * @param debugPoints       the debug points
+     */
+    public FrameSnapshot(double simulationTime,
+                         List<ColoredShape> backgroundShapes,
+                         List<VehicleFrame> vehicles,
+                         List<ColoredShape> foregroundShapes,
+                         List<DebugPoint> debugPoints) {
+        this.simulationTime = simulationTime;
+        this.backgroundShapes = Collections.unmodifiableList(backgroundShapes);
+        this.vehicles = Collections.unmodifiableList(vehicles);
+        this.foregroundShapes = Collections.unmodifiableList(foregroundShapes);
+        this.debugPoints = Collections.unmodifiableList(debugPoints);
+    }
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    public double getSimulationTime() {
+        return simulationTime;
+    }
+
+    public List<ColoredShape> getBackgroundShapes() {
+        return backgroundShapes;
+    }
+
+    public List<VehicleFrame> getVehicles() {
+        return vehicles;
+    }
+
+    public List<ColoredShape> getForegroundShapes() {
+        return foregroundShapes;
+    }
+
+    public List<DebugPoint> getDebugPoints() {
+        return debugPoints;
+    }
+
+    /**
+     * Find a vehicle in the frame.
+     *
+     * @param vin  the VIN of the vehicle
+     * @return the frame of the vehicle; null if it is not in the frame
+     */
+    public VehicleFrame getVehicle(int vin) {
+        for (VehicleFrame vehicle : vehicles) {
+            if (vehicle.getVIN() == vin) {
+                return vehicle;
+            }
+        }
+        return null;
+    }
+}
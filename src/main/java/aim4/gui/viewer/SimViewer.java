@@ -669,10 +669,11 @@ public abstract class SimViewer extends JPanel implements
     }
 
     /**
-     * Calls update() on the canvas
+     * Calls redraw() on the canvas, to show the latest frame with the current
+     * display options
      */
     public void updateCanvas() {
-        this.canvas.update();
+        this.canvas.redraw();
     }
 
     // ///////////////////////////////
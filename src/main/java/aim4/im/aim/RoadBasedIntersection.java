@@ -30,6 +30,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.im.aim;
 
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
 import java.awt.geom.Area;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Line2D;
@@ -37,6 +39,9 @@ import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -78,6 +83,11 @@ public class RoadBasedIntersection implements Intersection {
    */
   private static final double AREA_PLUS_OFFSET = 0.000001;
 
+  /**
+   * The segment type marking the end of a written path.
+   */
+  private static final int END_OF_PATH = -1;
+
 
   /////////////////////////////////
   // PRIVATE FIELDS
@@ -201,10 +211,226 @@ public class RoadBasedIntersection implements Intersection {
     calcExitRoads();
   }
 
+  /**
+   * Create an intersection which is a translation of another intersection.
+   * The geometry of the template is moved instead of being recomputed.
+   *
+   * @param template  the intersection to translate
+   * @param roads     the roads of the new intersection, in the same order
+   *                  and with the same number of lanes as the roads of
+   *                  the template
+   * @param dx        the distance to move along the x-axis
+   * @param dy        the distance to move along the y-axis
+   */
+  private RoadBasedIntersection(RoadBasedIntersection template,
+                                List<Road> roads, double dx, double dy) {
+    this.roads = roads;
+    Map<Lane,Lane> laneMap = correspondingLanes(template.roads, roads);
+    AffineTransform translation =
+      AffineTransform.getTranslateInstance(dx, dy);
+
+    area = template.area.createTransformedArea(translation);
+    areaPlus = template.areaPlus.createTransformedArea(translation);
+    boundingBox = area.getBounds2D();
+    centroid = new Point2D.Double(template.centroid.getX() + dx,
+                                  template.centroid.getY() + dy);
+    for(Path2D edge : template.edges) {
+      edges.add(new Path2D.Double(edge, translation));
+    }
+    for(Road road : template.entryRoads) {
+      entryRoads.add(roads.get(template.roads.indexOf(road)));
+    }
+    for(Road road : template.exitRoads) {
+      exitRoads.add(roads.get(template.roads.indexOf(road)));
+    }
+    for(Lane lane : template.lanes) {
+      lanes.add(laneMap.get(lane));
+    }
+    for(Point2D p : template.points) {
+      points.add(new WayPoint(p.getX() + dx, p.getY() + dy));
+    }
+    for(Map.Entry<Lane,WayPoint> e : template.entryPoints.entrySet()) {
+      Lane lane = laneMap.get(e.getKey());
+      Point2D p = e.getValue();
+      entryPoints.put(lane, new WayPoint(p.getX() + dx, p.getY() + dy));
+      entryHeadings.put(lane, template.entryHeadings.get(e.getKey()));
+    }
+    for(Map.Entry<Lane,WayPoint> e : template.exitPoints.entrySet()) {
+      Lane lane = laneMap.get(e.getKey());
+      Point2D p = e.getValue();
+      exitPoints.put(lane, new WayPoint(p.getX() + dx, p.getY() + dy));
+      exitHeadings.put(lane, template.exitHeadings.get(e.getKey()));
+    }
+  }
+
+  /**
+   * Create an intersection from the geometry written by
+   * {@link #writeTo(DataOutput)}.
+   *
+   * @param in     the buffer to read the geometry from
+   * @param roads  the roads of the intersection, in the same order and with
+   *               the same number of lanes as the roads of the intersection
+   *               whose geometry was written
+   */
+  private RoadBasedIntersection(ByteBuffer in, List<Road> roads) {
+    this.roads = roads;
+    List<Lane> allLanes = allLanes(roads);
+    for(int i = in.getInt(); i > 0; i--) {
+      lanes.add(allLanes.get(in.getInt()));
+    }
+    for(int i = in.getInt(); i > 0; i--) {
+      Lane lane = allLanes.get(in.getInt());
+      entryPoints.put(lane, new WayPoint(in.getDouble(), in.getDouble()));
+      entryHeadings.put(lane, in.getDouble());
+    }
+    for(int i = in.getInt(); i > 0; i--) {
+      Lane lane = allLanes.get(in.getInt());
+      exitPoints.put(lane, new WayPoint(in.getDouble(), in.getDouble()));
+      exitHeadings.put(lane, in.getDouble());
+    }
+    for(int i = in.getInt(); i > 0; i--) {
+      points.add(new WayPoint(in.getDouble(), in.getDouble()));
+    }
+    centroid = new Point2D.Double(in.getDouble(), in.getDouble());
+    for(int i = in.getInt(); i > 0; i--) {
+      edges.add(readPath(in));
+    }
+    area = new Area(readPath(in));
+    areaPlus = new Area(readPath(in));
+    boundingBox = area.getBounds2D();
+    for(int i = in.getInt(); i > 0; i--) {
+      entryRoads.add(roads.get(in.getInt()));
+    }
+    for(int i = in.getInt(); i > 0; i--) {
+      exitRoads.add(roads.get(in.getInt()));
+    }
+  }
+
   /////////////////////////////////
   // PRIVATE METHODS
   /////////////////////////////////
 
+  /**
+   * Get the lanes of a list of roads, road by road.
+   *
+   * @param roads  the roads
+   * @return the lanes of the roads
+   */
+  static List<Lane> allLanes(List<Road> roads) {
+    List<Lane> allLanes = new ArrayList<Lane>();
+    for(Road road : roads) {
+      allLanes.addAll(road.getLanes());
+    }
+    return allLanes;
+  }
+
+  /**
+   * Write the segments of a shape.
+   *
+   * @param shape  the shape
+   * @param out    where to write the segments
+   * @throws IOException if the segments cannot be written
+   */
+  private static void writePath(Shape shape, DataOutput out)
+    throws IOException {
+    PathIterator iter = shape.getPathIterator(null);
+    out.writeInt(iter.getWindingRule());
+    double[] coords = new double[6];
+    for(; !iter.isDone(); iter.next()) {
+      int type = iter.currentSegment(coords);
+      out.writeInt(type);
+      for(int i = 0; i < coordinateCount(type); i++) {
+        out.writeDouble(coords[i]);
+      }
+    }
+    out.writeInt(END_OF_PATH);
+  }
+
+  /**
+   * Read the segments written by {@link #writePath(Shape, DataOutput)}.
+   *
+   * @param in  the buffer to read the segments from
+   * @return the path made of the segments
+   */
+  private static Path2D readPath(ByteBuffer in) {
+    Path2D path = new Path2D.Double(in.getInt());
+    for(int type = in.getInt(); type != END_OF_PATH; type = in.getInt()) {
+      switch(type) {
+      case PathIterator.SEG_MOVETO:
+        path.moveTo(in.getDouble(), in.getDouble());
+        break;
+      case PathIterator.SEG_LINETO:
+        path.lineTo(in.getDouble(), in.getDouble());
+        break;
+      case PathIterator.SEG_QUADTO:
+        path.quadTo(in.getDouble(), in.getDouble(),
+                    in.getDouble(), in.getDouble());
+        break;
+      case PathIterator.SEG_CUBICTO:
+        path.curveTo(in.getDouble(), in.getDouble(), in.getDouble(),
+                     in.getDouble(), in.getDouble(), in.getDouble());
+        break;
+      case PathIterator.SEG_CLOSE:
+        path.closePath();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown path segment type: " +
+                                           type);
+      }
+    }
+    return path;
+  }
+
+  /**
+   * Get the number of coordinates of a path segment.
+   *
+   * @param type  the type of the segment
+   * @return the number of coordinates
+   */
+  private static int coordinateCount(int type) {
+    switch(type) {
+    case PathIterator.SEG_MOVETO:
+    case PathIterator.SEG_LINETO:
+      return 2;
+    case PathIterator.SEG_QUADTO:
+      return 4;
+    case PathIterator.SEG_CUBICTO:
+      return 6;
+    default:
+      return 0;
+    }
+  }
+
+  /**
+   * Pair up the lanes of two lists of roads with the same arrangement: the
+   * i-th lane of the j-th road of the first list goes with the i-th lane of
+   * the j-th road of the second.
+   *
+   * @param from  the first list of roads
+   * @param to    the second list of roads
+   * @return a map from the lanes of the first list to those of the second
+   * @throws IllegalArgumentException if the roads are not arranged alike
+   */
+  static Map<Lane,Lane> correspondingLanes(List<Road> from, List<Road> to) {
+    if(from.size() != to.size()) {
+      throw new IllegalArgumentException("The intersections have different " +
+                                         "numbers of roads.");
+    }
+    Map<Lane,Lane> laneMap = new HashMap<Lane,Lane>();
+    for(int i = 0; i < from.size(); i++) {
+      List<Lane> fromLanes = from.get(i).getLanes();
+      List<Lane> toLanes = to.get(i).getLanes();
+      if(fromLanes.size() != toLanes.size()) {
+        throw new IllegalArgumentException("The intersections have roads " +
+                                           "with different numbers of lanes.");
+      }
+      for(int j = 0; j < fromLanes.size(); j++) {
+        laneMap.put(fromLanes.get(j), toLanes.get(j));
+      }
+    }
+    return laneMap;
+  }
+
   /**
    * Given a List of Roads, pull out all the individual lanes.
    *
@@ -444,6 +670,98 @@ public class RoadBasedIntersection implements Intersection {
   // PUBLIC METHODS
   /////////////////////////////////
 
+  /**
+   * Create the intersection of another set of roads whose lanes cross in the
+   * same way as the lanes of this intersection, only at a different place,
+   * such as another intersection of a grid map.  This is much faster than
+   * constructing the intersection from the roads.
+   *
+   * @param roads  the roads of the other intersection, in the same order and
+   *               with the same number of lanes as the roads of this
+   *               intersection
+   * @param dx     the x-coordinate of the other intersection relative to
+   *               this intersection
+   * @param dy     the y-coordinate of the other intersection relative to
+   *               this intersection
+   * @return the other intersection
+   * @throws IllegalArgumentException if the roads are not arranged like the
+   *                                  roads of this intersection
+   */
+  public RoadBasedIntersection translate(List<Road> roads,
+                                         double dx, double dy) {
+    return new RoadBasedIntersection(this, roads, dx, dy);
+  }
+
+  /**
+   * Write the geometry of this intersection, so that it can be read back
+   * with {@link #readFrom(ByteBuffer, List)} instead of being recomputed.
+   * Lanes and roads are written as their positions in the list of roads.
+   *
+   * @param out  where to write the geometry
+   * @throws IOException if the geometry cannot be written
+   */
+  public void writeTo(DataOutput out) throws IOException {
+    List<Lane> allLanes = allLanes(roads);
+    out.writeInt(lanes.size());
+    for(Lane lane : lanes) {
+      out.writeInt(allLanes.indexOf(lane));
+    }
+    out.writeInt(entryPoints.size());
+    for(Map.Entry<Lane,WayPoint> e : entryPoints.entrySet()) {
+      out.writeInt(allLanes.indexOf(e.getKey()));
+      out.writeDouble(e.getValue().getX());
+      out.writeDouble(e.getValue().getY());
+      out.writeDouble(entryHeadings.get(e.getKey()));
+    }
+    out.writeInt(exitPoints.size());
+    for(Map.Entry<Lane,WayPoint> e : exitPoints.entrySet()) {
+      out.writeInt(allLanes.indexOf(e.getKey()));
+      out.writeDouble(e.getValue().getX());
+      out.writeDouble(e.getValue().getY());
+      out.writeDouble(exitHeadings.get(e.getKey()));
+    }
+    out.writeInt(points.size());
+    for(Point2D p : points) {
+      out.writeDouble(p.getX());
+      out.writeDouble(p.getY());
+    }
+    out.writeDouble(centroid.getX());
+    out.writeDouble(centroid.getY());
+    out.writeInt(edges.size());
+    for(Path2D edge : edges) {
+      writePath(edge, out);
+    }
+    writePath(area, out);
+    writePath(areaPlus, out);
+    out.writeInt(entryRoads.size());
+    for(Road road : entryRoads) {
+      out.writeInt(roads.indexOf(road));
+    }
+    out.writeInt(exitRoads.size());
+    for(Road road : exitRoads) {
+      out.writeInt(roads.indexOf(road));
+    }
+  }
+
+  /**
+   * Read the geometry of an intersection written by
+   * {@link #writeTo(DataOutput)}.
+   *
+   * @param in     the buffer to read the geometry from
+   * @param roads  the roads of the intersection, in the same order and with
+   *               the same number of lanes as the roads of the intersection
+   *               whose geometry was written
+   * @return the intersection
+   * @throws java.nio.BufferUnderflowException if the buffer ends before the
+   *                                           geometry
+   * @throws IndexOutOfBoundsException if the roads have fewer lanes than
+   *                                   the written intersection
+   */
+  public static RoadBasedIntersection readFrom(ByteBuffer in,
+                                               List<Road> roads) {
+    return new RoadBasedIntersection(in, roads);
+  }
+
   /**
    * Get the Roads incident to the space governed by this intersection.
    *
@@ -530,8 +848,8 @@ public class RoadBasedIntersection implements Intersection {
    */
   private void calcEntryRoads() {
     for(Lane lane : getEntryLanes()) {
-      if (!entryRoads.contains(Debug.currentMap.getRoad(lane))) {
-        entryRoads.add(Debug.currentMap.getRoad(lane));
+      if (!entryRoads.contains(Debug.getCurrentMap().getRoad(lane))) {
+        entryRoads.add(Debug.getCurrentMap().getRoad(lane));
       }
     }
   }
@@ -595,8 +913,8 @@ public class RoadBasedIntersection implements Intersection {
 
   private void calcExitRoads() {
     for(Lane lane : getExitLanes()) {
-      if (!exitRoads.contains(Debug.currentMap.getRoad(lane))) {
-        exitRoads.add(Debug.currentMap.getRoad(lane));
+      if (!exitRoads.contains(Debug.getCurrentMap().getRoad(lane))) {
+        exitRoads.add(Debug.getCurrentMap().getRoad(lane));
       }
     }
   }
@@ -655,8 +973,8 @@ public class RoadBasedIntersection implements Intersection {
    */
   @Override
   public TurnDirection calcTurnDirection(Lane currentLane, Lane departureLane) {
-    Road currentRoad = Debug.currentMap.getRoad(currentLane);
-    Road departureRoad = Debug.currentMap.getRoad(departureLane);
+    Road currentRoad = Debug.getCurrentMap().getRoad(currentLane);
+    Road departureRoad = Debug.getCurrentMap().getRoad(departureLane);
     if(departureRoad == currentRoad) {
       return TurnDirection.STRAIGHT;
     } else if(departureRoad == currentRoad.getDual()) {
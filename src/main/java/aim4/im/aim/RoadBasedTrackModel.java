@@ -32,6 +32,9 @@ package aim4.im.aim;
 
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -151,6 +154,13 @@ public class RoadBasedTrackModel implements TrackModel {
    */
   private Set<List<Integer>> laneConflicts = new HashSet<List<Integer>>();
 
+  /**
+   * A map from the IDs of the lanes of the intersection to the IDs of the
+   * lanes used in <code>laneConflicts</code>, if the set is shared with the
+   * track model of another intersection; <code>null</code> otherwise.
+   */
+  private Map<Integer, Integer> conflictLaneIds = null;
+
 
   /////////////////////////////////
   // CLASS CONSTRUCTORS
@@ -169,6 +179,169 @@ public class RoadBasedTrackModel implements TrackModel {
     calculateLaneConflicts(); // TODO remove this function
   }
 
+  /**
+   * Write the lane priorities and lane conflicts of this track model, so
+   * that they can be read back with
+   * {@link #readFrom(ByteBuffer, RoadBasedIntersection)} instead of being
+   * recomputed.  Lanes and roads are written as their positions in the list
+   * of roads of the intersection.
+   *
+   * @param out  where to write
+   * @throws IOException if the track model cannot be written
+   */
+  public void writeTo(DataOutput out) throws IOException {
+    List<Road> roads = intersection.getRoads();
+    List<Lane> allLanes = RoadBasedIntersection.allLanes(roads);
+    out.writeInt(lanePriorities.size());
+    for(Map.Entry<Lane, Map<Road, List<Lane>>> e :
+          lanePriorities.entrySet()) {
+      out.writeInt(allLanes.indexOf(e.getKey()));
+      out.writeInt(e.getValue().size());
+      for(Map.Entry<Road, List<Lane>> f : e.getValue().entrySet()) {
+        out.writeInt(roads.indexOf(f.getKey()));
+        out.writeInt(f.getValue().size());
+        for(Lane lane : f.getValue()) {
+          out.writeInt(allLanes.indexOf(lane));
+        }
+      }
+    }
+    out.writeInt(allLanes.size());
+    long word = 0;
+    int index = 0;
+    for(Lane l11 : allLanes) {
+      for(Lane l12 : allLanes) {
+        for(Lane l21 : allLanes) {
+          for(Lane l22 : allLanes) {
+            if(trajectoriesConflict(l11.getId(), l12.getId(),
+                                    l21.getId(), l22.getId())) {
+              word |= 1L << (index % Long.SIZE);
+            }
+            index++;
+            if(index % Long.SIZE == 0) {
+              out.writeLong(word);
+              word = 0;
+            }
+          }
+        }
+      }
+    }
+    if(index % Long.SIZE != 0) {
+      out.writeLong(word);
+    }
+  }
+
+  /**
+   * Read the track model written by {@link #writeTo(DataOutput)}.
+   *
+   * @param in            the buffer to read from
+   * @param intersection  the intersection, whose roads are arranged like
+   *                      the roads of the intersection of the written
+   *                      track model
+   * @return the track model
+   * @throws java.nio.BufferUnderflowException if the buffer ends before the
+   *                                           track model
+   * @throws IllegalArgumentException if the roads have a different number
+   *                                  of lanes than those of the written
+   *                                  track model
+   */
+  public static RoadBasedTrackModel readFrom(
+      ByteBuffer in, RoadBasedIntersection intersection) {
+    return new RoadBasedTrackModel(in, intersection);
+  }
+
+  /**
+   * Create the track model of an intersection which is a translation of the
+   * intersection of another track model.  The lane conflicts are shared
+   * with the other track model.
+   *
+   * @param template      the track model of the other intersection
+   * @param intersection  the translated intersection
+   */
+  private RoadBasedTrackModel(RoadBasedTrackModel template,
+                              RoadBasedIntersection intersection) {
+    this.intersection = intersection;
+    Map<Lane, Lane> laneMap = RoadBasedIntersection.correspondingLanes(
+      template.intersection.getRoads(), intersection.getRoads());
+    List<Road> templateRoads = template.intersection.getRoads();
+    for(Map.Entry<Lane, Map<Road, List<Lane>>> e :
+          template.lanePriorities.entrySet()) {
+      Map<Road, List<Lane>> exitPriorities = new HashMap<Road, List<Lane>>();
+      for(Map.Entry<Road, List<Lane>> f : e.getValue().entrySet()) {
+        List<Lane> exitLanes = new ArrayList<Lane>(f.getValue().size());
+        for(Lane lane : f.getValue()) {
+          exitLanes.add(laneMap.get(lane));
+        }
+        exitPriorities.put(
+          intersection.getRoads().get(templateRoads.indexOf(f.getKey())),
+          exitLanes);
+      }
+      lanePriorities.put(laneMap.get(e.getKey()), exitPriorities);
+    }
+    laneConflicts = template.laneConflicts;
+    conflictLaneIds = new HashMap<Integer, Integer>();
+    for(Map.Entry<Lane, Lane> e : laneMap.entrySet()) {
+      int templateId = e.getKey().getId();
+      if(template.conflictLaneIds != null) {
+        templateId = template.conflictLaneIds.get(templateId);
+      }
+      conflictLaneIds.put(e.getValue().getId(), templateId);
+    }
+  }
+
+  /**
+   * Create a track model from the lane priorities and conflicts written by
+   * {@link #writeTo(DataOutput)}.
+   *
+   * @param in            the buffer to read from
+   * @param intersection  the intersection, whose roads are arranged like
+   *                      the roads of the intersection of the written
+   *                      track model
+   */
+  private RoadBasedTrackModel(ByteBuffer in,
+                              RoadBasedIntersection intersection) {
+    this.intersection = intersection;
+    List<Road> roads = intersection.getRoads();
+    List<Lane> allLanes = RoadBasedIntersection.allLanes(roads);
+    for(int i = in.getInt(); i > 0; i--) {
+      Lane entryLane = allLanes.get(in.getInt());
+      Map<Road, List<Lane>> exitPriorities = new HashMap<Road, List<Lane>>();
+      for(int j = in.getInt(); j > 0; j--) {
+        Road exitRoad = roads.get(in.getInt());
+        int n = in.getInt();
+        List<Lane> exitLanes = new ArrayList<Lane>(n);
+        for(int k = 0; k < n; k++) {
+          exitLanes.add(allLanes.get(in.getInt()));
+        }
+        exitPriorities.put(exitRoad, exitLanes);
+      }
+      lanePriorities.put(entryLane, exitPriorities);
+    }
+    int n = in.getInt();
+    if(n != allLanes.size()) {
+      throw new IllegalArgumentException("The lane conflicts are for " + n +
+                                         " lanes, not " + allLanes.size());
+    }
+    // the conflicts are a bit set over the 4-tuples of lanes
+    long word = 0;
+    int index = 0;
+    for(Lane l11 : allLanes) {
+      for(Lane l12 : allLanes) {
+        for(Lane l21 : allLanes) {
+          for(Lane l22 : allLanes) {
+            if(index % Long.SIZE == 0) {
+              word = in.getLong();
+            }
+            if((word & (1L << (index % Long.SIZE))) != 0) {
+              laneConflicts.add(Arrays.asList(l11.getId(), l12.getId(),
+                                              l21.getId(), l22.getId()));
+            }
+            index++;
+          }
+        }
+      }
+    }
+  }
+
   /////////////////////////////////
   // PRIVATE METHODS
   /////////////////////////////////
@@ -315,6 +488,23 @@ public class RoadBasedTrackModel implements TrackModel {
   // PUBLIC METHODS
   /////////////////////////////////
 
+  /**
+   * Create the track model of an intersection which is a translation of the
+   * intersection of this track model, such as one made by
+   * {@link RoadBasedIntersection#translate(List, double, double)}.  Instead
+   * of being recomputed, the lane priorities are carried over and the lane
+   * conflicts are shared.
+   *
+   * @param intersection  the translated intersection
+   * @return the track model of the translated intersection
+   * @throws IllegalArgumentException if the roads of the intersection are
+   *                                  not arranged like the roads of this
+   *                                  track model's intersection
+   */
+  public RoadBasedTrackModel translate(RoadBasedIntersection intersection) {
+    return new RoadBasedTrackModel(this, intersection);
+  }
+
 
   /**
    * Get the intersection managed by this track model
@@ -354,6 +544,11 @@ public class RoadBasedTrackModel implements TrackModel {
    */
   @Override
   public boolean trajectoriesConflict(int l11, int l12, int l21, int l22) {
+    if(conflictLaneIds != null) {
+      Integer[] ids = { conflictLaneIds.get(l11), conflictLaneIds.get(l12),
+                        conflictLaneIds.get(l21), conflictLaneIds.get(l22) };
+      return laneConflicts.contains(Arrays.asList(ids));
+    }
     List<Integer> lookupKey = Arrays.asList(l11, l12, l21, l22);
     return laneConflicts.contains(lookupKey);
   }
@@ -414,8 +609,8 @@ public class RoadBasedTrackModel implements TrackModel {
   @Override
   public double traversalDistance(int arrivalID, int departureID) {
     List<Integer> key = Arrays.asList(arrivalID, departureID);
-    Lane arrival = Debug.currentMap.getLaneRegistry().get(arrivalID);
-    Lane departure = Debug.currentMap.getLaneRegistry().get(departureID);
+    Lane arrival = Debug.getCurrentMap().getLaneRegistry().get(arrivalID);
+    Lane departure = Debug.getCurrentMap().getLaneRegistry().get(departureID);
     return traversalDistance(arrival, departure);
   }
 
@@ -213,7 +213,7 @@ public class ApproxStopSignRequestHandler implements RequestHandler {
    * @return whether the vehicle can enter the intersection
    */
   private boolean canEnterFromLane(int laneId) {
-    Road road = Debug.currentMap.getRoad(laneId);
+    Road road = Debug.getCurrentMap().getRoad(laneId);
     String roadName = road.getName();
 
     if (nextRoadName != null) {
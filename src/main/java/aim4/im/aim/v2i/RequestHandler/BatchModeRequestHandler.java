@@ -41,6 +41,10 @@ import java.util.List;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import aim4.config.Debug;
 import aim4.im.aim.v2i.batch.ReorderingStrategy;
@@ -52,6 +56,7 @@ import aim4.msg.aim.i2v.Reject;
 import aim4.msg.aim.i2v.Reject.Reason;
 import aim4.msg.aim.v2i.Request;
 import aim4.msg.aim.v2i.Request.Proposal;
+import aim4.sim.SimContext;
 import aim4.sim.StatCollector;
 import aim4.util.Util;
 
@@ -346,6 +351,14 @@ public class BatchModeRequestHandler implements RequestHandler {
    */
   private RequestStatCollector requestSC = null;
 
+  // parallel evaluation
+
+  /**
+   * The pool on which the proposals of a batch are evaluated; null if they
+   * are evaluated one by one.
+   */
+  private ForkJoinPool evaluationPool = null;
+
   // Debug
 
   /**
@@ -381,6 +394,27 @@ public class BatchModeRequestHandler implements RequestHandler {
     nextIndexedProposalId = 0;
   }
 
+  /**
+   * Create a batch mode request handler that evaluates the proposals of
+   * each batch in parallel.  All proposals of a batch are evaluated against
+   * the reservations made before the batch; they are then confirmed or
+   * rejected one by one in the order given by the reordering strategy,
+   * and a feasible proposal is checked again if an earlier proposal in the
+   * batch has been confirmed.  The confirmed and rejected proposals are the
+   * same as those of the sequential evaluation.
+   *
+   * @param reorderingStrategy  the reorder strategy
+   * @param requestSC           the request statistic collector
+   * @param evaluationPool      the pool on which the proposals are
+   *                            evaluated; null to evaluate them one by one
+   */
+  public BatchModeRequestHandler(ReorderingStrategy reorderingStrategy,
+                                 RequestStatCollector requestSC,
+                                 ForkJoinPool evaluationPool) {
+    this(reorderingStrategy, requestSC);
+    this.evaluationPool = evaluationPool;
+  }
+
 
   /////////////////////////////////
   // PUBLIC METHODS
@@ -528,14 +562,95 @@ public class BatchModeRequestHandler implements RequestHandler {
 
     // confirm or reject the proposals in the batch according to
     // the new ordering
-    for(IndexedProposal iProposal : batch) {
-      tryReserve(iProposal);
-      vinInBatch.add(iProposal.getRequest().getVin());
+    if (evaluationPool == null || batch.size() <= 1) {
+      for(IndexedProposal iProposal : batch) {
+        tryReserve(iProposal);
+        vinInBatch.add(iProposal.getRequest().getVin());
+      }
+    } else {
+      List<ReserveParam> reserveParams = findReserveParamsInParallel(batch);
+      // the reservations made so far in this batch may invalidate a
+      // feasible reservation parameter, but can never make an infeasible
+      // one feasible.
+      boolean hasConfirmed = false;
+      Iterator<ReserveParam> iter = reserveParams.iterator();
+      for(IndexedProposal iProposal : batch) {
+        ReserveParam reserveParam = iter.next();
+        if (reserveParam != null && hasConfirmed) {
+          reserveParam = basePolicy.recheckReserveParam(reserveParam);
+        }
+        if (confirmOrReject(iProposal, reserveParam)) {
+          hasConfirmed = true;
+        }
+        vinInBatch.add(iProposal.getRequest().getVin());
+      }
     }
 
     return vinInBatch;
   }
 
+  /**
+   * Compute the reservation parameter of an indexed proposal.
+   *
+   * @param iProposal  the indexed proposal
+   * @return the reservation parameter; null if the reservation is infeasible.
+   */
+  private ReserveParam findReserveParam(IndexedProposal iProposal) {
+    List<Proposal> l = new ArrayList<Proposal>(1);
+    l.add(iProposal.getProposal());
+    return basePolicy.findReserveParam(iProposal.getRequest(), l);
+  }
+
+  /**
+   * Compute the reservation parameters of the indexed proposals in a batch
+   * on the evaluation pool, against the current reservations.
+   *
+   * @param batch  the indexed proposals in the batch
+   * @return the reservation parameters, in the order of the batch; an
+   *         element is null if the reservation is infeasible.
+   */
+  private List<ReserveParam> findReserveParamsInParallel(
+                                               List<IndexedProposal> batch) {
+    // the internal simulation looks up lanes in the simulation's context
+    final SimContext context = SimContext.current();
+    List<Callable<ReserveParam>> tasks =
+      new ArrayList<Callable<ReserveParam>>(batch.size());
+    for(final IndexedProposal iProposal : batch) {
+      tasks.add(new Callable<ReserveParam>() {
+        @Override
+        public ReserveParam call() {
+          SimContext previous = context.enter();
+          try {
+            return findReserveParam(iProposal);
+          } finally {
+            SimContext.restore(previous);
+          }
+        }
+      });
+    }
+    List<ReserveParam> reserveParams =
+      new ArrayList<ReserveParam>(batch.size());
+    for(Future<ReserveParam> future : evaluationPool.invokeAll(tasks)) {
+      try {
+        reserveParams.add(future.get());
+      } catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("BatchModeRequestHandler: interrupted " +
+                                   "while evaluating a batch.", e);
+      } catch(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+          throw (Error) cause;
+        } else {
+          throw new RuntimeException(cause);
+        }
+      }
+    }
+    return reserveParams;
+  }
+
   /**
    * Try to make a reservation for a proposal and send the confirm message.
    * If no reservation is possible, send the reject message.
@@ -543,10 +658,22 @@ public class BatchModeRequestHandler implements RequestHandler {
    * @param iProposal  the indexed proposal
    */
   private void tryReserve(IndexedProposal iProposal){
-    List<Proposal> l = new ArrayList<Proposal>(1);
-    l.add(iProposal.getProposal());
+    confirmOrReject(iProposal, findReserveParam(iProposal));
+  }
+
+  /**
+   * Make a reservation for a proposal and send the confirm message if its
+   * reservation parameter is feasible.  Otherwise, drop the proposal and
+   * send the reject message if no proposal of its request is left.
+   *
+   * @param iProposal     the indexed proposal
+   * @param reserveParam  the reservation parameter of the proposal; null if
+   *                      the reservation is infeasible
+   * @return whether the reservation has been made
+   */
+  private boolean confirmOrReject(IndexedProposal iProposal,
+                                  ReserveParam reserveParam) {
     Request msg = iProposal.getRequest();
-    ReserveParam reserveParam = basePolicy.findReserveParam(msg, l);
     if (reserveParam != null) {
       basePolicy.sendConfirmMsg(msg.getRequestId(), reserveParam);
       // Remove a set of indexed proposals (including the given one)
@@ -554,6 +681,7 @@ public class BatchModeRequestHandler implements RequestHandler {
       for(IndexedProposal iProposal2 : iProposal.getProposalGroup()) {
         queue.remove(iProposal2); // efficient enough since queue is a TreeSet.
       }
+      return true;
     } else {
       // remove the indexed proposal from the queue.
       queue.remove(iProposal);
@@ -572,6 +700,7 @@ public class BatchModeRequestHandler implements RequestHandler {
                                    "error: unable to remove an indexed " +
                                    "proposal.");
       }
+      return false;
     }
   }
 
@@ -164,15 +164,38 @@ public class V2IManager extends IntersectionManager
                     double currentTime,
                     ReservationGridManager.Config config,
                     Registry<IntersectionManager> registry) {
+    this(intersection, trackModel,
+         new TiledArea(intersection.getArea(), config.getGranularity()),
+         currentTime, config, registry);
+  }
+
+  /**
+   * Construct a new V2IManager with a given tiling of the intersection, such
+   * as one copied from a translation of the intersection.
+   *
+   * @param intersection  an intersection
+   * @param trackModel    a path model of the intersection
+   * @param tiledArea     the tiled area of the intersection, with tiles of
+   *                      the granularity of the configuration
+   * @param currentTime   the current time
+   * @param config        the configuration of the reservation grid manager
+   * @param registry      an intersection manager registry
+   */
+  public V2IManager(Intersection intersection,
+                    TrackModel trackModel,
+                    TiledArea tiledArea,
+                    double currentTime,
+                    ReservationGridManager.Config config,
+                    Registry<IntersectionManager> registry) {
     // Use the superclass's constructor to set up all the physical
     // properties of the intersection
     super(intersection, trackModel, currentTime, registry);
     // Set up the reservation grid
-    this.tiledArea = new TiledArea(intersection.getArea(),
-                                   config.getGranularity());
+    this.tiledArea = tiledArea;
     this.reservationGrid = new ReservationGrid(tiledArea.getXNum(),
                                                tiledArea.getYNum(),
-                                               config.getGridTimeStep());
+                                               config.getGridTimeStep(),
+                                               config.getReservationStorage());
     this.reservationGridManager = new ReservationGridManager(config,
                                                              intersection,
                                                              tiledArea,
@@ -507,6 +507,13 @@ public final class BasePolicy implements Policy, ExtendedBasePolicyCallback {
     AczManager aczManager = null;
     AczManager.Plan aczPlan = null;
 
+    // Check the proposals against bitsets of the reserved tiles, if enabled
+    ReservationGridManager gridManager = im.getReservationGridManager();
+    ReservationGridManager.ProposalSearch search =
+      gridManager.getConfig().getIsProposalSearchEnabled()
+      ? gridManager.newProposalSearch()
+      : null;
+
     for(Request.Proposal proposal : proposals) {
       ReservationGridManager.Query gridQuery =
         new ReservationGridManager.Query(vin,
@@ -517,7 +524,11 @@ public final class BasePolicy implements Policy, ExtendedBasePolicyCallback {
                                          msg.getSpec(),
                                          proposal.getMaximumTurnVelocity(),
                                          true);
-      gridPlan = im.getReservationGridManager().query(gridQuery);
+      if (search != null) {
+        gridPlan = search.query(gridQuery);
+      } else {
+        gridPlan = gridManager.query(gridQuery);
+      }
       if (gridPlan != null) {
         double stopDist =
           VehicleUtil.calcDistanceToStop(gridPlan.getExitVelocity(),
@@ -554,6 +565,41 @@ public final class BasePolicy implements Policy, ExtendedBasePolicyCallback {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ReserveParam recheckReserveParam(ReserveParam reserveParam) {
+    // the grid query fails if and only if one of the time-tiles it found
+    // has been reserved
+    ReservationGrid grid = im.getReservationGrid();
+    for(ReservationGrid.TimeTile tt :
+          reserveParam.getGridPlan().getWorkingList()) {
+      if (grid.isReserved(tt.getDiscreteTime(), tt.getTileId())) {
+        return null;
+      }
+    }
+    // the ACZ may have been filled up in the meantime
+    Plan gridPlan = reserveParam.getGridPlan();
+    AczManager.Plan aczPlan = reserveParam.getAczPlan();
+    AczManager.Query aczQuery =
+      new AczManager.Query(reserveParam.getVin(),
+                           gridPlan.getExitTime(),
+                           gridPlan.getExitVelocity(),
+                           aczPlan.getLength(),
+                           aczPlan.getStopDist());
+    aczPlan = reserveParam.getAczManager().query(aczQuery);
+    if (aczPlan != null) {
+      return new ReserveParam(reserveParam.getVin(),
+                              reserveParam.getSuccessfulProposal(),
+                              gridPlan,
+                              reserveParam.getAczManager(),
+                              aczPlan);
+    } else {
+      return null;
+    }
+  }
+
   /**
    * {@inheritDoc}
    */
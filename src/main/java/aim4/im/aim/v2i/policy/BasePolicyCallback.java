@@ -69,6 +69,18 @@ public interface BasePolicyCallback {
    */
   ReserveParam findReserveParam(Request msg, List<Request.Proposal> proposals);
 
+  /**
+   * Check whether a reservation parameter computed by
+   * {@link #findReserveParam(Request, List)} is still feasible after other
+   * reservations have been made.  Gives the same result as computing the
+   * reservation parameter of its successful proposal again.
+   *
+   * @param reserveParam  the reservation parameter
+   * @return the reservation parameter; null if the reservation is no longer
+   *         feasible.
+   */
+  ReserveParam recheckReserveParam(ReserveParam reserveParam);
+
   /**
    * Get the current time
    *
@@ -31,32 +31,35 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package aim4.im.aim.v2i.reservation;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.NavigableMap;
-import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.TreeMap;
 
 /**
  * The Reservation Array.
  */
 public class ReservationArray {
 
-  /////////////////////////////////
-  // CONSTANTS
-  /////////////////////////////////
-
-  private static final boolean SHOULD_CHECK_CONSISTENCY = false;
-
   /////////////////////////////////
   // PUBLIC NESTED CLASSES
   /////////////////////////////////
 
+  /**
+   * The ways the reserved time-tiles can be stored.
+   */
+  public enum Storage {
+    /**
+     * A grid per reserved discrete time in a sorted map, with sorted maps
+     * from times to reservation IDs to tile IDs and back.
+     */
+    TREE_MAP,
+    /**
+     * A ring buffer of primitive grids indexed by discrete time, with a
+     * primitive list of time-tiles per reservation ID. Cheaper to update,
+     * at the cost of allocating grids for the whole reservation horizon.
+     */
+    RING_BUFFER
+  }
+
   /**
    * The smallest unit of space-time in the FCFS policy.  This
    * keeps track of both a ReservationTile and a discrete time,
@@ -131,21 +134,9 @@ public class ReservationArray {
   private final int numOfTiles;
 
   /**
-   * The grid table, a mapping from discrete times to grids.
+   * The reserved time-tiles.
    */
-  private NavigableMap<Integer, int[]> grids;
-
-  /**
-   * A mapping from discrete times to mappings from reservation IDs to
-   * the tile IDs that is reserved by the vehicle at the time.
-   */
-  private NavigableMap<Integer,Map<Integer,Set<Integer>>> timeToRidToTid;
-
-  /**
-   * A mapping from reservation IDs to mappings from discrete times to
-   * the tile IDs that is reserved by the vehicle at the time.
-   */
-  private Map<Integer,NavigableMap<Integer,Set<Integer>>> ridToTimeToTid;
+  private final TimeTileStore store;
 
 
   /////////////////////////////////
@@ -158,10 +149,27 @@ public class ReservationArray {
    * @param numOfTiles  The number of tiles in the intersection
    */
   public ReservationArray(int numOfTiles) {
+    this(numOfTiles, Storage.TREE_MAP, 0);
+  }
+
+  /**
+   * Create a new reservation system with the given storage.
+   *
+   * @param numOfTiles  The number of tiles in the intersection
+   * @param storage     how the reserved time-tiles are stored
+   * @param horizon     the number of discrete times reservations are
+   *                    expected to span; the ring buffer storage is sized
+   *                    for it and grows beyond it if needed
+   */
+  public ReservationArray(int numOfTiles, Storage storage, int horizon) {
     this.numOfTiles = numOfTiles;
-    grids = new TreeMap<Integer, int[]>();
-    timeToRidToTid = new TreeMap<Integer,Map<Integer,Set<Integer>>>();
-    ridToTimeToTid = new HashMap<Integer,NavigableMap<Integer,Set<Integer>>>();
+    switch(storage) {
+    case RING_BUFFER:
+      store = new RingBufferTimeTileStore(numOfTiles, horizon);
+      break;
+    default:
+      store = new MapTimeTileStore(numOfTiles);
+    }
   }
 
 
@@ -183,11 +191,7 @@ public class ReservationArray {
    * @param tid  the tile ID
    */
   public boolean isReserved(int dt, int tid) {
-    if (grids.containsKey(dt)) {
-      return grids.get(dt)[tid] >= 0;
-    } else {
-      return false;
-    }
+    return store.isReserved(dt, tid);
   }
 
   /**
@@ -198,11 +202,7 @@ public class ReservationArray {
    * @return the reservation ID; -1 if the reservation ID does not exist
    */
   public int getReservationId(int dt, int tid) {
-    if (grids.containsKey(dt)) {
-      return grids.get(dt)[tid];
-    } else {
-      return -1;
-    }
+    return store.getReservationId(dt, tid);
   }
 
   /**
@@ -212,7 +212,7 @@ public class ReservationArray {
    * @return whether the reservation ID exists
    */
   public boolean hasReservation(int rid) {
-    return ridToTimeToTid.containsKey(rid);
+    return store.hasReservation(rid);
   }
 
   /**
@@ -222,11 +222,7 @@ public class ReservationArray {
    *         -1 if there is currently no reservation.
    */
   public int getLastReservedDiscreteTime() {
-    try {
-      return grids.lastKey();
-    } catch(NoSuchElementException e) {
-      return -1;
-    }
+    return store.getLastReservedDiscreteTime();
   }
 
   /**
@@ -237,20 +233,14 @@ public class ReservationArray {
    *         less than zero if the reservation id does not exist
    */
   public int getLastReservedDiscreteTime(int rid) {
-    if (ridToTimeToTid.containsKey(rid)) {
-      try {
-        return ridToTimeToTid.get(rid).lastKey();
-      } catch(NoSuchElementException e) {
-        return -1;
-      }
-    } else {
-      return -1;
-    }
+    return store.getLastReservedDiscreteTime(rid);
   }
 
   /**
    * Make the reservation of a set of time-tiles with a given reservation id.
    * If the reservation is not successful, no time-tiles will be reserved.
+   * Time-tiles before the earliest discrete time that currently has a
+   * reservation are ignored.
    *
    * @param rid          the reservation ID
    * @param workingList  a collection of time-tiles to be reserved
@@ -258,68 +248,7 @@ public class ReservationArray {
    * @return whether the reservation is successful
    */
   public boolean reserve(int rid, Collection<? extends TimeTile> workingList) {
-    // check to see if any time-tile is reserved in the past
-    for(TimeTile tt : workingList) {
-      int dt = tt.getDiscreteTime();
-      if (grids.containsKey(dt) && grids.get(dt)[tt.getTileId()] >= 0) {
-        return false; // the time-tile has been reserved.
-      }
-    }
-
-    // actually make the reservation
-    int timeBegin = 0;
-    try {
-      timeBegin = grids.firstKey();
-    } catch(NoSuchElementException e) {
-      // It means the grid is empty. All time-tiles are acceptable.
-    }
-
-    for(TimeTile tt : workingList) {
-      int dt = tt.getDiscreteTime();
-      int tid = tt.getTileId();
-
-      if (dt >= timeBegin) {
-        // update grids;
-        int[] grid = grids.get(dt);
-        if (grid == null) {
-          grid = new int[numOfTiles];
-          for(int i=0; i<numOfTiles; i++) { // initialize the grid
-            grid[i] = -1;
-          }
-          grids.put(dt, grid);
-        }
-        grid[tid] = rid;
-
-        // update timeToRidToTid
-        Map<Integer,Set<Integer>> ridToTid = timeToRidToTid.get(dt);
-        if (ridToTid == null) {
-          ridToTid = new HashMap<Integer,Set<Integer>>();
-          timeToRidToTid.put(dt, ridToTid);
-        }
-        Set<Integer> tidSet = ridToTid.get(rid);
-        if (tidSet == null) {
-          tidSet = new HashSet<Integer>();
-          ridToTid.put(rid, tidSet);
-        }
-        tidSet.add(tid);
-
-        // update ridToTimeToTid
-        NavigableMap<Integer,Set<Integer>> timeToTid =
-          ridToTimeToTid.get(rid);
-        if (timeToTid == null) {
-          timeToTid = new TreeMap<Integer,Set<Integer>>();
-          ridToTimeToTid.put(rid, timeToTid);
-        }
-        tidSet = timeToTid.get(dt);
-        if (tidSet == null) {
-          tidSet = new HashSet<Integer>();
-          timeToTid.put(dt, tidSet);
-        }
-        tidSet.add(tid);
-      }  // else ignore timetile that is before timeBegin
-    }
-    assert (!SHOULD_CHECK_CONSISTENCY) || checkConsistency();
-    return true;
+    return store.reserve(rid, workingList);
   }
 
   /**
@@ -329,27 +258,7 @@ public class ReservationArray {
    * @return whether the cancellation is successful
    */
   public boolean cancel(int rid) {
-    // remove elements in ridToTimeToTid
-    NavigableMap<Integer,Set<Integer>> timeToTid = ridToTimeToTid.remove(rid);
-    if (timeToTid != null) {
-      for(int dt : timeToTid.keySet()) {
-        // remove elements in timeToRidToTid
-        if (timeToRidToTid.containsKey(dt)) {
-          timeToRidToTid.get(dt).remove(rid);
-        }
-        // remove time-tiles in grids
-        if (grids.containsKey(dt)) {
-          int[] grid = grids.get(dt);
-          for(int tid : timeToTid.get(dt)) {
-            grid[tid] = -1;
-          }
-        }
-      }
-      assert (!SHOULD_CHECK_CONSISTENCY) || checkConsistency();
-      return true;
-    } else {
-      return false; // the rid is not found
-    }
+    return store.cancel(rid);
   }
 
   /**
@@ -358,37 +267,7 @@ public class ReservationArray {
    * @param dt  the discrete time before which the reservations will be removed.
    */
   public void cleanUp(int dt) {
-    // clean up grids and timeToRidToTid
-    try {
-      while(grids.firstKey() < dt) {
-        int dt1 = grids.firstKey();
-        grids.remove(dt1);
-        timeToRidToTid.remove(dt1);
-      }
-    } catch(NoSuchElementException e) {
-      // do nothing
-    }
-
-    List<Integer> removeRid = new LinkedList<Integer>();
-    for(int rid : ridToTimeToTid.keySet()){
-      NavigableMap<Integer,Set<Integer>> timeToTid = ridToTimeToTid.get(rid);
-      try {
-        while(timeToTid.firstKey() < dt) {
-          timeToTid.remove(timeToTid.firstKey());
-        }
-      } catch(NoSuchElementException e) {
-        // do nothing
-      }
-      if (timeToTid.isEmpty()) {
-        removeRid.add(rid);
-      }
-    }
-
-    for(int rid : removeRid) {
-      ridToTimeToTid.remove(rid);
-    }
-
-    assert (!SHOULD_CHECK_CONSISTENCY) || checkConsistency();
+    store.cleanUp(dt);
   }
 
   /**
@@ -398,89 +277,30 @@ public class ReservationArray {
    * @return the list of tile IDs that are reserved at the given discrete time.
    */
   public List<Integer> getReservedTilesAtTime(int dt) {
-    Map<Integer,Set<Integer>> ridToTid = timeToRidToTid.get(dt);
-    if (ridToTid != null) {
-      List<Integer> dts = new LinkedList<Integer>();
-      for(int rid : ridToTid.keySet()) {
-        dts.addAll(ridToTid.get(rid));
-      }
-      return dts;
-    } else {
-      return new LinkedList<Integer>(); // return an empty list
-    }
+    return store.getReservedTilesAtTime(dt);
   }
 
   /**
-   * Get the VINs of all reserved tiles at a given discrete time.
+   * Set the bits of the tiles reserved at a given discrete time in a bitset
+   * over tile IDs, where tile {@code tid} is bit {@code tid % 64} of word
+   * {@code tid / 64}. The bitset is cleared first.
    *
-   * @param dt  the discrete time
-   * @return a set of reservation IDs.
+   * @param dt     the discrete time
+   * @param words  the bitset; at least {@code (getNumberOfTiles() + 63) / 64}
+   *               words long
+   * @return whether any tile is reserved at the given discrete time
    */
-  public Set<Integer> getVinOfReservedTilesAtTime(int dt) {
-    Map<Integer,Set<Integer>> ridToTid = timeToRidToTid.get(dt);
-    if (ridToTid != null) {
-      return Collections.unmodifiableSet(ridToTid.keySet());
-    } else {
-      return new HashSet<Integer>(); // return an empty list
-    }
+  public boolean fillReservedTileMask(int dt, long[] words) {
+    return store.fillReservedTileMask(dt, words);
   }
 
-
-  /////////////////////////////////
-  // DEBUG
-  /////////////////////////////////
-
   /**
-   * Check whether the array are consistent
+   * Get the VINs of all reserved tiles at a given discrete time.
+   *
+   * @param dt  the discrete time
+   * @return a set of reservation IDs.
    */
-  private boolean checkConsistency() {
-    for(int dt : grids.keySet()) {
-      int[] tids = grids.get(dt);
-      for(int tid=0; tid < numOfTiles; tid++) {
-        int rid = tids[tid];
-        if (rid >= 0) {
-          assert timeToRidToTid.get(dt) != null;
-          assert timeToRidToTid.get(dt).get(rid) != null;
-          if (!timeToRidToTid.get(dt).get(rid).contains(tid)) {
-            throw new RuntimeException("ReservationArray::checkConsistency():" +
-                                       "grids > timeToRidToTid");
-          }
-          assert ridToTimeToTid.get(rid) != null;
-          assert ridToTimeToTid.get(rid).get(dt) != null;
-          if (!ridToTimeToTid.get(rid).get(dt).contains(tid)) {
-            throw new RuntimeException("ReservationArray::checkConsistency():" +
-                                       "grids > ridToTimeToTid");
-          }
-        }
-      }
-    }
-
-    for(int dt : timeToRidToTid.keySet()) {
-      Map<Integer,Set<Integer>> ridToTid = timeToRidToTid.get(dt);
-      for(int rid : ridToTid.keySet()) {
-        for(int tid : ridToTid.get(rid)) {
-          if (grids.get(dt)[tid] != rid) {
-            throw new RuntimeException("ReservationArray::checkConsistency():" +
-                                        "timeToRidToTid > grids");
-
-          }
-        }
-      }
-    }
-
-    for(int rid : ridToTimeToTid.keySet()) {
-      NavigableMap<Integer,Set<Integer>> timeToTid = ridToTimeToTid.get(rid);
-      for(int dt : timeToTid.keySet()) {
-        for(int tid : timeToTid.get(dt)) {
-          if (grids.get(dt)[tid] != rid) {
-            throw new RuntimeException("ReservationArray::checkConsistency():" +
-                                        "ridToTimeToTid > grids");
-
-          }
-        }
-      }
-    }
-    return true;
+  public Set<Integer> getVinOfReservedTilesAtTime(int dt) {
+    return store.getVinOfReservedTilesAtTime(dt);
   }
 }
-
@@ -34,6 +34,7 @@ import java.util.List;
 import java.util.Set;
 
 import aim4.config.Constants;
+import aim4.im.aim.v2i.V2IManager;
 
 /**
  * The reservation grid.
@@ -120,7 +121,26 @@ public class ReservationGrid extends ReservationArray {
    * @param gridTimeStep  the time step.
    */
   public ReservationGrid(int xNum, int yNum, double gridTimeStep) {
-    super(xNum * yNum);
+    this(xNum, yNum, gridTimeStep, Storage.TREE_MAP);
+  }
+
+  /**
+   * Create a reservation grid with the given storage. The ring buffer
+   * storage is sized for reservations up to
+   * {@link V2IManager#MAXIMUM_FUTURE_RESERVATION_TIME} ahead plus the
+   * reservations kept between two clean ups.
+   *
+   * @param xNum          the number of time tiles in the x direction
+   * @param yNum          the number of time tiles in the y direction
+   * @param gridTimeStep  the time step.
+   * @param storage       how the reserved time-tiles are stored
+   */
+  public ReservationGrid(int xNum, int yNum, double gridTimeStep,
+                         Storage storage) {
+    super(xNum * yNum, storage,
+          (int)Math.ceil(V2IManager.MAXIMUM_FUTURE_RESERVATION_TIME
+                         / gridTimeStep)
+          + TILE_RESERVATION_TABLE_CLEAN_UP_PERIOD);
     this.xNum = xNum;
     this.yNum = yNum;
     this.gridTimeStep = gridTimeStep;
@@ -36,6 +36,7 @@ import java.awt.geom.Rectangle2D;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -52,7 +53,10 @@ import aim4.im.aim.v2i.reservation.ReservationGrid.TimeTile;
 import aim4.map.lane.Lane;
 import aim4.msg.aim.v2i.Request;
 import aim4.msg.aim.v2i.Request.VehicleSpecForRequestMsg;
+import aim4.sim.SimContext;
 import aim4.sim.StatCollector;
+import aim4.sim.metrics.MetricsRegistry;
+import aim4.sim.metrics.SimCounter;
 import aim4.util.TiledArea;
 import aim4.util.TiledArea.Tile;
 import aim4.vehicle.aim.AIMBasicAutoVehicle;
@@ -67,6 +71,26 @@ public class ReservationGridManager implements
                                ReservationGridManager.Plan,
                                Integer> {
 
+  /////////////////////////////////
+  // CONSTANTS
+  /////////////////////////////////
+
+  /**
+   * The number of footprints a proposal search keeps when the manager has
+   * no trajectory cache.
+   */
+  private static final int SEARCH_FOOTPRINT_CAPACITY = 16;
+
+  /**
+   * The number of discrete times a proposal search first makes room for.
+   */
+  private static final int INITIAL_SEARCH_WINDOW = 64;
+
+  /**
+   * The bitset of a discrete time at which no tile is reserved.
+   */
+  private static final long[] NO_TILES = new long[0];
+
   /////////////////////////////////
   // NESTED CLASSES
   /////////////////////////////////
@@ -103,6 +127,36 @@ public class ReservationGridManager implements
      * The granularity.
      */
     private double granularity;
+    /**
+     * How the reservation grid stores reserved time-tiles.
+     */
+    private ReservationArray.Storage reservationStorage =
+      ReservationArray.Storage.TREE_MAP;
+    /**
+     * The maximum number of traversal footprints cached; zero disables the
+     * cache.
+     */
+    private int trajectoryCacheSize = 0;
+    /**
+     * The resolution to which velocities are rounded when matching cached
+     * footprints; zero for exact matching.
+     */
+    private double trajectoryCacheVelocityResolution = 0.0;
+    /**
+     * The resolution to which arrival phases are rounded when matching
+     * cached footprints; zero for exact matching.
+     */
+    private double trajectoryCacheTimeResolution = 0.0;
+    /**
+     * Whether every cached footprint used is checked against a fresh
+     * simulation.
+     */
+    private boolean isTrajectoryCacheValidated = false;
+    /**
+     * Whether the proposals of a request are checked with a
+     * {@link ProposalSearch}.
+     */
+    private boolean isProposalSearchEnabled = false;
 
     /**
      * Create a configuration object.
@@ -193,6 +247,106 @@ public class ReservationGridManager implements
     public double getGranularity() {
       return granularity;
     }
+
+    /**
+     * Get how the reservation grid stores reserved time-tiles.
+     *
+     * @return the storage of the reservation grid
+     */
+    public ReservationArray.Storage getReservationStorage() {
+      return reservationStorage;
+    }
+
+    /**
+     * Set how the reservation grid stores reserved time-tiles.
+     *
+     * @param reservationStorage  the storage of the reservation grid
+     */
+    public void setReservationStorage(
+        ReservationArray.Storage reservationStorage) {
+      this.reservationStorage = reservationStorage;
+    }
+
+    /**
+     * Get the maximum number of traversal footprints cached.
+     *
+     * @return the size of the trajectory cache; zero if it is disabled
+     */
+    public int getTrajectoryCacheSize() {
+      return trajectoryCacheSize;
+    }
+
+    /**
+     * Get the resolution to which velocities are rounded when matching
+     * cached footprints.
+     *
+     * @return the velocity resolution; zero for exact matching
+     */
+    public double getTrajectoryCacheVelocityResolution() {
+      return trajectoryCacheVelocityResolution;
+    }
+
+    /**
+     * Get the resolution to which arrival phases are rounded when matching
+     * cached footprints.
+     *
+     * @return the time resolution; zero for exact matching
+     */
+    public double getTrajectoryCacheTimeResolution() {
+      return trajectoryCacheTimeResolution;
+    }
+
+    /**
+     * Get whether cached footprints are checked against fresh simulations.
+     *
+     * @return whether the trajectory cache is validated
+     */
+    public boolean getIsTrajectoryCacheValidated() {
+      return isTrajectoryCacheValidated;
+    }
+
+    /**
+     * Cache the footprints of traversals so that queries with the same
+     * inputs skip the internal simulation.
+     *
+     * @param size                the maximum number of footprints cached;
+     *                            zero disables the cache
+     * @param velocityResolution  the resolution to which velocities are
+     *                            rounded; zero for exact matching
+     * @param timeResolution      the resolution to which arrival phases
+     *                            are rounded; zero for exact matching
+     * @param isValidated         whether every cached footprint used is
+     *                            checked against a fresh simulation
+     */
+    public void setTrajectoryCache(int size,
+                                   double velocityResolution,
+                                   double timeResolution,
+                                   boolean isValidated) {
+      this.trajectoryCacheSize = size;
+      this.trajectoryCacheVelocityResolution = velocityResolution;
+      this.trajectoryCacheTimeResolution = timeResolution;
+      this.isTrajectoryCacheValidated = isValidated;
+    }
+
+    /**
+     * Get whether the proposals of a request are checked with a
+     * {@link ProposalSearch}.
+     *
+     * @return whether the proposal search is enabled
+     */
+    public boolean getIsProposalSearchEnabled() {
+      return isProposalSearchEnabled;
+    }
+
+    /**
+     * Set whether the proposals of a request are checked with a
+     * {@link ProposalSearch} rather than one query at a time.
+     *
+     * @param isEnabled  whether the proposal search is enabled
+     */
+    public void setProposalSearch(boolean isEnabled) {
+      this.isProposalSearchEnabled = isEnabled;
+    }
   }
 
   /**
@@ -455,6 +609,190 @@ public class ReservationGridManager implements
 
   }
 
+  /**
+   * A search for reservations among the proposals of one request, made
+   * while the reservation grid does not change. The footprint of each
+   * traversal, buffers included, is turned once into a bitset over tile
+   * IDs for every grid time step it spans, and the tiles reserved at each
+   * grid time step are read once into the same form. A traversal is then
+   * checked at any arrival time by AND-ing the two a word at a time instead
+   * of probing the grid tile by tile.
+   * <p>
+   * Unlike {@link ReservationGridManager#query(Query)}, a traversal is
+   * simulated to the end even if it soon hits a reserved tile, so the
+   * search pays off when the trajectory cache is enabled or when a request
+   * has several proposals.
+   */
+  public class ProposalSearch {
+    /** The number of words in a bitset over tile IDs */
+    private final int words;
+    /** The footprints found by this search if the manager has no cache */
+    private final TrajectoryCache footprints;
+    /** The bitsets of the footprints used so far */
+    private final Map<TrajectoryCache.Trajectory,FootprintMask> masks =
+      new IdentityHashMap<TrajectoryCache.Trajectory,FootprintMask>();
+    /** The discrete time of the first entry of reservedMasks */
+    private int firstTime;
+    /**
+     * The tiles reserved at each discrete time from firstTime; null if not
+     * read yet, NO_TILES if none are reserved
+     */
+    private long[][] reservedMasks = new long[0][];
+
+    /**
+     * Create a search over the current state of the reservation grid.
+     */
+    private ProposalSearch() {
+      this.words = (reservationGrid.getNumberOfTiles() + 63) >>> 6;
+      this.footprints = (trajectoryCache == null)
+        ? new TrajectoryCache(SEARCH_FOOTPRINT_CAPACITY, 0.0, 0.0)
+        : null;
+    }
+
+    /**
+     * Find a set of space-time tiles for a proposal. Gives the same result
+     * as {@link ReservationGridManager#query(Query)} as long as the
+     * reservation grid has not changed since the search was created.
+     *
+     * @param q  the query object
+     * @return the plan if the reservation is possible; otherwise null
+     */
+    public Plan query(Query q) {
+      MetricsRegistry metrics = SimContext.current().getMetrics();
+      metrics.increment(SimCounter.RESERVATION_QUERIES, 1);
+
+      TrajectoryCache.Trajectory trajectory = findTrajectory(q);
+      if (!isFree(maskOf(trajectory),
+                  reservationGrid.calcDiscreteTime(q.getArrivalTime()))) {
+        return null;
+      }
+      metrics.increment(SimCounter.RESERVATION_GRID_HITS, 1);
+      FindTileTimesBySimulationResult fResult =
+        findTileTimes(trajectory, q.getArrivalTime());
+      assert fResult != null;
+      return makePlan(q, fResult);
+    }
+
+    /**
+     * Get the footprint of a proposal from the manager's trajectory cache,
+     * or from this search's own footprints if it has none.
+     */
+    private TrajectoryCache.Trajectory findTrajectory(Query q) {
+      return ReservationGridManager.this.findTrajectory(
+               footprints == null ? trajectoryCache : footprints, q);
+    }
+
+    /**
+     * Get the bitsets of a footprint.
+     */
+    private FootprintMask maskOf(TrajectoryCache.Trajectory trajectory) {
+      FootprintMask mask = masks.get(trajectory);
+      if (mask == null) {
+        mask = makeMask(trajectory);
+        masks.put(trajectory, mask);
+      }
+      return mask;
+    }
+
+    /**
+     * Turn a footprint into one bitset per grid time step, marking each
+     * tile at every grid time step its time buffer covers.
+     */
+    private FootprintMask makeMask(TrajectoryCache.Trajectory trajectory) {
+      int maxBuffer = isEdgeTileTimeBufferEnabled
+        ? Math.max(edgeTileTimeBufferSteps, internalTileTimeBufferSteps)
+        : internalTileTimeBufferSteps;
+      // the tiles of step i are occupied at discrete time i + 1 after arrival
+      int firstStep = 1 - maxBuffer;
+      long[][] tiles =
+        new long[trajectory.getNumberOfSteps() + 2 * maxBuffer][];
+      for(int step = 0; step < trajectory.getNumberOfSteps(); step++) {
+        for(int tileId : trajectory.getOccupiedTiles(step)) {
+          int buffer;
+          if (isEdgeTileTimeBufferEnabled
+              && tiledArea.getTileById(tileId).isEdgeTile()) {
+            buffer = edgeTileTimeBufferSteps;
+          } else {
+            buffer = internalTileTimeBufferSteps;
+          }
+          for(int t = step + 1 - buffer; t <= step + 1 + buffer; t++) {
+            int i = t - firstStep;
+            if (tiles[i] == null) {
+              tiles[i] = new long[words];
+            }
+            tiles[i][tileId >>> 6] |= 1L << tileId;
+          }
+        }
+      }
+      return new FootprintMask(firstStep, tiles);
+    }
+
+    /**
+     * Whether a footprint hits no reserved tile when the vehicle arrives
+     * at a given discrete time.
+     */
+    private boolean isFree(FootprintMask mask, int arrivalTime) {
+      for(int i = 0; i < mask.tiles.length; i++) {
+        long[] footprint = mask.tiles[i];
+        if (footprint != null) {
+          long[] reserved = reservedTilesAt(arrivalTime + mask.firstStep + i);
+          if (reserved != NO_TILES) {
+            for(int w = 0; w < words; w++) {
+              if ((footprint[w] & reserved[w]) != 0L) {
+                return false;
+              }
+            }
+          }
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Get the bitset of the tiles reserved at a discrete time, reading it
+     * from the grid the first time it is needed.
+     */
+    private long[] reservedTilesAt(int dt) {
+      if (reservedMasks.length == 0) {
+        firstTime = dt;
+        reservedMasks = new long[INITIAL_SEARCH_WINDOW][];
+      } else if (dt < firstTime || dt >= firstTime + reservedMasks.length) {
+        int first = Math.min(firstTime, dt);
+        int last = Math.max(firstTime + reservedMasks.length - 1, dt);
+        long[][] grown =
+          new long[Math.max(2 * reservedMasks.length, last - first + 1)][];
+        System.arraycopy(reservedMasks, 0, grown, firstTime - first,
+                         reservedMasks.length);
+        firstTime = first;
+        reservedMasks = grown;
+      }
+      long[] reserved = reservedMasks[dt - firstTime];
+      if (reserved == null) {
+        reserved = new long[words];
+        if (!reservationGrid.fillReservedTileMask(dt, reserved)) {
+          reserved = NO_TILES;
+        }
+        reservedMasks[dt - firstTime] = reserved;
+      }
+      return reserved;
+    }
+  }
+
+  /**
+   * The footprint of a traversal as bitsets over tile IDs.
+   */
+  private static class FootprintMask {
+    /** The discrete time of the first bitset, relative to the arrival */
+    final int firstStep;
+    /** The tiles occupied at each discrete time; null if none are */
+    final long[][] tiles;
+
+    FootprintMask(int firstStep, long[][] tiles) {
+      this.firstStep = firstStep;
+      this.tiles = tiles;
+    }
+  }
+
 
   /////////////////////////////////
   // PRIVATE FIELDS
@@ -503,6 +841,10 @@ public class ReservationGridManager implements
    * The statistic collector
    */
   private StatCollector<ReservationGridManager> statCollector;
+  /**
+   * The cache of traversal footprints; null if disabled
+   */
+  private TrajectoryCache trajectoryCache;
 
 
   /////////////////////////////////
@@ -551,6 +893,12 @@ public class ReservationGridManager implements
     this.tiledArea = tiledArea;
     this.reservationGrid = reservationGrid;
     this.statCollector = new VinHistoryStatCollector();
+    if (config.getTrajectoryCacheSize() > 0) {
+      this.trajectoryCache =
+        new TrajectoryCache(config.getTrajectoryCacheSize(),
+                            config.getTrajectoryCacheVelocityResolution(),
+                            config.getTrajectoryCacheTimeResolution());
+    }
   }
 
 
@@ -596,6 +944,25 @@ public class ReservationGridManager implements
     return statCollector;
   }
 
+  /**
+   * Get the cache of traversal footprints.
+   *
+   * @return the trajectory cache; null if it is disabled
+   */
+  public TrajectoryCache getTrajectoryCache() {
+    return trajectoryCache;
+  }
+
+  /**
+   * Start a search among the proposals of a request. The search must not
+   * be used after the reservation grid changes.
+   *
+   * @return the search
+   */
+  public ProposalSearch newProposalSearch() {
+    return new ProposalSearch();
+  }
+
   /////////////////////////////////
   // PUBLIC METHODS
   /////////////////////////////////
@@ -612,51 +979,44 @@ public class ReservationGridManager implements
    */
   @Override
   public Plan query(Query q) {
-
-    // Position the Vehicle to be ready to start the simulation
-    Lane arrivalLane =
-      Debug.currentMap.getLaneRegistry().get(q.getArrivalLaneId());
-    Lane departureLane =
-      Debug.currentMap.getLaneRegistry().get(q.getDepartureLaneId());
-
-    // Create a test vehicle to use in the internal simulation
-    AIMBasicAutoVehicle testVehicle =
-      createTestVehicle(q.getSpec(),
-                        q.getArrivalVelocity(),
-                        q.getMaxTurnVelocity(),
-                        arrivalLane);
-
-    // Create a dummy driver to steer it
-    Driver dummy = new CrashTestDummy(testVehicle, arrivalLane, departureLane);
-
-    // assign the drive to the vehicle
-    // testVehicle.setDriver(dummy);  // TODO fix this later.
+    MetricsRegistry metrics = SimContext.current().getMetrics();
+    metrics.increment(SimCounter.RESERVATION_QUERIES, 1);
 
     // Keep track of the TileTimes that will make up this reservation
-    FindTileTimesBySimulationResult fResult
-      = findTileTimesBySimulation(testVehicle,
-                                  dummy,
-                                  q.getArrivalTime(),
-                                  q.isAccelerating());
+    FindTileTimesBySimulationResult fResult;
+    if (trajectoryCache == null) {
+      // Position the Vehicle to be ready to start the simulation
+      Lane arrivalLane =
+        Debug.getCurrentMap().getLaneRegistry().get(q.getArrivalLaneId());
+      Lane departureLane =
+        Debug.getCurrentMap().getLaneRegistry().get(q.getDepartureLaneId());
+
+      // Create a test vehicle to use in the internal simulation
+      AIMBasicAutoVehicle testVehicle =
+        createTestVehicle(q.getSpec(),
+                          q.getArrivalVelocity(),
+                          q.getMaxTurnVelocity(),
+                          arrivalLane);
+
+      // Create a dummy driver to steer it
+      Driver dummy =
+        new CrashTestDummy(testVehicle, arrivalLane, departureLane);
+
+      // assign the drive to the vehicle
+      // testVehicle.setDriver(dummy);  // TODO fix this later.
+
+      fResult = findTileTimesBySimulation(testVehicle,
+                                          dummy,
+                                          q.getArrivalTime(),
+                                          q.isAccelerating());
+    } else {
+      fResult = findTileTimes(findTrajectory(trajectoryCache, q),
+                              q.getArrivalTime());
+    }
 
     if (fResult != null) {
-      List<TimeTile> workingList = fResult.getWorkingList();
-
-      double exitTime = workingList.get(workingList.size()-1).getTime();
-
-      Queue<double[]> accelerationProfile =
-        calcAccelerationProfile(q.getArrivalTime(),
-                                q.getArrivalVelocity(),
-                                q.getMaxTurnVelocity(),
-                                q.getSpec().getMaxAcceleration(),
-                                fResult.getExitTime(),
-                                q.isAccelerating());
-
-      return new Plan(q.getVin(),
-                      exitTime,
-                      testVehicle.gaugeVelocity(),
-                      workingList,
-                      accelerationProfile);
+      metrics.increment(SimCounter.RESERVATION_GRID_HITS, 1);
+      return makePlan(q, fResult);
     } else {
       return null;
     }
@@ -741,18 +1101,23 @@ public class ReservationGridManager implements
     List<TimeTile> workingList;
     /** The exit time */
     double exitTime;
+    /** The exit velocity */
+    double exitVelocity;
 
     /**
      * Create a record for holding the result of the time tiles found
      * by the internal simulation.
      *
-     * @param workingList  the time tiles
-     * @param exitTime     the exit time
+     * @param workingList   the time tiles
+     * @param exitTime      the exit time
+     * @param exitVelocity  the exit velocity
      */
     public FindTileTimesBySimulationResult(List<TimeTile> workingList,
-                                           double exitTime) {
+                                           double exitTime,
+                                           double exitVelocity) {
       this.workingList = workingList;
       this.exitTime = exitTime;
+      this.exitVelocity = exitVelocity;
     }
 
     /**
@@ -773,6 +1138,15 @@ public class ReservationGridManager implements
       return exitTime;
     }
 
+    /**
+     * Get the exit velocity.
+     *
+     * @return the exit velocity
+     */
+    public double getExitVelocity() {
+      return exitVelocity;
+    }
+
   }
   /**
    * Find a list of unreserved tiletimes by simulation
@@ -841,7 +1215,152 @@ public class ReservationGridManager implements
 
     return new FindTileTimesBySimulationResult(workingList,
                                                reservationGrid
-                                               .calcTime(currentIntTime));
+                                               .calcTime(currentIntTime),
+                                               testVehicle.gaugeVelocity());
+  }
+
+  /**
+   * Make the plan of a query from the time tiles found for it.
+   *
+   * @param q        the query
+   * @param fResult  the time tiles found
+   * @return the plan
+   */
+  private Plan makePlan(Query q, FindTileTimesBySimulationResult fResult) {
+    List<TimeTile> workingList = fResult.getWorkingList();
+
+    double exitTime = workingList.get(workingList.size()-1).getTime();
+
+    Queue<double[]> accelerationProfile =
+      calcAccelerationProfile(q.getArrivalTime(),
+                              q.getArrivalVelocity(),
+                              q.getMaxTurnVelocity(),
+                              q.getSpec().getMaxAcceleration(),
+                              fResult.getExitTime(),
+                              q.isAccelerating());
+
+    return new Plan(q.getVin(),
+                    exitTime,
+                    fResult.getExitVelocity(),
+                    workingList,
+                    accelerationProfile);
+  }
+
+  /**
+   * Get the footprint of the traversal of a query from a trajectory
+   * cache, simulating the traversal if it is not cached or if cached
+   * footprints are validated.
+   *
+   * @param trajectoryCache  the cache
+   * @param q                the query
+   * @return the footprint of the traversal
+   */
+  private TrajectoryCache.Trajectory findTrajectory(
+                                       TrajectoryCache trajectoryCache,
+                                       Query q) {
+    TrajectoryCache.Key key =
+      trajectoryCache.keyOf(q,
+                            reservationGrid.calcRemainingTime(
+                              q.getArrivalTime()));
+    TrajectoryCache.Trajectory trajectory = trajectoryCache.get(key);
+    if (trajectory == null) {
+      trajectory = simulateTrajectory(q);
+      trajectoryCache.put(key, trajectory);
+    } else {
+      SimContext.current().getMetrics().increment(
+        SimCounter.TRAJECTORY_CACHE_HITS, 1);
+      if (config.getIsTrajectoryCacheValidated()) {
+        TrajectoryCache.Trajectory simulated = simulateTrajectory(q);
+        if (!simulated.isSameAs(trajectory)) {
+          trajectoryCache.recordMismatch();
+          trajectoryCache.put(key, simulated);
+          trajectory = simulated;
+        }
+      }
+    }
+    return trajectory;
+  }
+
+  /**
+   * Find the tiles occupied at each grid time step of a traversal by
+   * simulation, without checking the reservation grid.
+   *
+   * @param q  the query
+   * @return the footprint of the traversal
+   */
+  private TrajectoryCache.Trajectory simulateTrajectory(Query q) {
+    Lane arrivalLane =
+      Debug.getCurrentMap().getLaneRegistry().get(q.getArrivalLaneId());
+    Lane departureLane =
+      Debug.getCurrentMap().getLaneRegistry().get(q.getDepartureLaneId());
+    AIMBasicAutoVehicle testVehicle =
+      createTestVehicle(q.getSpec(),
+                        q.getArrivalVelocity(),
+                        q.getMaxTurnVelocity(),
+                        arrivalLane);
+    Driver dummy = new CrashTestDummy(testVehicle, arrivalLane, departureLane);
+
+    Area areaPlus = intersection.getAreaPlus();
+    List<int[]> steps = new ArrayList<int[]>();
+    double currentDuration =
+      reservationGrid.calcRemainingTime(q.getArrivalTime());
+    while(VehicleUtil.intersects(testVehicle, areaPlus)) {
+      moveTestVehicle(testVehicle, dummy, currentDuration,
+                      q.isAccelerating());
+      List<Tile> occupied =
+        tiledArea.findOccupiedTiles(testVehicle.getShape(staticBufferSize));
+      int[] tileIds = new int[occupied.size()];
+      for(int i = 0; i < tileIds.length; i++) {
+        tileIds[i] = occupied.get(i).getId();
+      }
+      steps.add(tileIds);
+      currentDuration = reservationGrid.getGridTimeStep();
+    }
+    return new TrajectoryCache.Trajectory(steps.toArray(new int[0][]),
+                                          testVehicle.gaugeVelocity());
+  }
+
+  /**
+   * Find a list of unreserved tiletimes along a footprint shifted to an
+   * arrival time. Gives the same result as
+   * {@link #findTileTimesBySimulation} for the traversal the footprint was
+   * found from.
+   *
+   * @param trajectory   the footprint of the traversal
+   * @param arrivalTime  the arrival time of the vehicle
+   *
+   * @return A list of tiles that can be reserved by the vehicle. If returns
+   *         null, the trajectory hits some reserved tiles and the reservation
+   *         fails.
+   */
+  private FindTileTimesBySimulationResult
+            findTileTimes(TrajectoryCache.Trajectory trajectory,
+                          double arrivalTime) {
+    List<TimeTile> workingList = new ArrayList<TimeTile>();
+    int currentIntTime = reservationGrid.calcDiscreteTime(arrivalTime);
+    for(int step = 0; step < trajectory.getNumberOfSteps(); step++) {
+      currentIntTime++;
+      for(int tileId : trajectory.getOccupiedTiles(step)) {
+        int buffer;
+        if (isEdgeTileTimeBufferEnabled
+            && tiledArea.getTileById(tileId).isEdgeTile()) {
+          buffer = edgeTileTimeBufferSteps;
+        } else {
+          buffer = internalTileTimeBufferSteps;
+        }
+        for(int t = currentIntTime - buffer; t <= currentIntTime + buffer; t++){
+          if (!reservationGrid.isReserved(t, tileId)) {
+            workingList.add(reservationGrid.new TimeTile(t, tileId));
+          } else {
+            return null; // Failure! Just bail!
+          }
+        }
+      }
+    }
+    return new FindTileTimesBySimulationResult(workingList,
+                                               reservationGrid
+                                               .calcTime(currentIntTime),
+                                               trajectory.getExitVelocity());
   }
 
   /**
@@ -0,0 +1,385 @@
+package aim4.im.aim.v2i.reservation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import aim4.im.aim.v2i.reservation.ReservationArray.TimeTile;
+
+/**
+ * A time-tile store that keeps the grids of the reserved discrete times in a
+ * ring buffer of primitive rows, indexed by the discrete time modulo the
+ * capacity of the ring, and the time-tiles of each reservation in a pair of
+ * primitive arrays. Reserving, cancelling and cleaning up neither box
+ * integers nor allocate sets.
+ * <p>
+ * The ring starts large enough for the reservation horizon it is created
+ * with and grows if reservations ever span more discrete times than that,
+ * so it behaves exactly like a {@link MapTimeTileStore}.
+ */
+class RingBufferTimeTileStore implements TimeTileStore {
+
+  /////////////////////////////////
+  // CONSTANTS
+  /////////////////////////////////
+
+  /** The time of a slot of the ring that holds no grid */
+  private static final int NO_TIME = Integer.MIN_VALUE;
+
+  /////////////////////////////////
+  // NESTED CLASSES
+  /////////////////////////////////
+
+  /**
+   * The time-tiles reserved by one reservation.
+   */
+  private static class TileList {
+    /** The discrete times */
+    private int[] times = new int[16];
+    /** The tile IDs */
+    private int[] tids = new int[16];
+    /** The number of time-tiles */
+    private int size = 0;
+    /** The earliest discrete time */
+    private int minTime = Integer.MAX_VALUE;
+    /** The latest discrete time */
+    private int maxTime = Integer.MIN_VALUE;
+
+    private void add(int dt, int tid) {
+      if (size == times.length) {
+        times = Arrays.copyOf(times, size * 2);
+        tids = Arrays.copyOf(tids, size * 2);
+      }
+      times[size] = dt;
+      tids[size] = tid;
+      size++;
+      minTime = Math.min(minTime, dt);
+      maxTime = Math.max(maxTime, dt);
+    }
+
+    /**
+     * Remove the time-tiles before a given discrete time.
+     */
+    private void removeBefore(int dt) {
+      int n = 0;
+      minTime = Integer.MAX_VALUE;
+      for(int i = 0; i < size; i++) {
+        if (times[i] >= dt) {
+          times[n] = times[i];
+          tids[n] = tids[i];
+          minTime = Math.min(minTime, times[i]);
+          n++;
+        }
+      }
+      size = n;
+    }
+  }
+
+  /////////////////////////////////
+  // PRIVATE FIELDS
+  /////////////////////////////////
+
+  /** The total number of tiles */
+  private final int numOfTiles;
+
+  /**
+   * The grids, one row of reservation IDs per slot of the ring; a row is
+   * allocated the first time its slot is used and reused afterwards.
+   */
+  private int[][] rows;
+
+  /** The discrete time whose grid each slot holds, or NO_TIME */
+  private int[] rowTimes;
+
+  /** The capacity of the ring minus one; the capacity is a power of two */
+  private int mask;
+
+  /** Whether any grid is held */
+  private boolean isEmpty = true;
+
+  /** The earliest discrete time whose grid is held */
+  private int firstTime;
+
+  /** The latest discrete time whose grid is held */
+  private int lastTime;
+
+  /** The time-tiles of each reservation ID */
+  private final Map<Integer,TileList> ridToTiles =
+    new HashMap<Integer,TileList>();
+
+  /////////////////////////////////
+  // CLASS CONSTRUCTORS
+  /////////////////////////////////
+
+  /**
+   * Create an empty store.
+   *
+   * @param numOfTiles  the number of tiles in the intersection
+   * @param horizon     the number of discrete times reservations are
+   *                    expected to span
+   */
+  RingBufferTimeTileStore(int numOfTiles, int horizon) {
+    this.numOfTiles = numOfTiles;
+    allocateRing(capacityFor(Math.max(horizon, 1)));
+  }
+
+  /////////////////////////////////
+  // PUBLIC METHODS
+  /////////////////////////////////
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isReserved(int dt, int tid) {
+    return getReservationId(dt, tid) >= 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getReservationId(int dt, int tid) {
+    if (isEmpty || dt < firstTime || dt > lastTime) {
+      return -1;
+    }
+    int slot = dt & mask;
+    return rowTimes[slot] == dt ? rows[slot][tid] : -1;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean hasReservation(int rid) {
+    return ridToTiles.containsKey(rid);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getLastReservedDiscreteTime() {
+    return isEmpty ? -1 : lastTime;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getLastReservedDiscreteTime(int rid) {
+    TileList tiles = ridToTiles.get(rid);
+    return tiles == null ? -1 : tiles.maxTime;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean reserve(int rid, Collection<? extends TimeTile> workingList) {
+    // check to see if any time-tile is reserved in the past
+    for(TimeTile tt : workingList) {
+      if (isReserved(tt.getDiscreteTime(), tt.getTileId())) {
+        return false; // the time-tile has been reserved.
+      }
+    }
+    // time-tiles before the earliest held grid are ignored
+    int timeBegin = isEmpty ? 0 : firstTime;
+    TileList tiles = null;
+    for(TimeTile tt : workingList) {
+      int dt = tt.getDiscreteTime();
+      if (dt >= timeBegin) {
+        int tid = tt.getTileId();
+        rowAt(dt)[tid] = rid;
+        if (tiles == null) {
+          tiles = ridToTiles.get(rid);
+          if (tiles == null) {
+            tiles = new TileList();
+            ridToTiles.put(rid, tiles);
+          }
+        }
+        tiles.add(dt, tid);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean cancel(int rid) {
+    TileList tiles = ridToTiles.remove(rid);
+    if (tiles == null) {
+      return false; // the rid is not found
+    }
+    for(int i = 0; i < tiles.size; i++) {
+      int slot = tiles.times[i] & mask;
+      if (rowTimes[slot] == tiles.times[i]) {
+        rows[slot][tiles.tids[i]] = -1;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void cleanUp(int dt) {
+    if (!isEmpty && dt > firstTime) {
+      // release the slots of the grids before dt
+      int end = Math.min(dt - 1, lastTime);
+      for(int t = firstTime; t <= end; t++) {
+        if (rowTimes[t & mask] == t) {
+          rowTimes[t & mask] = NO_TIME;
+        }
+      }
+      if (dt > lastTime) {
+        isEmpty = true;
+      } else {
+        firstTime = dt;
+        while(rowTimes[firstTime & mask] != firstTime) {
+          firstTime++;
+        }
+      }
+    }
+
+    for(Iterator<TileList> iter = ridToTiles.values().iterator();
+        iter.hasNext();) {
+      TileList tiles = iter.next();
+      if (tiles.maxTime < dt) {
+        iter.remove();
+      } else if (tiles.minTime < dt) {
+        tiles.removeBefore(dt);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public List<Integer> getReservedTilesAtTime(int dt) {
+    List<Integer> tids = new ArrayList<Integer>();
+    if (!isEmpty && dt >= firstTime && dt <= lastTime
+        && rowTimes[dt & mask] == dt) {
+      int[] row = rows[dt & mask];
+      for(int tid = 0; tid < numOfTiles; tid++) {
+        if (row[tid] >= 0) {
+          tids.add(tid);
+        }
+      }
+    }
+    return tids;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean fillReservedTileMask(int dt, long[] words) {
+    Arrays.fill(words, 0L);
+    boolean isAnyReserved = false;
+    if (!isEmpty && dt >= firstTime && dt <= lastTime
+        && rowTimes[dt & mask] == dt) {
+      int[] row = rows[dt & mask];
+      for(int tid = 0; tid < numOfTiles; tid++) {
+        if (row[tid] >= 0) {
+          words[tid >>> 6] |= 1L << tid;
+          isAnyReserved = true;
+        }
+      }
+    }
+    return isAnyReserved;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<Integer> getVinOfReservedTilesAtTime(int dt) {
+    Set<Integer> rids = new HashSet<Integer>();
+    if (!isEmpty && dt >= firstTime && dt <= lastTime
+        && rowTimes[dt & mask] == dt) {
+      int[] row = rows[dt & mask];
+      for(int tid = 0; tid < numOfTiles; tid++) {
+        if (row[tid] >= 0) {
+          rids.add(row[tid]);
+        }
+      }
+    }
+    return Collections.unmodifiableSet(rids);
+  }
+
+  /////////////////////////////////
+  // PRIVATE METHODS
+  /////////////////////////////////
+
+  /**
+   * Get the grid of a discrete time, creating an empty one if none is held.
+   *
+   * @param dt  the discrete time
+   * @return the row of reservation IDs of the discrete time
+   */
+  private int[] rowAt(int dt) {
+    if (isEmpty) {
+      firstTime = lastTime = dt;
+      isEmpty = false;
+    } else {
+      int first = Math.min(firstTime, dt);
+      int last = Math.max(lastTime, dt);
+      if (last - first > mask) {
+        resize(capacityFor(last - first + 1));
+      }
+      firstTime = first;
+      lastTime = last;
+    }
+    int slot = dt & mask;
+    if (rowTimes[slot] != dt) {
+      if (rows[slot] == null) {
+        rows[slot] = new int[numOfTiles];
+      }
+      Arrays.fill(rows[slot], -1);
+      rowTimes[slot] = dt;
+    }
+    return rows[slot];
+  }
+
+  /**
+   * Move the held grids to a larger ring.
+   */
+  private void resize(int capacity) {
+    int[][] oldRows = rows;
+    int[] oldRowTimes = rowTimes;
+    allocateRing(capacity);
+    for(int i = 0; i < oldRows.length; i++) {
+      if (oldRowTimes[i] != NO_TIME) {
+        rows[oldRowTimes[i] & mask] = oldRows[i];
+        rowTimes[oldRowTimes[i] & mask] = oldRowTimes[i];
+      }
+    }
+  }
+
+  private void allocateRing(int capacity) {
+    rows = new int[capacity][];
+    rowTimes = new int[capacity];
+    Arrays.fill(rowTimes, NO_TIME);
+    mask = capacity - 1;
+  }
+
+  /**
+   * The smallest power of two no less than n.
+   */
+  private static int capacityFor(int n) {
+    int capacity = Integer.highestOneBit(n);
+    return capacity < n ? capacity * 2 : capacity;
+  }
+}
@@ -0,0 +1,37 @@
+package aim4.im.aim.v2i.reservation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import aim4.im.aim.v2i.reservation.ReservationArray.TimeTile;
+
+/**
+ * The storage behind a {@link ReservationArray}: which reservation, if any,
+ * holds each time-tile, and which time-tiles each reservation holds. See
+ * {@link ReservationArray} for the meaning of each method.
+ */
+interface TimeTileStore {
+
+  boolean isReserved(int dt, int tid);
+
+  int getReservationId(int dt, int tid);
+
+  boolean hasReservation(int rid);
+
+  int getLastReservedDiscreteTime();
+
+  int getLastReservedDiscreteTime(int rid);
+
+  boolean reserve(int rid, Collection<? extends TimeTile> workingList);
+
+  boolean cancel(int rid);
+
+  void cleanUp(int dt);
+
+  List<Integer> getReservedTilesAtTime(int dt);
+
+  boolean fillReservedTileMask(int dt, long[] words);
+
+  Set<Integer> getVinOfReservedTilesAtTime(int dt);
+}
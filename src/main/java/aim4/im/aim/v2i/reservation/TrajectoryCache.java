@@ -0,0 +1,295 @@
+package aim4.im.aim.v2i.reservation;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import aim4.msg.aim.v2i.Request.VehicleSpecForRequestMsg;
+
+/**
+ * A bounded, least recently used cache of the tiles a test vehicle occupies
+ * at each grid time step while it crosses an intersection. The footprint of
+ * a traversal depends only on the arrival and departure lanes, the vehicle
+ * specification, the arrival and maximum velocities, whether the vehicle
+ * accelerates, and how far into its grid time step the vehicle arrives, so
+ * a reservation query whose inputs match a cached traversal can check the
+ * grid against the cached footprint, shifted to its arrival time, instead
+ * of running the internal simulation again.
+ * <p>
+ * Velocities and arrival phases are matched exactly unless a resolution is
+ * given, in which case inputs that round to the same multiple of the
+ * resolution share a footprint. Matching is then approximate; the manager
+ * can validate every hit against a fresh simulation and count mismatches.
+ */
+public class TrajectoryCache {
+
+  /////////////////////////////////
+  // NESTED CLASSES
+  /////////////////////////////////
+
+  /**
+   * The space-only footprint of a traversal.
+   */
+  public static class Trajectory {
+    /** The IDs of the tiles occupied after each grid time step */
+    private final int[][] occupiedTiles;
+    /** The velocity of the vehicle when it leaves the intersection */
+    private final double exitVelocity;
+
+    /**
+     * Create a footprint.
+     *
+     * @param occupiedTiles  the IDs of the tiles occupied after each grid
+     *                       time step, in the order they were found
+     * @param exitVelocity   the velocity of the vehicle when it leaves the
+     *                       intersection
+     */
+    public Trajectory(int[][] occupiedTiles, double exitVelocity) {
+      this.occupiedTiles = occupiedTiles;
+      this.exitVelocity = exitVelocity;
+    }
+
+    /**
+     * Get the number of grid time steps the traversal takes.
+     *
+     * @return the number of grid time steps
+     */
+    public int getNumberOfSteps() {
+      return occupiedTiles.length;
+    }
+
+    /**
+     * Get the IDs of the tiles occupied after a grid time step.
+     *
+     * @param step  the index of the grid time step, from zero
+     * @return the IDs of the occupied tiles; must not be modified
+     */
+    public int[] getOccupiedTiles(int step) {
+      return occupiedTiles[step];
+    }
+
+    /**
+     * Get the velocity of the vehicle when it leaves the intersection.
+     *
+     * @return the exit velocity
+     */
+    public double getExitVelocity() {
+      return exitVelocity;
+    }
+
+    /**
+     * Whether this footprint occupies the same tiles at every step as
+     * another one and leaves at the same velocity.
+     *
+     * @param other  the other footprint
+     * @return whether the two footprints are the same
+     */
+    public boolean isSameAs(Trajectory other) {
+      return exitVelocity == other.exitVelocity
+          && Arrays.deepEquals(occupiedTiles, other.occupiedTiles);
+    }
+  }
+
+  /**
+   * The inputs a footprint depends on, after rounding.
+   */
+  static final class Key {
+    private final long[] values;
+    private final int hashCode;
+
+    private Key(long[] values) {
+      this.values = values;
+      this.hashCode = Arrays.hashCode(values);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Key && Arrays.equals(values, ((Key) obj).values);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /////////////////////////////////
+  // PRIVATE FIELDS
+  /////////////////////////////////
+
+  /** The maximum number of footprints kept */
+  private final int capacity;
+  /** The resolution of velocities; zero for exact matching */
+  private final double velocityResolution;
+  /** The resolution of arrival phases; zero for exact matching */
+  private final double timeResolution;
+  /** The footprints, least recently used first */
+  private final LinkedHashMap<Key,Trajectory> trajectories;
+  /** The number of lookups that found a footprint */
+  private long hits = 0;
+  /** The number of lookups that did not */
+  private long misses = 0;
+  /** The number of validated hits that differed from a fresh simulation */
+  private long mismatches = 0;
+
+  /////////////////////////////////
+  // CLASS CONSTRUCTORS
+  /////////////////////////////////
+
+  /**
+   * Create an empty cache.
+   *
+   * @param capacity            the maximum number of footprints kept
+   * @param velocityResolution  the resolution to which arrival and maximum
+   *                            velocities are rounded; zero to match them
+   *                            exactly
+   * @param timeResolution      the resolution to which the time between
+   *                            the start of the arrival grid time step and
+   *                            the arrival time is rounded; zero to match
+   *                            it exactly
+   */
+  public TrajectoryCache(final int capacity,
+                         double velocityResolution,
+                         double timeResolution) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: "
+                                         + capacity);
+    }
+    this.capacity = capacity;
+    this.velocityResolution = velocityResolution;
+    this.timeResolution = timeResolution;
+    this.trajectories = new LinkedHashMap<Key,Trajectory>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key,Trajectory> eldest) {
+        return size() > capacity;
+      }
+    };
+  }
+
+  /////////////////////////////////
+  // PUBLIC METHODS
+  /////////////////////////////////
+
+  /**
+   * Get the key of the footprint of a query.
+   *
+   * @param q      the query
+   * @param phase  the time between the start of the grid time step of the
+   *               arrival time and the arrival time
+   * @return the key
+   */
+  Key keyOf(ReservationGridManager.Query q, double phase) {
+    VehicleSpecForRequestMsg spec = q.getSpec();
+    return new Key(new long[] {
+      q.getArrivalLaneId(),
+      q.getDepartureLaneId(),
+      q.isAccelerating() ? 1 : 0,
+      round(q.getArrivalVelocity(), velocityResolution),
+      round(q.getMaxTurnVelocity(), velocityResolution),
+      round(phase, timeResolution),
+      Double.doubleToLongBits(spec.getMaxAcceleration()),
+      Double.doubleToLongBits(spec.getMaxDeceleration()),
+      Double.doubleToLongBits(spec.getMinVelocity()),
+      Double.doubleToLongBits(spec.getLength()),
+      Double.doubleToLongBits(spec.getWidth()),
+      Double.doubleToLongBits(spec.getFrontAxleDisplacement()),
+      Double.doubleToLongBits(spec.getRearAxleDisplacement()),
+      Double.doubleToLongBits(spec.getMaxSteeringAngle()),
+      Double.doubleToLongBits(spec.getMaxTurnPerSecond())
+    });
+  }
+
+  /**
+   * Look up a footprint, counting the lookup as a hit or a miss.
+   *
+   * @param key  the key of the footprint
+   * @return the footprint; null if it is not cached
+   */
+  synchronized Trajectory get(Key key) {
+    Trajectory trajectory = trajectories.get(key);
+    if (trajectory == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return trajectory;
+  }
+
+  /**
+   * Cache a footprint, evicting the least recently used one if the cache
+   * is full.
+   *
+   * @param key         the key of the footprint
+   * @param trajectory  the footprint
+   */
+  synchronized void put(Key key, Trajectory trajectory) {
+    trajectories.put(key, trajectory);
+  }
+
+  /**
+   * Record that a cached footprint differed from a fresh simulation.
+   */
+  synchronized void recordMismatch() {
+    mismatches++;
+  }
+
+  /**
+   * Get the number of footprints cached.
+   *
+   * @return the number of footprints cached
+   */
+  public synchronized int size() {
+    return trajectories.size();
+  }
+
+  /**
+   * Get the maximum number of footprints kept.
+   *
+   * @return the capacity of the cache
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Get the number of lookups that found a footprint.
+   *
+   * @return the number of hits
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Get the number of lookups that did not find a footprint.
+   *
+   * @return the number of misses
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Get the number of validated hits whose footprint differed from a fresh
+   * simulation.
+   *
+   * @return the number of mismatches
+   */
+  public synchronized long getMismatches() {
+    return mismatches;
+  }
+
+  /////////////////////////////////
+  // PRIVATE METHODS
+  /////////////////////////////////
+
+  private static long round(double value, double resolution) {
+    if (resolution > 0) {
+      return Math.round(value / resolution);
+    } else {
+      return Double.doubleToLongBits(value);
+    }
+  }
+}
@@ -94,7 +94,10 @@ public class V2IMergeManager extends BasicMergeManager implements V2IMergeManage
                            Registry<MergeManager> registry,
                            MergeMap layout) {
         super(merge, currentTime, registry);
-        this.reservationMerge = new ReservationMerge(merge, config.getMergeTimeStep());
+        this.reservationMerge = new ReservationMerge(merge,
+                                                     config.getMergeTimeStep(),
+                                                     config.getReservationStorage(),
+                                                     config.getIsReservationStorageChecked());
         this.reservationManager = new ReservationMergeManager(config, merge, reservationMerge, layout);
         //Setup AdmissionControlZones
         for(Lane l : getMergeConnection().getExitLanes()){
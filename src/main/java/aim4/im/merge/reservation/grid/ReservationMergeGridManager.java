@@ -8,6 +8,9 @@ import aim4.map.connections.MergeConnection;
 import aim4.map.lane.Lane;
 import aim4.map.merge.MergeMap;
 import aim4.msg.merge.v2i.Request;
+import aim4.sim.SimContext;
+import aim4.sim.metrics.MetricsRegistry;
+import aim4.sim.metrics.SimCounter;
 import aim4.util.TiledArea;
 import aim4.vehicle.VehicleSpec;
 import aim4.vehicle.VehicleUtil;
@@ -509,6 +512,9 @@ public class ReservationMergeGridManager implements
      */
     @Override
     public Plan query(Query q) {
+        MetricsRegistry metrics = SimContext.current().getMetrics();
+        metrics.increment(SimCounter.RESERVATION_QUERIES, 1);
+
         // Position the Vehicle to be ready to start the simulation
         Lane arrivalLane =
                 layout.getLaneRegistry().get(q.getArrivalLaneId());
@@ -536,6 +542,7 @@ public class ReservationMergeGridManager implements
                                                                               q.isAccelerating());
 
         if (tileSimResult != null) {
+            metrics.increment(SimCounter.RESERVATION_GRID_HITS, 1);
             List<ReservationMergeGrid.TimeTile> workingList = tileSimResult.getWorkingList();
 
             double exitTime = workingList.get(workingList.size()-1).getTime();
@@ -0,0 +1,176 @@
+package aim4.im.merge.reservation.nogrid;
+
+import java.util.*;
+
+/**
+ * A time store that keeps each reservation as the runs of consecutive
+ * discrete times it holds, usually a single [start, end) interval, in a
+ * sorted map of disjoint intervals. Reserving and checking a time take
+ * O(log n) in the number of reservations, and reserving, cancelling and
+ * cleaning up touch one entry per interval rather than one per time.
+ * <p>
+ * Like {@link MapTimeStore}, times before the earliest reserved time are
+ * not reserved.
+ */
+class IntervalTimeStore implements TimeStore {
+    //NESTED CLASSES//
+    /**
+     * The discrete times [start, end) held by a reservation.
+     */
+    private static class Interval {
+        /** The first discrete time; moves forward when cleaned up */
+        private int start;
+        /** The discrete time after the last one */
+        private final int end;
+        /** The reservation ID */
+        private final int rid;
+
+        private Interval(int start, int end, int rid) {
+            this.start = start;
+            this.end = end;
+            this.rid = rid;
+        }
+    }
+
+    //PRIVATE FIELDS//
+    /**
+     * The reserved intervals, by their first discrete time
+     */
+    private final NavigableMap<Integer, Interval> intervals = new TreeMap<Integer, Interval>();
+    /**
+     * The intervals of each reservation ID
+     */
+    private final Map<Integer, List<Interval>> ridToIntervals = new HashMap<Integer, List<Interval>>();
+
+    //PUBLIC METHODS//
+    @Override
+    public boolean isReserved(int dt) {
+        return find(dt) != null;
+    }
+
+    @Override
+    public int getReservationID(int dt) {
+        Interval interval = find(dt);
+        return interval == null ? -1 : interval.rid;
+    }
+
+    @Override
+    public boolean hasReservation(int rid) {
+        return ridToIntervals.containsKey(rid);
+    }
+
+    @Override
+    public int getLastReservedDiscreteTime() {
+        if(intervals.isEmpty())
+            return -1;
+        return intervals.lastEntry().getValue().end - 1;
+    }
+
+    @Override
+    public boolean reserve(int rid, Collection<? extends ReservationBase.TimeReservation> workingList) {
+        int[] times = sortedTimes(workingList);
+        for(int i = 0; i < times.length; i = endOfRun(times, i)) {
+            if(overlaps(times[i], times[endOfRun(times, i) - 1] + 1))
+                return false; //the time has been reserved.
+        }
+
+        int timeBegin = intervals.isEmpty() ? 0 : intervals.firstKey();
+        for(int i = 0; i < times.length; i = endOfRun(times, i)) {
+            int start = Math.max(times[i], timeBegin);
+            int end = times[endOfRun(times, i) - 1] + 1;
+            if(start < end) {
+                Interval interval = new Interval(start, end, rid);
+                intervals.put(start, interval);
+                List<Interval> ridIntervals = ridToIntervals.get(rid);
+                if(ridIntervals == null) {
+                    ridIntervals = new ArrayList<Interval>(1);
+                    ridToIntervals.put(rid, ridIntervals);
+                }
+                ridIntervals.add(interval);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean cancel(int rid) {
+        List<Interval> ridIntervals = ridToIntervals.remove(rid);
+        if(ridIntervals == null)
+            return false;
+        for(Interval interval : ridIntervals)
+            intervals.remove(interval.start);
+        return true;
+    }
+
+    @Override
+    public void cleanUp(int dt) {
+        while(!intervals.isEmpty() && intervals.firstKey() < dt) {
+            Interval interval = intervals.pollFirstEntry().getValue();
+            if(interval.end > dt) {
+                // keep the part from dt on
+                interval.start = dt;
+                intervals.put(dt, interval);
+            } else {
+                List<Interval> ridIntervals = ridToIntervals.get(interval.rid);
+                ridIntervals.remove(interval);
+                if(ridIntervals.isEmpty())
+                    ridToIntervals.remove(interval.rid);
+            }
+        }
+    }
+
+    //PRIVATE METHODS//
+    /**
+     * Get the interval holding a discrete time, or null if it is free.
+     */
+    private Interval find(int dt) {
+        Map.Entry<Integer, Interval> entry = intervals.floorEntry(dt);
+        if(entry != null && dt < entry.getValue().end)
+            return entry.getValue();
+        return null;
+    }
+
+    /**
+     * Whether any reserved interval overlaps [start, end).
+     */
+    private boolean overlaps(int start, int end) {
+        // the intervals are disjoint, so only the last one to start before
+        // end can reach start
+        Map.Entry<Integer, Interval> entry = intervals.lowerEntry(end);
+        return entry != null && entry.getValue().end > start;
+    }
+
+    /**
+     * Get the distinct discrete times of a working list in increasing order.
+     */
+    private static int[] sortedTimes(Collection<? extends ReservationBase.TimeReservation> workingList) {
+        int[] times = new int[workingList.size()];
+        int n = 0;
+        boolean isSorted = true;
+        for(ReservationBase.TimeReservation tr : workingList) {
+            times[n] = tr.getDiscreteTime();
+            if(n > 0 && times[n] <= times[n - 1])
+                isSorted = false;
+            n++;
+        }
+        if(isSorted)
+            return times;
+        Arrays.sort(times);
+        int distinct = 0;
+        for(int i = 0; i < times.length; i++) {
+            if(distinct == 0 || times[i] != times[distinct - 1])
+                times[distinct++] = times[i];
+        }
+        return Arrays.copyOf(times, distinct);
+    }
+
+    /**
+     * Get the index after the run of consecutive times starting at an index.
+     */
+    private static int endOfRun(int[] times, int i) {
+        int j = i + 1;
+        while(j < times.length && times[j] == times[j - 1] + 1)
+            j++;
+        return j;
+    }
+}
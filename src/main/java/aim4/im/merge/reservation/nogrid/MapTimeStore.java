@@ -0,0 +1,122 @@
+package aim4.im.merge.reservation.nogrid;
+
+import java.util.*;
+
+/**
+ * A time store that keeps one sorted map entry per reserved discrete time,
+ * and the list of reserved times of each reservation.
+ */
+class MapTimeStore implements TimeStore {
+    //PRIVATE FIELDS//
+    /**
+     * A mapping from discrete times to reservationIds
+     */
+    private NavigableMap<Integer, Integer> timeToRID;
+    /**
+     * A mapping from reservationIds to times
+     */
+    private NavigableMap<Integer, List<Integer>> ridToTime;
+
+    //CONSTRUCTOR//
+    MapTimeStore() {
+        timeToRID = new TreeMap<Integer, Integer>();
+        ridToTime = new TreeMap<Integer, List<Integer>>();
+    }
+
+    //PUBLIC METHODS//
+    @Override
+    public boolean isReserved(int dt) {
+        if(timeToRID.containsKey(dt))
+            return true;
+        else
+            return false;
+    }
+
+    @Override
+    public int getReservationID(int dt) {
+        if(timeToRID.containsKey(dt))
+            return timeToRID.get(dt);
+        else
+            return -1;
+    }
+
+    @Override
+    public boolean hasReservation(int rid) {
+        return ridToTime.containsKey(rid);
+    }
+
+    @Override
+    public int getLastReservedDiscreteTime() {
+        try {
+            return timeToRID.lastKey();
+        } catch(NoSuchElementException e) {
+            return -1;
+        }
+    }
+
+    @Override
+    public boolean reserve(int rid, Collection<? extends ReservationBase.TimeReservation> workingList) {
+        for(ReservationBase.TimeReservation tr : workingList) {
+            int dt = tr.getDiscreteTime();
+            if(timeToRID.containsKey(dt)){
+                return false; //the time has been reserved.
+            }
+        }
+
+        int timeBegin = 0;
+        try {
+            timeBegin = timeToRID.firstKey();
+        } catch (NoSuchElementException e) {
+            //No times reserved. All times acceptable.
+        }
+
+        for(ReservationBase.TimeReservation tr : workingList) {
+            int dt = tr.getDiscreteTime();
+
+            if(dt >= timeBegin) {
+                //Update timeToRID
+                timeToRID.put(dt, rid);
+                //Update ridToTime
+                if(!ridToTime.containsKey(rid))
+                    ridToTime.put(rid, new ArrayList<Integer>());
+            }
+            ridToTime.get(rid).add(dt);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean cancel(int rid) {
+        if(ridToTime.containsKey(rid)) {
+            List<Integer> times = ridToTime.remove(rid);
+            for(Integer time : times)
+                timeToRID.remove(time);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public void cleanUp(int dt) {
+        List<Integer> timesToRemove = new ArrayList<Integer>();
+        //Clean up timeToRID
+        try {
+            while (timeToRID.firstKey() < dt) {
+                timesToRemove.add(timeToRID.firstKey());
+                timeToRID.remove(timeToRID.firstKey());
+            }
+        } catch (NoSuchElementException e) {
+            //do nothing
+        }
+        //Clean to ridToTime
+        List<Integer> ridsToRemove = new ArrayList<Integer>();
+        for(int rid : ridToTime.keySet()) {
+            ridToTime.get(rid).removeAll(timesToRemove);
+            if(ridToTime.get(rid).isEmpty())
+                ridsToRemove.add(rid);
+        }
+        for(int rid : ridsToRemove)
+            ridToTime.remove(rid);
+    }
+}
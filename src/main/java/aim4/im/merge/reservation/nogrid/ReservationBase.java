@@ -32,15 +32,32 @@ public class ReservationBase {
         }
     }
 
+    /**
+     * The ways the reserved times can be stored.
+     */
+    public enum Storage {
+        /**
+         * A sorted map entry per reserved discrete time, and a list of the
+         * times of each reservation.
+         */
+        TREE_MAP,
+        /**
+         * A sorted map of disjoint [start, end) intervals, usually one per
+         * reservation.
+         */
+        INTERVALS
+    }
+
     //PRIVATE FIELDS//
     /**
-     * A mapping from discrete times to reservationIds
+     * The reserved times
      */
-    private NavigableMap<Integer, Integer> timeToRID;
+    private final TimeStore store;
     /**
-     * A mapping from reservationIds to times
+     * A {@link Storage#TREE_MAP} store every operation is repeated on and
+     * compared against; null unless the store is checked
      */
-    private NavigableMap<Integer, List<Integer>> ridToTime;
+    private final TimeStore checkStore;
 
     //CONSTRUCTOR//
 
@@ -48,8 +65,26 @@ public class ReservationBase {
      * Creates a new reservation system
      */
     public ReservationBase() {
-        timeToRID = new TreeMap<Integer, Integer>();
-        ridToTime = new TreeMap<Integer, List<Integer>>();
+        this(Storage.TREE_MAP, false);
+    }
+
+    /**
+     * Creates a new reservation system with the given storage.
+     *
+     * @param storage    how the reserved times are stored
+     * @param isChecked  whether every operation is repeated on a
+     *                   {@link Storage#TREE_MAP} store and an
+     *                   IllegalStateException thrown if the two disagree
+     */
+    public ReservationBase(Storage storage, boolean isChecked) {
+        switch(storage) {
+            case INTERVALS:
+                store = new IntervalTimeStore();
+                break;
+            default:
+                store = new MapTimeStore();
+        }
+        checkStore = isChecked ? new MapTimeStore() : null;
     }
 
     //PUBLIC METHODS//
@@ -59,10 +94,10 @@ public class ReservationBase {
      * @param dt
      */
     public boolean isReserved(int dt) {
-        if(timeToRID.containsKey(dt))
-            return true;
-        else
-            return false;
+        boolean reserved = store.isReserved(dt);
+        if(checkStore != null)
+            check("isReserved(" + dt + ")", checkStore.isReserved(dt), reserved);
+        return reserved;
     }
 
     /**
@@ -71,10 +106,10 @@ public class ReservationBase {
      * @return
      */
     public int getReservationID(int dt) {
-        if(timeToRID.containsKey(dt))
-            return timeToRID.get(dt);
-        else
-            return -1;
+        int rid = store.getReservationID(dt);
+        if(checkStore != null)
+            check("getReservationID(" + dt + ")", checkStore.getReservationID(dt), rid);
+        return rid;
     }
 
     /**
@@ -84,7 +119,10 @@ public class ReservationBase {
      * @return whether the reservation ID exists
      */
     public boolean hasReservation(int rid) {
-        return ridToTime.containsKey(rid);
+        boolean exists = store.hasReservation(rid);
+        if(checkStore != null)
+            check("hasReservation(" + rid + ")", checkStore.hasReservation(rid), exists);
+        return exists;
     }
 
     /**
@@ -94,11 +132,10 @@ public class ReservationBase {
      *         -1 if there is currently no reservation.
      */
     public int getLastReservedDiscreteTime() {
-        try {
-            return timeToRID.lastKey();
-        } catch(NoSuchElementException e) {
-            return -1;
-        }
+        int dt = store.getLastReservedDiscreteTime();
+        if(checkStore != null)
+            check("getLastReservedDiscreteTime()", checkStore.getLastReservedDiscreteTime(), dt);
+        return dt;
     }
 
     /**
@@ -111,33 +148,12 @@ public class ReservationBase {
      * @return whether the reservation is successful
      */
     public boolean reserve(int rid, Collection<? extends TimeReservation> workingList) {
-        for(TimeReservation tr : workingList) {
-            int dt = tr.getDiscreteTime();
-            if(timeToRID.containsKey(dt)){
-                return false; //the time has been reserved.
-            }
-        }
-
-        int timeBegin = 0;
-        try {
-            timeBegin = timeToRID.firstKey();
-        } catch (NoSuchElementException e) {
-            //No times reserved. All times acceptable.
-        }
-
-        for(TimeReservation tr : workingList) {
-            int dt = tr.getDiscreteTime();
-
-            if(dt >= timeBegin) {
-                //Update timeToRID
-                timeToRID.put(dt, rid);
-                //Update ridToTime
-                if(!ridToTime.containsKey(rid))
-                    ridToTime.put(rid, new ArrayList<Integer>());
-            }
-            ridToTime.get(rid).add(dt);
+        boolean reserved = store.reserve(rid, workingList);
+        if(checkStore != null) {
+            check("reserve(" + rid + ")", checkStore.reserve(rid, workingList), reserved);
+            checkLastReservedTime();
         }
-        return true;
+        return reserved;
     }
 
     /**
@@ -147,14 +163,12 @@ public class ReservationBase {
      * @return whether the cancellation is successful
      */
     public boolean cancel(int rid) {
-        if(ridToTime.containsKey(rid)) {
-            List<Integer> times = ridToTime.remove(rid);
-            for(Integer time : times)
-                timeToRID.remove(time);
-            return true;
-        } else {
-            return false;
+        boolean cancelled = store.cancel(rid);
+        if(checkStore != null) {
+            check("cancel(" + rid + ")", checkStore.cancel(rid), cancelled);
+            checkLastReservedTime();
         }
+        return cancelled;
     }
 
     /**
@@ -162,24 +176,22 @@ public class ReservationBase {
      * @param dt the discrete time before which the reservations will be removed
      */
     public void cleanUp(int dt) {
-        List<Integer> timesToRemove = new ArrayList<Integer>();
-        //Clean up timeToRID
-        try {
-            while (timeToRID.firstKey() < dt) {
-                timesToRemove.add(timeToRID.firstKey());
-                timeToRID.remove(timeToRID.firstKey());
-            }
-        } catch (NoSuchElementException e) {
-            //do nothing
-        }
-        //Clean to ridToTime
-        List<Integer> ridsToRemove = new ArrayList<Integer>();
-        for(int rid : ridToTime.keySet()) {
-            ridToTime.get(rid).removeAll(timesToRemove);
-            if(ridToTime.get(rid).isEmpty())
-                ridsToRemove.add(rid);
+        store.cleanUp(dt);
+        if(checkStore != null) {
+            checkStore.cleanUp(dt);
+            checkLastReservedTime();
         }
-        for(int rid : ridsToRemove)
-            ridToTime.remove(rid);
+    }
+
+    //PRIVATE METHODS//
+    private void checkLastReservedTime() {
+        check("getLastReservedDiscreteTime()",
+              checkStore.getLastReservedDiscreteTime(), store.getLastReservedDiscreteTime());
+    }
+
+    private static void check(String operation, Object expected, Object actual) {
+        if(!expected.equals(actual))
+            throw new IllegalStateException("Reservation stores disagree on " + operation
+                    + ": expected " + expected + " but was " + actual);
     }
 }
\ No newline at end of file
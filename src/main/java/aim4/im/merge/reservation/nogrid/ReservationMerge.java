@@ -32,7 +32,20 @@ public class ReservationMerge extends ReservationBase {
 
     //CONSTRUCTOR//
     public ReservationMerge(MergeConnection merge, double mergeTimeStep) {
-        super();
+        this(merge, mergeTimeStep, Storage.TREE_MAP, false);
+    }
+
+    /**
+     * Create a merge reservation system with the given storage.
+     *
+     * @param merge          the merge connection being reserved
+     * @param mergeTimeStep  the time step
+     * @param storage        how the reserved times are stored
+     * @param isChecked      whether the storage is checked against a
+     *                       {@link Storage#TREE_MAP} store
+     */
+    public ReservationMerge(MergeConnection merge, double mergeTimeStep, Storage storage, boolean isChecked) {
+        super(storage, isChecked);
         this.merge = merge;
         this.mergeTimeStep = mergeTimeStep;
     }
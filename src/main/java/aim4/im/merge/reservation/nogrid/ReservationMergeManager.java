@@ -39,6 +39,14 @@ public class ReservationMergeManager implements
          * The length of a discrete time step in the merge
          */
         private double mergeTimeStep;
+        /**
+         * How the reserved times are stored
+         */
+        private ReservationBase.Storage reservationStorage = ReservationBase.Storage.TREE_MAP;
+        /**
+         * Whether the reservation storage is checked against a tree map store
+         */
+        private boolean isReservationStorageChecked = false;
 
         public Config(double timeStep, double mergeTimeStep) {
             this.timeStep = timeStep;
@@ -53,6 +61,29 @@ public class ReservationMergeManager implements
         public double getMergeTimeStep() {
             return mergeTimeStep;
         }
+
+        public ReservationBase.Storage getReservationStorage() {
+            return reservationStorage;
+        }
+
+        public boolean getIsReservationStorageChecked() {
+            return isReservationStorageChecked;
+        }
+
+        /**
+         * Set how the merge reservation system stores reserved times.
+         *
+         * @param reservationStorage  the storage
+         * @param isChecked           whether every operation is repeated on a
+         *                            {@link ReservationBase.Storage#TREE_MAP}
+         *                            store and the results compared, failing
+         *                            with an IllegalStateException if they
+         *                            differ
+         */
+        public void setReservationStorage(ReservationBase.Storage reservationStorage, boolean isChecked) {
+            this.reservationStorage = reservationStorage;
+            this.isReservationStorageChecked = isChecked;
+        }
     }
 
     public static class Query {
@@ -0,0 +1,25 @@
+package aim4.im.merge.reservation.nogrid;
+
+import java.util.Collection;
+
+/**
+ * The storage behind a {@link ReservationBase}: which reservation, if any,
+ * holds each discrete time, and which times each reservation holds. See
+ * {@link ReservationBase} for the meaning of each method.
+ */
+interface TimeStore {
+
+    boolean isReserved(int dt);
+
+    int getReservationID(int dt);
+
+    boolean hasReservation(int rid);
+
+    int getLastReservedDiscreteTime();
+
+    boolean reserve(int rid, Collection<? extends ReservationBase.TimeReservation> workingList);
+
+    boolean cancel(int rid);
+
+    void cleanUp(int dt);
+}
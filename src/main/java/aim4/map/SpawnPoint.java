@@ -1,11 +1,13 @@
 package aim4.map;
 
 import aim4.map.lane.Lane;
+import aim4.sim.SimContext;
 import aim4.vehicle.VehicleSpec;
 
 import java.awt.*;
 import java.awt.geom.Point2D;
 import java.util.List;
+import java.util.Random;
 
 /**
  * An abstract spawn point.
@@ -78,6 +80,8 @@ public abstract class SpawnPoint {
      * vehicle is spawned.
      */
     protected Shape noVehicleZone;
+    /** The random number stream of this spawn point; created on first use */
+    private Random random;
 
     /////////////////////////////////
     // CONSTRUCTORS
@@ -186,4 +190,19 @@ public abstract class SpawnPoint {
     public Shape getNoVehicleZone() {
         return noVehicleZone;
     }
+
+    /**
+     * Get the random number stream the spawns of this spawn point are drawn
+     * from. It is the stream of the spawn point's lane in the random number
+     * streams of the current simulation, so it does not depend on what
+     * other spawn points draw.
+     *
+     * @return the random number stream of this spawn point
+     */
+    public Random getRandom() {
+        if (random == null) {
+            random = SimContext.current().getRandomStreams().stream("spawn", lane.getId());
+        }
+        return random;
+    }
 }
@@ -80,5 +80,13 @@ public interface BasicIntersectionMap extends BasicMap {
    */
   List<AIMSpawnPoint> getSpawnPoints();
 
+  /**
+   * Get the table of the fastest routes through this Layout, which is
+   * shared by all navigators on it.
+   *
+   * @return the route table
+   */
+  RouteTable getRouteTable();
+
 
 }
@@ -106,6 +106,8 @@ public class GridIntersectionMap implements BasicIntersectionMap {
             new ArrayListRegistry<IntersectionManager>();
     /** A mapping form lanes to roads they belong */
     private Map<Lane,Road> laneToRoad = new HashMap<Lane,Road>();
+    /** The fastest routes through the map */
+    private final RouteTable routeTable = new RouteTable(this);
 
     /////////////////////////////////
     // CLASS CONSTRUCTORS
@@ -372,7 +374,7 @@ public class GridIntersectionMap implements BasicIntersectionMap {
         spawnPoints.addAll(horizontalSpawnPoints);
         spawnPoints.addAll(verticalSpawnPoints);
 
-        Debug.currentMap = this;
+        Debug.setCurrentMap(this);
     }
 
     /**
@@ -394,7 +396,7 @@ public class GridIntersectionMap implements BasicIntersectionMap {
 
         spawnPoints.addAll(horizontalSpawnPoints);
 
-        Debug.currentMap = this;
+        Debug.setCurrentMap(this);
     }
 
     /**
@@ -627,6 +629,7 @@ public class GridIntersectionMap implements BasicIntersectionMap {
         }
         intersectionManagerGrid[column][row] = im;
         intersectionManagers.add(im);
+        routeTable.clear();
     }
 
 
@@ -640,6 +643,15 @@ public class GridIntersectionMap implements BasicIntersectionMap {
             }
         }
         intersectionManagers.clear();
+        routeTable.clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public RouteTable getRouteTable() {
+        return routeTable;
     }
 
     /**
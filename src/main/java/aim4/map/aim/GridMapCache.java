@@ -0,0 +1,244 @@
+package aim4.map.aim;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import aim4.map.Road;
+import aim4.map.lane.Lane;
+
+/**
+ * An on-disk cache of the derived geometry of grid map intersections, so
+ * that runs with the same map read the geometry instead of computing it.
+ * Each entry is a file keyed by the geometry of the lanes of the intersection
+ * and the tile size. The file starts with a format version and the key, and
+ * the geometry is guarded by a checksum; a file which does not match is
+ * ignored and replaced. Files are read through a memory map and replaced
+ * atomically, so one directory can be shared by concurrent runs.
+ * <p>
+ * Bump {@link #VERSION} whenever the way the geometry is computed or written
+ * changes.
+ */
+public class GridMapCache {
+
+    /////////////////////////////////
+    // CONSTANTS
+    /////////////////////////////////
+
+    /**
+     * The system property naming the cache directory used by
+     * {@link GridMapUtil}; no cache is used if it is not set.
+     */
+    public static final String DIRECTORY_PROPERTY = "aim4.mapCache";
+    /** The first bytes of a cache file: "AIMC" */
+    private static final int MAGIC = 0x41494D43;
+    /** The version of the cache file format */
+    private static final int VERSION = 1;
+
+    /////////////////////////////////
+    // PRIVATE FIELDS
+    /////////////////////////////////
+
+    /** The directory of the cache files */
+    private final File directory;
+
+    /////////////////////////////////
+    // CLASS CONSTRUCTORS
+    /////////////////////////////////
+
+    /**
+     * Create a cache.
+     *
+     * @param directory  the directory of the cache files; created when the
+     *                   first file is written
+     */
+    public GridMapCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get the cache in the directory named by {@link #DIRECTORY_PROPERTY}.
+     *
+     * @return the cache, or null if the property is not set
+     */
+    public static GridMapCache fromSystemProperty() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        return directory == null ? null : new GridMapCache(new File(directory));
+    }
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    /**
+     * Get the directory of the cache files.
+     *
+     * @return the directory of the cache files
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Read the geometry of an intersection from the cache, or compute it and
+     * write it to the cache if it is not there. A cache file which cannot be
+     * written is reported, and the computed geometry returned anyway.
+     *
+     * @param roads        the roads of the intersection
+     * @param granularity  the length of the sides of the tiles
+     * @return the geometry of the intersection
+     */
+    IntersectionTemplate getTemplate(List<Road> roads, double granularity) {
+        IntersectionTemplate template = load(roads, granularity);
+        if (template == null) {
+            template = new IntersectionTemplate(roads, granularity);
+            try {
+                store(roads, granularity, template);
+            } catch (IOException e) {
+                System.err.println("Could not write to the map cache: " + e.getMessage());
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Read the geometry of an intersection from the cache.
+     *
+     * @param roads        the roads of the intersection
+     * @param granularity  the length of the sides of the tiles
+     * @return the geometry, or null if it is not in the cache or its file
+     *         is of another version or damaged
+     */
+    IntersectionTemplate load(List<Road> roads, double granularity) {
+        byte[] key = key(roads, granularity);
+        File file = fileFor(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return null;
+            }
+            int keyLength = in.getInt();
+            if (keyLength != key.length) {
+                return null;
+            }
+            byte[] storedKey = new byte[keyLength];
+            in.get(storedKey);
+            if (!Arrays.equals(key, storedKey)) {
+                return null;
+            }
+            int length = in.getInt();
+            long checksum = in.getLong();
+            if (length < 0 || length > in.remaining()) {
+                return null;
+            }
+            ByteBuffer payload = in.slice();
+            payload.limit(length);
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if (crc.getValue() != checksum) {
+                return null;
+            }
+            return IntersectionTemplate.readFrom(payload, roads);
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException
+                | IndexOutOfBoundsException e) {
+            System.err.println("Ignoring the map cache file " + file + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Write the geometry of an intersection to the cache, replacing the file
+     * of the same key.
+     *
+     * @param roads        the roads of the intersection
+     * @param granularity  the length of the sides of the tiles
+     * @param template     the geometry of the intersection
+     * @throws IOException if the file cannot be written
+     */
+    void store(List<Road> roads, double granularity, IntersectionTemplate template)
+            throws IOException {
+        byte[] key = key(roads, granularity);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream payloadOut = new DataOutputStream(payload);
+        template.writeTo(payloadOut);
+        payloadOut.flush();
+        CRC32 crc = new CRC32();
+        crc.update(payload.toByteArray());
+
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Could not create " + directory);
+        }
+        File file = fileFor(key);
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeInt(payload.size());
+                out.writeLong(crc.getValue());
+                payload.writeTo(out);
+            }
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            temp.delete();
+        }
+    }
+
+    /////////////////////////////////
+    // PRIVATE METHODS
+    /////////////////////////////////
+
+    /**
+     * Get the key of an intersection: the tile size and the ends and widths
+     * of the lanes of its roads.
+     */
+    private static byte[] key(List<Road> roads, double granularity) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeDouble(granularity);
+            out.writeInt(roads.size());
+            for (Road road : roads) {
+                out.writeInt(road.getLanes().size());
+                for (Lane lane : road.getLanes()) {
+                    out.writeUTF(lane.getClass().getName());
+                    out.writeDouble(lane.getStartPoint().getX());
+                    out.writeDouble(lane.getStartPoint().getY());
+                    out.writeDouble(lane.getEndPoint().getX());
+                    out.writeDouble(lane.getEndPoint().getY());
+                    out.writeDouble(lane.getWidth());
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);  // not thrown by a byte array
+        }
+        return bytes.toByteArray();
+    }
+
+    private File fileFor(byte[] key) {
+        CRC32 crc = new CRC32();
+        crc.update(key);
+        return new File(directory, String.format("grid-%08x.bin", crc.getValue()));
+    }
+}
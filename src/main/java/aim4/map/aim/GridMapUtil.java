@@ -50,6 +50,8 @@ import aim4.map.aim.destination.RandomDestinationSelector;
 import aim4.map.aim.destination.RatioDestinationSelector;
 import aim4.map.aim.destination.TurnBasedDestinationSelector;
 import aim4.map.lane.Lane;
+import aim4.sim.SimContext;
+import aim4.util.TiledArea;
 import aim4.util.Util;
 import aim4.vehicle.VehicleSpec;
 import aim4.vehicle.VehicleSpecDatabase;
@@ -65,6 +67,8 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * The utility class for GridIntersectionMap.
@@ -123,16 +127,17 @@ public class GridMapUtil {
          */
         @Override
         public List<AIMSpawnSpec> act(AIMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<AIMSpawnSpec> result = new LinkedList<AIMSpawnSpec>();
 
             double initTime = spawnPoint.getCurrentTime();
             for(double time = initTime; time < initTime + timeStep;
                 time += SimConfig.SPAWN_TIME_STEP) {
-                if (Util.random.nextDouble() < prob) {
-                    int i = Util.randomIndex(proportion);
+                if (random.nextDouble() < prob) {
+                    int i = Util.randomIndex(proportion, random);
                     VehicleSpec vehicleSpec = VehicleSpecDatabase.getVehicleSpecById(i);
                     Road destinationRoad =
-                            destinationSelector.selectDestination(spawnPoint.getLane());
+                            destinationSelector.selectDestination(spawnPoint.getLane(), random);
 
                     // maybe spawnPoint.getCurrentTime() is incorrect
                     result.add(new AIMSpawnSpec(spawnPoint.getCurrentTime(),
@@ -179,14 +184,15 @@ public class GridMapUtil {
          */
         @Override
         public List<AIMSpawnSpec> act(AIMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<AIMSpawnSpec> result = new LinkedList<AIMSpawnSpec>();
 
             double initTime = spawnPoint.getCurrentTime();
             for(double time = initTime; time < initTime + timeStep;
                 time += SimConfig.SPAWN_TIME_STEP) {
-                if (Util.random.nextDouble() < prob) {
+                if (random.nextDouble() < prob) {
                     Road destinationRoad =
-                            destinationSelector.selectDestination(spawnPoint.getLane());
+                            destinationSelector.selectDestination(spawnPoint.getLane(), random);
 
                     result.add(new AIMSpawnSpec(spawnPoint.getCurrentTime(),
                             vehicleSpec,
@@ -282,7 +288,7 @@ public class GridMapUtil {
                                            double spawnPeriod) {
             this.destinationRoads = new ArrayList<Road>(destinationRoads.size());
             for(Road road : destinationRoads) {
-                if (Debug.currentMap.getRoad(spawnPoint.getLane()).getDual() != road) {
+                if (Debug.getCurrentMap().getRoad(spawnPoint.getLane()).getDual() != road) {
                     this.destinationRoads.add(road);
                 }
             }
@@ -428,13 +434,14 @@ public class GridMapUtil {
          */
         @Override
         public List<AIMSpawnSpec> act(AIMSpawnPoint spawnPoint, double timestep) {
+            Random random = spawnPoint.getRandom();
             List<AIMSpawnSpec> result = new LinkedList<AIMSpawnSpec>();
 
             if(!spawnPointAlreadySpawned.contains(spawnPoint)) {
                 spawnPointAlreadySpawned.add(spawnPoint);
                 double initTime = spawnPoint.getCurrentTime();
                 if (this.spec == null) {
-                    int i = Util.randomIndex(proportion);
+                    int i = Util.randomIndex(proportion, random);
                     this.spec = VehicleSpecDatabase.getVehicleSpecById(i);
                 }
 
@@ -446,6 +453,76 @@ public class GridMapUtil {
     }
 
 
+    /**
+     * Makes the V2I managers of the intersections of a grid map.  All the
+     * intersections of a grid map are translations of one another, so the
+     * geometry, the track model and the tiles of the first intersection are
+     * worked out once, or read from the {@link GridMapCache} if one is set
+     * up, and moved to the other intersections.
+     */
+    private static class V2IManagerFactory {
+        /** The map */
+        private final GridIntersectionMap layout;
+        /** The current time */
+        private final double currentTime;
+        /** The reservation grid manager configuration */
+        private final ReservationGridManager.Config config;
+        /** The geometry of the first intersection */
+        private IntersectionTemplate template = null;
+
+        /**
+         * Create a factory of the V2I managers of a map.
+         *
+         * @param layout       the map
+         * @param currentTime  the current time
+         * @param config       the reservation grid manager configuration
+         */
+        V2IManagerFactory(GridIntersectionMap layout,
+                          double currentTime,
+                          ReservationGridManager.Config config) {
+            this.layout = layout;
+            this.currentTime = currentTime;
+            this.config = config;
+        }
+
+        /**
+         * Make the V2I manager of an intersection, without a policy.
+         *
+         * @param column  the column of the intersection
+         * @param row     the row of the intersection
+         * @return the V2I manager
+         */
+        V2IManager makeManager(int column, int row) {
+            List<Road> roads = layout.getRoads(column, row);
+            RoadBasedIntersection intersection;
+            RoadBasedTrackModel trajectoryModel;
+            TiledArea tiledArea;
+            if (template == null) {
+                GridMapCache cache = GridMapCache.fromSystemProperty();
+                template = cache == null
+                        ? new IntersectionTemplate(roads, config.getGranularity())
+                        : cache.getTemplate(roads, config.getGranularity());
+                intersection = template.getIntersection();
+                trajectoryModel = template.getTrackModel();
+                tiledArea = template.getTiledArea();
+            } else {
+                // the roads are a vertical pair followed by a horizontal pair
+                List<Road> templateRoads = template.getIntersection().getRoads();
+                double dx = roads.get(0).getIndexLane().getStartPoint().getX()
+                        - templateRoads.get(0).getIndexLane().getStartPoint().getX();
+                double dy = roads.get(2).getIndexLane().getStartPoint().getY()
+                        - templateRoads.get(2).getIndexLane().getStartPoint().getY();
+                intersection = template.getIntersection().translate(roads, dx, dy);
+                trajectoryModel = template.getTrackModel().translate(intersection);
+                tiledArea = new TiledArea(intersection.getArea(),
+                        template.getTiledArea());
+            }
+            return new V2IManager(intersection, trajectoryModel, tiledArea,
+                    currentTime, config, layout.getImRegistry());
+        }
+    }
+
+
     /////////////////////////////////
     // PUBLIC STATIC METHODS
     /////////////////////////////////
@@ -462,15 +539,11 @@ public class GridMapUtil {
                                        double currentTime,
                                        ReservationGridManager.Config config) {
         layout.removeAllManagers();
+        V2IManagerFactory managers =
+                new V2IManagerFactory(layout, currentTime, config);
         for(int column = 0; column < layout.getColumns(); column++) {
             for(int row = 0; row < layout.getRows(); row++) {
-                List<Road> roads = layout.getRoads(column, row);
-                RoadBasedIntersection intersection = new RoadBasedIntersection(roads);
-                RoadBasedTrackModel trajectoryModel =
-                        new RoadBasedTrackModel(intersection);
-                V2IManager im =
-                        new V2IManager(intersection, trajectoryModel, currentTime,
-                                config, layout.getImRegistry());
+                V2IManager im = managers.makeManager(column, row);
                 im.setPolicy(new BasePolicy(im, new FCFSRequestHandler()));
                 layout.setManager(column, row, im);
             }
@@ -489,20 +562,41 @@ public class GridMapUtil {
                                         double currentTime,
                                         ReservationGridManager.Config config,
                                         double processingInterval) {
+        setBatchManagers(layout, currentTime, config, processingInterval, 1);
+    }
+
+    /**
+     * Set the bath managers at all intersections, evaluating the proposals
+     * of each batch in parallel.
+     *
+     * @param layout              the map
+     * @param currentTime         the current time
+     * @param config              the reservation grid manager configuration
+     * @param processingInterval  the processing interval
+     * @param parallelism         the number of threads on which the proposals
+     *                            of a batch are evaluated; 1 to evaluate them
+     *                            one by one
+     */
+    public static void setBatchManagers(GridIntersectionMap layout,
+                                        double currentTime,
+                                        ReservationGridManager.Config config,
+                                        double processingInterval,
+                                        int parallelism) {
+        // the intersections are processed one at a time, so they can share
+        // a pool, which is kept when the managers are replaced
+        ForkJoinPool evaluationPool =
+                SimContext.current().getEvaluationPool(parallelism);
         layout.removeAllManagers();
+        V2IManagerFactory managers =
+                new V2IManagerFactory(layout, currentTime, config);
         for(int column = 0; column < layout.getColumns(); column++) {
             for(int row = 0; row < layout.getRows(); row++) {
-                List<Road> roads = layout.getRoads(column, row);
-                RoadBasedIntersection intersection = new RoadBasedIntersection(roads);
-                RoadBasedTrackModel trajectoryModel =
-                        new RoadBasedTrackModel(intersection);
-                V2IManager im =
-                        new V2IManager(intersection, trajectoryModel, currentTime,
-                                config, layout.getImRegistry());
+                V2IManager im = managers.makeManager(column, row);
                 RequestHandler rh =
                         new BatchModeRequestHandler(
                                 new RoadBasedReordering(processingInterval),
-                                new BatchModeRequestHandler.RequestStatCollector());
+                                new BatchModeRequestHandler.RequestStatCollector(),
+                                evaluationPool);
                 im.setPolicy(new BasePolicy(im, rh));
                 layout.setManager(column, row, im);
             }
@@ -527,15 +621,11 @@ public class GridMapUtil {
             double yellowLightDuration) {
 
         layout.removeAllManagers();
+        V2IManagerFactory managers =
+                new V2IManagerFactory(layout, currentTime, config);
         for (int column = 0; column < layout.getColumns(); column++) {
             for (int row = 0; row < layout.getRows(); row++) {
-                List<Road> roads = layout.getRoads(column, row);
-                RoadBasedIntersection intersection = new RoadBasedIntersection(roads);
-                RoadBasedTrackModel trajectoryModel =
-                        new RoadBasedTrackModel(intersection);
-                V2IManager im =
-                        new V2IManager(intersection, trajectoryModel, currentTime,
-                                config, layout.getImRegistry());
+                V2IManager im = managers.makeManager(column, row);
                 ApproxSimpleTrafficSignalRequestHandler requestHandler =
                         new ApproxSimpleTrafficSignalRequestHandler(greenLightDuration,
                                 yellowLightDuration);
@@ -562,15 +652,11 @@ public class GridMapUtil {
             double greenLightDuration,
             double yellowLightDuration) {
         layout.removeAllManagers();
+        V2IManagerFactory managers =
+                new V2IManagerFactory(layout, currentTime, config);
         for(int column = 0; column < layout.getColumns(); column++) {
             for(int row = 0; row < layout.getRows(); row++) {
-                List<Road> roads = layout.getRoads(column, row);
-                RoadBasedIntersection intersection = new RoadBasedIntersection(roads);
-                RoadBasedTrackModel trajectoryModel =
-                        new RoadBasedTrackModel(intersection);
-                V2IManager im =
-                        new V2IManager(intersection, trajectoryModel, currentTime,
-                                config, layout.getImRegistry());
+                V2IManager im = managers.makeManager(column, row);
                 Approx4PhasesTrafficSignalRequestHandler requestHandler =
                         new Approx4PhasesTrafficSignalRequestHandler(greenLightDuration,
                                 yellowLightDuration);
@@ -597,15 +683,11 @@ public class GridMapUtil {
             String trafficSignalPhaseFileName) {
 
         layout.removeAllManagers();
+        V2IManagerFactory managers =
+                new V2IManagerFactory(layout, currentTime, config);
         for (int column = 0; column < layout.getColumns(); column++) {
             for (int row = 0; row < layout.getRows(); row++) {
-                List<Road> roads = layout.getRoads(column, row);
-                RoadBasedIntersection intersection = new RoadBasedIntersection(roads);
-                RoadBasedTrackModel trajectoryModel =
-                        new RoadBasedTrackModel(intersection);
-                V2IManager im =
-                        new V2IManager(intersection, trajectoryModel, currentTime,
-                                config, layout.getImRegistry());
+                V2IManager im = managers.makeManager(column, row);
                 ApproxNPhasesTrafficSignalRequestHandler requestHandler =
                         new ApproxNPhasesTrafficSignalRequestHandler();
 
@@ -637,15 +719,11 @@ public class GridMapUtil {
                                                  double currentTime,
                                                  ReservationGridManager.Config config) {
         layout.removeAllManagers();
+        V2IManagerFactory managers =
+                new V2IManagerFactory(layout, currentTime, config);
         for(int column = 0; column < layout.getColumns(); column++) {
             for(int row = 0; row < layout.getRows(); row++) {
-                List<Road> roads = layout.getRoads(column, row);
-                RoadBasedIntersection intersection = new RoadBasedIntersection(roads);
-                RoadBasedTrackModel trajectoryModel =
-                        new RoadBasedTrackModel(intersection);
-                V2IManager im =
-                        new V2IManager(intersection, trajectoryModel, currentTime,
-                                config, layout.getImRegistry());
+                V2IManager im = managers.makeManager(column, row);
                 ApproxStopSignRequestHandler requestHandler =
                         new ApproxStopSignRequestHandler();
                 im.setPolicy(new BasePolicy(im, requestHandler));
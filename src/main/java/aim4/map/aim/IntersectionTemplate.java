@@ -0,0 +1,104 @@
+package aim4.map.aim;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import aim4.im.aim.RoadBasedIntersection;
+import aim4.im.aim.RoadBasedTrackModel;
+import aim4.map.Road;
+import aim4.util.TiledArea;
+
+/**
+ * The derived geometry of an intersection of a grid map: the intersection,
+ * its track model and its tiles. The other intersections of the map are
+ * translations of it, and it can be written to a {@link GridMapCache}.
+ */
+class IntersectionTemplate {
+
+    /////////////////////////////////
+    // PRIVATE FIELDS
+    /////////////////////////////////
+
+    /** The intersection */
+    private final RoadBasedIntersection intersection;
+    /** The track model of the intersection */
+    private final RoadBasedTrackModel trackModel;
+    /** The tiled area of the intersection */
+    private final TiledArea tiledArea;
+
+    /////////////////////////////////
+    // CLASS CONSTRUCTORS
+    /////////////////////////////////
+
+    /**
+     * Compute the geometry of the intersection of some roads.
+     *
+     * @param roads        the roads of the intersection
+     * @param granularity  the length of the sides of the tiles
+     */
+    IntersectionTemplate(List<Road> roads, double granularity) {
+        this.intersection = new RoadBasedIntersection(roads);
+        this.trackModel = new RoadBasedTrackModel(intersection);
+        this.tiledArea = new TiledArea(intersection.getArea(), granularity);
+    }
+
+    private IntersectionTemplate(RoadBasedIntersection intersection,
+                                 RoadBasedTrackModel trackModel,
+                                 TiledArea tiledArea) {
+        this.intersection = intersection;
+        this.trackModel = trackModel;
+        this.tiledArea = tiledArea;
+    }
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    RoadBasedIntersection getIntersection() {
+        return intersection;
+    }
+
+    RoadBasedTrackModel getTrackModel() {
+        return trackModel;
+    }
+
+    TiledArea getTiledArea() {
+        return tiledArea;
+    }
+
+    /**
+     * Write the geometry.
+     *
+     * @param out  where to write the geometry
+     * @throws IOException if the geometry cannot be written
+     */
+    void writeTo(DataOutput out) throws IOException {
+        intersection.writeTo(out);
+        trackModel.writeTo(out);
+        tiledArea.writeTo(out);
+    }
+
+    /**
+     * Read the geometry written by {@link #writeTo(DataOutput)}.
+     *
+     * @param in     the buffer to read the geometry from
+     * @param roads  the roads of the intersection, arranged like the roads
+     *               of the written intersection
+     * @return the template
+     * @throws java.nio.BufferUnderflowException if the buffer ends before
+     *                                           the geometry
+     * @throws IllegalArgumentException if the geometry is malformed
+     * @throws IndexOutOfBoundsException if the geometry refers to a lane or
+     *                                   road which does not exist
+     */
+    static IntersectionTemplate readFrom(ByteBuffer in, List<Road> roads) {
+        RoadBasedIntersection intersection =
+                RoadBasedIntersection.readFrom(in, roads);
+        RoadBasedTrackModel trackModel =
+                RoadBasedTrackModel.readFrom(in, intersection);
+        TiledArea tiledArea = TiledArea.readFrom(in, intersection.getArea());
+        return new IntersectionTemplate(intersection, trackModel, tiledArea);
+    }
+}
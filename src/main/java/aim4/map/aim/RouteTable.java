@@ -0,0 +1,453 @@
+package aim4.map.aim;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import aim4.im.aim.IntersectionManager;
+import aim4.map.Road;
+import aim4.util.Util;
+import aim4.vehicle.VehicleSpec;
+import aim4.vehicle.VehicleUtil;
+
+/**
+ * The fastest routes through the intersections of a map, shared by all the
+ * navigators of the map. A route is found by an A* search the first time
+ * it is asked for and kept for as long as the intersection managers of the
+ * map stay the same, so vehicles of the same specification going the same
+ * way do not repeat the search.
+ * <p>
+ * The table may be read from several threads at once, as long as each has
+ * bound the map's {@link aim4.sim.SimContext}: a search takes its turn
+ * velocities from {@link VehicleUtil#maxTurnVelocity}, which memoizes them
+ * in the context's thread-safe
+ * {@link aim4.vehicle.VehicleUtil.TurnVelocityMemo}. The routes can also be
+ * found in advance, see {@link #precompute(Collection)}, so that no search
+ * happens while the simulation is running.
+ */
+public class RouteTable {
+
+  /////////////////////////////////
+  // NESTED CLASSES
+  /////////////////////////////////
+
+  /**
+   * The fastest route from a road approaching an intersection to a
+   * destination road.
+   */
+  public static class Route {
+
+    /** The IDs of the index lanes of the roads on the route */
+    private final List<Integer> path;
+    /** The IDs of the IMs the roads of the route lead to; -1 for none */
+    private final List<Integer> pathIMs;
+
+    private Route(List<Integer> path, List<Integer> pathIMs) {
+      this.path = Collections.unmodifiableList(path);
+      this.pathIMs = Collections.unmodifiableList(pathIMs);
+    }
+
+    /**
+     * Get the IDs of the index lanes of the roads on the route, starting
+     * with the road the route starts from.
+     *
+     * @return the IDs of the index lanes of the roads on the route
+     */
+    public List<Integer> getPath() {
+      return path;
+    }
+
+    /**
+     * Get the IDs of the intersection managers the roads of the route lead
+     * to, in the same order as {@link #getPath()}. The last road leads to
+     * none, which is given as -1.
+     *
+     * @return the IDs of the intersection managers on the route
+     */
+    public List<Integer> getPathIMs() {
+      return pathIMs;
+    }
+  }
+
+  /**
+   * The key of a route.
+   */
+  private static final class Key {
+    /** The name of the vehicle specification */
+    private final String specName;
+    /** The maximum velocity of the vehicle specification */
+    private final double maxVelocity;
+    /** The ID of the index lane of the current road */
+    private final int laneId;
+    /** The ID of the IM being approached */
+    private final int imId;
+    /** The ID of the index lane of the destination road */
+    private final int destinationLaneId;
+
+    private Key(VehicleSpec spec, int laneId, int imId, int destinationLaneId) {
+      this.specName = spec.getName();
+      this.maxVelocity = spec.getMaxVelocity();
+      this.laneId = laneId;
+      this.imId = imId;
+      this.destinationLaneId = destinationLaneId;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) obj;
+      return laneId == key.laneId
+        && imId == key.imId
+        && destinationLaneId == key.destinationLaneId
+        && Double.compare(maxVelocity, key.maxVelocity) == 0
+        && specName.equals(key.specName);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = specName.hashCode();
+      h = 31 * h + (int) Double.doubleToLongBits(maxVelocity);
+      h = 31 * h + laneId;
+      h = 31 * h + imId;
+      h = 31 * h + destinationLaneId;
+      return h;
+    }
+  }
+
+  /**
+   * A node in the A* search.
+   */
+  private class Node implements Comparable<Node> {
+
+    /** The list of nodes in the path. */
+    private List<Integer> path;
+    /** The list of IMs in the path. */
+    private List<Integer> pathIMs;
+    /** The distance from the origin to the current node. */
+    private double actualMeasure;
+    /** The estimated distance from the current node to the destination. */
+    private double estimatedRemainingMeasure;
+
+    /**
+     * Create a node in the A* search.
+     *
+     * @param nodeId                      the node Id
+     * @param pathIM                      the IM's Id
+     * @param actualMeasure               the current distance from the origin
+     *                                    to the current node
+     * @param estimatedRemainingMeasure   the estimated distance from the
+     *                                    current node to the destination
+     */
+    public Node(int nodeId,
+                int pathIM,
+                double actualMeasure,
+                double estimatedRemainingMeasure) {
+      this.path = new ArrayList<Integer>();
+      this.pathIMs = new ArrayList<Integer>();
+      this.path.add(nodeId);
+      this.pathIMs.add(pathIM);
+      this.actualMeasure = actualMeasure;
+      this.estimatedRemainingMeasure = estimatedRemainingMeasure;
+    }
+
+    /**
+     * Create a node in the A* search.
+     *
+     * @param path                       the path
+     * @param pathIMs                    the list of IM's Ids of the path
+     * @param actualMeasure              the estimated distance from the current
+     *                                   node to the destination node
+     * @param estimatedRemainingMeasure  the estimated distance from the
+     *                                   current node to the destination
+     */
+    public Node(List<Integer> path,
+                List<Integer> pathIMs,
+                double actualMeasure,
+                double estimatedRemainingMeasure) {
+      this.path = path;
+      this.pathIMs = pathIMs;
+      this.actualMeasure = actualMeasure;
+      this.estimatedRemainingMeasure = estimatedRemainingMeasure;
+    }
+
+    /**
+     * Compare to a node according to the estimated path length.
+     *
+     * @param np  the given node
+     * @return the sign indicating the estimated path lengths difference.
+     */
+    @Override
+    public int compareTo(Node np) {
+      return Double.compare(actualMeasure + estimatedRemainingMeasure,
+                            np.actualMeasure + np.estimatedRemainingMeasure);
+    }
+
+    /**
+     * Create a new node with an additional one node.
+     *
+     * @param pathAddition               the new node ID
+     * @param pathIM                     the new path to the new node
+     * @param additionMeasure            the additional distance
+     * @param estimatedRemainingMeasure  the new estimated distance from
+     *                                   the current node to the destination
+     * @return the new node
+     */
+    public Node makeUpdatedNode(int pathAddition,
+                                int pathIM,
+                                double additionMeasure,
+                                double estimatedRemainingMeasure) {
+      List<Integer> nextPath = new ArrayList<Integer>(path);
+      nextPath.add(pathAddition);
+      List<Integer> nextPathIMs = new ArrayList<Integer>(pathIMs);
+      nextPathIMs.add(pathIM);
+      return new Node(nextPath,
+                      nextPathIMs,
+                      actualMeasure + additionMeasure,
+                      estimatedRemainingMeasure);
+    }
+
+    /**
+     * Whether the destination has been reached.
+     *
+     * @return whether the destination has been reached.
+     */
+    public boolean isComplete() {
+      return estimatedRemainingMeasure == 0;
+    }
+
+    /**
+     * The road of the last node.
+     *
+     * @return the road of the last node
+     */
+    public Road getLastRoad() {
+      return map.getRoad(path.get(path.size() - 1));
+    }
+
+    /**
+     * Get the last IM's ID.
+     *
+     * @return the last IM's ID
+     */
+    public int getLastIMid() {
+      return pathIMs.get(pathIMs.size() - 1);
+    }
+  }
+
+  /////////////////////////////////
+  // PRIVATE FIELDS
+  /////////////////////////////////
+
+  /** The marker of a pair of roads with no route between them */
+  private static final Route NO_ROUTE =
+    new Route(new ArrayList<Integer>(), new ArrayList<Integer>());
+
+  /** The map */
+  private final BasicIntersectionMap map;
+
+  /** The routes found so far */
+  private final ConcurrentMap<Key, Route> routes =
+    new ConcurrentHashMap<Key, Route>();
+
+  /////////////////////////////////
+  // CLASS CONSTRUCTORS
+  /////////////////////////////////
+
+  /**
+   * Create an empty route table for a map.
+   *
+   * @param map  the map
+   */
+  public RouteTable(BasicIntersectionMap map) {
+    this.map = map;
+  }
+
+  /////////////////////////////////
+  // PUBLIC METHODS
+  /////////////////////////////////
+
+  /**
+   * Get the fastest route for a vehicle from a road approaching an
+   * intersection to a destination road, searching for it if it has not been
+   * asked for before.
+   *
+   * @param spec         the vehicle's specification
+   * @param currentRoad  the road on which the vehicle is currently traveling
+   * @param im           the intersection manager the vehicle is approaching
+   * @param destRoad     the road on which the vehicle would ultimately like
+   *                     to end up
+   * @return the fastest route; null if there is none
+   */
+  public Route findRoute(VehicleSpec spec, Road currentRoad,
+                         IntersectionManager im, Road destRoad) {
+    Key key = new Key(spec,
+                      currentRoad.getIndexLane().getId(),
+                      im.getId(),
+                      destRoad.getIndexLane().getId());
+    Route route = routes.get(key);
+    if (route == null) {
+      // Two threads may search for the same route; they find the same one,
+      // as the turn velocity memo they share is thread-safe.
+      Node np = aStarSearchFastest(spec, currentRoad, im, destRoad);
+      route = (np == null) ? NO_ROUTE : new Route(np.path, np.pathIMs);
+      routes.putIfAbsent(key, route);
+    }
+    return (route == NO_ROUTE) ? null : route;
+  }
+
+  /**
+   * Find the routes for the given vehicle specifications from every road
+   * entering every intersection of the map to every destination road.
+   *
+   * @param specs  the vehicle specifications
+   */
+  public void precompute(Collection<VehicleSpec> specs) {
+    for (VehicleSpec spec : specs) {
+      for (IntersectionManager im : map.getIntersectionManagers()) {
+        for (Road road : im.getIntersection().getEntryRoads()) {
+          for (Road destRoad : map.getDestinationRoads()) {
+            findRoute(spec, road, im, destRoad);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Forget all routes. This must be called whenever the intersection
+   * managers of the map change.
+   */
+  public void clear() {
+    routes.clear();
+  }
+
+  /**
+   * Get the number of routes found so far, including the pairs of roads
+   * with no route between them.
+   *
+   * @return the number of routes found so far
+   */
+  public int size() {
+    return routes.size();
+  }
+
+  /////////////////////////////////
+  // PRIVATE METHODS
+  /////////////////////////////////
+
+  /**
+   * Find the fastest path by A* search
+   *
+   * @param vehicleSpec  the vehicle's specification
+   * @param currentRoad  the Road on which the vehicle is currently traveling
+   * @param im           the IntersectionManager the vehicle is approaching
+   * @param destRoad     the Road on which the vehicle would ultimately like to
+   *                     end up
+   * @return  the node at the end of the fastest path; null if there is none
+   */
+  private Node aStarSearchFastest(VehicleSpec vehicleSpec, Road currentRoad,
+                                  IntersectionManager im, Road destRoad) {
+    // the queue
+    PriorityQueue<Node> queue = new PriorityQueue<Node>();
+
+    // initial point
+    Point2D initPoint = im.getIntersection().getEntryPoint(
+                        currentRoad.getIndexLane());
+
+    // the initial node
+    double estMeas = initPoint.distance(destRoad.getIndexLane().getEndPoint()) /
+                     currentRoad.getMaximumConnectedSpeedLimit();
+
+    Node initialNode = new Node(currentRoad.getIndexLane().getId(),
+                                im.getId(),
+                                0.0, // actual measure
+                                estMeas);   // remaining estimate
+    // kick off
+    queue.add(initialNode);
+
+    // Now we just do A* search. We remove items from the Queue.  If they are
+    // complete, then YAY we have found the path.  If not, we explore the
+    // neighbors, update and add them all.
+    while(!queue.isEmpty() && !queue.peek().isComplete()) {
+      Node node = queue.poll();  // the current node
+      IntersectionManager nodeIM =
+        map.getImRegistry().get(node.getLastIMid());
+      Road nodeRoad = node.getLastRoad();
+
+      // for each departure road of the current node
+      for(Road r : nodeIM.getIntersection().getExitRoads()) {
+
+        // Don't come out the way we went in
+        if(r == nodeRoad.getDual()) {
+          continue;  // skip this node
+        }
+
+        // We need to find out how long it will take to cross the IM,
+        // and get to the subsequent IM
+        // Find out how fast we can take the turn
+        double maxTurnVelocity =
+          VehicleUtil.maxTurnVelocity(vehicleSpec,
+                                      nodeRoad.getIndexLane(),
+                                      r.getIndexLane(),
+                                      nodeIM);
+
+        // If this is 0, then we can't take this turn, so this is a no go
+        if (Util.isDoubleZero(maxTurnVelocity)) {
+          continue;  // skip this node
+        }
+
+        // Otherwise, we're good.
+        double actualMeas = nodeIM.traversalDistance(nodeRoad, r) /
+                            maxTurnVelocity;
+
+        // Okay, now that we've accounted for crossing the intersection,
+        // we have to figure out how far it is to the next intersection
+        // after that.
+        IntersectionManager nextIM =
+          r.getIndexLane().getLaneIM().nextIntersectionManager(nodeIM);
+
+        if(nextIM != null) {  // There is another IM to deal with
+          // So find out how long it will take to get there
+          actualMeas +=
+            r.getIndexLane().getLaneIM().
+            timeToNextIntersectionManager(nodeIM,
+                                          vehicleSpec.getMaxVelocity());
+          // Then estimate how long it will take to get from the
+          // next intersection manager to the final destination.
+          double estRemainingMeas =
+            initPoint.distance(destRoad.getIndexLane().getEndPoint()) /
+            currentRoad.getMaximumConnectedSpeedLimit();
+          // Update with road we're going out on, the next IM
+          queue.add(node.makeUpdatedNode(r.getIndexLane().getId(),
+                                         nextIM.getId(),
+                                         actualMeas,
+                                         estRemainingMeas));
+
+        } else if (r == destRoad) { //End of line,Are we where we want to be?
+          // If so, this is how long it will take us to get out
+          actualMeas +=
+            r.getIndexLane().getLaneIM().
+            remainingDistanceFromLastIntersection() /
+            Math.min(r.getIndexLane().getSpeedLimit(),
+                     vehicleSpec.getMaxVelocity());
+          double estRemainingMeas = 0;
+          // Update with road we're going out on, the next IM
+          queue.add(node.makeUpdatedNode(r.getIndexLane().getId(),
+                                         -1,
+                                         actualMeas,
+                                         estRemainingMeas));
+
+        } // If not, then this is not a viable path, so just drop it.
+      }
+    }
+    // Okay now either the queue is empty or the first one is complete
+    return queue.peek();
+  }
+}
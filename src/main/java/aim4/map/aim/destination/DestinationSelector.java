@@ -30,6 +30,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.map.aim.destination;
 
+import java.util.Random;
+
 import aim4.map.Road;
 import aim4.map.lane.Lane;
 
@@ -43,8 +45,10 @@ public interface DestinationSelector {
    *
    * @param currentLane the lane the Vehicle is currently on, usually also
    *                    the lane the vehicle spawned on
+   * @param random      the random number stream to draw from, usually
+   *                    that of the spawn point
    * @return            the Road which the Vehicle should use as its
    *                    destination
    */
-  Road selectDestination(Lane currentLane);
+  Road selectDestination(Lane currentLane, Random random);
 }
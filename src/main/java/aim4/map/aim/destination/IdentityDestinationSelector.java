@@ -30,6 +30,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.map.aim.destination;
 
+import java.util.Random;
+
 import aim4.config.Debug;
 import aim4.map.Road;
 import aim4.map.lane.Lane;
@@ -59,7 +61,7 @@ public class IdentityDestinationSelector implements DestinationSelector {
    * {@inheritDoc}
    */
   @Override
-  public Road selectDestination(Lane currentLane) {
-    return Debug.currentMap.getRoad(currentLane);
+  public Road selectDestination(Lane currentLane, Random random) {
+    return Debug.getCurrentMap().getRoad(currentLane);
   }
 }
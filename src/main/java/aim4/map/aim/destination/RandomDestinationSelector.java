@@ -31,12 +31,12 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package aim4.map.aim.destination;
 
 import java.util.List;
+import java.util.Random;
 
 import aim4.config.Debug;
 import aim4.map.aim.BasicIntersectionMap;
 import aim4.map.Road;
 import aim4.map.lane.Lane;
-import aim4.util.Util;
 
 /**
  * The RandomDestinationSelector selects Roads uniformly at random, but will
@@ -76,13 +76,13 @@ public class RandomDestinationSelector implements DestinationSelector {
    * {@inheritDoc}
    */
   @Override
-  public Road selectDestination(Lane currentLane) {
-    Road currentRoad = Debug.currentMap.getRoad(currentLane);
+  public Road selectDestination(Lane currentLane, Random random) {
+    Road currentRoad = Debug.getCurrentMap().getRoad(currentLane);
     Road dest =
-      destinationRoads.get(Util.random.nextInt(destinationRoads.size()));
+      destinationRoads.get(random.nextInt(destinationRoads.size()));
     while(dest.getDual() == currentRoad) {
       dest =
-        destinationRoads.get(Util.random.nextInt(destinationRoads.size()));
+        destinationRoads.get(random.nextInt(destinationRoads.size()));
     }
     return dest;
   }
@@ -31,6 +31,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package aim4.map.aim.destination;
 
 import java.util.List;
+import java.util.Random;
 
 import aim4.config.Debug;
 import aim4.map.SpawnPoint;
@@ -39,7 +40,6 @@ import aim4.map.Road;
 import aim4.map.aim.AIMSpawnPoint;
 import aim4.map.aim.TrafficVolume;
 import aim4.map.lane.Lane;
-import aim4.util.Util;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -104,10 +104,10 @@ public class RatioDestinationSelector implements DestinationSelector {
    * {@inheritDoc}
    */
   @Override
-  public Road selectDestination(Lane currentLane) {
-    Road currentRoad = Debug.currentMap.getRoad(currentLane);
+  public Road selectDestination(Lane currentLane, Random random) {
+    Road currentRoad = Debug.getCurrentMap().getRoad(currentLane);
     int laneId = currentLane.getId();
-    double prob = Util.random.nextDouble();
+    double prob = random.nextDouble();
     if (prob < leftTurnProb.get(laneId)) {
       return trafficVolume.getLeftTurnRoad(currentRoad);
     } else if (prob >= 1.0 - rightTurnProb.get(laneId)) {
@@ -31,6 +31,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 package aim4.map.aim.destination;
 
 import java.util.List;
+import java.util.Random;
 
 import aim4.config.Debug;
 import aim4.map.aim.BasicIntersectionMap;
@@ -76,8 +77,8 @@ public class TurnBasedDestinationSelector implements DestinationSelector {
    * {@inheritDoc}
    */
   @Override
-  public Road selectDestination(Lane currentLane) {
-    Road currentRoad = Debug.currentMap.getRoad(currentLane);
+  public Road selectDestination(Lane currentLane, Random random) {
+    Road currentRoad = Debug.getCurrentMap().getRoad(currentLane);
 
     boolean hasLeft = currentLane.hasLeftNeighbor();
     boolean hasRight = currentLane.hasRightNeighbor();
@@ -30,6 +30,8 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.map.aim.destination;
 
+import java.util.Random;
+
 import aim4.map.Road;
 import aim4.map.lane.Lane;
 
@@ -66,7 +68,7 @@ public class UniqueDestinationSelector implements DestinationSelector {
    * {@inheritDoc}
    */
   @Override
-  public Road selectDestination(Lane currentLane) {
+  public Road selectDestination(Lane currentLane, Random random) {
     return endRoad;
   }
 }
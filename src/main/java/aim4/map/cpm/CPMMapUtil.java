@@ -71,6 +71,7 @@ public class CPMMapUtil {
          */
         @Override
         public List<CPMSpawnSpec> act(CPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<CPMSpawnSpec> result = new ArrayList<CPMSpawnSpec>(1);
             if (numberOfSpawnedVehicles == numberOfVehiclesToSpawn) {
                 isDone = true;
@@ -79,8 +80,8 @@ public class CPMMapUtil {
                 double initTime = spawnPoint.getCurrentTime();
                 for(double time = initTime; time < initTime + timeStep;
                     time += SimConfig.SPAWN_TIME_STEP) {
-                    if (Util.random.nextDouble() < spawnProbability) {
-                        double parkingTime = generateParkingTime();
+                    if (random.nextDouble() < spawnProbability) {
+                        double parkingTime = generateParkingTime(random);
                         result.add(new CPMSpawnSpec(spawnPoint.getCurrentTime(),vehicleSpec, parkingTime));
                         numberOfSpawnedVehicles += 1;
                         System.out.println("Vehicle spawned!");
@@ -90,7 +91,7 @@ public class CPMMapUtil {
             return result;
         }
 
-        public double generateParkingTime(){
+        public double generateParkingTime(Random random){
             return 20000.0;
         }
     }
@@ -119,12 +120,13 @@ public class CPMMapUtil {
          */
         @Override
         public List<CPMSpawnSpec> act(CPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<CPMSpawnSpec> result = new ArrayList<CPMSpawnSpec>(1);
             double initTime = spawnPoint.getCurrentTime();
             for(double time = initTime; time < initTime + timeStep;
                 time += SimConfig.SPAWN_TIME_STEP) {
-                if (Util.random.nextDouble() < spawnProbability) {
-                    double parkingTime = generateParkingTime();
+                if (random.nextDouble() < spawnProbability) {
+                    double parkingTime = generateParkingTime(random);
                     result.add(new CPMSpawnSpec(spawnPoint.getCurrentTime(),vehicleSpec, parkingTime));
                     System.out.println("Vehicle spawned!");
                 }
@@ -133,12 +135,11 @@ public class CPMMapUtil {
         }
 
         @Override
-        public double generateParkingTime() {
+        public double generateParkingTime(Random random) {
             // Returns a random double
             double rangeMin = 2000.0;
             double rangeMax = 20000.0;
-            Random r = new Random();
-            return rangeMin + (rangeMax - rangeMin) * r.nextDouble();
+            return rangeMin + (rangeMax - rangeMin) * random.nextDouble();
         }
     }
 
@@ -270,12 +271,11 @@ public class CPMMapUtil {
         }
 
         @Override
-        public double generateParkingTime() {
+        public double generateParkingTime(Random random) {
             // Returns a random double
             double rangeMin = 2000.0;
             double rangeMax = 20000.0;
-            Random r = new Random();
-            return rangeMin + (rangeMax - rangeMin) * r.nextDouble();
+            return rangeMin + (rangeMax - rangeMin) * random.nextDouble();
         }
     }
 
@@ -321,6 +321,7 @@ public class CPMMapUtil {
          */
         @Override
         public List<CPMSpawnSpec> act(CPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<CPMSpawnSpec> result = new ArrayList<CPMSpawnSpec>(1);
 
             if (numberOfSpawnedVehicles == numberOfVehiclesToSpawn) {
@@ -330,10 +331,10 @@ public class CPMMapUtil {
                 double initTime = spawnPoint.getCurrentTime();
                 for(double time = initTime; time < initTime + timeStep;
                     time += SimConfig.SPAWN_TIME_STEP) {
-                    if (Util.random.nextDouble() < spawnProbability) {
-                        int i = Util.randomIndex(proportion);
+                    if (random.nextDouble() < spawnProbability) {
+                        int i = Util.randomIndex(proportion, random);
                         VehicleSpec vehicleSpec = VehicleSpecDatabase.getVehicleSpecById(i);
-                        double parkingTime = generateParkingTime();
+                        double parkingTime = generateParkingTime(random);
                         result.add(new CPMSpawnSpec(spawnPoint.getCurrentTime(),
                                 vehicleSpec,
                                 parkingTime));
@@ -345,7 +346,7 @@ public class CPMMapUtil {
             return result;
         }
 
-        public double generateParkingTime(){
+        public double generateParkingTime(Random random){
             return 20000.0;
         }
     }
@@ -380,15 +381,16 @@ public class CPMMapUtil {
          */
         @Override
         public List<CPMSpawnSpec> act(CPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<CPMSpawnSpec> result = new ArrayList<CPMSpawnSpec>(1);
 
             double initTime = spawnPoint.getCurrentTime();
             for(double time = initTime; time < initTime + timeStep;
                 time += SimConfig.SPAWN_TIME_STEP) {
-                if (Util.random.nextDouble() < spawnProbability) {
-                    int i = Util.randomIndex(proportion);
+                if (random.nextDouble() < spawnProbability) {
+                    int i = Util.randomIndex(proportion, random);
                     VehicleSpec vehicleSpec = VehicleSpecDatabase.getVehicleSpecById(i);
-                    double parkingTime = generateParkingTime();
+                    double parkingTime = generateParkingTime(random);
                     result.add(new CPMSpawnSpec(spawnPoint.getCurrentTime(),
                                                 vehicleSpec,
                                                 parkingTime));
@@ -400,12 +402,11 @@ public class CPMMapUtil {
         }
 
         @Override
-        public double generateParkingTime() {
+        public double generateParkingTime(Random random) {
             // Returns a random double
             double rangeMin = 2000.0;
             double rangeMax = 20000.0;
-            Random r = new Random();
-            return rangeMin + (rangeMax - rangeMin) * r.nextDouble();
+            return rangeMin + (rangeMax - rangeMin) * random.nextDouble();
         }
     }
 
@@ -521,6 +522,7 @@ public class CPMMapUtil {
          */
         @Override
         public List<CPMSpawnSpec> act(CPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<CPMSpawnSpec> result = new ArrayList<CPMSpawnSpec>(1);
 
             if (spawnTimes.isEmpty()) {
@@ -530,7 +532,7 @@ public class CPMMapUtil {
             double initTime = spawnPoint.getCurrentTime();
             if (!isDone) {
                 if (spawnTimes.get(0).getKey() < initTime) {
-                    int i = Util.randomIndex(proportion);
+                    int i = Util.randomIndex(proportion, random);
                     VehicleSpec vehicleSpec = VehicleSpecDatabase.getVehicleSpecById(i);
                     double parkingTime = spawnTimes.get(0).getValue();
                     result.add(new CPMSpawnSpec(spawnPoint.getCurrentTime(), vehicleSpec, parkingTime));
@@ -543,12 +545,11 @@ public class CPMMapUtil {
         }
 
         @Override
-        public double generateParkingTime() {
+        public double generateParkingTime(Random random) {
             // Returns a random double
             double rangeMin = 2000.0;
             double rangeMax = 20000.0;
-            Random r = new Random();
-            return rangeMin + (rangeMax - rangeMin) * r.nextDouble();
+            return rangeMin + (rangeMax - rangeMin) * random.nextDouble();
         }
     }
 
@@ -587,6 +588,7 @@ public class CPMMapUtil {
          */
         @Override
         public List<CPMSpawnSpec> act(CPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<CPMSpawnSpec> result = new ArrayList<CPMSpawnSpec>(1);
             if (numberOfSpawnedVehicles == numberOfVehiclesToSpawn) {
                 isDone = true;
@@ -595,8 +597,8 @@ public class CPMMapUtil {
                 double initTime = spawnPoint.getCurrentTime();
                 for(double time = initTime; time < initTime + timeStep;
                     time += SimConfig.SPAWN_TIME_STEP) {
-                    if (Util.random.nextDouble() < spawnProbability) {
-                        double parkingTime = generateParkingTime();
+                    if (random.nextDouble() < spawnProbability) {
+                        double parkingTime = generateParkingTime(random);
                         result.add(new CPMSpawnSpec(spawnPoint.getCurrentTime(),vehicleSpec, parkingTime));
                         System.out.println("Vehicle spawned!");
                         numberOfSpawnedVehicles += 1;
@@ -607,7 +609,7 @@ public class CPMMapUtil {
         }
 
         @Override
-        public double generateParkingTime() {
+        public double generateParkingTime(Random random) {
             if (numberOfSpawnedVehicles == 0) {
                 return 20000.0;
             } else {
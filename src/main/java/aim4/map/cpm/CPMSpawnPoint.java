@@ -7,6 +7,7 @@ import aim4.vehicle.VehicleSpec;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.List;
+import java.util.Random;
 
 /**
  * A SpawnPoint for CPM simulations.
@@ -41,7 +42,7 @@ public class CPMSpawnPoint extends SpawnPoint {
      */
     public static interface CPMSpawnSpecGenerator {
         List<CPMSpawnSpec> act(CPMSpawnPoint spawnPoint, double timestep);
-        double generateParkingTime();
+        double generateParkingTime(Random random);
     }
 
     /////////////////////////////////
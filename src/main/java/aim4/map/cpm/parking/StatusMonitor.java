@@ -18,6 +18,25 @@ public class StatusMonitor {
     /** A mapping from parking lanes to the amount of
      * space left for parking on that lane. */
     private Map<ParkingLane, Double> parkingLanesSpace = new HashMap<ParkingLane, Double>();
+    /** The order the parking lanes were added in, to break ties between
+     * lanes with the same space and id. */
+    private Map<ParkingLane, Integer> parkingLanesOrder = new HashMap<ParkingLane, Integer>();
+    /** The parking lanes, the one with the most space left first. A lane
+     * must be taken out before its space changes and put back after. */
+    private TreeSet<ParkingLane> parkingLanesByFreeSpace =
+            new TreeSet<ParkingLane>(new Comparator<ParkingLane>() {
+                @Override
+                public int compare(ParkingLane lane1, ParkingLane lane2) {
+                    int bySpace = parkingLanesSpace.get(lane2).compareTo(parkingLanesSpace.get(lane1));
+                    if (bySpace != 0) {
+                        return bySpace;
+                    }
+                    if (lane1.getId() != lane2.getId()) {
+                        return lane1.getId() < lane2.getId() ? -1 : 1;
+                    }
+                    return parkingLanesOrder.get(lane1).compareTo(parkingLanesOrder.get(lane2));
+                }
+            });
     /** A list of vehicles which are currently in the car park,
      * and the lane they are parked in. */
     private Map<CPMBasicAutoVehicle, ParkingLane> vehicles = new HashMap<CPMBasicAutoVehicle, ParkingLane>();
@@ -49,6 +68,8 @@ public class StatusMonitor {
     private void initialiseParkingLanesSpace(ParkingArea parkingArea){
         for (ParkingLane lane : parkingArea.getParkingLanes()) {
             parkingLanesSpace.put(lane, lane.getTotalParkingLength());
+            parkingLanesOrder.put(lane, parkingLanesOrder.size());
+            parkingLanesByFreeSpace.add(lane);
         }
     }
 
@@ -59,14 +80,14 @@ public class StatusMonitor {
      */
     public boolean roomForVehicle(double vehicleLength) {
         // Find the lane with the most room available
-        Map.Entry<ParkingLane, Double>  parkingLaneEntry = findLeastFullParkingLane();
+        ParkingLane parkingLane = findLeastFullParkingLane();
 
 
         // Check there is room for this vehicle
         double distanceBetweenVehicles = CPMAutoDriverSimulator.MIN_DISTANCE_BETWEEN_PARKED_VEHICLES;;
         double spaceNeeded = vehicleLength + distanceBetweenVehicles;
 
-        if (willVehicleFit(parkingLaneEntry, spaceNeeded)) {
+        if (willVehicleFit(parkingLane, spaceNeeded)) {
             numberOfAllowedEntries++;
             return true;
         }
@@ -89,18 +110,18 @@ public class StatusMonitor {
         }
 
         // Find the lane with the most room available
-        Map.Entry<ParkingLane, Double>  parkingLaneEntry = findLeastFullParkingLane();
+        ParkingLane parkingLane = findLeastFullParkingLane();
 
         // Update the space available on that lane
-        decreaseCapacity(vehicle, parkingLaneEntry);
+        decreaseCapacity(vehicle, parkingLane);
 
         // Allocate this parking lane to the vehicle by sending message
         System.out.println("Status monitor sending parking lane to vehicle.");
-        sendParkingLaneMessage(vehicle, parkingLaneEntry.getKey());
+        sendParkingLaneMessage(vehicle, parkingLane);
 
         // Register the vehicle with the StatusMonitor, along with the
         // parking lane it has been allocated
-        vehicles.put(vehicle, parkingLaneEntry.getKey());
+        vehicles.put(vehicle, parkingLane);
     }
 
     /**
@@ -113,19 +134,19 @@ public class StatusMonitor {
         increaseCapacity(vehicle);
 
         // Find the lane with the most room available
-        Map.Entry<ParkingLane, Double>  parkingLaneEntry = findLeastFullParkingLane();
+        ParkingLane parkingLane = findLeastFullParkingLane();
 
         // Update the space available on that lane
-        decreaseCapacity(vehicle, parkingLaneEntry);
+        decreaseCapacity(vehicle, parkingLane);
 
         // Allocate this parking lane to the vehicle by sending message
         System.out.println("Status monitor sending parking lane to vehicle.");
-        sendParkingLaneMessage(vehicle, parkingLaneEntry.getKey());
+        sendParkingLaneMessage(vehicle, parkingLane);
 
         // Update the vehicles parking lane in StatusMonitor records, along with the
         // parking lane it has been allocated
         // TODO CPM rename vehicles to vehiclesToLane
-        vehicles.put(vehicle, parkingLaneEntry.getKey());
+        vehicles.put(vehicle, parkingLane);
     }
 
     /**
@@ -147,9 +168,11 @@ public class StatusMonitor {
      */
     private void increaseCapacity(CPMBasicAutoVehicle vehicle){
         ParkingLane laneToUpdate = vehicles.get(vehicle);
-        Map.Entry<ParkingLane, Double>  entryToUpdate = findParkingLaneSpace(laneToUpdate);
+        if (!parkingLanesSpace.containsKey(laneToUpdate)) {
+            throw new RuntimeException("Parking lane could not be found.");
+        }
         double spaceFreed = calculateTotalVehicleSpace(vehicle);
-        parkingLanesSpace.put(entryToUpdate.getKey(), entryToUpdate.getValue() + spaceFreed);
+        setParkingLaneSpace(laneToUpdate, parkingLanesSpace.get(laneToUpdate) + spaceFreed);
     }
 
     /**
@@ -157,15 +180,15 @@ public class StatusMonitor {
      * This is on ENTRERING and RELOCATING
      * @param vehicle The vehicle entering the parking area.
      */
-    private void decreaseCapacity(CPMBasicAutoVehicle vehicle, Map.Entry<ParkingLane, Double>  parkingLaneEntry){
+    private void decreaseCapacity(CPMBasicAutoVehicle vehicle, ParkingLane parkingLane){
         double spaceTaken = calculateTotalVehicleSpace(vehicle);
-        if (!willVehicleFit(parkingLaneEntry, spaceTaken)){
+        if (!willVehicleFit(parkingLane, spaceTaken)){
             assert vehicle.getDriver() instanceof CPMV2VDriver;
             throw new RuntimeException("There's not enough room in the car " +
                     "park for this vehicle to park! Vehicle is " +
                     ((CPMV2VDriver)vehicle.getDriver()).getParkingStatus());
         }
-        parkingLanesSpace.put(parkingLaneEntry.getKey(), parkingLaneEntry.getValue() - spaceTaken);
+        setParkingLaneSpace(parkingLane, parkingLanesSpace.get(parkingLane) - spaceTaken);
     }
 
     private double calculateTotalVehicleSpace(CPMBasicAutoVehicle vehicle) {
@@ -174,40 +197,35 @@ public class StatusMonitor {
         return vehicleLength + distanceBetweenVehicles;
     }
 
-    private Map.Entry<ParkingLane, Double> findParkingLaneSpace(ParkingLane parkingLane) {
-        for (Map.Entry<ParkingLane, Double> entry : parkingLanesSpace.entrySet())
-        {
-            if (entry.getKey() == parkingLane) {
-                return entry;
-            }
-        }
-        throw new RuntimeException("Parking lane could not be found.");
+    /**
+     * Change the space left on a parking lane, keeping it in its place in
+     * the order of the lanes by space.
+     * @param parkingLane The parking lane.
+     * @param space The space now left on the parking lane.
+     */
+    private void setParkingLaneSpace(ParkingLane parkingLane, double space) {
+        parkingLanesByFreeSpace.remove(parkingLane);
+        parkingLanesSpace.put(parkingLane, space);
+        parkingLanesByFreeSpace.add(parkingLane);
     }
 
-    private Map.Entry<ParkingLane, Double> findLeastFullParkingLane() {
-        Map.Entry<ParkingLane, Double> maxEntry = null;
-        String name = null;
-
-        for (Map.Entry<ParkingLane, Double> entry : parkingLanesSpace.entrySet())
-        {
-            boolean hasLowerId = false;
-            if (maxEntry != null && entry.getKey().getId() < maxEntry.getKey().getId()){ hasLowerId = true; }
-            if (maxEntry == null ||
-                    entry.getValue().compareTo(maxEntry.getValue()) > 0 ||
-                    (entry.getValue().equals(maxEntry.getValue()) && hasLowerId))
-            {
-                maxEntry = entry;
-                name = entry.getKey().getRoadName();
-            }
-        }
-        System.out.println("Lane with most room is " + name);
-        return maxEntry;
+    /**
+     * Find the parking lane with the most space left. Of lanes with the
+     * same space, the one with the lowest id is chosen.
+     * @return the parking lane, or null if there are no parking lanes
+     */
+    private ParkingLane findLeastFullParkingLane() {
+        ParkingLane maxLane = parkingLanesByFreeSpace.isEmpty() ?
+                null : parkingLanesByFreeSpace.first();
+        System.out.println("Lane with most room is " +
+                (maxLane == null ? null : maxLane.getRoadName()));
+        return maxLane;
     }
 
-    private boolean willVehicleFit(Map.Entry<ParkingLane, Double> parkingLaneEntry,
+    private boolean willVehicleFit(ParkingLane parkingLane,
                                    Double spaceNeeded) {
 
-        double spaceOnParkingLane = parkingLaneEntry.getValue();
+        double spaceOnParkingLane = parkingLanesSpace.get(parkingLane);
         if (spaceOnParkingLane > (spaceNeeded)) {
             return true;
         }
@@ -19,6 +19,7 @@ import aim4.sim.simulator.merge.helper.SpawnHelper;
 import aim4.util.Util;
 import aim4.vehicle.VehicleSpec;
 import aim4.vehicle.VehicleSpecDatabase;
+import aim4.vehicle.VinRegistry;
 import aim4.vehicle.merge.MergeVehicleSimModel;
 import com.sun.scenario.effect.Merge;
 import org.json.simple.JSONArray;
@@ -182,13 +183,14 @@ public class MergeMapUtil {
          */
         @Override
         public List<MergeSpawnSpec> act(MergeSpawnPoint spawnPoint, double timestep) {
+            Random random = spawnPoint.getRandom();
             List<MergeSpawnSpec> result = new LinkedList<MergeSpawnSpec>();
 
             if(!spawnPointAlreadySpawned.contains(spawnPoint)) {
                 spawnPointAlreadySpawned.add(spawnPoint);
                 double initTime = spawnPoint.getCurrentTime();
                 if (this.spec == null) {
-                    int i = Util.randomIndex(proportion);
+                    int i = Util.randomIndex(proportion, random);
                     this.spec = VehicleSpecDatabase.getVehicleSpecById(i);
                 }
 
@@ -225,12 +227,13 @@ public class MergeMapUtil {
 
         @Override
         public List<MergeSpawnSpec> act(MergeSpawnPoint spawnPoint, double timestep) {
+            Random random = spawnPoint.getRandom();
             List<MergeSpawnSpec> result = new LinkedList<MergeSpawnSpec>();
 
             double initTime = spawnPoint.getCurrentTime();
             for(double time = initTime; time < initTime + timestep; time += SimConfig.SPAWN_TIME_STEP) {
-                if (Util.random.nextDouble() < prob) {
-                    int i = Util.randomIndex(proportion);
+                if (random.nextDouble() < prob) {
+                    int i = Util.randomIndex(proportion, random);
                     VehicleSpec vehicleSpec = VehicleSpecDatabase.getVehicleSpecById(i);
                     result.add(new MergeSpawnSpec(spawnPoint.getCurrentTime(),
                             vehicleSpec));
@@ -348,6 +351,7 @@ public class MergeMapUtil {
             }
             for(MergeVehicleSimModel vehicle : removedVehicles) {
                 vinToVehicles.remove(vehicle.getVIN());
+                VinRegistry.unregisterVehicle(vehicle.getVIN());
             }
             currentTime += SimConfig.TIME_STEP;
         }
@@ -3,6 +3,7 @@ package aim4.map.mixedcpm;
 import aim4.config.SimConfig;
 import aim4.map.mixedcpm.MixedCPMSpawnPoint.*;
 import aim4.map.lane.Lane;
+import aim4.util.Logging;
 import aim4.util.Util;
 import aim4.vehicle.VehicleSpec;
 import aim4.vehicle.VehicleSpecDatabase;
@@ -92,6 +93,7 @@ public class MixedCPMMapUtil {
          */
         @Override
         public List<MixedCPMSpawnSpec> act(MixedCPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<MixedCPMSpawnSpec> result = new ArrayList<MixedCPMSpawnSpec>(1);
             if (numberOfSpawnedVehicles == numberOfVehiclesToSpawn) {
                 isDone = true;
@@ -100,22 +102,22 @@ public class MixedCPMMapUtil {
                 double initTime = spawnPoint.getCurrentTime();
                 for(double time = initTime; time < initTime + timeStep;
                     time += SimConfig.SPAWN_TIME_STEP) {
-                    if (Util.random.nextDouble() < spawnProbability) {
+                    if (random.nextDouble() < spawnProbability) {
                         boolean automated = false;
-                        if(Util.random.nextDouble() < automatedProbability){
+                        if(random.nextDouble() < automatedProbability){
                             automated = true;
                         }
-                        double parkingTime = generateParkingTime();
+                        double parkingTime = generateParkingTime(random);
                         result.add(new MixedCPMSpawnSpec(spawnPoint.getCurrentTime(),vehicleSpec, parkingTime, false, automated));
                         numberOfSpawnedVehicles += 1;
-                        System.out.println("Vehicle spawned!");
+                        Logging.debug("Vehicle spawned!");
                     }
                 }
             }
             return result;
         }
 
-        public double generateParkingTime(){
+        public double generateParkingTime(Random random){
             return 20000.0;
         }
 
@@ -153,14 +155,15 @@ public class MixedCPMMapUtil {
          */
         @Override
         public List<MixedCPMSpawnSpec> act(MixedCPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<MixedCPMSpawnSpec> result = new ArrayList<MixedCPMSpawnSpec>(1);
             double initTime = spawnPoint.getCurrentTime();
             for(double time = initTime; time < initTime + timeStep;
                 time += SimConfig.SPAWN_TIME_STEP) {
-                if (Util.random.nextDouble() < spawnProbability) {
-                    double parkingTime = generateParkingTime();// TODO ED HERE IS WHERE TO CHANGE GENERATE PARKING TIME
+                if (random.nextDouble() < spawnProbability) {
+                    double parkingTime = generateParkingTime(random);// TODO ED HERE IS WHERE TO CHANGE GENERATE PARKING TIME
                     boolean automated = false;
-                    if(Util.random.nextDouble() < automatedProbability){
+                    if(random.nextDouble() < automatedProbability){
                         automated = true;
                     }
                     result.add(new MixedCPMSpawnSpec(spawnPoint.getCurrentTime(),vehicleSpec, parkingTime, false, automated));
@@ -171,12 +174,11 @@ public class MixedCPMMapUtil {
         }
 
         @Override
-        public double generateParkingTime() {
+        public double generateParkingTime(Random random) {
             // Returns a random double
             double rangeMin = 2000.0;
             double rangeMax = 20000.0;
-            Random r = new Random();
-            return rangeMin + (rangeMax - rangeMin) * r.nextDouble();
+            return rangeMin + (rangeMax - rangeMin) * random.nextDouble();
         }
 
         @Override
@@ -235,6 +237,7 @@ public class MixedCPMMapUtil {
          */
         @Override
         public List<MixedCPMSpawnSpec> act(MixedCPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<MixedCPMSpawnSpec> result = new ArrayList<MixedCPMSpawnSpec>(1);
 
             if (numberOfSpawnedVehicles == numberOfVehiclesToSpawn) {
@@ -244,17 +247,17 @@ public class MixedCPMMapUtil {
                 double initTime = spawnPoint.getCurrentTime();
                 for(double time = initTime; time < initTime + timeStep;
                     time += SimConfig.SPAWN_TIME_STEP) {
-                    if (Util.random.nextDouble() < spawnProbability) {
-                        int i = Util.randomIndex(proportion);
+                    if (random.nextDouble() < spawnProbability) {
+                        int i = Util.randomIndex(proportion, random);
                         VehicleSpec vehicleSpec = VehicleSpecDatabase.getVehicleSpecById(i);
-                        double parkingTime = generateParkingTime();
+                        double parkingTime = generateParkingTime(random);
 
                         boolean automated = false;
-                        if(Util.random.nextDouble() < automatedProbability){
+                        if(random.nextDouble() < automatedProbability){
                             automated = true;
                         }
                         boolean disabled = false;
-                        if(Util.random.nextDouble() < disabledProbability){
+                        if(random.nextDouble() < disabledProbability){
                             disabled = true;
                         }
 
@@ -265,14 +268,14 @@ public class MixedCPMMapUtil {
                                 automated));
 
                         numberOfSpawnedVehicles += 1;
-                        System.out.println("Vehicle " + vehicleSpec.getName() + " spawned!");
+                        Logging.debug("Vehicle " + vehicleSpec.getName() + " spawned!");
                     }
                 }
             }
             return result;
         }
 
-        public double generateParkingTime(){
+        public double generateParkingTime(Random random){
             return 20000.0;
         }
 
@@ -318,23 +321,24 @@ public class MixedCPMMapUtil {
          */
         @Override
         public List<MixedCPMSpawnSpec> act(MixedCPMSpawnPoint spawnPoint, double timeStep) {
+            Random random = spawnPoint.getRandom();
             List<MixedCPMSpawnSpec> result = new ArrayList<MixedCPMSpawnSpec>(1);
 
             double initTime = spawnPoint.getCurrentTime();
             for(double time = initTime; time < initTime + timeStep;
                 time += SimConfig.SPAWN_TIME_STEP) {
-                if (Util.random.nextDouble() < spawnProbability) {
-                    int i = Util.randomIndex(proportion);
+                if (random.nextDouble() < spawnProbability) {
+                    int i = Util.randomIndex(proportion, random);
                     VehicleSpec vehicleSpec = VehicleSpecDatabase.getVehicleSpecById(i);
 
-                    double parkingTime = generateParkingTime();// TODO ED HERE IS WHERE TO CHANGE GENERATE PARKING TIME
+                    double parkingTime = generateParkingTime(random);// TODO ED HERE IS WHERE TO CHANGE GENERATE PARKING TIME
 
                     boolean automated = false;
-                    if(Util.random.nextDouble() < automatedProbability){
+                    if(random.nextDouble() < automatedProbability){
                         automated = true;
                     }
                     boolean disabled = false;
-                    if(Util.random.nextDouble() < disabledProbability){
+                    if(random.nextDouble() < disabledProbability){
                         disabled = true;
                     }
 
@@ -354,12 +358,11 @@ public class MixedCPMMapUtil {
         }
 
         @Override
-        public double generateParkingTime() {
+        public double generateParkingTime(Random random) {
             // Returns a random double
             double rangeMin = 2000.0;
             double rangeMax = 20000.0;
-            Random r = new Random();
-            return rangeMin + (rangeMax - rangeMin) * r.nextDouble();
+            return rangeMin + (rangeMax - rangeMin) * random.nextDouble();
         }
 
         @Override
@@ -542,12 +545,11 @@ public class MixedCPMMapUtil {
         }
 
         @Override
-        public double generateParkingTime() {
+        public double generateParkingTime(Random random) {
             // Returns a random double
             double rangeMin = 2000.0;
             double rangeMax = 20000.0;
-            Random r = new Random();
-            return rangeMin + (rangeMax - rangeMin) * r.nextDouble();
+            return rangeMin + (rangeMax - rangeMin) * random.nextDouble();
         }
 
 
@@ -7,6 +7,7 @@ import aim4.vehicle.VehicleSpec;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.List;
+import java.util.Random;
 
 /**
  * A SpawnPoint for MixedCPM simulations.
@@ -84,7 +85,7 @@ public class MixedCPMSpawnPoint extends SpawnPoint {
      */
     public static interface MixedCPMSpawnSpecGenerator {
         List<MixedCPMSpawnSpec> act(MixedCPMSpawnPoint spawnPoint, double timestep);
-        double generateParkingTime();
+        double generateParkingTime(Random random);
         boolean isDone();
     }
 
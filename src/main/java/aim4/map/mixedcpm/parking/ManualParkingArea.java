@@ -15,6 +15,8 @@ import java.util.*;
  */
 public class ManualParkingArea extends MixedCPMRoadMap implements IManualParkingArea {
     private ArrayList<ManualParkingRoad> parkingRoads;
+    /** The stall stacks of the parking roads, indexed by size */
+    private StallStackIndex stallStackIndex;
     private Road entryRoad;
     private Road exitRoad;
     private MixedCPMBasicMap map;
@@ -43,6 +45,7 @@ public class ManualParkingArea extends MixedCPMRoadMap implements IManualParking
         this.roads.add(bottomRoad);
 
         this.parkingRoads = new ArrayList<>();
+        this.stallStackIndex = new StallStackIndex();
         this.map = map;
     }
 
@@ -74,7 +77,8 @@ public class ManualParkingArea extends MixedCPMRoadMap implements IManualParking
         }
 
         //        First search for stack with correct length & same ideal width
-        for (ManualParkingRoad road: parkingRoads) {
+        for (ManualParkingRoad road: stallStackIndex.findCandidateRoads(stallSpec,
+                    ManualParkingRoad.SearchParameter.exactSize)) {
             tempStall = road.findNewSpace(stallSpec,
                                    ManualParkingRoad.SearchParameter.exactSize);
             if (tempStall != null){
@@ -91,7 +95,8 @@ public class ManualParkingArea extends MixedCPMRoadMap implements IManualParking
         }
 
         //        Next, search for stack with correct length only
-        for (ManualParkingRoad road: parkingRoads) {
+        for (ManualParkingRoad road: stallStackIndex.findCandidateRoads(stallSpec,
+                    ManualParkingRoad.SearchParameter.correctLength)) {
             tempStall = road.findNewSpace(stallSpec,
                                ManualParkingRoad.SearchParameter.correctLength);
             if (tempStall != null){
@@ -108,7 +113,8 @@ public class ManualParkingArea extends MixedCPMRoadMap implements IManualParking
         }
 
         //       Next, search for empty stacks
-        for (ManualParkingRoad road: parkingRoads) {
+        for (ManualParkingRoad road: stallStackIndex.findCandidateRoads(stallSpec,
+                    ManualParkingRoad.SearchParameter.emptyStack)) {
             tempStall = road.findNewSpace(stallSpec,
                                   ManualParkingRoad.SearchParameter.emptyStack);
             if (tempStall != null){
@@ -125,8 +131,13 @@ public class ManualParkingArea extends MixedCPMRoadMap implements IManualParking
         }
 
         // Next, search for any space at all
-
-        for (ManualParkingRoad road: parkingRoads) {
+        // (the empty stacks of the roads that are skipped are marked as if
+        // they had been tried)
+        ManualParkingRoad lastSearched = null;
+        for (ManualParkingRoad road: stallStackIndex.findCandidateRoads(stallSpec,
+                    ManualParkingRoad.SearchParameter.anyGap)) {
+            stallStackIndex.markSkippedStacks(stallSpec, lastSearched, road);
+            lastSearched = road;
             tempStall = road.findNewSpace(stallSpec,
                     ManualParkingRoad.SearchParameter.anyGap);
             if (tempStall != null){
@@ -141,6 +152,7 @@ public class ManualParkingArea extends MixedCPMRoadMap implements IManualParking
                 }
             }
         }
+        stallStackIndex.markSkippedStacks(stallSpec, lastSearched, null);
 
 
         //        Next, add new road and use that
@@ -229,6 +241,7 @@ public class ManualParkingArea extends MixedCPMRoadMap implements IManualParking
                                                               initialStackWidth);
 
         this.parkingRoads.add(parkingRoad);
+        this.stallStackIndex.addParkingRoad(parkingRoad);
         updateLastParkingLane();
         return parkingRoad;
     }
@@ -242,6 +255,7 @@ public class ManualParkingArea extends MixedCPMRoadMap implements IManualParking
             if (parkingRoad == road){
                 this.removeRoad(parkingRoad.getCentreRoad());
                 parkingRoads.remove(parkingRoad);
+                stallStackIndex.removeParkingRoad(parkingRoad);
                 break;
             }
         }
@@ -1,6 +1,7 @@
 package aim4.map.mixedcpm.parking;
 
 
+import aim4.config.Constants;
 import aim4.map.Road;
 import aim4.map.RoadMap;
 import aim4.map.connections.Junction;
@@ -9,10 +10,18 @@ import java.awt.geom.Rectangle2D;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class StallStack {
-    /** The parkingSpaces in this stall stack */
+    /** The parkingSpaces in this stall stack, sorted by y position */
     private ArrayList<ManualStall> stalls;
+    /** The gaps between the stalls, mapping the top of each gap to its bottom */
+    private TreeMap<Double, Double> gaps = new TreeMap<>();
+    /** The number of gaps of each width, to find the widest gap quickly */
+    private TreeMap<Double, Integer> gapWidths = new TreeMap<>();
+    /** The index of the parking area this stack is in, null if it is not indexed */
+    private StallStackIndex stallStackIndex;
     /** The ideal width of a space in this stall */
     private double idealStallWidth = 0;
     /** Whether this is the last stall stack (i.e. the one on the outside edge) */
@@ -45,6 +54,7 @@ public class StallStack {
         this.parkingRoad = parkingRoad;
         this.roadOnLeft = parkingRoad.getStartPoint().getX() < x;
         this.map = map;
+        addGap(boundingBox.getMinY(), boundingBox.getMaxY());
     }
 
     // Public Methods
@@ -72,6 +82,7 @@ public class StallStack {
                                 this.boundingBox.getMaxX()- stallSpec.getLength();
         if (stalls.size() == 0){
             this.idealStallWidth = stallSpec.getWidth();
+            updateIndex();
         }
         if (getMaxStallLength() == 0){
             // Set up rectangle
@@ -82,7 +93,7 @@ public class StallStack {
                                                         this,
                                                         this.parkingRoad,
                                                         this.map);
-            this.stalls.add(parkingSpace);
+            insertStall(parkingSpace);
             return parkingSpace;
         } else if (getMaxStallLength() >= stallSpec.getLength()){
             double yPosition = -1;
@@ -107,7 +118,7 @@ public class StallStack {
                                                             this,
                                                             this.parkingRoad,
                                                             this.map);
-                this.stalls.add(parkingSpace);
+                insertStall(parkingSpace);
                 return parkingSpace;
             }
         }
@@ -115,48 +126,43 @@ public class StallStack {
     }
 
     /**
-     * Find the x position of a gap which can fit the entire width of the specified space
+     * Whether a stall of the given width could be added to this stack, if its
+     * length fits. This never says no to a stall that addManualStall would
+     * accept, so it can be used to skip stacks without trying them.
+     * @param spaceWidth The width of the space we are trying to fit into the stack
+     * @return true if the stack is empty or has a gap which may fit the space
+     */
+    boolean canFit(double spaceWidth){
+        return stalls.size() == 0 ||
+                (gapWidths.size() != 0 &&
+                 gapWidths.lastKey() + Constants.DOUBLE_EQUAL_PRECISION >= spaceWidth);
+    }
+
+    /**
+     * Find the y position of a gap which can fit the entire width of the specified space
      * @param spaceWidth The width of the space we are trying to fit into the stack
      * @param searchFromTop True if you want to search for a gap from top of the stall stack, False if you don't
-     * @return the x position of the gap found, or -1 if a gap wasn't found
+     * @return the y position of the gap found, or -1 if a gap wasn't found
      */
     private double findSpace(double spaceWidth, boolean searchFromTop){
-        Collections.sort(stalls, ManualStall.StallYComparater);
         if (stalls.size() == 0){
             return searchFromTop ? getBounds().getMinY() : getBounds().getMaxY() - spaceWidth;
         }
+        if (!canFit(spaceWidth)){
+            return -1;
+        }
 
         if (searchFromTop){
-            double lastSpaceYPosition = boundingBox.getMinY();
-            for (int i = 0; i < stalls.size(); i++){
-                if (lastSpaceYPosition != stalls.get(i).getMinY()){
-                    if (lastSpaceYPosition + spaceWidth <= stalls.get(i).getMinY()){
-                        return lastSpaceYPosition;
-                    }
+            for (Map.Entry<Double, Double> gap : gaps.entrySet()){
+                if (gap.getKey() + spaceWidth <= gap.getValue()){
+                    return gap.getKey();
                 }
-                if (i == stalls.size()-1){
-                    // If this is the last stall, check there is enough space in the end of the stall
-                    if (stalls.get(i).getMaxY() + spaceWidth <= boundingBox.getMaxY()){
-                        return stalls.get(i).getMaxY();
-                    }
-                }
-                lastSpaceYPosition = stalls.get(i).getMaxY();
             }
         }else{
-            double lastSpaceYPosition = boundingBox.getMaxY();
-            for (int i = stalls.size()-1; i >= 0; i--){
-                if (lastSpaceYPosition != stalls.get(i).getMaxY()){
-                    if (lastSpaceYPosition - spaceWidth >= stalls.get(i).getMaxY()){
-                        return lastSpaceYPosition - spaceWidth;
-                    }
+            for (Map.Entry<Double, Double> gap : gaps.descendingMap().entrySet()){
+                if (gap.getValue() - spaceWidth >= gap.getKey()){
+                    return gap.getValue() - spaceWidth;
                 }
-                if (i == 0){
-                    // If this is the last stall, check there is enough space in the stall
-                    if (stalls.get(i).getMinY() - spaceWidth >= boundingBox.getMinY()){
-                        return stalls.get(i).getMinY() - spaceWidth;
-                    }
-                }
-                lastSpaceYPosition = stalls.get(i).getMinY();
             }
         }
         return -1;
@@ -175,6 +181,7 @@ public class StallStack {
                                                  0,
                                                  this.boundingBox.getHeight());
             idealStallWidth = 0;
+            updateIndex();
         }
 
         ManualStall stallToRemove = getManualStallByName(stallName);
@@ -188,7 +195,7 @@ public class StallStack {
                 }
                 stallToRemove.getRoad().removeJunction(stallToRemove.getJunction());
             }
-            stalls.remove(stallToRemove);
+            removeStall(stallToRemove);
             if (parkingRoad.getManualStalls().size() == 0){
                 parkingRoad.markForDelete();
             }
@@ -236,12 +243,91 @@ public class StallStack {
         return junctions;
     }
 
+    /**
+     * Sets the index which is told when the length, ideal stall width or
+     * number of stalls of this stack changes
+     * @param stallStackIndex the index, or null to stop telling it
+     */
+    void setStallStackIndex(StallStackIndex stallStackIndex){
+        this.stallStackIndex = stallStackIndex;
+    }
+
+    /**
+     * Sets the ideal stall width, as addManualStall does when it is tried
+     * on an empty stack
+     * @param idealStallWidth the ideal stall width
+     */
+    void setIdealStallWidth(double idealStallWidth){
+        this.idealStallWidth = idealStallWidth;
+        updateIndex();
+    }
+
     // Private methods
     private void setMaxStallLength(double maxStallLength){
         boundingBox = new Rectangle2D.Double(this.boundingBox.getX(),
                 this.boundingBox.getY(),
                 maxStallLength,
                 this.boundingBox.getHeight());
+        updateIndex();
+    }
+
+    private void updateIndex(){
+        if (stallStackIndex != null){
+            stallStackIndex.update(this);
+        }
+    }
+
+    /**
+     * Adds a stall in y order, and splits the gap it was put in
+     * @param stall the stall to add
+     */
+    private void insertStall(ManualStall stall){
+        int index = Collections.binarySearch(stalls, stall, ManualStall.StallYComparater);
+        if (index < 0){
+            index = -index - 1;
+        }
+        double gapTop = index == 0 ? boundingBox.getMinY() : stalls.get(index-1).getMaxY();
+        double gapBottom = index == stalls.size() ? boundingBox.getMaxY() : stalls.get(index).getMinY();
+        removeGap(gapTop);
+        addGap(gapTop, stall.getMinY());
+        addGap(stall.getMaxY(), gapBottom);
+        stalls.add(index, stall);
+        updateIndex();
+    }
+
+    /**
+     * Removes a stall, and joins the gaps either side of it
+     * @param stall the stall to remove
+     */
+    private void removeStall(ManualStall stall){
+        int index = stalls.indexOf(stall);
+        double gapTop = index == 0 ? boundingBox.getMinY() : stalls.get(index-1).getMaxY();
+        double gapBottom = index == stalls.size()-1 ? boundingBox.getMaxY() : stalls.get(index+1).getMinY();
+        removeGap(gapTop);
+        removeGap(stall.getMaxY());
+        addGap(gapTop, gapBottom);
+        stalls.remove(index);
+        updateIndex();
+    }
+
+    private void addGap(double top, double bottom){
+        if (top < bottom){
+            gaps.put(top, bottom);
+            Integer count = gapWidths.get(bottom - top);
+            gapWidths.put(bottom - top, count == null ? 1 : count + 1);
+        }
+    }
+
+    private void removeGap(double top){
+        Double bottom = gaps.remove(top);
+        if (bottom != null){
+            int count = gapWidths.get(bottom - top);
+            if (count == 1){
+                gapWidths.remove(bottom - top);
+            }else{
+                gapWidths.put(bottom - top, count - 1);
+            }
+        }
     }
 
     public boolean tryChangeLength(double length){
@@ -251,6 +337,7 @@ public class StallStack {
                                                            boundingBox.getY(),
                                                            length,
                                                            boundingBox.getHeight()));
+                updateIndex();
                 return true;
             }
         }
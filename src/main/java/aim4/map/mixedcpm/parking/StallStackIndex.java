@@ -0,0 +1,245 @@
+package aim4.map.mixedcpm.parking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * StallStackIndex
+ *
+ * Indexes the stall stacks of a ManualParkingArea by their length and ideal
+ * stall width, so that finding a space doesn't need to try every stack of
+ * every parking road. The stacks tell the index when their length or ideal
+ * stall width changes, or when they become empty or stop being empty.
+ */
+class StallStackIndex {
+
+    /**
+     * The length and ideal stall width a stack was indexed under
+     */
+    private static class IndexEntry {
+        /** The parking road the stack belongs to */
+        private final ManualParkingRoad parkingRoad;
+        /** The position of the stack in the parking area, left to right */
+        private final long order;
+        private double length;
+        private double idealStallWidth;
+        private boolean empty;
+
+        private IndexEntry(ManualParkingRoad parkingRoad, long order) {
+            this.parkingRoad = parkingRoad;
+            this.order = order;
+        }
+    }
+
+    /** The entry of each indexed stack */
+    private final Map<StallStack, IndexEntry> entries = new HashMap<>();
+    /** Orders stacks from left to right, the order the parking roads were added */
+    private final Comparator<StallStack> stackOrder = new Comparator<StallStack>() {
+        @Override
+        public int compare(StallStack stack1, StallStack stack2) {
+            return Long.compare(entries.get(stack1).order,
+                                entries.get(stack2).order);
+        }
+    };
+    /** The stacks of each length */
+    private final TreeMap<Double, TreeSet<StallStack>> stacksByLength = new TreeMap<>();
+    /** The stacks of each length, then each ideal stall width */
+    private final Map<Double, Map<Double, TreeSet<StallStack>>> stacksBySize = new HashMap<>();
+    /** The stacks with no stalls whose length is not 0 */
+    private final TreeSet<StallStack> emptyStacks = new TreeSet<>(stackOrder);
+    /** The order given to the next stack added */
+    private long nextOrder = 0;
+
+    /**
+     * Adds the stall stacks of a parking road. Parking roads must be added in
+     * the order they appear in the parking area.
+     * @param parkingRoad the parking road to add
+     */
+    void addParkingRoad(ManualParkingRoad parkingRoad) {
+        for (StallStack stack : parkingRoad.getStallStackPair()) {
+            IndexEntry entry = new IndexEntry(parkingRoad, nextOrder++);
+            entry.length = stack.getMaxStallLength();
+            entry.idealStallWidth = stack.getIdealStallWidth();
+            entry.empty = stack.getManualStalls().isEmpty();
+            entries.put(stack, entry);
+            addToBuckets(stack, entry);
+            stack.setStallStackIndex(this);
+        }
+    }
+
+    /**
+     * Removes the stall stacks of a parking road
+     * @param parkingRoad the parking road to remove
+     */
+    void removeParkingRoad(ManualParkingRoad parkingRoad) {
+        for (StallStack stack : parkingRoad.getStallStackPair()) {
+            IndexEntry entry = entries.get(stack);
+            if (entry != null) {
+                removeFromBuckets(stack, entry);
+                entries.remove(stack);
+                stack.setStallStackIndex(null);
+            }
+        }
+    }
+
+    /**
+     * Re-indexes a stack after its length, ideal stall width or number of
+     * stalls has changed
+     * @param stack the stack which has changed
+     */
+    void update(StallStack stack) {
+        IndexEntry entry = entries.get(stack);
+        if (entry == null ||
+                (entry.length == stack.getMaxStallLength() &&
+                 entry.idealStallWidth == stack.getIdealStallWidth() &&
+                 entry.empty == stack.getManualStalls().isEmpty())) {
+            return;
+        }
+        removeFromBuckets(stack, entry);
+        entry.length = stack.getMaxStallLength();
+        entry.idealStallWidth = stack.getIdealStallWidth();
+        entry.empty = stack.getManualStalls().isEmpty();
+        addToBuckets(stack, entry);
+    }
+
+    /**
+     * Gives the empty stacks of the parking roads between two roads which
+     * are too short for a stall the width of that stall as their ideal stall
+     * width. StallStack.addManualStall does this to any empty stack it is
+     * tried on, so an any gap search must do it to the stacks of the roads
+     * it skips for the later searches to pick the same stacks.
+     * @param stallSpec the parameters of the stall being searched for
+     * @param after the last road searched, or null to start from the first road
+     * @param before the next road to be searched, or null to go on to the last road
+     */
+    void markSkippedStacks(StallSpec stallSpec,
+                           ManualParkingRoad after,
+                           ManualParkingRoad before) {
+        NavigableSet<StallStack> skipped = emptyStacks;
+        if (after != null) {
+            StallStack[] stacks = after.getStallStackPair();
+            skipped = skipped.tailSet(stacks[stacks.length-1], false);
+        }
+        if (before != null) {
+            skipped = skipped.headSet(before.getStallStackPair()[0], false);
+        }
+        // setting the ideal stall width re-indexes the stack
+        for (StallStack stack : new ArrayList<>(skipped)) {
+            if (stack.getMaxStallLength() < stallSpec.getLength()) {
+                stack.setIdealStallWidth(stallSpec.getWidth());
+            }
+        }
+    }
+
+    /**
+     * Finds the parking roads which have a stack that a search of the given
+     * type may put the stall in. Roads which are left out would not have
+     * found a space with ManualParkingRoad.findNewSpace.
+     * @param stallSpec the parameters of the stall to find a space for
+     * @param searchType the way the space should be searched for
+     * @return the parking roads, in the order they appear in the parking area
+     */
+    List<ManualParkingRoad> findCandidateRoads(StallSpec stallSpec,
+                                              ManualParkingRoad.SearchParameter searchType) {
+        TreeSet<StallStack> candidates = new TreeSet<>(stackOrder);
+        switch (searchType) {
+            case exactSize:
+                Map<Double, TreeSet<StallStack>> stacksByWidth =
+                        stacksBySize.get(stallSpec.getLength());
+                if (stacksByWidth != null) {
+                    addStacksWhichFit(stacksByWidth.get(stallSpec.getWidth()),
+                                      stallSpec, candidates);
+                }
+                break;
+            case correctLength:
+                addStacksWhichFit(stacksByLength.get(stallSpec.getLength()),
+                                  stallSpec, candidates);
+                break;
+            case emptyStack:
+                addStacksWhichFit(stacksByLength.get(0.0), stallSpec, candidates);
+                break;
+            case anyGap:
+                addStacksWhichFit(stacksByLength.get(0.0), stallSpec, candidates);
+                for (TreeSet<StallStack> stacks :
+                        stacksByLength.tailMap(stallSpec.getLength(), true).values()) {
+                    addStacksWhichFit(stacks, stallSpec, candidates);
+                }
+                break;
+        }
+
+        List<ManualParkingRoad> roads = new ArrayList<>();
+        for (StallStack stack : candidates) {
+            ManualParkingRoad road = entries.get(stack).parkingRoad;
+            // the stacks of a road are next to each other in the order
+            if (roads.isEmpty() || roads.get(roads.size()-1) != road) {
+                roads.add(road);
+            }
+        }
+        return roads;
+    }
+
+    // Private methods
+
+    private void addStacksWhichFit(Collection<StallStack> stacks,
+                                   StallSpec stallSpec,
+                                   Collection<StallStack> candidates) {
+        if (stacks == null) {
+            return;
+        }
+        for (StallStack stack : stacks) {
+            if (stack.getMaxStallLength() == 0 || stack.canFit(stallSpec.getWidth())) {
+                candidates.add(stack);
+            }
+        }
+    }
+
+    private void addToBuckets(StallStack stack, IndexEntry entry) {
+        TreeSet<StallStack> stacks = stacksByLength.get(entry.length);
+        if (stacks == null) {
+            stacks = new TreeSet<>(stackOrder);
+            stacksByLength.put(entry.length, stacks);
+        }
+        stacks.add(stack);
+        if (entry.empty && entry.length != 0) {
+            emptyStacks.add(stack);
+        }
+
+        Map<Double, TreeSet<StallStack>> stacksByWidth = stacksBySize.get(entry.length);
+        if (stacksByWidth == null) {
+            stacksByWidth = new HashMap<>();
+            stacksBySize.put(entry.length, stacksByWidth);
+        }
+        stacks = stacksByWidth.get(entry.idealStallWidth);
+        if (stacks == null) {
+            stacks = new TreeSet<>(stackOrder);
+            stacksByWidth.put(entry.idealStallWidth, stacks);
+        }
+        stacks.add(stack);
+    }
+
+    private void removeFromBuckets(StallStack stack, IndexEntry entry) {
+        TreeSet<StallStack> stacks = stacksByLength.get(entry.length);
+        stacks.remove(stack);
+        if (stacks.isEmpty()) {
+            stacksByLength.remove(entry.length);
+        }
+        emptyStacks.remove(stack);
+
+        Map<Double, TreeSet<StallStack>> stacksByWidth = stacksBySize.get(entry.length);
+        stacks = stacksByWidth.get(entry.idealStallWidth);
+        stacks.remove(stack);
+        if (stacks.isEmpty()) {
+            stacksByWidth.remove(entry.idealStallWidth);
+            if (stacksByWidth.isEmpty()) {
+                stacksBySize.remove(entry.length);
+            }
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package aim4.map.mixedcpm.statusmonitor;
 
-import aim4.driver.mixedcpm.MixedCPMManualDriver;
 import aim4.map.Road;
 import aim4.map.lane.Lane;
 import aim4.map.mixedcpm.MixedCPMBasicMap;
@@ -26,6 +25,8 @@ public class AdjustableManualStatusMonitor implements IStatusMonitor {
     /** A list of manualVehicles which are currently in the car park,
      * and the lane they are parked in. */
     private Map<MixedCPMBasicManualVehicle, ManualStall> manualVehicles = new HashMap<>();
+    /** The vehicles which are currently parked. */
+    private ParkedVehicleTally parkedVehicles = new ParkedVehicleTally();
     /** The number of manualVehicles denied entry due to not enough room.*/
     private int numberOfDeniedEntries;
     /** The number of manualVehicles allowed entry as there is enough room.*/
@@ -79,6 +80,18 @@ public class AdjustableManualStatusMonitor implements IStatusMonitor {
         }
     }
 
+    @Override
+    public void vehicleOnPark(MixedCPMBasicVehicle vehicle) {
+        if (manualVehicles.containsKey(vehicle)) {
+            parkedVehicles.park(vehicle);
+        }
+    }
+
+    @Override
+    public void vehicleOnUnpark(MixedCPMBasicVehicle vehicle) {
+        parkedVehicles.unpark(vehicle);
+    }
+
     /**
      * Update capacity and allocate a parking lane to a vehicle on entry to the car park.
      * @param vehicle The vehicle entering the car park.
@@ -128,6 +141,7 @@ public class AdjustableManualStatusMonitor implements IStatusMonitor {
         // Remove the vehicle from the status monitor's records
         vehicle.getTargetStall().delete();
         manualVehicles.remove(vehicle);
+        parkedVehicles.unpark(vehicle);
         numberOfCompletedVehicles++;
     }
 
@@ -146,54 +160,16 @@ public class AdjustableManualStatusMonitor implements IStatusMonitor {
     }
 
     public double getTotalAreaOfParkedVehicles(){
-        double totalVehicleArea = 0;
-        for (MixedCPMBasicManualVehicle vehicle : manualVehicles.keySet()){
-            if(((MixedCPMManualDriver)vehicle.getDriver()).isParked()){
-                totalVehicleArea = totalVehicleArea +
-                                    (vehicle.getSpec().getWidth() *
-                                     vehicle.getSpec().getLength());
-            }
-        }
-        return totalVehicleArea;
+        return parkedVehicles.getTotalAreaOfParkedVehicles();
     }
 
     public int getNoOfParkedVehicles(){
-        int noOfParkedVehicles = 0;
-        int noOfVansNotParked = 0;
-        int noOfNonVansNotParked = 0;
-        int noOfVansParked = 0;
-        int noOfNonVansParked = 0;
-        for (MixedCPMBasicManualVehicle vehicle : manualVehicles.keySet()){
-            if(((MixedCPMManualDriver)vehicle.getDriver()).isParked()){
-                noOfParkedVehicles++;
-                if (vehicle.getSpec().getName() == "VAN"){
-                    noOfVansParked++;
-                }else{
-                    noOfNonVansParked++;
-                }
-            }else{
-                //here
-                if (vehicle.getSpec().getName() == "VAN"){
-                    noOfVansNotParked++;
-                }else{
-                    noOfNonVansNotParked++;
-                }
-            }
-        }
-        return noOfParkedVehicles;
+        return parkedVehicles.getNumberOfParkedVehicles();
     }
 
-
     @Override
     public int getNoOfParkedDisabledVehicles() {
-        int noOfParkedDisabledVehicles = 0;
-        for (MixedCPMBasicManualVehicle vehicle : manualVehicles.keySet()) {
-            if (vehicle.isDisabledVehicle()
-                    && ((MixedCPMManualDriver) vehicle.getDriver()).isParked()) {
-                noOfParkedDisabledVehicles++;
-            }
-        }
-        return noOfParkedDisabledVehicles;
+        return parkedVehicles.getNumberOfParkedDisabledVehicles();
     }
 
     public void updateMostNumberOfVehicles(){
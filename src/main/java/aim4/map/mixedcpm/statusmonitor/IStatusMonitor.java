@@ -24,6 +24,19 @@ public interface IStatusMonitor {
          */
         public void vehicleOnExit(MixedCPMBasicVehicle vehicle);
 
+        /**
+         * Update the parked vehicle counts when a vehicle parks.
+         * @param vehicle The vehicle which has parked.
+         */
+        public void vehicleOnPark(MixedCPMBasicVehicle vehicle);
+
+        /**
+         * Update the parked vehicle counts when a vehicle leaves its
+         * parking space.
+         * @param vehicle The vehicle which is no longer parked.
+         */
+        public void vehicleOnUnpark(MixedCPMBasicVehicle vehicle);
+
         public List<MixedCPMBasicVehicle> getVehicles();
 
         public List<MixedCPMBasicManualVehicle> getManualVehicles();
@@ -1,7 +1,5 @@
 package aim4.map.mixedcpm.statusmonitor;
 
-import aim4.driver.mixedcpm.MixedCPMAutoDriver;
-import aim4.driver.mixedcpm.MixedCPMManualDriver;
 import aim4.map.Road;
 import aim4.map.lane.Lane;
 import aim4.map.mixedcpm.MixedCPMBasicMap;
@@ -34,6 +32,10 @@ public class MixedStatusMonitor implements IStatusMonitor {
     /** A list of manualVehicles which are currently in the car park,
      * and the lane they are parked in. */
     private Map<MixedCPMBasicAutoVehicle, AutomatedParkingRoad> autoVehicles = new HashMap<>();
+    /** The manual vehicles which are currently parked. */
+    private ParkedVehicleTally parkedManualVehicles = new ParkedVehicleTally();
+    /** The automated vehicles which are currently parked. */
+    private ParkedVehicleTally parkedAutoVehicles = new ParkedVehicleTally();
     /** The number of manualVehicles denied entry due to not enough room.*/
     private int numberOfDeniedEntries;
     /** The number of manualVehicles allowed entry as there is enough room.*/
@@ -157,6 +159,21 @@ public class MixedStatusMonitor implements IStatusMonitor {
         }
     }
 
+    @Override
+    public void vehicleOnPark(MixedCPMBasicVehicle vehicle) {
+        if (manualVehicles.containsKey(vehicle)) {
+            parkedManualVehicles.park(vehicle);
+        } else if (autoVehicles.containsKey(vehicle)) {
+            parkedAutoVehicles.park(vehicle);
+        }
+    }
+
+    @Override
+    public void vehicleOnUnpark(MixedCPMBasicVehicle vehicle) {
+        parkedManualVehicles.unpark(vehicle);
+        parkedAutoVehicles.unpark(vehicle);
+    }
+
     /**
      * Update capacity and allocate a parking lane to a vehicle on entry to the car park.
      * @param vehicle The vehicle entering the car park.
@@ -229,6 +246,7 @@ public class MixedStatusMonitor implements IStatusMonitor {
         // Remove the vehicle from the status monitor's records
         vehicle.getTargetStall().delete();
         manualVehicles.remove(vehicle);
+        parkedManualVehicles.unpark(vehicle);
         numberOfCompletedVehicles++;
         numberOfCompletedManualVehicles++;
     }
@@ -241,6 +259,7 @@ public class MixedStatusMonitor implements IStatusMonitor {
         // Remove the vehicle from the status monitor's records
         vehicle.getTargetLane().removeVehicle(vehicle.getSpec());
         autoVehicles.remove(vehicle);
+        parkedAutoVehicles.unpark(vehicle);
         numberOfCompletedVehicles++;
         numberOfCompletedAutoVehicles++;
     }
@@ -274,27 +293,11 @@ public class MixedStatusMonitor implements IStatusMonitor {
     }
 
     private double getTotalAreaOfParkedAutoVehicles(){
-        double totalVehicleArea = 0;
-        for (MixedCPMBasicAutoVehicle vehicle : autoVehicles.keySet()){
-            if(((MixedCPMAutoDriver)vehicle.getDriver()).isParked()){
-                totalVehicleArea = totalVehicleArea +
-                        (vehicle.getSpec().getWidth() *
-                                vehicle.getSpec().getLength());
-            }
-        }
-        return totalVehicleArea;
+        return parkedAutoVehicles.getTotalAreaOfParkedVehicles();
     }
 
     private double getTotalAreaOfParkedManualVehicles(){
-        double totalVehicleArea = 0;
-        for (MixedCPMBasicManualVehicle vehicle : manualVehicles.keySet()){
-            if(((MixedCPMManualDriver)vehicle.getDriver()).isParked()){
-                totalVehicleArea = totalVehicleArea +
-                        (vehicle.getSpec().getWidth() *
-                                vehicle.getSpec().getLength());
-            }
-        }
-        return totalVehicleArea;
+        return parkedManualVehicles.getTotalAreaOfParkedVehicles();
     }
 
     public int getNoOfParkedVehicles(){
@@ -302,35 +305,16 @@ public class MixedStatusMonitor implements IStatusMonitor {
     }
 
     public int getNoOfParkedManualVehicles(){
-        int noOfParkedVehicles = 0;
-        for (MixedCPMBasicManualVehicle vehicle : manualVehicles.keySet()) {
-            if (((MixedCPMManualDriver) vehicle.getDriver()).isParked()) {
-                noOfParkedVehicles++;
-            }
-        }
-        return noOfParkedVehicles;
+        return parkedManualVehicles.getNumberOfParkedVehicles();
     }
 
     @Override
     public int getNoOfParkedDisabledVehicles() {
-        int noOfParkedDisabledVehicles = 0;
-        for (MixedCPMBasicManualVehicle vehicle : manualVehicles.keySet()) {
-            if (vehicle.isDisabledVehicle()
-                && ((MixedCPMManualDriver) vehicle.getDriver()).isParked()) {
-                noOfParkedDisabledVehicles++;
-            }
-        }
-        return noOfParkedDisabledVehicles;
+        return parkedManualVehicles.getNumberOfParkedDisabledVehicles();
     }
 
     public int getNoOfParkedAutoVehicles(){
-        int noOfParkedVehicles = 0;
-        for (MixedCPMBasicAutoVehicle vehicle : autoVehicles.keySet()) {
-            if (((MixedCPMAutoDriver) vehicle.getDriver()).isParked()) {
-                noOfParkedVehicles++;
-            }
-        }
-        return noOfParkedVehicles;
+        return parkedAutoVehicles.getNumberOfParkedVehicles();
     }
 
     public void updateMostNumberOfVehicles(){
@@ -0,0 +1,76 @@
+package aim4.map.mixedcpm.statusmonitor;
+
+import aim4.vehicle.mixedcpm.MixedCPMBasicManualVehicle;
+import aim4.vehicle.mixedcpm.MixedCPMBasicVehicle;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Running totals of the vehicles parked in (part of) a car park, updated
+ * as vehicles park and leave, so that a status monitor does not need to
+ * look at every vehicle to find them.
+ */
+class ParkedVehicleTally {
+
+    /** The vehicles that are currently parked. */
+    private Set<MixedCPMBasicVehicle> parkedVehicles = new HashSet<>();
+    /** The number of parked vehicles which are disabled vehicles. */
+    private int numberOfParkedDisabledVehicles;
+    /** The total area of the parked vehicles. */
+    private double totalAreaOfParkedVehicles;
+
+    /**
+     * Record that a vehicle has parked. Does nothing if it is already
+     * recorded as parked.
+     * @param vehicle The vehicle which has parked.
+     */
+    void park(MixedCPMBasicVehicle vehicle) {
+        if (parkedVehicles.add(vehicle)) {
+            totalAreaOfParkedVehicles += areaOf(vehicle);
+            if (isDisabledVehicle(vehicle)) {
+                numberOfParkedDisabledVehicles++;
+            }
+        }
+    }
+
+    /**
+     * Record that a vehicle is no longer parked. Does nothing if it is not
+     * recorded as parked.
+     * @param vehicle The vehicle which has left its parking space.
+     */
+    void unpark(MixedCPMBasicVehicle vehicle) {
+        if (parkedVehicles.remove(vehicle)) {
+            if (parkedVehicles.isEmpty()) {
+                // don't let rounding errors build up
+                totalAreaOfParkedVehicles = 0;
+            } else {
+                totalAreaOfParkedVehicles -= areaOf(vehicle);
+            }
+            if (isDisabledVehicle(vehicle)) {
+                numberOfParkedDisabledVehicles--;
+            }
+        }
+    }
+
+    int getNumberOfParkedVehicles() {
+        return parkedVehicles.size();
+    }
+
+    int getNumberOfParkedDisabledVehicles() {
+        return numberOfParkedDisabledVehicles;
+    }
+
+    double getTotalAreaOfParkedVehicles() {
+        return totalAreaOfParkedVehicles;
+    }
+
+    private static double areaOf(MixedCPMBasicVehicle vehicle) {
+        return vehicle.getSpec().getWidth() * vehicle.getSpec().getLength();
+    }
+
+    private static boolean isDisabledVehicle(MixedCPMBasicVehicle vehicle) {
+        return vehicle instanceof MixedCPMBasicManualVehicle
+                && ((MixedCPMBasicManualVehicle) vehicle).isDisabledVehicle();
+    }
+}
@@ -1,6 +1,5 @@
 package aim4.map.mixedcpm.statusmonitor;
 
-import aim4.driver.mixedcpm.MixedCPMManualDriver;
 import aim4.map.Road;
 import aim4.map.lane.Lane;
 import aim4.map.mixedcpm.MixedCPMBasicMap;
@@ -23,6 +22,8 @@ public class StaticStatusMonitor implements IStatusMonitor {
     /** A list of vehicles which are currently in the car park,
      * and the lane they are parked in. */
     private Map<MixedCPMBasicManualVehicle, ManualStall> vehicles = new HashMap<>();
+    /** The vehicles which are currently parked. */
+    private ParkedVehicleTally parkedVehicles = new ParkedVehicleTally();
     /** The number of vehicles denied entry due to not enough room.*/
     private int numberOfDeniedEntries;
     /** The number of vehicles allowed entry as there is enough room.*/
@@ -85,6 +86,18 @@ public class StaticStatusMonitor implements IStatusMonitor {
         }
     }
 
+    @Override
+    public void vehicleOnPark(MixedCPMBasicVehicle vehicle) {
+        if (vehicles.containsKey(vehicle)) {
+            parkedVehicles.park(vehicle);
+        }
+    }
+
+    @Override
+    public void vehicleOnUnpark(MixedCPMBasicVehicle vehicle) {
+        parkedVehicles.unpark(vehicle);
+    }
+
     private boolean addNewVehicle(MixedCPMBasicManualVehicle vehicle) {
         // check that the vehicle has not already entered the car park
         if (vehicle.hasEnteredCarPark()) {
@@ -142,6 +155,7 @@ public class StaticStatusMonitor implements IStatusMonitor {
     private void vehicleOnExit(MixedCPMBasicManualVehicle vehicle) {
         // Remove the vehicle from the status monitor's records
         vehicles.remove(vehicle);
+        parkedVehicles.unpark(vehicle);
         numberOfCompletedVehicles++;
         occupiedStalls.remove(vehicle.getTargetStall());
         // Replace the space deleted by this vehicle when it left
@@ -166,54 +180,16 @@ public class StaticStatusMonitor implements IStatusMonitor {
     }
 
     public double getTotalAreaOfParkedVehicles(){
-        double totalVehicleArea = 0;
-        for (MixedCPMBasicManualVehicle vehicle : vehicles.keySet()){
-            if(((MixedCPMManualDriver)vehicle.getDriver()).isParked()){
-                totalVehicleArea = totalVehicleArea +
-                        (vehicle.getSpec().getWidth() *
-                                vehicle.getSpec().getLength());
-            }
-        }
-        return totalVehicleArea;
+        return parkedVehicles.getTotalAreaOfParkedVehicles();
     }
 
     public int getNoOfParkedVehicles(){
-        int noOfParkedVehicles = 0;
-        int noOfVansNotParked = 0;
-        int noOfNonVansNotParked = 0;
-        int noOfVansParked = 0;
-        int noOfNonVansParked = 0;
-        for (MixedCPMBasicManualVehicle vehicle : vehicles.keySet()){
-            if(((MixedCPMManualDriver)vehicle.getDriver()).isParked()){
-                noOfParkedVehicles++;
-                if (vehicle.getSpec().getName() == "VAN"){
-                    noOfVansParked++;
-                }else{
-                    noOfNonVansParked++;
-                }
-            }else{
-                //here
-                if (vehicle.getSpec().getName() == "VAN"){
-                    noOfVansNotParked++;
-                }else{
-                    noOfNonVansNotParked++;
-                }
-            }
-        }
-        return noOfParkedVehicles;
+        return parkedVehicles.getNumberOfParkedVehicles();
     }
 
-
     @Override
     public int getNoOfParkedDisabledVehicles() {
-        int noOfParkedDisabledVehicles = 0;
-        for (MixedCPMBasicManualVehicle vehicle : vehicles.keySet()) {
-            if (vehicle.isDisabledVehicle()
-                    && ((MixedCPMManualDriver) vehicle.getDriver()).isParked()) {
-                noOfParkedDisabledVehicles++;
-            }
-        }
-        return noOfParkedDisabledVehicles;
+        return parkedVehicles.getNumberOfParkedDisabledVehicles();
     }
 
     public void updateMostNumberOfVehicles(){
@@ -35,6 +35,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.SocketAddress;
+import java.nio.ByteBuffer;
 
 import aim4.msg.aim.i2v.Confirm;
 import aim4.msg.aim.i2v.Reject;
@@ -143,6 +144,59 @@ public abstract class Proxy2RealAdapter {
   }
 
 
+  /**
+   * Write this confirm message, with its header, to a buffer.
+   *
+   * @param buffer       the buffer, in big-endian byte order
+   * @param currentTime  absolute time in seconds
+   * @return the buffer
+   */
+  public static ByteBuffer writeToByteBuffer(Confirm msg,
+                                             ByteBuffer buffer,
+                                             double currentTime) {
+    putHeader(buffer, currentTime, UdpMessageType.I2V_Confirm);
+    buffer.putInt(msg.getReservationId());
+    // arrival_time is relative
+    buffer.putFloat((float) (msg.getArrivalTime() - currentTime));
+    buffer.putFloat((float) msg.getEarlyError());
+    buffer.putFloat((float) msg.getLateError());
+    buffer.putFloat((float) msg.getArrivalVelocity());
+    // ignore other acceleration for now
+    buffer.putFloat((float) msg.getAccelerationProfile().peek()[0]);
+    return buffer;
+  }
+
+  /**
+   * Write this reject message, with its header, to a buffer.
+   *
+   * @param buffer       the buffer, in big-endian byte order
+   * @param currentTime  absolute time in seconds
+   * @return the buffer
+   */
+  public static ByteBuffer writeToByteBuffer(Reject msg,
+                                             ByteBuffer buffer,
+                                             double currentTime) {
+    putHeader(buffer, currentTime, UdpMessageType.I2V_Reject);
+    return buffer;
+  }
+
+  /**
+   * Write the distance of the vehicle in front, with its header, to a
+   * buffer.
+   *
+   * @param distToFrontVehicle  the distance of the vehicles in front
+   * @param buffer              the buffer, in big-endian byte order
+   * @param currentTime         absolute time in seconds
+   * @return the buffer
+   */
+  public static ByteBuffer writeToByteBuffer(double distToFrontVehicle,
+                                             ByteBuffer buffer,
+                                             double currentTime) {
+    putHeader(buffer, currentTime, UdpMessageType.I2V_DistToFrontVehicle);
+    buffer.putFloat((float) distToFrontVehicle);
+    return buffer;
+  }
+
   /**
    * Builds a header for the type of this message, and writes it to a new
    * DataOutputStream wrapped around a given ByteArrayOutputStream
@@ -164,4 +218,19 @@ public abstract class Proxy2RealAdapter {
     header.writeToDataOutputStream(dos);
     return dos;
   }
+
+  /**
+   * Builds a header for the type of this message, and writes it to a
+   * buffer.
+   *
+   * @param buffer       the buffer, in big-endian byte order
+   * @param currentTime  The current, absolute time in seconds
+   * @param type         the message type
+   */
+  private static void putHeader(ByteBuffer buffer, double currentTime,
+                                UdpMessageType type) {
+    UdpHeader header = new UdpHeader((float)currentTime, type);
+    // TODO: compute and set the checksum
+    header.writeToByteBuffer(buffer);
+  }
 }
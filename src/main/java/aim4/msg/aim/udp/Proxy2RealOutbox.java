@@ -0,0 +1,120 @@
+package aim4.msg.aim.udp;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the datagrams the proxy vehicles send to the real vehicles during
+ * a simulation step, so that they are sent together through one channel
+ * instead of opening a socket for each message. The buffers are reused from
+ * step to step. It is used by the simulation thread only.
+ */
+public class Proxy2RealOutbox {
+
+    /////////////////////////////////
+    // PRIVATE FIELDS
+    /////////////////////////////////
+
+    /** The buffers of the datagrams, including the unused ones */
+    private final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    /** The destination of each datagram */
+    private final List<SocketAddress> destinations = new ArrayList<SocketAddress>();
+    /** The number of datagrams waiting to be sent */
+    private int size = 0;
+    /** The channel the datagrams are sent through; opened when first needed */
+    private DatagramChannel channel = null;
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    /**
+     * Get an empty buffer for a datagram to be sent with the next flush.
+     * The datagram is the bytes written to the buffer, from the start to
+     * the buffer's position.
+     *
+     * @param sa  the destination of the datagram
+     * @return the buffer, in big-endian byte order
+     */
+    public ByteBuffer nextBuffer(SocketAddress sa) {
+        if (size == buffers.size()) {
+            buffers.add(ByteBuffer.allocateDirect(
+                    UdpHeader.MAX_MESSENGE_PACKAGE_LENGTH));
+            destinations.add(sa);
+        } else {
+            destinations.set(size, sa);
+        }
+        ByteBuffer buffer = buffers.get(size++);
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Get the number of datagrams waiting to be sent.
+     *
+     * @return the number of datagrams waiting to be sent
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Send the datagrams collected since the last flush. A datagram which
+     * cannot be sent is dropped, as UDP would.
+     *
+     * @return the number of datagrams sent
+     * @throws IOException the first error sending a datagram, after trying
+     *                     to send the rest
+     */
+    public int flush() throws IOException {
+        if (size == 0) {
+            return 0;
+        }
+        IOException error = null;
+        int sent = 0;
+        try {
+            if (channel == null) {
+                channel = DatagramChannel.open();
+            }
+            for (int i = 0; i < size; i++) {
+                ByteBuffer buffer = buffers.get(i);
+                buffer.flip();
+                try {
+                    channel.send(buffer, destinations.get(i));
+                    sent++;
+                } catch (IOException e) {
+                    if (error == null) {
+                        error = e;
+                    }
+                }
+                destinations.set(i, null);
+            }
+        } finally {
+            size = 0;
+        }
+        if (error != null) {
+            throw error;
+        }
+        return sent;
+    }
+
+    /**
+     * Drop the datagrams which have not been sent and close the channel.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    public void close() throws IOException {
+        for (int i = 0; i < size; i++) {
+            destinations.set(i, null);
+        }
+        size = 0;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
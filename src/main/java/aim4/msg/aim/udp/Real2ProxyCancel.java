@@ -32,6 +32,7 @@ package aim4.msg.aim.udp;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * A real vehicle to proxy vehicle message for cancel message.
@@ -58,10 +59,22 @@ public class Real2ProxyCancel extends Real2ProxyMsg {
    */
   public Real2ProxyCancel(DataInputStream dis, double receivedTime)
       throws IOException {
-    super(Type.REQUEST, receivedTime);
+    super(Type.CANCEL, receivedTime);
     reservationId = dis.readInt();
   }
 
+  /**
+   * Create a real vehicle to proxy vehicle message for cancel message.
+   *
+   * @param buffer        the buffer positioned after the UDP header, in
+   *                      big-endian byte order
+   * @param receivedTime  the time stamp
+   */
+  public Real2ProxyCancel(ByteBuffer buffer, double receivedTime) {
+    super(Type.CANCEL, receivedTime);
+    reservationId = buffer.getInt();
+  }
+
   /////////////////////////////////
   // DEBUG
   /////////////////////////////////
@@ -32,6 +32,7 @@ package aim4.msg.aim.udp;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * A real vehicle to proxy vehicle message for done message.
@@ -54,6 +55,17 @@ public class Real2ProxyDone extends Real2ProxyMsg {
     super(Type.DONE, receivedTime);
   }
 
+  /**
+   * Create a real vehicle to proxy vehicle message for done message.
+   *
+   * @param buffer        the buffer positioned after the UDP header, in
+   *                      big-endian byte order
+   * @param receivedTime  the time stamp
+   */
+  public Real2ProxyDone(ByteBuffer buffer, double receivedTime) {
+    super(Type.DONE, receivedTime);
+  }
+
   /////////////////////////////////
   // DEBUG
   /////////////////////////////////
@@ -33,6 +33,7 @@ package aim4.msg.aim.udp;
 import java.awt.geom.Point2D;
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import aim4.config.Constants;
 import aim4.vehicle.AccelSchedule;
@@ -95,6 +96,29 @@ public class Real2ProxyPVUpdate extends Real2ProxyMsg {
     // TODO: Marvin can't generate accelProfile yet. Thus, just leave it null
   }
 
+  /**
+   * Create a real vehicle to proxy vehicle message for PV update message.
+   *
+   * @param buffer        the buffer positioned after the UDP header, in
+   *                      big-endian byte order
+   * @param receivedTime  the time stamp
+   */
+  public Real2ProxyPVUpdate(ByteBuffer buffer, double receivedTime) {
+    super(Type.PV_UPDATE, receivedTime);
+
+    // Read the new values
+    vin = buffer.getInt();
+    double x = (double)buffer.getFloat();
+    double y = (double)buffer.getFloat();
+    position = new Point2D.Double(x, y);
+    heading = (double)buffer.getFloat();
+    steeringAngle = (double)buffer.getFloat();
+    velocity = (double)buffer.getFloat();
+    targetVelocity = (double)buffer.getFloat();
+    acceleration = (double)buffer.getFloat();
+    accelProfile = null;
+  }
+
   /////////////////////////////////
   // DEBUG
   /////////////////////////////////
@@ -32,6 +32,7 @@ package aim4.msg.aim.udp;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import aim4.config.Constants;
 
@@ -73,6 +74,21 @@ public class Real2ProxyRequest extends Real2ProxyMsg {
     arrivalVelocity = dis.readFloat();
   }
 
+  /**
+   * Create a real vehicle to proxy vehicle message for request message.
+   *
+   * @param buffer        the buffer positioned after the UDP header, in
+   *                      big-endian byte order
+   * @param receivedTime  the time stamp
+   */
+  public Real2ProxyRequest(ByteBuffer buffer, double receivedTime) {
+    super(Type.REQUEST, receivedTime);
+    vin = buffer.getInt();
+    arrivalTimeSpan = buffer.getFloat();
+    departureLaneId = buffer.getInt();
+    arrivalVelocity = buffer.getFloat();
+  }
+
   /////////////////////////////////
   // DEBUG
   /////////////////////////////////
@@ -33,6 +33,8 @@ package aim4.msg.aim.udp;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 
 /**
  * Small header included in all UDP messages sent to/from the real car.
@@ -114,6 +116,24 @@ public class UdpHeader {
     checksum = dis.readInt();
   }
 
+  /**
+   * Construct the header from a buffer holding a datagram received over
+   * UDP from the real car.  The buffer's position is moved past the header.
+   *
+   * @param buffer  the buffer, in big-endian byte order
+   * @throws BufferUnderflowException if the buffer is shorter than a header
+   * @throws IllegalArgumentException if the message type is unknown
+   */
+  public UdpHeader(ByteBuffer buffer) {
+    timestamp = buffer.getFloat();
+    int type = buffer.getInt();
+    if (type < 0 || type >= UdpMessageType.values().length) {
+      throw new IllegalArgumentException("Unknown UDP message type: " + type);
+    }
+    messageType = UdpMessageType.values()[type];
+    checksum = buffer.getInt();
+  }
+
   /**
    * Create a header for a particular message type
    *
@@ -180,6 +200,19 @@ public class UdpHeader {
     return dos;
   }
 
+  /**
+   * Write the data header to a buffer.
+   *
+   * @param buffer  the buffer, in big-endian byte order
+   * @return the buffer
+   */
+  public ByteBuffer writeToByteBuffer(ByteBuffer buffer) {
+    buffer.putFloat(timestamp);
+    buffer.putInt(messageType.ordinal());
+    buffer.putInt(checksum);
+    return buffer;
+  }
+
   /////////////////////////////////
   // PUBLIC STATIC METHODS
   /////////////////////////////////
@@ -191,6 +224,17 @@ public class UdpHeader {
    * @return the check sum
    */
   public static int computeChecksum(byte[] data) {
+    return computeChecksum(ByteBuffer.wrap(data));
+  }
+
+  /**
+   * Compute the check sum for the remaining bytes of a buffer.  The buffer's
+   * position is not changed.
+   *
+   * @param data  the buffer
+   * @return the check sum
+   */
+  public static int computeChecksum(ByteBuffer data) {
     // TODO: implement this function later
     return 0;
   }
@@ -32,25 +32,43 @@ package aim4.noise;
 
 import java.util.Random;
 
+import aim4.sim.SimContext;
+
 /**
  * NoiseFunction that adds Gaussian noise to a value.
  */
 public class GaussianNoiseFunction implements NoiseFunction {
 
-  /** Random seed for creating noise. */
-  protected static Random rnd = new Random();
-
   /** The standard deviation of the Gaussian that will generate the noise. */
   private double standardDeviation;
 
+  /** The random number stream the noise is drawn from. */
+  private Random random;
+
   /**
    * Class constructor.  Takes the standard deviation of the Gaussian and uses
-   * it to generate noise with mean zero.
+   * it to generate noise with mean zero, drawn from the next of the
+   * "noise.gaussian" streams of the current simulation.
    *
    * @param standardDeviation the standard deviation of the desired Gaussian
    */
   public GaussianNoiseFunction(double standardDeviation) {
+    this(standardDeviation,
+         SimContext.current().nextRandomStream("noise.gaussian"));
+  }
+
+  /**
+   * Class constructor.  Takes the standard deviation of the Gaussian and uses
+   * it to generate noise with mean zero.
+   *
+   * @param standardDeviation the standard deviation of the desired Gaussian
+   * @param random            the random number stream to draw the noise
+   *                          from, e.g. one of {@link aim4.util.RandomStreams}
+   *                          per vehicle
+   */
+  public GaussianNoiseFunction(double standardDeviation, Random random) {
     this.standardDeviation = standardDeviation;
+    this.random = random;
   }
 
   /**
@@ -58,6 +76,6 @@ public class GaussianNoiseFunction implements NoiseFunction {
    */
   @Override
   public double apply(double trueValue) {
-    return trueValue + rnd.nextGaussian() * standardDeviation;
+    return trueValue + random.nextGaussian() * standardDeviation;
   }
 }
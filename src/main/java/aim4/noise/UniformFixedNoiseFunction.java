@@ -30,7 +30,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.noise;
 
-import aim4.util.Util;
+import java.util.Random;
+
+import aim4.sim.SimContext;
 
 /**
  * NoiseFunction that adds noise uniformly within a fixed proportion of the
@@ -45,13 +47,29 @@ public class UniformFixedNoiseFunction implements NoiseFunction {
    */
   private double range;
 
+  /** The random number stream the noise is drawn from. */
+  private Random random;
+
   /**
-   * Class constructor.
+   * Class constructor.  The noise is drawn from the next of the
+   * "noise.uniformFixed" streams of the current simulation.
    *
    * @param range the range, in each direction, of potential noise.
    */
   public UniformFixedNoiseFunction(double range) {
+    this(range, SimContext.current().nextRandomStream("noise.uniformFixed"));
+  }
+
+  /**
+   * Class constructor.
+   *
+   * @param range  the range, in each direction, of potential noise.
+   * @param random the random number stream to draw the noise from, e.g. one
+   *               of {@link aim4.util.RandomStreams} per vehicle
+   */
+  public UniformFixedNoiseFunction(double range, Random random) {
     this.range = range;
+    this.random = random;
   }
 
   /**
@@ -59,6 +77,6 @@ public class UniformFixedNoiseFunction implements NoiseFunction {
    */
   @Override
   public double apply(double trueValue) {
-    return trueValue + (Util.random.nextDouble() * range * 2) - range;
+    return trueValue + (random.nextDouble() * range * 2) - range;
   }
 }
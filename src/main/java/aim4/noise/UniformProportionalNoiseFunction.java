@@ -30,7 +30,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.noise;
 
-import aim4.util.Util;
+import java.util.Random;
+
+import aim4.sim.SimContext;
 
 /**
  * NoiseFunction that adds noise uniformly within a fixed proportion of the
@@ -45,14 +47,32 @@ public class UniformProportionalNoiseFunction implements NoiseFunction {
    */
   private double proportion;
 
+  /** The random number stream the noise is drawn from. */
+  private Random random;
+
   /**
-   * Class constructor.
+   * Class constructor.  The noise is drawn from the next of the
+   * "noise.uniformProportional" streams of the current simulation.
    *
    * @param proportion the proportion of the true value to use as bounds for
    *        the noise function.
    */
   public UniformProportionalNoiseFunction(double proportion) {
+    this(proportion,
+         SimContext.current().nextRandomStream("noise.uniformProportional"));
+  }
+
+  /**
+   * Class constructor.
+   *
+   * @param proportion the proportion of the true value to use as bounds for
+   *        the noise function.
+   * @param random     the random number stream to draw the noise from, e.g.
+   *        one of {@link aim4.util.RandomStreams} per vehicle
+   */
+  public UniformProportionalNoiseFunction(double proportion, Random random) {
     this.proportion = proportion;
+    this.random = random;
   }
 
   /**
@@ -61,6 +81,6 @@ public class UniformProportionalNoiseFunction implements NoiseFunction {
   @Override
   public double apply(double trueValue) {
     double range = 2 * trueValue * proportion;
-    return trueValue + (Util.random.nextDouble() * range) - range/2;
+    return trueValue + (random.nextDouble() * range) - range/2;
   }
 }
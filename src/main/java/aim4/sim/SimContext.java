@@ -0,0 +1,291 @@
+package aim4.sim;
+
+import aim4.config.DebugPoint;
+import aim4.map.aim.BasicIntersectionMap;
+import aim4.map.mixedcpm.MixedCPMMapUtil;
+import aim4.sim.metrics.MetricsRegistry;
+import aim4.util.RandomStreams;
+import aim4.util.Util;
+import aim4.vehicle.VehicleUtil;
+import aim4.vehicle.VinRegistry;
+
+import java.awt.Color;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The state belonging to a single simulation run: the VIN registry, the map
+ * lanes and roads are looked up in, the debug sinks and the per-run
+ * configuration.
+ * <p>
+ * The static accessors in {@link VinRegistry}, {@link aim4.config.Debug},
+ * {@link aim4.config.SimConfig} and {@link aim4.driver.aim.pilot.V2IPilot}
+ * resolve to the context bound to the calling thread. A simulator captures
+ * the context it was created in and binds it for the duration of each step,
+ * so drivers, intersection managers and vehicles created during a step all
+ * see their own simulation's state. Threads that have not bound a context
+ * (the GUI, and code that predates contexts) share a single default one.
+ * <p>
+ * To run several simulations in one JVM, create each simulator with
+ * {@link aim4.sim.setup.SimFactory#makeSimulator(aim4.sim.setup.SimSetup,
+ * SimContext)} and a fresh context.
+ */
+public class SimContext {
+
+    /////////////////////////////////
+    // CONTEXT BINDING
+    /////////////////////////////////
+
+    /**The context used by threads that have not bound one**/
+    private static final SimContext SHARED = new SimContext();
+
+    /**The context bound to each thread, if any**/
+    private static final ThreadLocal<SimContext> CURRENT = new ThreadLocal<SimContext>();
+
+    /**
+     * Get the context bound to the calling thread, or the shared context if
+     * the thread has not bound one.
+     *
+     * @return the current context
+     */
+    public static SimContext current() {
+        SimContext context = CURRENT.get();
+        return context == null ? SHARED : context;
+    }
+
+    /**
+     * Get the context shared by all threads that have not bound one.
+     *
+     * @return the shared context
+     */
+    public static SimContext getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Bind this context to the calling thread. Always pair with
+     * {@link #restore(SimContext)} in a finally block.
+     *
+     * @return the context that was bound before, to be passed to
+     *         {@link #restore(SimContext)}
+     */
+    public SimContext enter() {
+        SimContext previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    /**
+     * Restore the binding of the calling thread to what it was before the
+     * matching {@link #enter()}.
+     *
+     * @param previous the value returned by {@link #enter()}
+     */
+    public static void restore(SimContext previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /////////////////////////////////
+    // PRIVATE FIELDS
+    /////////////////////////////////
+
+    /**The VINs issued in this simulation**/
+    private final VinRegistry.Store vinRegistry = new VinRegistry.Store();
+
+    /**The max turn velocities computed in this simulation**/
+    private final VehicleUtil.TurnVelocityMemo turnVelocityMemo =
+            new VehicleUtil.TurnVelocityMemo();
+
+    /**The intersection map lanes and roads are looked up in**/
+    private BasicIntersectionMap currentMap;
+
+    /**The long term debug points**/
+    private final List<DebugPoint> longTermDebugPoints = new LinkedList<DebugPoint>();
+
+    /**The short term debug points**/
+    private final List<DebugPoint> shortTermDebugPoints = new LinkedList<DebugPoint>();
+
+    /**A mapping from vehicle's VINs to the color of the vehicles**/
+    private final Map<Integer,Color> vinToVehicleColor = new HashMap<Integer,Color>();
+
+    /**
+     * The time the simulation should run. If it is less than or equal to
+     * zero, the simulation will run forever.
+     */
+    private double totalSimulationTime = -1.0;
+
+    /**Whether or not the vehicle must stop before an intersection**/
+    private boolean mustStopBeforeIntersection = false;
+
+    /**The distance before an intersection at which vehicles stop**/
+    private double stopDistanceBeforeIntersection = 1.0;
+
+    /**The kind of mixed car park being simulated**/
+    private MixedCPMMapUtil.MapType mixedCPMMapType;
+
+    /**The registry the simulation reports its measurements to**/
+    private volatile MetricsRegistry metrics = MetricsRegistry.DISABLED;
+
+    /**The random number streams of the simulation; created on first use**/
+    private RandomStreams randomStreams;
+
+    /**The number of streams of each numbered set handed out so far**/
+    private final Map<String,Long> streamCounts = new HashMap<String,Long>();
+
+    /**The pool batch proposals are evaluated on; created on first use**/
+    private ForkJoinPool evaluationPool;
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    public VinRegistry.Store getVinRegistry() {
+        return vinRegistry;
+    }
+
+    public VehicleUtil.TurnVelocityMemo getTurnVelocityMemo() {
+        return turnVelocityMemo;
+    }
+
+    public BasicIntersectionMap getCurrentMap() {
+        return currentMap;
+    }
+
+    public void setCurrentMap(BasicIntersectionMap currentMap) {
+        this.currentMap = currentMap;
+    }
+
+    public List<DebugPoint> getLongTermDebugPoints() {
+        return longTermDebugPoints;
+    }
+
+    public List<DebugPoint> getShortTermDebugPoints() {
+        return shortTermDebugPoints;
+    }
+
+    public Map<Integer,Color> getVinToVehicleColor() {
+        return vinToVehicleColor;
+    }
+
+    public double getTotalSimulationTime() {
+        return totalSimulationTime;
+    }
+
+    public void setTotalSimulationTime(double totalSimulationTime) {
+        this.totalSimulationTime = totalSimulationTime;
+    }
+
+    public boolean isMustStopBeforeIntersection() {
+        return mustStopBeforeIntersection;
+    }
+
+    public void setMustStopBeforeIntersection(boolean mustStopBeforeIntersection) {
+        this.mustStopBeforeIntersection = mustStopBeforeIntersection;
+    }
+
+    public double getStopDistanceBeforeIntersection() {
+        return stopDistanceBeforeIntersection;
+    }
+
+    public void setStopDistanceBeforeIntersection(double stopDistanceBeforeIntersection) {
+        this.stopDistanceBeforeIntersection = stopDistanceBeforeIntersection;
+    }
+
+    public MixedCPMMapUtil.MapType getMixedCPMMapType() {
+        return mixedCPMMapType;
+    }
+
+    public void setMixedCPMMapType(MixedCPMMapUtil.MapType mixedCPMMapType) {
+        this.mixedCPMMapType = mixedCPMMapType;
+    }
+
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Set the registry the simulation reports its measurements to.
+     *
+     * @param metrics the registry, or null to stop measuring
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = metrics == null ? MetricsRegistry.DISABLED : metrics;
+    }
+
+    /**
+     * Get the random number streams of the simulation. Unless others are
+     * set, they are derived from {@link Util#randSeed}.
+     *
+     * @return the random number streams
+     */
+    public synchronized RandomStreams getRandomStreams() {
+        if (randomStreams == null) {
+            randomStreams = new RandomStreams(Util.randSeed);
+        }
+        return randomStreams;
+    }
+
+    /**
+     * Set the random number streams of the simulation. This must be done
+     * before the simulation starts to draw from them.
+     *
+     * @param randomStreams the random number streams
+     */
+    public synchronized void setRandomStreams(RandomStreams randomStreams) {
+        this.randomStreams = randomStreams;
+    }
+
+    /**
+     * Create the next stream of a numbered set, for components that have no
+     * name of their own to key a stream by. The streams are numbered in the
+     * order they are asked for, so a run that creates its components in the
+     * same order gets the same streams.
+     *
+     * @param name the name of the set of streams
+     * @return a new generator of the next stream of the set
+     */
+    public synchronized Random nextRandomStream(String name) {
+        Long count = streamCounts.get(name);
+        long index = count == null ? 0 : count;
+        streamCounts.put(name, index + 1);
+        return getRandomStreams().stream(name, index);
+    }
+
+    /**
+     * Get the pool the intersection managers of the simulation evaluate
+     * batches of proposals on. The pool is kept across calls, so managers
+     * that are replaced reuse it; a pool of another size is shut down.
+     *
+     * @param parallelism the number of threads of the pool
+     * @return the pool, or null if parallelism is 1 or less
+     */
+    public synchronized ForkJoinPool getEvaluationPool(int parallelism) {
+        if (evaluationPool != null && evaluationPool.getParallelism() != parallelism) {
+            evaluationPool.shutdown();
+            evaluationPool = null;
+        }
+        if (evaluationPool == null && parallelism > 1) {
+            evaluationPool = new ForkJoinPool(parallelism);
+        }
+        return evaluationPool;
+    }
+
+    /**
+     * Release the threads held by the simulation. Call once the simulation
+     * will no longer be stepped.
+     */
+    public synchronized void shutdown() {
+        if (evaluationPool != null) {
+            evaluationPool.shutdown();
+            evaluationPool = null;
+        }
+    }
+}
@@ -52,6 +52,14 @@ public interface Simulator {
      */
     SimStepResult step(double timeStep);
 
+    /**
+     * Get the context the simulator was created in, which is bound to the
+     * calling thread for the duration of each step.
+     *
+     * @return the simulation context
+     */
+    SimContext getContext();
+
     /**
      * Get the layout of the simulation.
      *
@@ -30,20 +30,22 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.sim;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.IOException;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.net.SocketException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import aim4.config.Debug;
 import aim4.driver.aim.ProxyDriver;
 import aim4.map.aim.BasicIntersectionMap;
+import aim4.msg.aim.udp.Proxy2RealOutbox;
 import aim4.msg.aim.udp.Real2ProxyCancel;
 import aim4.msg.aim.udp.Real2ProxyDone;
 import aim4.msg.aim.udp.Real2ProxyMsg;
@@ -58,6 +60,11 @@ import aim4.vehicle.VinRegistry;
 /**
  * Listens for UDP datagrams from Marvin at a UPD port (default is 46000)
  * for communication from real cars and manages corresponding proxyvehicle's.
+ *
+ * The listener thread only receives the datagrams and queues them. The
+ * simulation thread applies the queued datagrams at the start of each step,
+ * and sends the replies of the proxy vehicles together at the end of it, so
+ * the simulator is never locked by the listener thread.
  */
 public class UdpListener implements Runnable {
 
@@ -72,6 +79,37 @@ public class UdpListener implements Runnable {
   /** The default UPD port on the vehicle */
   private static final int DEFAULT_VEHICLE_UDP_PORT = 46042;
 
+  /**
+   * The vehicle UDP port which means replying to the port each datagram
+   * came from, so that many real vehicles can share one host.
+   */
+  public static final int REPLY_TO_SENDER_PORT = 0;
+
+  /**
+   * The maximum number of datagrams waiting for the next step.  When there
+   * are more, say because the simulation is paused, the oldest are dropped.
+   */
+  private static final int MAX_PENDING_DATAGRAMS = 1024;
+
+  /////////////////////////////////
+  // NESTED CLASSES
+  /////////////////////////////////
+
+  /**
+   * A datagram waiting for the next step.
+   */
+  private static class ReceivedDatagram {
+    /** The content of the datagram, ready to be read */
+    final ByteBuffer data;
+    /** The address the datagram came from */
+    final SocketAddress sa;
+
+    ReceivedDatagram(ByteBuffer data, SocketAddress sa) {
+      this.data = data;
+      this.sa = sa;
+    }
+  }
+
   /////////////////////////////////
   // PRIVATE FIELDS
   /////////////////////////////////
@@ -79,19 +117,51 @@ public class UdpListener implements Runnable {
   /** The UDP port */
   private final int udpPort;
 
+  /** The UDP port on the vehicles the replies are sent to */
+  private final int vehicleUdpPort;
+
   /** the simulator */
   private final AIMSimulator sim;
 
-  /** Datagram socket for listening on a port over UDP. */
-  private DatagramSocket ds;
+  /** Datagram channel for listening on a port over UDP. */
+  private DatagramChannel channel;
 
   /**
    * A map of all the ProxyVehicles, indexed by their respective (unique)
    * socket addresses. the ProxyVehicles also assume this is the reply address
    * when they need to relay information back to the real vehicle.
+   * Used by the simulation thread only.
    */
   private Map<SocketAddress,ProxyVehicleSimModel> sa2ProxyVehicle;
 
+  /** The datagrams received since the start of the last step */
+  private final Queue<ReceivedDatagram> pendingDatagrams =
+    new ConcurrentLinkedQueue<ReceivedDatagram>();
+
+  /** The number of datagrams in pendingDatagrams */
+  private final AtomicInteger numOfPendingDatagrams = new AtomicInteger();
+
+  /** The buffers of datagrams which have been applied, for reuse */
+  private final Queue<ByteBuffer> freeBuffers =
+    new ConcurrentLinkedQueue<ByteBuffer>();
+
+  /** The messages of the proxy vehicles to the real vehicles */
+  private final Proxy2RealOutbox outbox = new Proxy2RealOutbox();
+
+  /** Applies the datagrams and sends the replies between the steps */
+  private final AIMSimulator.StepListener stepListener =
+    new AIMSimulator.StepListener() {
+      @Override
+      public void stepStarting() {
+        applyPendingDatagrams();
+      }
+
+      @Override
+      public void stepFinished() {
+        sendOutbox();
+      }
+    };
+
   /** The thread of this UDP listener */
   private volatile Thread blinker;
 
@@ -119,9 +189,23 @@ public class UdpListener implements Runnable {
    * @param sim      the simulator
    */
   public UdpListener(int udpPort, AIMSimulator sim) {
+    this(udpPort, DEFAULT_VEHICLE_UDP_PORT, sim);
+  }
+
+  /**
+   * Constructor for a UDP listener on the specified port, replying to the
+   * specified port on the vehicles.
+   *
+   * @param udpPort         the port to listen on
+   * @param vehicleUdpPort  the port on the vehicles to reply to, or
+   *                        REPLY_TO_SENDER_PORT
+   * @param sim             the simulator
+   */
+  public UdpListener(int udpPort, int vehicleUdpPort, AIMSimulator sim) {
     this.udpPort = udpPort;
+    this.vehicleUdpPort = vehicleUdpPort;
     this.sim = sim;
-    ds = null;
+    channel = null;
     sa2ProxyVehicle = new HashMap<SocketAddress,ProxyVehicleSimModel>();
     blinker = null;
   }
@@ -162,11 +246,16 @@ public class UdpListener implements Runnable {
   public synchronized void start() {
     assert blinker == null;
     blinker = new Thread(this);
+    // it may still be registered if it was stopped between two steps
+    sim.removeStepListener(stepListener);
+    sim.addStepListener(stepListener);
     blinker.start();
   }
 
   /**
-   * Stop the listener thread.
+   * Stop the listener thread.  The replies already made by the proxy
+   * vehicles are sent at the end of the next step, after which the proxy
+   * vehicles send their messages by themselves.
    */
   public synchronized void stop() {
     assert blinker != null;
@@ -183,35 +272,46 @@ public class UdpListener implements Runnable {
    */
   @Override
   public void run() {
+    DatagramChannel dc;
     try {
-      ds = new DatagramSocket(udpPort);
-    } catch(SocketException e) {
+      dc = DatagramChannel.open();
+      dc.bind(new InetSocketAddress(udpPort));
+    } catch(IOException e) {
       if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
         System.err.println("Cannot open UDP socket.\n");
         e.printStackTrace();
       }
       return;
     }
+    setChannel(dc);
 
-    int numBytes = UdpHeader.MAX_MESSENGE_PACKAGE_LENGTH;
     Thread thisThread = Thread.currentThread();
 
     // listen so long as the user hasn't called stop()
     while (blinker == thisThread) {
-      DatagramPacket dp = new DatagramPacket(new byte[numBytes], numBytes);
+      ByteBuffer buffer = freeBuffers.poll();
+      if (buffer == null) {
+        buffer =
+          ByteBuffer.allocateDirect(UdpHeader.MAX_MESSENGE_PACKAGE_LENGTH);
+      }
+      buffer.clear();
 
+      SocketAddress sa;
       try {
-        ds.receive(dp);   // blocks until data received
-      } catch(IOException e) {  // both IOException and NullPointerException
-        // Either stop() is called to close the socket, or
-        // something is wrong with our socket.
+        sa = dc.receive(buffer);   // blocks until data received
+      } catch(IOException e) {
+        // Either stop() is called to close the channel, or
+        // something is wrong with our channel.
         // Maybe we should distinguish the two cases and
         // inform the user about the second case since it is an
         // error.
         break;
       }
-      processIncomingDatagram(dp);
-      Thread.yield();  // give other threads a chance to execute
+      buffer.flip();
+      pendingDatagrams.add(new ReceivedDatagram(buffer, sa));
+      if (numOfPendingDatagrams.incrementAndGet() > MAX_PENDING_DATAGRAMS) {
+        dropOldestDatagram();
+      }
     }
 
     closeSocket();
@@ -223,92 +323,164 @@ public class UdpListener implements Runnable {
   /////////////////////////////////
 
   /**
-   * A synchronized function for closing the UPD socket.
+   * Record the channel opened by the listener thread, unless stop() has
+   * been called in the meantime.
+   *
+   * @param dc  the channel
+   */
+  private synchronized void setChannel(DatagramChannel dc) {
+    channel = dc;
+    if (blinker == null) {
+      closeSocket();
+    }
+  }
+
+  /**
+   * A synchronized function for closing the UPD channel.
    * It prevents the situation in which both the listener thread and the
-   * GUI thread close the socket at the same time.
+   * GUI thread close the channel at the same time.  Closing the channel
+   * wakes up the listener thread if it is waiting for a datagram.
    */
   private synchronized void closeSocket() {
-    if (ds != null) {
-      if (ds.isConnected()) {
-        ds.disconnect();
-      }
-      if (!ds.isClosed()) {
-        ds.close();
+    if (channel != null) {
+      try {
+        channel.close();
+      } catch(IOException e) {
+        System.err.println("Error: cannot close the UDP channel.");
       }
-      ds = null;
+      channel = null;
       if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
         System.err.println("The UDP socket is closed.");
       }
     }
   }
 
+  /**
+   * Drop the oldest datagram waiting for the next step.
+   */
+  private void dropOldestDatagram() {
+    ReceivedDatagram datagram = pendingDatagrams.poll();
+    if (datagram != null) {
+      numOfPendingDatagrams.decrementAndGet();
+      freeBuffers.add(datagram.data);
+      if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
+        System.err.println("Warning: too many datagrams are waiting for " +
+                           "the simulator; the oldest is dropped.");
+      }
+    }
+  }
 
   /**
-   * The main function for processing the incoming datagram.
-   *
-   * @param dp  the datagram.
+   * Apply the datagrams received since the start of the last step.  Called
+   * by the simulation thread at the start of each step.  The messages are
+   * stamped with the time of the step they take effect in.
    */
-  private void processIncomingDatagram(DatagramPacket dp) {
-    synchronized(sim) {
-      SocketAddress sa = dp.getSocketAddress();
-      Real2ProxyMsg msg = convertDatagramToReal2ProxyMsg(dp);
+  private void applyPendingDatagrams() {
+    double currentTime = sim.getSimulationTime();
+    ReceivedDatagram datagram;
+    while ((datagram = pendingDatagrams.poll()) != null) {
+      numOfPendingDatagrams.decrementAndGet();
+      processIncomingDatagram(datagram.data, datagram.sa, currentTime);
+      freeBuffers.add(datagram.data);
+    }
+  }
 
-      if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
-        if (Debug.SHOW_PROXY_VEHICLE_PVUPDATE_MSG ||
-            !(msg instanceof Real2ProxyPVUpdate)) {
-          System.err.printf("Proxy vehicle received a Real2Proxy msg: %s\n",
-                            msg);
-        }
+  /**
+   * Send the messages the proxy vehicles have made during the step.  Called
+   * by the simulation thread at the end of each step.  Once the listener
+   * has been stopped, the proxy vehicles are left to send their messages by
+   * themselves and the listener leaves the simulator.
+   */
+  private void sendOutbox() {
+    try {
+      outbox.flush();
+    } catch(IOException e) {
+      System.err.println("Failed to send a datagram to a real vehicle.");
+      e.printStackTrace();
+    }
+    if (blinker == null) {
+      for (ProxyVehicleSimModel vehicle : sa2ProxyVehicle.values()) {
+        vehicle.setOutbox(null);
+      }
+      try {
+        outbox.close();
+      } catch(IOException e) {
+        System.err.println("Error: cannot close the UDP channel.");
       }
+      sim.removeStepListener(stepListener);
+    }
+  }
 
-      if (msg == null) {
-        System.err.println("Error: cannot parse the datagram package.");
-        return;
+  /**
+   * The main function for processing the incoming datagram.
+   *
+   * @param data         the content of the datagram
+   * @param sa           the address the datagram came from
+   * @param currentTime  the current time
+   */
+  private void processIncomingDatagram(ByteBuffer data, SocketAddress sa,
+                                       double currentTime) {
+    Real2ProxyMsg msg = convertDatagramToReal2ProxyMsg(data, currentTime);
+
+    if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
+      if (Debug.SHOW_PROXY_VEHICLE_PVUPDATE_MSG ||
+          !(msg instanceof Real2ProxyPVUpdate)) {
+        System.err.printf("Proxy vehicle received a Real2Proxy msg: %s\n",
+                          msg);
       }
+    }
 
-      if (sa2ProxyVehicle.containsKey(sa)) {
-        // The datagram came from a real vehicle we're already tracking.
-        // Simply forward the datagram to the corresponding proxy vehicle
-        sa2ProxyVehicle.get(sa).processReal2ProxyMsg(msg);
-      } else {
-        // We haven't seem this SA before. This must be coming from
-        // a new real vehicle that we're not tracking
-
-        // If it is a PV_UPDATE message, instantiate the proxy vehicle and
-        // associate the socket address to this proxy vehicle.
-        // If not, ignore the message.
-        if (msg.messageType == Real2ProxyMsg.Type.PV_UPDATE) {
-          Real2ProxyPVUpdate pvUpdateMsg = (Real2ProxyPVUpdate)msg;
-          // create a proxy vehicle for this real vehicle
-          ProxyVehicleSimModel vehicle = makeProxyVehicle(pvUpdateMsg);
-          // check the VIN number
-          if (VinRegistry.registerVehicleWithExistingVIN(vehicle,
-                                                         pvUpdateMsg.vin)) {
-            // update the socket address of the proxy vehicle
+    if (msg == null) {
+      System.err.println("Error: cannot parse the datagram package.");
+      return;
+    }
+
+    if (sa2ProxyVehicle.containsKey(sa)) {
+      // The datagram came from a real vehicle we're already tracking.
+      // Simply forward the datagram to the corresponding proxy vehicle
+      sa2ProxyVehicle.get(sa).processReal2ProxyMsg(msg);
+    } else {
+      // We haven't seem this SA before. This must be coming from
+      // a new real vehicle that we're not tracking
+
+      // If it is a PV_UPDATE message, instantiate the proxy vehicle and
+      // associate the socket address to this proxy vehicle.
+      // If not, ignore the message.
+      if (msg.messageType == Real2ProxyMsg.Type.PV_UPDATE) {
+        Real2ProxyPVUpdate pvUpdateMsg = (Real2ProxyPVUpdate)msg;
+        // create a proxy vehicle for this real vehicle
+        ProxyVehicleSimModel vehicle = makeProxyVehicle(pvUpdateMsg);
+        // check the VIN number
+        if (VinRegistry.registerVehicleWithExistingVIN(vehicle,
+                                                       pvUpdateMsg.vin)) {
+          // update the socket address of the proxy vehicle
+          if (vehicleUdpPort == REPLY_TO_SENDER_PORT) {
+            vehicle.setSa(sa);
+          } else {
             // pull out just the IP <xxx.xxx.xxx.xxx> from the address only
             String address = sa.toString();
             address = address.substring(1, address.indexOf(':'));
-            vehicle
-              .setSa(new InetSocketAddress(address, DEFAULT_VEHICLE_UDP_PORT));
-            // record the proxy vehicle
-            sa2ProxyVehicle.put(sa, vehicle);
-            // add the proxy vehicle to the simulator
-            sim.addProxyVehicle(vehicle);
-            if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
-              System.err.printf("A proxy vehicle is created at time %.2f "
-                + "(vin=%d).\n", sim.getSimulationTime(), vehicle.getVIN());
-            }
-          } else {
-            System.err.println("Warning: the VIN of the UPD message has " +
-                               "already been used by other vehicles.");
-            // don't add the proxy vehicle to the simulator.
+            vehicle.setSa(new InetSocketAddress(address, vehicleUdpPort));
           }
-        } else {
-          // Ignore the message
+          vehicle.setOutbox(outbox);
+          // record the proxy vehicle
+          sa2ProxyVehicle.put(sa, vehicle);
+          // add the proxy vehicle to the simulator
+          sim.addProxyVehicle(vehicle);
           if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
-            System.err.println("Warning: first message from a new real " +
-                               "vehicle must be a PVUpdate.");
+            System.err.printf("A proxy vehicle is created at time %.2f "
+              + "(vin=%d).\n", currentTime, vehicle.getVIN());
           }
+        } else {
+          System.err.println("Warning: the VIN of the UPD message has " +
+                             "already been used by other vehicles.");
+          // don't add the proxy vehicle to the simulator.
+        }
+      } else {
+        // Ignore the message
+        if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
+          System.err.println("Warning: first message from a new real " +
+                             "vehicle must be a PVUpdate.");
         }
       }
     }
@@ -317,21 +489,22 @@ public class UdpListener implements Runnable {
   /**
    * Covert a datagram to a Real2Proxy message.
    *
-   * @param dp  the datagram
+   * @param data          the content of the datagram
+   * @param receivedTime  the time stamp of the message
    * @return the Real2Proxy message
    */
-  private Real2ProxyMsg convertDatagramToReal2ProxyMsg(DatagramPacket dp) {
-    // prepare the raw data for reading
-    byte[] data = dp.getData();  // it will contain numBytes bytes.
-    ByteArrayInputStream bais = new ByteArrayInputStream(data);
-    DataInputStream dis = new DataInputStream(bais);
+  static Real2ProxyMsg convertDatagramToReal2ProxyMsg(ByteBuffer data,
+                                                      double receivedTime) {
     // read the header
     UdpHeader header = null;
     try {
-      header = new UdpHeader(dis);
-    } catch(IOException e) {
+      header = new UdpHeader(data);
+    } catch(BufferUnderflowException e) {
       System.err.println("Error: Datagram has a corrupted header.");
       return null;
+    } catch(IllegalArgumentException e) {
+      System.err.println("Error: Unknown UDP message type");
+      return null;
     }
 
     if (header.getChecksum() != UdpHeader.computeChecksum(data)) {
@@ -341,54 +514,28 @@ public class UdpListener implements Runnable {
     }
 
     Real2ProxyMsg msg = null;
-    switch(header.getMessageType()) {
-    case PVUpdate:
-      try {
-        msg = new Real2ProxyPVUpdate(dis, sim.getSimulationTime());
-      } catch(IOException e) {
-        System.err.println("Error: Datagram has a corrupted body for " +
-                           "a PV_UPDATE message.");
-      }
-      break;
-    case V2I_Request:
-      try {
-        msg = new Real2ProxyRequest(dis, sim.getSimulationTime());
-      } catch(IOException e) {
-        System.err.println("Error: Datagram has a corrupted body for " +
-                           "a REQUEST message.");
-      }
-      break;
-    case V2I_Cancel:
-      try {
-        msg = new Real2ProxyCancel(dis, sim.getSimulationTime());
-      } catch(IOException e) {
-        System.err.println("Error: Datagram has a corrupted body for " +
-                           "a CANCEL message.");
-      }
-      break;
-    case V2I_Done:
-      try {
-        msg = new Real2ProxyDone(dis, sim.getSimulationTime());
-      } catch(IOException e) {
-        System.err.println("Error: Datagram has a corrupted body for " +
-                           "a DONE message.");
+    try {
+      switch(header.getMessageType()) {
+      case PVUpdate:
+        msg = new Real2ProxyPVUpdate(data, receivedTime);
+        break;
+      case V2I_Request:
+        msg = new Real2ProxyRequest(data, receivedTime);
+        break;
+      case V2I_Cancel:
+        msg = new Real2ProxyCancel(data, receivedTime);
+        break;
+      case V2I_Done:
+        msg = new Real2ProxyDone(data, receivedTime);
+        break;
+      default:
+        System.err.println("Error: Unknown UDP message type");
       }
-      break;
-    default:
-      System.err.println("Error: Unknown UDP message type");
+    } catch(BufferUnderflowException e) {
+      System.err.println("Error: Datagram has a corrupted body for " +
+                         "a " + header.getMessageType() + " message.");
     }
 
-//    try {
-//      int n = dis.available();
-//      if (n > 0) {
-//        System.err.println("Warning: processed the datagram, but there " +
-//                           "are still " + n + " bytes available.");
-//      }
-//    } catch(IOException e) {
-//      System.err.println("Error: Cannot estimate the number of remaining " +
-//                         "data in the datagram");
-//    }
-
     return msg;
   }
 
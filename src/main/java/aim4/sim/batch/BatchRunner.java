@@ -0,0 +1,131 @@
+package aim4.sim.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import aim4.map.aim.GridMapCache;
+
+/**
+ * The command-line entry point for running sweeps without the GUI.
+ * <pre>
+ * java -cp aim4.jar aim4.sim.batch.BatchRunner --sweep sweep.json
+ *      [--workers N] [--out DIR] [--in-process] [--worker-jvm-arg ARG]...
+ *      [--metrics SECONDS] [--map-cache DIR]
+ * </pre>
+ * Per-run CSVs are written to {@code DIR/runs} and one summary row per run
+ * to {@code DIR/summary.csv}, each as soon as the run finishes. With
+ * {@code --in-process} the runs share this JVM instead of each starting its
+ * own; see {@link ScenarioExecutor}. With {@code --metrics} each run is
+ * also profiled, and its per-phase step costs and counters written to
+ * {@code DIR/runs} every SECONDS of simulated time; see
+ * {@link ScenarioRunner}. With {@code --map-cache} the derived geometry of
+ * the grid maps is kept in DIR and read back by later runs with the same
+ * map; see {@link GridMapCache}.
+ */
+public class BatchRunner {
+    /**The option a worker process is started with**/
+    static final String WORKER_OPTION = "--worker";
+    /**The default output directory**/
+    public static final String DEFAULT_OUTPUT_DIRECTORY = "results/batch";
+
+    public static void main(String[] args) {
+        if(args.length > 0 && WORKER_OPTION.equals(args[0])) {
+            runWorker(args);
+            return;
+        }
+
+        File sweepFile = null;
+        int workers = Runtime.getRuntime().availableProcessors();
+        File outputDirectory = new File(DEFAULT_OUTPUT_DIRECTORY);
+        List<String> workerJvmArgs = new ArrayList<String>();
+        boolean inProcess = false;
+        double metricsInterval = 0;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if("--sweep".equals(arg))
+                    sweepFile = new File(args[++i]);
+                else if("--workers".equals(arg))
+                    workers = Integer.parseInt(args[++i]);
+                else if("--out".equals(arg))
+                    outputDirectory = new File(args[++i]);
+                else if("--in-process".equals(arg))
+                    inProcess = true;
+                else if("--worker-jvm-arg".equals(arg))
+                    workerJvmArgs.add(args[++i]);
+                else if("--metrics".equals(arg)) {
+                    metricsInterval = Double.parseDouble(args[++i]);
+                    if(metricsInterval <= 0)
+                        throw new IllegalArgumentException("The metrics interval must be positive: " + metricsInterval);
+                }
+                else if("--map-cache".equals(arg)) {
+                    String directory = args[++i];
+                    System.setProperty(GridMapCache.DIRECTORY_PROPERTY, directory);
+                    workerJvmArgs.add("-D" + GridMapCache.DIRECTORY_PROPERTY + "=" + directory);
+                }
+                else if("--help".equals(arg) || "-h".equals(arg)) {
+                    printUsage();
+                    return;
+                } else
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            System.err.println("Missing value for " + args[args.length - 1]);
+            printUsage();
+            System.exit(2);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+        if(sweepFile == null) {
+            printUsage();
+            System.exit(2);
+        }
+
+        try {
+            List<Scenario> scenarios = SweepDefinition.fromFile(sweepFile).expand();
+            if(!outputDirectory.isDirectory() && !outputDirectory.mkdirs())
+                throw new IOException("Could not create " + outputDirectory);
+            System.err.printf("Running %d scenarios on %d workers, writing to %s%n",
+                    scenarios.size(), workers, outputDirectory);
+            List<ScenarioResult> results =
+                    new ScenarioExecutor(workers, workerJvmArgs, outputDirectory, inProcess, metricsInterval)
+                            .execute(scenarios);
+            int failed = 0;
+            for(ScenarioResult result : results)
+                if(result.getStatus() != ScenarioResult.Status.COMPLETED)
+                    failed++;
+            System.err.printf("Finished %d scenarios, %d did not complete%n", results.size(), failed);
+            if(failed > 0)
+                System.exit(1);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Run one scenario in this process and report its result on standard
+     * output, as requested by {@link ScenarioExecutor}.
+     */
+    private static void runWorker(String[] args) {
+        Scenario scenario = Scenario.fromJSONString(args[2]);
+        double metricsInterval = args.length > 3 ? Double.parseDouble(args[3]) : 0;
+        ScenarioResult result = new ScenarioRunner(new File(args[1]), metricsInterval).run(scenario);
+        System.out.println(ScenarioExecutor.formatResultLine(result));
+        System.out.flush();
+        System.exit(0);
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: BatchRunner --sweep <sweep.json> [--workers <n>] [--out <dir>]"
+                + " [--in-process] [--worker-jvm-arg <arg>]... [--metrics <seconds>]"
+                + " [--map-cache <dir>]");
+    }
+}
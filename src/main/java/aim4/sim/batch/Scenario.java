@@ -0,0 +1,277 @@
+package aim4.sim.batch;
+
+import aim4.sim.setup.SimSetup;
+import aim4.sim.setup.aim.MergeMimicSimSetup;
+import aim4.sim.setup.merge.S2SSimSetup;
+import aim4.sim.setup.merge.enums.ProtocolType;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.File;
+
+/**
+ * A single run of a sweep: one point of the parameter grid with one seed.
+ * Scenarios are immutable and can be serialised to and from JSON so that
+ * they can be handed to a worker process.
+ */
+public class Scenario {
+    /**
+     * The protocol name used for the merge-mimicking AIM intersection
+     * ({@link MergeMimicSimSetup}). Every other protocol name is a
+     * {@link ProtocolType} run through {@link S2SSimSetup}.
+     */
+    public static final String AIM_PROTOCOL = "AIM";
+
+    /**The protocol, either {@link #AIM_PROTOCOL} or a {@link ProtocolType} name**/
+    private final String protocol;
+    /**The traffic rate in vehicles per hour**/
+    private final double trafficRate;
+    /**The speed limit of the target lane**/
+    private final double targetSpeedLimit;
+    /**The speed limit of the merging lane**/
+    private final double mergeSpeedLimit;
+    /**The distance between the target lane start and the merge point**/
+    private final double targetLeadInDistance;
+    /**The distance between the end of the target lane and the merge point**/
+    private final double targetLeadOutDistance;
+    /**The length of the merging road as it leads into the merge point**/
+    private final double mergeLeadInDistance;
+    /**The angle of approach for the merging road**/
+    private final double mergeAngle;
+    /**The seed, also used as the index of the schedule file**/
+    private final long seed;
+    /**The json file dictating target spawn times and types, or null**/
+    private final File targetSchedule;
+    /**The json file dictating merge spawn times and types, or null**/
+    private final File mergeSchedule;
+    /**The simulated time over which vehicles are spawned**/
+    private final double timeLimit;
+    /**The multiple of the time limit allowed for the last vehicles to clear**/
+    private final double drainTimeFactor;
+
+    public Scenario(String protocol, double trafficRate,
+                    double targetSpeedLimit, double mergeSpeedLimit,
+                    double targetLeadInDistance, double targetLeadOutDistance,
+                    double mergeLeadInDistance, double mergeAngle, long seed,
+                    File targetSchedule, File mergeSchedule,
+                    double timeLimit, double drainTimeFactor) {
+        if(!AIM_PROTOCOL.equals(protocol))
+            ProtocolType.valueOf(protocol);
+        if((targetSchedule == null) != (mergeSchedule == null))
+            throw new IllegalArgumentException("Both target and merge spawn schedules must be set");
+        if(AIM_PROTOCOL.equals(protocol) && targetSchedule == null)
+            throw new IllegalArgumentException("The AIM protocol requires spawn schedules");
+        this.protocol = protocol;
+        this.trafficRate = trafficRate;
+        this.targetSpeedLimit = targetSpeedLimit;
+        this.mergeSpeedLimit = mergeSpeedLimit;
+        this.targetLeadInDistance = targetLeadInDistance;
+        this.targetLeadOutDistance = targetLeadOutDistance;
+        this.mergeLeadInDistance = mergeLeadInDistance;
+        this.mergeAngle = mergeAngle;
+        this.seed = seed;
+        this.targetSchedule = targetSchedule;
+        this.mergeSchedule = mergeSchedule;
+        this.timeLimit = timeLimit;
+        this.drainTimeFactor = drainTimeFactor;
+    }
+
+    /**
+     * Create the simulation setup for this scenario.
+     *
+     * @return the setup producing the simulator for this scenario
+     */
+    public SimSetup createSimSetup() {
+        if(isAIM())
+            return new MergeMimicSimSetup(mergeSchedule, targetSchedule, targetSpeedLimit, targetLeadInDistance);
+        return new S2SSimSetup(ProtocolType.valueOf(protocol), getTrafficLevel(),
+                targetSpeedLimit, mergeSpeedLimit,
+                targetLeadInDistance, targetLeadOutDistance,
+                mergeLeadInDistance, mergeAngle,
+                targetSchedule, mergeSchedule);
+    }
+
+    /**
+     * Get the simulated time at which the run is stopped. Scheduled runs are
+     * given extra time for the vehicles spawned before the time limit to
+     * clear the map; unscheduled runs spawn forever and stop at the limit.
+     *
+     * @return the simulated time at which the run is stopped
+     */
+    public double getStopTime() {
+        return hasSchedules() ? timeLimit * drainTimeFactor : timeLimit;
+    }
+
+    /**
+     * Get a name unique within a sweep, usable as a file name.
+     *
+     * @return the name of the scenario
+     */
+    public String getName() {
+        return String.format("%s_rate%s_sl%s-%s_li%s-%s_lo%s_ang%s_seed%d",
+                protocol,
+                format(trafficRate),
+                format(targetSpeedLimit), format(mergeSpeedLimit),
+                format(targetLeadInDistance), format(mergeLeadInDistance),
+                format(targetLeadOutDistance),
+                format(mergeAngle),
+                seed);
+    }
+
+    public boolean isAIM() {
+        return AIM_PROTOCOL.equals(protocol);
+    }
+
+    public boolean hasSchedules() {
+        return targetSchedule != null;
+    }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public double getTrafficRate() {
+        return trafficRate;
+    }
+
+    /**
+     * Get the traffic level in vehicles per second.
+     *
+     * @return the traffic level
+     */
+    public double getTrafficLevel() {
+        return trafficRate / 3600;
+    }
+
+    public double getTargetSpeedLimit() {
+        return targetSpeedLimit;
+    }
+
+    public double getMergeSpeedLimit() {
+        return mergeSpeedLimit;
+    }
+
+    public double getTargetLeadInDistance() {
+        return targetLeadInDistance;
+    }
+
+    public double getTargetLeadOutDistance() {
+        return targetLeadOutDistance;
+    }
+
+    public double getMergeLeadInDistance() {
+        return mergeLeadInDistance;
+    }
+
+    public double getMergeAngle() {
+        return mergeAngle;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public File getTargetSchedule() {
+        return targetSchedule;
+    }
+
+    public File getMergeSchedule() {
+        return mergeSchedule;
+    }
+
+    public double getTimeLimit() {
+        return timeLimit;
+    }
+
+    public double getDrainTimeFactor() {
+        return drainTimeFactor;
+    }
+
+    // CSV //
+    public static String produceCSVHeader() {
+        return "Scenario,Protocol,Traffic Rate,Target Speed Limit,Merge Speed Limit," +
+                "Target Lead In,Merge Lead In,Target Lead Out,Merge Angle,Seed";
+    }
+
+    public String produceCSV() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getName());
+        sb.append(',');
+        sb.append(protocol);
+        sb.append(',');
+        sb.append(trafficRate);
+        sb.append(',');
+        sb.append(targetSpeedLimit);
+        sb.append(',');
+        sb.append(mergeSpeedLimit);
+        sb.append(',');
+        sb.append(targetLeadInDistance);
+        sb.append(',');
+        sb.append(mergeLeadInDistance);
+        sb.append(',');
+        sb.append(targetLeadOutDistance);
+        sb.append(',');
+        sb.append(mergeAngle);
+        sb.append(',');
+        sb.append(seed);
+        return sb.toString();
+    }
+
+    // JSON //
+    @SuppressWarnings("unchecked")
+    public String toJSONString() {
+        JSONObject json = new JSONObject();
+        json.put("protocol", protocol);
+        json.put("trafficRate", trafficRate);
+        json.put("targetSpeedLimit", targetSpeedLimit);
+        json.put("mergeSpeedLimit", mergeSpeedLimit);
+        json.put("targetLeadInDistance", targetLeadInDistance);
+        json.put("targetLeadOutDistance", targetLeadOutDistance);
+        json.put("mergeLeadInDistance", mergeLeadInDistance);
+        json.put("mergeAngle", mergeAngle);
+        json.put("seed", seed);
+        json.put("targetSchedule", targetSchedule == null ? null : targetSchedule.getPath());
+        json.put("mergeSchedule", mergeSchedule == null ? null : mergeSchedule.getPath());
+        json.put("timeLimit", timeLimit);
+        json.put("drainTimeFactor", drainTimeFactor);
+        return json.toJSONString();
+    }
+
+    public static Scenario fromJSONString(String jsonString) {
+        JSONObject json;
+        try {
+            json = (JSONObject) new JSONParser().parse(jsonString);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid scenario: " + jsonString, e);
+        }
+        String targetSchedule = (String) json.get("targetSchedule");
+        String mergeSchedule = (String) json.get("mergeSchedule");
+        return new Scenario(
+                (String) json.get("protocol"),
+                ((Number) json.get("trafficRate")).doubleValue(),
+                ((Number) json.get("targetSpeedLimit")).doubleValue(),
+                ((Number) json.get("mergeSpeedLimit")).doubleValue(),
+                ((Number) json.get("targetLeadInDistance")).doubleValue(),
+                ((Number) json.get("targetLeadOutDistance")).doubleValue(),
+                ((Number) json.get("mergeLeadInDistance")).doubleValue(),
+                ((Number) json.get("mergeAngle")).doubleValue(),
+                ((Number) json.get("seed")).longValue(),
+                targetSchedule == null ? null : new File(targetSchedule),
+                mergeSchedule == null ? null : new File(mergeSchedule),
+                ((Number) json.get("timeLimit")).doubleValue(),
+                ((Number) json.get("drainTimeFactor")).doubleValue()
+        );
+    }
+
+    private static String format(double value) {
+        if(value == Math.rint(value))
+            return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,195 @@
+package aim4.sim.batch;
+
+import aim4.sim.results.CoreMergeResult;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the scenarios of a sweep concurrently on a fixed-size worker pool and
+ * streams their results to disk as they finish.
+ * <p>
+ * By default each worker runs its scenario in a child JVM started from the
+ * current class path; the scenario is passed as JSON and its outcome comes
+ * back as a single tagged line on the child's standard output. In
+ * in-process mode the scenarios run on the pool threads instead, each in its
+ * own {@link aim4.sim.SimContext}. This avoids the JVM start-up cost. Runs
+ * are reproducible in either mode: each run draws its random numbers from
+ * the {@link aim4.util.RandomStreams} of its context, seeded from the
+ * scenario seed.
+ */
+public class ScenarioExecutor {
+    /**The prefix of the line a worker process reports its result on**/
+    static final String RESULT_TAG = "SCENARIO_RESULT\t";
+    /**The name of the summary file, relative to the output directory**/
+    public static final String SUMMARY_FILE_NAME = "summary.csv";
+    /**The name of the per-run directory, relative to the output directory**/
+    public static final String RUNS_DIRECTORY_NAME = "runs";
+
+    /**The number of scenarios run at once**/
+    private final int workers;
+    /**The extra JVM arguments for the worker processes, e.g. -Xmx**/
+    private final List<String> workerJvmArgs;
+    /**The directory all output is written to**/
+    private final File outputDirectory;
+    /**Whether scenarios run on the pool threads rather than in child JVMs**/
+    private final boolean inProcess;
+    /**The simulated time between metrics dumps, or 0 to not collect metrics**/
+    private final double metricsInterval;
+
+    public ScenarioExecutor(int workers, List<String> workerJvmArgs, File outputDirectory) {
+        this(workers, workerJvmArgs, outputDirectory, false);
+    }
+
+    public ScenarioExecutor(int workers, List<String> workerJvmArgs, File outputDirectory, boolean inProcess) {
+        this(workers, workerJvmArgs, outputDirectory, inProcess, 0);
+    }
+
+    /**
+     * @param metricsInterval the simulated time between dumps of each run's
+     *                        step metrics; see {@link ScenarioRunner}. Zero
+     *                        turns the metrics off.
+     */
+    public ScenarioExecutor(int workers, List<String> workerJvmArgs, File outputDirectory, boolean inProcess,
+                            double metricsInterval) {
+        if(workers < 1)
+            throw new IllegalArgumentException("At least one worker is needed: " + workers);
+        this.workers = workers;
+        this.workerJvmArgs = workerJvmArgs;
+        this.outputDirectory = outputDirectory;
+        this.inProcess = inProcess;
+        this.metricsInterval = metricsInterval;
+    }
+
+    /**
+     * Run all the scenarios, returning once every one has finished. The
+     * summary file gets one row per scenario in completion order.
+     *
+     * @param scenarios the scenarios to run
+     * @return the results, in the order of the given scenarios
+     * @throws IOException if the output files cannot be written
+     */
+    public List<ScenarioResult> execute(List<Scenario> scenarios) throws IOException {
+        final File runsDirectory = new File(outputDirectory, RUNS_DIRECTORY_NAME);
+        if(!runsDirectory.isDirectory() && !runsDirectory.mkdirs())
+            throw new IOException("Could not create " + runsDirectory);
+
+        final PrintWriter summary = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(new File(outputDirectory, SUMMARY_FILE_NAME)), Charset.forName("UTF-8")));
+        summary.println(ScenarioResult.produceCSVHeader(CoreMergeResult.produceGlobalStatsCSVHeader()));
+        summary.flush();
+
+        final int total = scenarios.size();
+        final AtomicInteger finished = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<ScenarioResult>> futures = new ArrayList<Future<ScenarioResult>>();
+            for(final Scenario scenario : scenarios) {
+                futures.add(pool.submit(new Callable<ScenarioResult>() {
+                    @Override
+                    public ScenarioResult call() {
+                        ScenarioResult result = inProcess
+                                ? new ScenarioRunner(runsDirectory, metricsInterval).run(scenario)
+                                : runInWorker(scenario, runsDirectory);
+                        synchronized (summary) {
+                            summary.println(result.produceCSV());
+                            summary.flush();
+                        }
+                        System.err.printf("[%d/%d] %s %s (%.1fs)%n",
+                                finished.incrementAndGet(), total,
+                                scenario.getName(), result.getStatus(), result.getWallTime());
+                        return result;
+                    }
+                }));
+            }
+
+            List<ScenarioResult> results = new ArrayList<ScenarioResult>();
+            for(Future<ScenarioResult> future : futures)
+                results.add(future.get());
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the sweep", e);
+        } catch (ExecutionException e) {
+            throw new IOException("A worker failed unexpectedly", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            summary.close();
+        }
+    }
+
+    /**
+     * Run a scenario in a child JVM and wait for its result.
+     */
+    private ScenarioResult runInWorker(Scenario scenario, File runsDirectory) {
+        long start = System.nanoTime();
+        List<String> command = new ArrayList<String>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.addAll(workerJvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(BatchRunner.class.getName());
+        command.add(BatchRunner.WORKER_OPTION);
+        command.add(runsDirectory.getPath());
+        command.add(scenario.toJSONString());
+        command.add(Double.toString(metricsInterval));
+
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        try {
+            Process process = builder.start();
+            String resultLine = null;
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), Charset.forName("UTF-8")));
+            try {
+                // drain everything so the simulator's console output can't block the worker
+                String line;
+                while((line = reader.readLine()) != null) {
+                    if(line.startsWith(RESULT_TAG))
+                        resultLine = line;
+                }
+            } finally {
+                reader.close();
+            }
+            int exitCode = process.waitFor();
+            if(resultLine == null)
+                return new ScenarioResult(scenario, ScenarioResult.Status.ERROR,
+                        "Worker exited with code " + exitCode + " without a result",
+                        (System.nanoTime() - start) / 1e9);
+            return parseResultLine(scenario, resultLine);
+        } catch (IOException e) {
+            return new ScenarioResult(scenario, ScenarioResult.Status.ERROR, e.toString(),
+                    (System.nanoTime() - start) / 1e9);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ScenarioResult(scenario, ScenarioResult.Status.ERROR, e.toString(),
+                    (System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    static String formatResultLine(ScenarioResult result) {
+        return RESULT_TAG + result.getStatus() + "\t" + result.getWallTime() + "\t" + result.getDetail();
+    }
+
+    static ScenarioResult parseResultLine(Scenario scenario, String line) {
+        String[] parts = line.substring(RESULT_TAG.length()).split("\t", 3);
+        return new ScenarioResult(scenario,
+                ScenarioResult.Status.valueOf(parts[0]),
+                parts.length > 2 ? parts[2] : null,
+                Double.parseDouble(parts[1]));
+    }
+}
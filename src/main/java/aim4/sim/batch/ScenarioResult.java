@@ -0,0 +1,68 @@
+package aim4.sim.batch;
+
+/**
+ * The outcome of a single scenario run: whether it completed, and if so the
+ * global statistics CSV row of its result.
+ */
+public class ScenarioResult {
+    /**
+     * How a scenario run ended.
+     */
+    public enum Status {
+        /**The run completed and produced a result**/
+        COMPLETED,
+        /**Vehicles were still on the map when the run was stopped**/
+        NOT_CLEARED,
+        /**The run threw an exception or its worker died**/
+        ERROR
+    }
+
+    private final Scenario scenario;
+    private final Status status;
+    /**The global stats CSV row, or an error message**/
+    private final String detail;
+    /**The wall clock time the run took, in seconds**/
+    private final double wallTime;
+
+    public ScenarioResult(Scenario scenario, Status status, String detail, double wallTime) {
+        this.scenario = scenario;
+        this.status = status;
+        this.detail = detail;
+        this.wallTime = wallTime;
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public double getWallTime() {
+        return wallTime;
+    }
+
+    public static String produceCSVHeader(String globalStatsHeader) {
+        return Scenario.produceCSVHeader() + ",Status,Wall Time," + globalStatsHeader;
+    }
+
+    public String produceCSV() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(scenario.produceCSV());
+        sb.append(',');
+        sb.append(status);
+        sb.append(',');
+        sb.append(wallTime);
+        sb.append(',');
+        if(status == Status.COMPLETED)
+            sb.append(detail);
+        else if(detail != null)
+            sb.append('"').append(detail.replace('"', '\'').replace('\n', ' ')).append('"');
+        return sb.toString();
+    }
+}
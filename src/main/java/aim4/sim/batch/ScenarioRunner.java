@@ -0,0 +1,105 @@
+package aim4.sim.batch;
+
+import aim4.config.SimConfig;
+import aim4.sim.SimContext;
+import aim4.sim.Simulator;
+import aim4.sim.metrics.StepMetrics;
+import aim4.sim.results.SimulatorResult;
+import aim4.sim.setup.SimFactory;
+import aim4.sim.simulator.aim.AIMSimulator;
+import aim4.sim.simulator.merge.MergeSimulator;
+import aim4.util.RandomStreams;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Collections;
+
+/**
+ * Runs a single scenario to completion in the calling thread and writes its
+ * per-vehicle results CSV. Each run gets a fresh {@link SimContext}, so
+ * several runners may be used concurrently from different threads.
+ * <p>
+ * If a metrics interval is given, the run is profiled with a
+ * {@link StepMetrics}: its totals are appended to {@code <name>.metrics.csv}
+ * every interval of simulated time and written to
+ * {@code <name>.metrics.json} when the run ends.
+ */
+public class ScenarioRunner {
+    /**The directory per-run result files are written to**/
+    private final File runsDirectory;
+    /**The simulated time between metrics dumps, or 0 to not collect metrics**/
+    private final double metricsInterval;
+
+    public ScenarioRunner(File runsDirectory) {
+        this(runsDirectory, 0);
+    }
+
+    public ScenarioRunner(File runsDirectory, double metricsInterval) {
+        this.runsDirectory = runsDirectory;
+        this.metricsInterval = metricsInterval;
+    }
+
+    /**
+     * Run a scenario. Exceptions thrown by the simulation, and stack
+     * overflows from drivers that recurse without bound, are reported as an
+     * {@link ScenarioResult.Status#ERROR} result rather than propagated.
+     *
+     * @param scenario the scenario to run
+     * @return the outcome of the run
+     */
+    public ScenarioResult run(Scenario scenario) {
+        long start = System.nanoTime();
+        SimContext context = new SimContext();
+        SimContext previous = context.enter();
+        try {
+            context.setRandomStreams(new RandomStreams(scenario.getSeed()));
+            Simulator sim = SimFactory.makeSimulator(scenario.createSimSetup(), context);
+            // set up after the simulator so the runs made while creating it aren't counted
+            StepMetrics metrics = null;
+            if(metricsInterval > 0) {
+                metrics = new StepMetrics();
+                metrics.dumpPeriodically(new File(runsDirectory, scenario.getName() + ".metrics.csv"),
+                        StepMetrics.Format.CSV, metricsInterval);
+                context.setMetrics(metrics);
+            }
+            double stopTime = scenario.getStopTime();
+            while(sim.getSimulationTime() < stopTime) {
+                sim.step(SimConfig.TIME_STEP);
+            }
+            if(metrics != null)
+                writeFile(scenario.getName() + ".metrics.json", metrics.toJSONString());
+            if(scenario.hasSchedules() && hasActiveVehicles(sim))
+                return new ScenarioResult(scenario, ScenarioResult.Status.NOT_CLEARED,
+                        "FAILED TO COMPLETE AFTER " + stopTime + " SECONDS", elapsed(start));
+
+            SimulatorResult result = sim.produceResult();
+            writeFile(scenario.getName() + ".csv", result.produceCSVString());
+            return new ScenarioResult(scenario, ScenarioResult.Status.COMPLETED,
+                    result.produceGlobalStatsCSV(), elapsed(start));
+        } catch (Exception | StackOverflowError e) {
+            return new ScenarioResult(scenario, ScenarioResult.Status.ERROR, e.toString(), elapsed(start));
+        } finally {
+            SimContext.restore(previous);
+            context.shutdown();
+        }
+    }
+
+    private static boolean hasActiveVehicles(Simulator sim) {
+        if(sim instanceof MergeSimulator)
+            return !((MergeSimulator) sim).getVinToVehicles().isEmpty();
+        if(sim instanceof AIMSimulator)
+            return !((AIMSimulator) sim).getActiveVehicles().isEmpty();
+        return false;
+    }
+
+    private void writeFile(String name, String contents) throws IOException {
+        File file = new File(runsDirectory, name);
+        Files.write(file.toPath(), Collections.singletonList(contents), Charset.forName("UTF-8"));
+    }
+
+    private static double elapsed(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+}
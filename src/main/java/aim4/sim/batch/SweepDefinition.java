@@ -0,0 +1,252 @@
+package aim4.sim.batch;
+
+import aim4.map.merge.RoadNames;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A parameter sweep read from a JSON file, expanded into the cross product of
+ * its dimensions. A sweep looks like:
+ * <pre>
+ * {
+ *   "protocols": ["QUEUE", "AIM_GRID", "AIM"],
+ *   "trafficRates": [500, 1000, 1500],
+ *   "speedLimits": [20],
+ *   "leadInDistances": [150],
+ *   "targetLeadOutDistance": 150,
+ *   "mergeAngles": [45],
+ *   "seeds": {"from": 1, "to": 20},
+ *   "scheduleDirectory": "schedules/trafficLevel",
+ *   "scheduleParameter": "TRAFFIC_RATE",
+ *   "timeLimit": 1000,
+ *   "drainTimeFactor": 5
+ * }
+ * </pre>
+ * {@code speedLimits} and {@code leadInDistances} set the target and merge
+ * values together; {@code targetSpeedLimits}/{@code mergeSpeedLimits} and
+ * {@code targetLeadInDistances}/{@code mergeLeadInDistances} sweep them
+ * independently. When a schedule directory is given the schedules are read
+ * from {@code <M|T>_<parameter>_<seed>.json} as written by
+ * {@code CreateSpawnSchedules}; otherwise vehicles are spawned uniformly at
+ * the traffic rate.
+ */
+public class SweepDefinition {
+    /**
+     * The parameter schedule files are named after.
+     */
+    public enum ScheduleParameter {
+        TRAFFIC_RATE,
+        SPEED_LIMIT
+    }
+
+    public static final double DEFAULT_TRAFFIC_RATE = 1000;
+    public static final double DEFAULT_SPEED_LIMIT = 20;
+    public static final double DEFAULT_LEAD_IN_DISTANCE = 150;
+    public static final double DEFAULT_MERGE_ANGLE = 45;
+    public static final double DEFAULT_TIME_LIMIT = 1000;
+    public static final double DEFAULT_DRAIN_TIME_FACTOR = 5;
+
+    private final List<String> protocols;
+    private final List<Double> trafficRates;
+    private final List<Double> targetSpeedLimits;
+    private final List<Double> mergeSpeedLimits;
+    private final boolean pairedSpeedLimits;
+    private final List<Double> targetLeadInDistances;
+    private final List<Double> mergeLeadInDistances;
+    private final boolean pairedLeadInDistances;
+    private final double targetLeadOutDistance;
+    private final List<Double> mergeAngles;
+    private final List<Long> seeds;
+    private final File scheduleDirectory;
+    private final ScheduleParameter scheduleParameter;
+    private final double timeLimit;
+    private final double drainTimeFactor;
+
+    public static SweepDefinition fromFile(File file) throws IOException {
+        Reader reader = new FileReader(file);
+        try {
+            JSONObject json = (JSONObject) new JSONParser().parse(reader);
+            File base = file.getAbsoluteFile().getParentFile();
+            return new SweepDefinition(json, base);
+        } catch (ParseException e) {
+            throw new IOException("Invalid sweep definition " + file + ": " + e, e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Create a sweep from its JSON representation.
+     *
+     * @param json     the sweep definition
+     * @param baseDir  the directory relative schedule directories are
+     *                 resolved against
+     */
+    public SweepDefinition(JSONObject json, File baseDir) {
+        this.protocols = readStrings(json, "protocols");
+        if(protocols.isEmpty())
+            throw new IllegalArgumentException("A sweep needs at least one protocol");
+        this.trafficRates = readDoubles(json, "trafficRates", DEFAULT_TRAFFIC_RATE);
+
+        this.pairedSpeedLimits = json.containsKey("speedLimits");
+        if(pairedSpeedLimits) {
+            this.targetSpeedLimits = readDoubles(json, "speedLimits", DEFAULT_SPEED_LIMIT);
+            this.mergeSpeedLimits = targetSpeedLimits;
+        } else {
+            this.targetSpeedLimits = readDoubles(json, "targetSpeedLimits", DEFAULT_SPEED_LIMIT);
+            this.mergeSpeedLimits = readDoubles(json, "mergeSpeedLimits", DEFAULT_SPEED_LIMIT);
+        }
+
+        this.pairedLeadInDistances = json.containsKey("leadInDistances");
+        if(pairedLeadInDistances) {
+            this.targetLeadInDistances = readDoubles(json, "leadInDistances", DEFAULT_LEAD_IN_DISTANCE);
+            this.mergeLeadInDistances = targetLeadInDistances;
+        } else {
+            this.targetLeadInDistances = readDoubles(json, "targetLeadInDistances", DEFAULT_LEAD_IN_DISTANCE);
+            this.mergeLeadInDistances = readDoubles(json, "mergeLeadInDistances", DEFAULT_LEAD_IN_DISTANCE);
+        }
+
+        this.targetLeadOutDistance = readDouble(json, "targetLeadOutDistance", DEFAULT_LEAD_IN_DISTANCE);
+        this.mergeAngles = readDoubles(json, "mergeAngles", DEFAULT_MERGE_ANGLE);
+        this.seeds = readSeeds(json);
+
+        String scheduleDir = (String) json.get("scheduleDirectory");
+        if(scheduleDir == null) {
+            this.scheduleDirectory = null;
+        } else {
+            File dir = new File(scheduleDir);
+            this.scheduleDirectory = dir.isAbsolute() || baseDir == null ? dir : new File(baseDir, scheduleDir);
+        }
+        String parameter = (String) json.get("scheduleParameter");
+        this.scheduleParameter = parameter == null ?
+                ScheduleParameter.TRAFFIC_RATE : ScheduleParameter.valueOf(parameter);
+
+        this.timeLimit = readDouble(json, "timeLimit", DEFAULT_TIME_LIMIT);
+        this.drainTimeFactor = readDouble(json, "drainTimeFactor", DEFAULT_DRAIN_TIME_FACTOR);
+    }
+
+    /**
+     * Expand the sweep into its scenarios. The seed varies fastest so that
+     * the runs of one parameter point finish close together.
+     *
+     * @return the scenarios of the sweep
+     */
+    public List<Scenario> expand() {
+        List<Scenario> scenarios = new ArrayList<Scenario>();
+        for(String protocol : protocols)
+            for(double trafficRate : trafficRates)
+                for(int sl = 0; sl < targetSpeedLimits.size(); sl++)
+                    for(int msl = 0; msl < mergeSpeedLimits.size(); msl++) {
+                        if(pairedSpeedLimits && sl != msl)
+                            continue;
+                        for(int li = 0; li < targetLeadInDistances.size(); li++)
+                            for(int mli = 0; mli < mergeLeadInDistances.size(); mli++) {
+                                if(pairedLeadInDistances && li != mli)
+                                    continue;
+                                for(double mergeAngle : mergeAngles)
+                                    for(long seed : seeds) {
+                                        double targetSpeedLimit = targetSpeedLimits.get(sl);
+                                        double mergeSpeedLimit = mergeSpeedLimits.get(msl);
+                                        scenarios.add(new Scenario(protocol, trafficRate,
+                                                targetSpeedLimit, mergeSpeedLimit,
+                                                targetLeadInDistances.get(li), targetLeadOutDistance,
+                                                mergeLeadInDistances.get(mli), mergeAngle, seed,
+                                                getSchedule(RoadNames.TARGET_ROAD, trafficRate, targetSpeedLimit, seed),
+                                                getSchedule(RoadNames.MERGING_ROAD, trafficRate, mergeSpeedLimit, seed),
+                                                timeLimit, drainTimeFactor));
+                                    }
+                            }
+                    }
+        return scenarios;
+    }
+
+    private File getSchedule(RoadNames road, double trafficRate, double speedLimit, long seed) {
+        if(scheduleDirectory == null)
+            return null;
+        double parameter = scheduleParameter == ScheduleParameter.SPEED_LIMIT ? speedLimit : trafficRate;
+        String fileName = road.toString().substring(0,1) + "_"
+                + Long.toString((long) parameter) + "_"
+                + Long.toString(seed) + ".json";
+        File schedule = new File(scheduleDirectory, fileName);
+        if(!schedule.isFile())
+            throw new IllegalArgumentException("Missing spawn schedule: " + schedule);
+        return schedule;
+    }
+
+    // READERS //
+    private static List<String> readStrings(JSONObject json, String key) {
+        List<String> values = new ArrayList<String>();
+        Object value = json.get(key);
+        if(value instanceof JSONArray) {
+            for(Object o : (JSONArray) value)
+                values.add((String) o);
+        } else if(value != null) {
+            values.add((String) value);
+        }
+        return values;
+    }
+
+    private static List<Double> readDoubles(JSONObject json, String key, double defaultValue) {
+        Object value = json.get(key);
+        if(value == null)
+            return Collections.singletonList(defaultValue);
+        List<Double> values = new ArrayList<Double>();
+        if(value instanceof JSONArray) {
+            for(Object o : (JSONArray) value)
+                values.add(((Number) o).doubleValue());
+        } else {
+            values.add(((Number) value).doubleValue());
+        }
+        if(values.isEmpty())
+            throw new IllegalArgumentException("Sweep dimension " + key + " is empty");
+        return values;
+    }
+
+    private static double readDouble(JSONObject json, String key, double defaultValue) {
+        Object value = json.get(key);
+        return value == null ? defaultValue : ((Number) value).doubleValue();
+    }
+
+    private static List<Long> readSeeds(JSONObject json) {
+        Object value = json.get("seeds");
+        List<Long> values = new ArrayList<Long>();
+        if(value == null) {
+            values.add(1L);
+        } else if(value instanceof JSONObject) {
+            long from = ((Number) ((JSONObject) value).get("from")).longValue();
+            long to = ((Number) ((JSONObject) value).get("to")).longValue();
+            for(long seed = from; seed <= to; seed++)
+                values.add(seed);
+        } else if(value instanceof JSONArray) {
+            for(Object o : (JSONArray) value)
+                values.add(((Number) o).longValue());
+        } else {
+            values.add(((Number) value).longValue());
+        }
+        if(values.isEmpty())
+            throw new IllegalArgumentException("A sweep needs at least one seed");
+        return values;
+    }
+
+    public List<String> getProtocols() {
+        return protocols;
+    }
+
+    public File getScheduleDirectory() {
+        return scheduleDirectory;
+    }
+
+    public double getTimeLimit() {
+        return timeLimit;
+    }
+}
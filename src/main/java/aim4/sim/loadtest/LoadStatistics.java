@@ -0,0 +1,140 @@
+package aim4.sim.loadtest;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import aim4.msg.aim.udp.UdpHeader.UdpMessageType;
+
+/**
+ * The counts and reply latencies collected by a load generator run. Used by
+ * the generator thread only.
+ */
+class LoadStatistics {
+
+    /** The number of datagrams sent of each message type */
+    private final long[] sent = new long[UdpMessageType.values().length];
+    /** The number of datagrams received of each message type */
+    private final long[] received = new long[UdpMessageType.values().length];
+    /** The number of requests which got no reply in time */
+    private long timeouts = 0;
+    /** The number of datagrams which could not be parsed */
+    private long malformed = 0;
+    /** The round-trip latencies of the replies to requests, in nanoseconds */
+    private long[] latencies = new long[1024];
+    /** The number of latencies recorded */
+    private int numOfLatencies = 0;
+
+    void recordSent(UdpMessageType type) {
+        sent[type.ordinal()]++;
+    }
+
+    void recordReceived(UdpMessageType type) {
+        received[type.ordinal()]++;
+    }
+
+    void recordTimeout() {
+        timeouts++;
+    }
+
+    void recordMalformed() {
+        malformed++;
+    }
+
+    /**
+     * Record the time between sending a request and receiving its reply.
+     *
+     * @param nanos  the round-trip latency in nanoseconds
+     */
+    void recordLatency(long nanos) {
+        if (numOfLatencies == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        latencies[numOfLatencies++] = nanos;
+    }
+
+    long getSent(UdpMessageType type) {
+        return sent[type.ordinal()];
+    }
+
+    long getReceived(UdpMessageType type) {
+        return received[type.ordinal()];
+    }
+
+    long getTimeouts() {
+        return timeouts;
+    }
+
+    int getNumOfLatencies() {
+        return numOfLatencies;
+    }
+
+    /**
+     * Get a percentile of the recorded latencies, using the nearest rank.
+     *
+     * @param percentile  the percentile, between 0 and 100
+     * @return the latency in nanoseconds, or 0 if none were recorded
+     */
+    long getLatencyPercentile(double percentile) {
+        if (numOfLatencies == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(latencies, numOfLatencies);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * numOfLatencies);
+        return sorted[Math.max(0, Math.min(numOfLatencies, rank) - 1)];
+    }
+
+    /**
+     * Write a summary of the run.
+     *
+     * @param out             where to write
+     * @param elapsedSeconds  the length of the run in seconds
+     */
+    void report(PrintStream out, double elapsedSeconds) {
+        out.printf("Sent:     %d PV updates, %d requests, %d cancels, %d dones%n",
+                getSent(UdpMessageType.PVUpdate),
+                getSent(UdpMessageType.V2I_Request),
+                getSent(UdpMessageType.V2I_Cancel),
+                getSent(UdpMessageType.V2I_Done));
+        out.printf("Received: %d confirms, %d rejects, %d other, %d malformed%n",
+                getReceived(UdpMessageType.I2V_Confirm),
+                getReceived(UdpMessageType.I2V_Reject),
+                totalReceived() - getReceived(UdpMessageType.I2V_Confirm)
+                        - getReceived(UdpMessageType.I2V_Reject),
+                malformed);
+        out.printf("Requests without a reply in time: %d%n", timeouts);
+        out.printf("Datagrams per second: %.1f sent, %.1f received%n",
+                totalSent() / elapsedSeconds, totalReceived() / elapsedSeconds);
+        if (numOfLatencies > 0) {
+            long total = 0;
+            for (int i = 0; i < numOfLatencies; i++) {
+                total += latencies[i];
+            }
+            out.printf("Reply latency (ms): mean %.2f, p50 %.2f, p95 %.2f, "
+                            + "p99 %.2f, max %.2f%n",
+                    total / 1e6 / numOfLatencies,
+                    getLatencyPercentile(50) / 1e6,
+                    getLatencyPercentile(95) / 1e6,
+                    getLatencyPercentile(99) / 1e6,
+                    getLatencyPercentile(100) / 1e6);
+        } else {
+            out.println("Reply latency: no replies");
+        }
+    }
+
+    private long totalSent() {
+        long total = 0;
+        for (long n : sent) {
+            total += n;
+        }
+        return total;
+    }
+
+    private long totalReceived() {
+        long total = 0;
+        for (long n : received) {
+            total += n;
+        }
+        return total;
+    }
+}
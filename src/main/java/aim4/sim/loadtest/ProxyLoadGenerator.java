@@ -0,0 +1,342 @@
+package aim4.sim.loadtest;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+import aim4.config.SimConfig;
+import aim4.map.aim.AIMSpawnPoint;
+import aim4.map.lane.Lane;
+import aim4.msg.aim.udp.UdpHeader;
+import aim4.sim.SimContext;
+import aim4.sim.UdpListener;
+import aim4.sim.setup.SimFactory;
+import aim4.sim.setup.aim.AutoDriverOnlySimSetup;
+import aim4.sim.simulator.aim.AIMSimulator;
+
+/**
+ * The command-line entry point for load-testing the proxy vehicle interface
+ * without real vehicles.
+ * <pre>
+ * java -cp aim4.jar aim4.sim.loadtest.ProxyLoadGenerator [--vehicles N]
+ *      [--port PORT] [--duration SECONDS] [--update-rate HZ]
+ *      [--request-interval SECONDS] [--request-timeout SECONDS]
+ *      [--cancel-fraction F] [--seed SEED]
+ * </pre>
+ * Runs a single intersection simulator in this JVM, stepped in real time
+ * with a {@link UdpListener} on PORT, and impersonates N real vehicles on
+ * localhost, each sending from a UDP socket of its own; see
+ * {@link SimulatedRealVehicle}. The listener replies to the port each
+ * vehicle sends from. At the end it reports the messages exchanged, the
+ * round-trip latency of the replies to requests, and how well the
+ * simulator kept up with real time.
+ */
+public class ProxyLoadGenerator {
+    /**The default number of simulated vehicles**/
+    public static final int DEFAULT_NUM_OF_VEHICLES = 100;
+    /**The default port of the listener**/
+    public static final int DEFAULT_PORT = 46000;
+    /**The VIN of the first simulated vehicle, well clear of the spawned ones**/
+    private static final int FIRST_VIN = 1000000;
+    /**The distance between the vehicles queued on a lane, in meters**/
+    private static final double VEHICLE_SPACING = 8.0;
+    /**The distance the vehicles keep from the intersection, in meters**/
+    private static final double INTERSECTION_MARGIN = 5.0;
+
+    private final int numOfVehicles;
+    private final int port;
+    private final double duration;
+    private final SimulatedRealVehicle.Timing timing;
+    private final long seed;
+
+    /**
+     * Create a load generator.
+     *
+     * @param numOfVehicles  the number of real vehicles to impersonate
+     * @param port           the port the listener listens on
+     * @param duration       the length of the run in seconds
+     * @param timing         how often the vehicles send their messages
+     * @param seed           the seed of the vehicles' random choices
+     */
+    ProxyLoadGenerator(int numOfVehicles, int port, double duration,
+                       SimulatedRealVehicle.Timing timing, long seed) {
+        this.numOfVehicles = numOfVehicles;
+        this.port = port;
+        this.duration = duration;
+        this.timing = timing;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        int numOfVehicles = DEFAULT_NUM_OF_VEHICLES;
+        int port = DEFAULT_PORT;
+        double duration = 30;
+        double updateRate = 10;
+        double requestInterval = 2;
+        double requestTimeout = 1;
+        double cancelFraction = 0.1;
+        long seed = 0;
+        try {
+            for(int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if("--vehicles".equals(arg))
+                    numOfVehicles = Integer.parseInt(args[++i]);
+                else if("--port".equals(arg))
+                    port = Integer.parseInt(args[++i]);
+                else if("--duration".equals(arg))
+                    duration = Double.parseDouble(args[++i]);
+                else if("--update-rate".equals(arg))
+                    updateRate = Double.parseDouble(args[++i]);
+                else if("--request-interval".equals(arg))
+                    requestInterval = Double.parseDouble(args[++i]);
+                else if("--request-timeout".equals(arg))
+                    requestTimeout = Double.parseDouble(args[++i]);
+                else if("--cancel-fraction".equals(arg))
+                    cancelFraction = Double.parseDouble(args[++i]);
+                else if("--seed".equals(arg))
+                    seed = Long.parseLong(args[++i]);
+                else if("--help".equals(arg) || "-h".equals(arg)) {
+                    printUsage();
+                    return;
+                } else
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            if(numOfVehicles <= 0 || duration <= 0 || updateRate <= 0
+                    || requestInterval <= 0 || requestTimeout <= 0)
+                throw new IllegalArgumentException("The number of vehicles, duration, rates and intervals"
+                        + " must be positive.");
+        } catch (ArrayIndexOutOfBoundsException e) {
+            System.err.println("Missing value for " + args[args.length - 1]);
+            printUsage();
+            System.exit(2);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(2);
+        }
+
+        SimulatedRealVehicle.Timing timing = new SimulatedRealVehicle.Timing(
+                (long) (1e9 / updateRate),
+                (long) (requestInterval * 1e9),
+                (long) (requestTimeout * 1e9),
+                cancelFraction);
+        try {
+            new ProxyLoadGenerator(numOfVehicles, port, duration, timing, seed).run();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Run the simulator and the vehicles for the duration, then report.
+     *
+     * @throws IOException if the vehicles' sockets cannot be used
+     */
+    public void run() throws IOException {
+        SimContext context = new SimContext();
+        AutoDriverOnlySimSetup setup = new AutoDriverOnlySimSetup(1, // columns
+                1, // rows
+                4, // lane width
+                25.0, // speed limit
+                3, // lanes per road
+                1, // median size
+                150, // distance between
+                0.0, // traffic level; the simulated vehicles are the traffic
+                1.0 // stop distance before intersection
+        );
+        AIMSimulator sim = (AIMSimulator) SimFactory.makeSimulator(setup, context);
+        UdpListener listener =
+                new UdpListener(port, UdpListener.REPLY_TO_SENDER_PORT, sim);
+        RealTimeStepper stepper = new RealTimeStepper(sim);
+
+        LoadStatistics stats = new LoadStatistics();
+        Selector selector = Selector.open();
+        List<DatagramChannel> channels = new ArrayList<DatagramChannel>();
+        listener.start();
+        Thread stepperThread = new Thread(stepper, "ProxyLoadGenerator-sim");
+        stepperThread.start();
+        long start = System.nanoTime();
+        try {
+            List<SimulatedRealVehicle> vehicles =
+                    makeVehicles(sim, selector, channels, start);
+            System.err.printf("Running %d simulated vehicles against port %d for %.1f seconds%n",
+                    vehicles.size(), port, duration);
+            exchangeMessages(vehicles, selector, stats, stepper, start + (long) (duration * 1e9));
+        } finally {
+            stepper.stop();
+            try {
+                stepperThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            listener.stop();
+            for(DatagramChannel channel : channels)
+                channel.close();
+            selector.close();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        stats.report(System.out, elapsed);
+        stepper.report(System.out);
+    }
+
+    /**
+     * Place the vehicles on the lanes leading to the intersection, queued
+     * behind the spawn points, and open their sockets.
+     */
+    private List<SimulatedRealVehicle> makeVehicles(AIMSimulator sim, Selector selector,
+                                                    List<DatagramChannel> channels,
+                                                    long start) throws IOException {
+        List<AIMSpawnPoint> spawnPoints = sim.getMap().getSpawnPoints();
+        SocketAddress listenerAddress = new InetSocketAddress("127.0.0.1", port);
+        Random random = new Random(seed);
+        List<SimulatedRealVehicle> vehicles = new ArrayList<SimulatedRealVehicle>();
+        for(int i = 0; i < numOfVehicles; i++) {
+            AIMSpawnPoint spawnPoint = spawnPoints.get(i % spawnPoints.size());
+            Lane lane = spawnPoint.getLane();
+            double distToIntersection =
+                    lane.getLaneIM().distanceToNextIntersection(spawnPoint.getPosition());
+            double queueLength = Math.max(distToIntersection - INTERSECTION_MARGIN, VEHICLE_SPACING);
+            double distance = (i / spawnPoints.size()) * VEHICLE_SPACING % queueLength;
+            Point2D position = lane.getPointAtNormalizedDistance(
+                    lane.normalizedDistanceAlongLane(spawnPoint.getPosition())
+                            + lane.normalizedDistance(distance));
+            double velocity = lane.getSpeedLimit();
+
+            DatagramChannel channel = DatagramChannel.open();
+            channels.add(channel);
+            channel.bind(new InetSocketAddress("127.0.0.1", 0));
+            channel.configureBlocking(false);
+            SimulatedRealVehicle vehicle = new SimulatedRealVehicle(FIRST_VIN + i,
+                    channel, listenerAddress, position, lane.getInitialHeading(),
+                    velocity, lane.getId(), (distToIntersection - distance) / velocity,
+                    timing, new Random(random.nextLong()), start);
+            channel.register(selector, SelectionKey.OP_READ, vehicle);
+            vehicles.add(vehicle);
+        }
+        return vehicles;
+    }
+
+    /**
+     * Send the vehicles' messages when they are due and hand them the
+     * replies, until the end time or until the simulator fails.
+     */
+    private static void exchangeMessages(List<SimulatedRealVehicle> vehicles, Selector selector,
+                                         LoadStatistics stats, RealTimeStepper stepper,
+                                         long end) throws IOException {
+        ByteBuffer in = ByteBuffer.allocateDirect(UdpHeader.MAX_MESSENGE_PACKAGE_LENGTH);
+        long now = System.nanoTime();
+        while(now < end && stepper.getFailure() == null) {
+            long next = end;
+            for(SimulatedRealVehicle vehicle : vehicles) {
+                vehicle.act(now, stats);
+                next = Math.min(next, vehicle.getNextActionTime());
+            }
+            long waitMillis = (next - System.nanoTime()) / 1000000;
+            if(waitMillis > 0)
+                selector.select(waitMillis);
+            else
+                selector.selectNow();
+            now = System.nanoTime();
+            for(SelectionKey key : selector.selectedKeys()) {
+                DatagramChannel channel = (DatagramChannel) key.channel();
+                SimulatedRealVehicle vehicle = (SimulatedRealVehicle) key.attachment();
+                in.clear();
+                while(channel.receive(in) != null) {
+                    in.flip();
+                    vehicle.receive(in, now, stats);
+                    in.clear();
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: ProxyLoadGenerator [--vehicles <n>] [--port <port>]"
+                + " [--duration <seconds>] [--update-rate <hz>] [--request-interval <seconds>]"
+                + " [--request-timeout <seconds>] [--cancel-fraction <f>] [--seed <seed>]");
+    }
+
+    /**
+     * Steps the simulator at the pace of real time, and records how long the
+     * steps take.
+     */
+    private static class RealTimeStepper implements Runnable {
+        private final AIMSimulator sim;
+        private volatile boolean running = true;
+        private volatile Throwable failure = null;
+        private long numOfSteps = 0;
+        private long numOfLateSteps = 0;
+        private long totalStepTime = 0;
+        private long maxStepTime = 0;
+
+        RealTimeStepper(AIMSimulator sim) {
+            this.sim = sim;
+        }
+
+        @Override
+        public void run() {
+            long stepPeriod = (long) (SimConfig.TIME_STEP * 1e9);
+            long next = System.nanoTime();
+            while(running) {
+                long before = System.nanoTime();
+                try {
+                    sim.step(SimConfig.TIME_STEP);
+                } catch (RuntimeException | Error e) {
+                    failure = e;
+                    return;
+                }
+                long stepTime = System.nanoTime() - before;
+                numOfSteps++;
+                totalStepTime += stepTime;
+                maxStepTime = Math.max(maxStepTime, stepTime);
+                next += stepPeriod;
+                long wait = next - System.nanoTime();
+                if(wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else {
+                    numOfLateSteps++;
+                }
+            }
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        /**
+         * Get what made a step fail, if one has.
+         */
+        Throwable getFailure() {
+            return failure;
+        }
+
+        /**
+         * Write how well the simulator kept up. Call after the stepping
+         * thread has finished.
+         */
+        void report(PrintStream out) {
+            out.printf("Simulator: %d steps of %.0f ms, %d behind real time, "
+                            + "step time mean %.2f ms, max %.2f ms%n",
+                    numOfSteps, SimConfig.TIME_STEP * 1000, numOfLateSteps,
+                    numOfSteps > 0 ? totalStepTime / 1e6 / numOfSteps : 0.0,
+                    maxStepTime / 1e6);
+            if(failure != null) {
+                out.println("The simulator failed at " + sim.getSimulationTime()
+                        + " seconds, ending the run early:");
+                failure.printStackTrace(out);
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package aim4.sim.loadtest;
+
+import java.awt.geom.Point2D;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Random;
+
+import aim4.msg.aim.udp.UdpHeader;
+import aim4.msg.aim.udp.UdpHeader.UdpMessageType;
+
+/**
+ * Plays the part of a real vehicle talking to its proxy vehicle. It sends
+ * PV updates at a fixed rate and, one at a time, requests a reservation.
+ * Once confirmed, it waits until its arrival time and then either finishes
+ * with a done message or gives the reservation up with a cancel message.
+ * The messages are in the wire format the UdpListener reads. It is used by
+ * the generator thread only.
+ */
+class SimulatedRealVehicle {
+
+    /////////////////////////////////
+    // NESTED CLASSES
+    /////////////////////////////////
+
+    /**
+     * How often the vehicles send their messages.
+     */
+    static class Timing {
+        /** The time between PV updates, in nanoseconds */
+        final long updatePeriod;
+        /** The time between the end of a request and the next, in nanoseconds */
+        final long requestInterval;
+        /** How long to wait for the reply to a request, in nanoseconds */
+        final long requestTimeout;
+        /** The chance a confirmed reservation is cancelled */
+        final double cancelProbability;
+
+        Timing(long updatePeriod, long requestInterval, long requestTimeout,
+               double cancelProbability) {
+            this.updatePeriod = updatePeriod;
+            this.requestInterval = requestInterval;
+            this.requestTimeout = requestTimeout;
+            this.cancelProbability = cancelProbability;
+        }
+    }
+
+    /////////////////////////////////
+    // CONSTANTS
+    /////////////////////////////////
+
+    /** The time meaning no request is waiting for a reply */
+    private static final long NO_REQUEST = Long.MIN_VALUE;
+
+    /////////////////////////////////
+    // PRIVATE FIELDS
+    /////////////////////////////////
+
+    /** The vehicle's identification number */
+    private final int vin;
+    /** The channel the messages are sent from; replies arrive on it too */
+    private final DatagramChannel channel;
+    /** The address of the listener */
+    private final SocketAddress listener;
+    /** The position of the front of the vehicle */
+    private final Point2D position;
+    /** The heading of the vehicle */
+    private final double heading;
+    /** The velocity the vehicle reports */
+    private final double velocity;
+    /** The lane the vehicle leaves the intersection on */
+    private final int departureLaneId;
+    /** The time it would take the vehicle to reach the intersection */
+    private final double arrivalTimeSpan;
+    /** How often the vehicle sends its messages */
+    private final Timing timing;
+    /** Decides whether to cancel */
+    private final Random random;
+    /** The time the vehicle's clock counts from, in nanoseconds */
+    private final long startTime;
+    /** The buffer the messages are written to */
+    private final ByteBuffer out =
+            ByteBuffer.allocateDirect(UdpHeader.MAX_MESSENGE_PACKAGE_LENGTH);
+
+    /** The time of the next PV update */
+    private long nextUpdateTime;
+    /** The time of the next request */
+    private long nextRequestTime;
+    /** The time the request waiting for a reply was sent */
+    private long requestSentTime = NO_REQUEST;
+    /** Whether the vehicle holds a reservation */
+    private boolean hasReservation = false;
+    /** The reservation the vehicle holds */
+    private int reservationId;
+    /** The time the vehicle is done with its reservation */
+    private long reservationEndTime;
+
+    /////////////////////////////////
+    // CLASS CONSTRUCTORS
+    /////////////////////////////////
+
+    /**
+     * Create a simulated real vehicle.
+     *
+     * @param vin              the vehicle's identification number
+     * @param channel          the channel to send from, non-blocking
+     * @param listener         the address of the listener
+     * @param position         the position of the front of the vehicle
+     * @param heading          the heading of the vehicle
+     * @param velocity         the velocity the vehicle reports
+     * @param departureLaneId  the lane to leave the intersection on
+     * @param arrivalTimeSpan  the time it would take to reach the intersection
+     * @param timing           how often to send the messages
+     * @param random           decides whether to cancel
+     * @param startTime        the time the vehicle's clock counts from
+     */
+    SimulatedRealVehicle(int vin, DatagramChannel channel,
+                         SocketAddress listener, Point2D position,
+                         double heading, double velocity, int departureLaneId,
+                         double arrivalTimeSpan, Timing timing, Random random,
+                         long startTime) {
+        this.vin = vin;
+        this.channel = channel;
+        this.listener = listener;
+        this.position = position;
+        this.heading = heading;
+        this.velocity = velocity;
+        this.departureLaneId = departureLaneId;
+        this.arrivalTimeSpan = arrivalTimeSpan;
+        this.timing = timing;
+        this.random = random;
+        this.startTime = startTime;
+        this.nextUpdateTime = startTime;
+        // spread the first requests so the vehicles don't all ask at once
+        this.nextRequestTime = startTime + timing.updatePeriod
+                + (long) (random.nextDouble() * timing.requestInterval);
+    }
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    /**
+     * Send the messages which are due.
+     *
+     * @param now    the current time, in nanoseconds
+     * @param stats  where to count the messages
+     * @throws IOException if a datagram cannot be sent
+     */
+    void act(long now, LoadStatistics stats) throws IOException {
+        if (now >= nextUpdateTime) {
+            sendPVUpdate(now, stats);
+            nextUpdateTime += timing.updatePeriod;
+            if (nextUpdateTime <= now) {
+                // fallen behind; don't send a burst to catch up
+                nextUpdateTime = now + timing.updatePeriod;
+            }
+        }
+        if (requestSentTime != NO_REQUEST
+                && now - requestSentTime >= timing.requestTimeout) {
+            stats.recordTimeout();
+            requestSentTime = NO_REQUEST;
+            nextRequestTime = now + timing.requestInterval;
+        }
+        if (hasReservation && now >= reservationEndTime) {
+            if (random.nextDouble() < timing.cancelProbability) {
+                sendCancel(now, stats);
+            } else {
+                sendDone(now, stats);
+            }
+            hasReservation = false;
+            nextRequestTime = now + timing.requestInterval;
+        }
+        if (requestSentTime == NO_REQUEST && !hasReservation
+                && now >= nextRequestTime) {
+            if (sendRequest(now, stats)) {
+                requestSentTime = now;
+            } else {
+                nextRequestTime = now + timing.updatePeriod;
+            }
+        }
+    }
+
+    /**
+     * Get the time the next message is due.
+     *
+     * @return the time in nanoseconds
+     */
+    long getNextActionTime() {
+        long next = nextUpdateTime;
+        if (requestSentTime != NO_REQUEST) {
+            next = Math.min(next, requestSentTime + timing.requestTimeout);
+        } else if (hasReservation) {
+            next = Math.min(next, reservationEndTime);
+        } else {
+            next = Math.min(next, nextRequestTime);
+        }
+        return next;
+    }
+
+    /**
+     * Handle a datagram from the proxy vehicle.
+     *
+     * @param data   the content of the datagram
+     * @param now    the time it was received, in nanoseconds
+     * @param stats  where to count the message and its latency
+     */
+    void receive(ByteBuffer data, long now, LoadStatistics stats) {
+        UdpMessageType type;
+        int confirmedReservationId = 0;
+        double relativeArrivalTime = 0;
+        try {
+            type = new UdpHeader(data).getMessageType();
+            if (type == UdpMessageType.I2V_Confirm) {
+                confirmedReservationId = data.getInt();
+                relativeArrivalTime = data.getFloat();
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            stats.recordMalformed();
+            return;
+        }
+        stats.recordReceived(type);
+
+        if ((type == UdpMessageType.I2V_Confirm || type == UdpMessageType.I2V_Reject)
+                && requestSentTime != NO_REQUEST) {
+            stats.recordLatency(now - requestSentTime);
+            requestSentTime = NO_REQUEST;
+            if (type == UdpMessageType.I2V_Confirm) {
+                hasReservation = true;
+                reservationId = confirmedReservationId;
+                reservationEndTime = now + (long) (Math.max(0.0,
+                        Math.min(relativeArrivalTime, arrivalTimeSpan)) * 1e9);
+            } else {
+                nextRequestTime = now + timing.requestInterval;
+            }
+        }
+    }
+
+    /////////////////////////////////
+    // PRIVATE METHODS
+    /////////////////////////////////
+
+    private void sendPVUpdate(long now, LoadStatistics stats) throws IOException {
+        startMessage(now, UdpMessageType.PVUpdate);
+        out.putInt(vin);
+        out.putFloat((float) position.getX());
+        out.putFloat((float) position.getY());
+        out.putFloat((float) heading);
+        out.putFloat(0.0f);  // steering angle
+        out.putFloat((float) velocity);
+        out.putFloat((float) velocity);  // target velocity
+        out.putFloat(0.0f);  // acceleration
+        send(UdpMessageType.PVUpdate, stats);
+    }
+
+    private boolean sendRequest(long now, LoadStatistics stats) throws IOException {
+        startMessage(now, UdpMessageType.V2I_Request);
+        out.putInt(vin);
+        out.putFloat((float) arrivalTimeSpan);
+        out.putInt(departureLaneId);
+        out.putFloat((float) velocity);
+        return send(UdpMessageType.V2I_Request, stats);
+    }
+
+    private void sendCancel(long now, LoadStatistics stats) throws IOException {
+        startMessage(now, UdpMessageType.V2I_Cancel);
+        out.putInt(reservationId);
+        send(UdpMessageType.V2I_Cancel, stats);
+    }
+
+    private void sendDone(long now, LoadStatistics stats) throws IOException {
+        startMessage(now, UdpMessageType.V2I_Done);
+        send(UdpMessageType.V2I_Done, stats);
+    }
+
+    private void startMessage(long now, UdpMessageType type) {
+        out.clear();
+        new UdpHeader((float) ((now - startTime) / 1e9), type)
+                .writeToByteBuffer(out);
+    }
+
+    /**
+     * Send the message in the buffer. A message the socket has no room for
+     * is dropped, as it would be on a real network.
+     */
+    private boolean send(UdpMessageType type, LoadStatistics stats) throws IOException {
+        out.flip();
+        if (channel.send(out, listener) == 0) {
+            return false;
+        }
+        stats.recordSent(type);
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package aim4.sim.metrics;
+
+/**
+ * Receives the measurements of a simulation: the time and allocation of each
+ * step phase, and event counts. A simulator reports to the registry of its
+ * {@link aim4.sim.SimContext}, which is {@link #DISABLED} unless another one
+ * is set, so that measuring costs nothing by default.
+ * <p>
+ * Counters may be incremented from several threads at once, e.g. by
+ * reservation queries evaluated in parallel; phases and steps are reported
+ * by the thread stepping the simulator.
+ */
+public interface MetricsRegistry {
+
+    /**
+     * A registry that records nothing.
+     */
+    MetricsRegistry DISABLED = new MetricsRegistry() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordPhase(StepPhase phase, long nanos, long allocatedBytes) {
+        }
+
+        @Override
+        public void increment(SimCounter counter, long amount) {
+        }
+
+        @Override
+        public void stepCompleted(double simulationTime) {
+        }
+    };
+
+    /**
+     * Whether the registry records anything. Callers may skip measuring when
+     * it does not.
+     *
+     * @return whether the registry records anything
+     */
+    boolean isEnabled();
+
+    /**
+     * Record one run of a step phase.
+     *
+     * @param phase           the phase
+     * @param nanos           the wall time taken, in nanoseconds
+     * @param allocatedBytes  the bytes allocated by the stepping thread
+     */
+    void recordPhase(StepPhase phase, long nanos, long allocatedBytes);
+
+    /**
+     * Add to a counter.
+     *
+     * @param counter  the counter
+     * @param amount   the amount to add
+     */
+    void increment(SimCounter counter, long amount);
+
+    /**
+     * Note the end of a simulation step.
+     *
+     * @param simulationTime  the simulated time at the end of the step
+     */
+    void stepCompleted(double simulationTime);
+}
@@ -0,0 +1,98 @@
+package aim4.sim.metrics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Times the phases of the steps of one simulator and reports them to a
+ * {@link MetricsRegistry}. Each phase is measured from the end of the one
+ * before it, so a step is timed with one clock reading per phase. When the
+ * registry is disabled nothing is read at all.
+ * <p>
+ * Allocation is measured per thread, where the JVM supports it; work handed
+ * to other threads is not included. Where it is not supported the allocation
+ * is reported as zero.
+ */
+public class PhaseTimer {
+
+    /**The thread bean, if it can measure allocation; null otherwise**/
+    private static final com.sun.management.ThreadMXBean THREADS = findThreadBean();
+
+    /**The registry of the current step**/
+    private MetricsRegistry registry = MetricsRegistry.DISABLED;
+    /**Whether the current step is being timed**/
+    private boolean isTiming = false;
+    /**The time the last phase ended**/
+    private long lastNanos;
+    /**The bytes the thread had allocated when the last phase ended**/
+    private long lastAllocatedBytes;
+
+    /**
+     * Start timing a step.
+     *
+     * @param registry  the registry to report the step to
+     */
+    public void startStep(MetricsRegistry registry) {
+        this.registry = registry;
+        isTiming = registry.isEnabled();
+        if(isTiming) {
+            lastNanos = System.nanoTime();
+            lastAllocatedBytes = allocatedBytes();
+        }
+    }
+
+    /**
+     * Report the time since the previous phase ended, or the step started,
+     * as a run of a phase.
+     *
+     * @param phase  the phase that has just ended
+     */
+    public void endPhase(StepPhase phase) {
+        if(!isTiming)
+            return;
+        long nanos = System.nanoTime();
+        long allocated = allocatedBytes();
+        registry.recordPhase(phase, nanos - lastNanos, allocated - lastAllocatedBytes);
+        lastNanos = nanos;
+        lastAllocatedBytes = allocated;
+    }
+
+    /**
+     * Finish timing a step.
+     *
+     * @param simulationTime  the simulated time at the end of the step
+     */
+    public void endStep(double simulationTime) {
+        if(isTiming)
+            registry.stepCompleted(simulationTime);
+        isTiming = false;
+    }
+
+    /**
+     * Get the registry the current or last step reports to.
+     *
+     * @return the registry
+     */
+    public MetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadBean() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if(bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+                if(threads.isThreadAllocatedMemorySupported()) {
+                    threads.setThreadAllocatedMemoryEnabled(true);
+                    return threads;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException | SecurityException e) {
+            // fall through: allocation is not measured on this JVM
+        }
+        return null;
+    }
+}
@@ -0,0 +1,17 @@
+package aim4.sim.metrics;
+
+/**
+ * The events counted during a simulation.
+ */
+public enum SimCounter {
+    /** Queries made of a reservation grid */
+    RESERVATION_QUERIES,
+    /** Reservation grid queries that found all their tiles free */
+    RESERVATION_GRID_HITS,
+    /** Reservation grid queries answered from the trajectory cache */
+    TRAJECTORY_CACHE_HITS,
+    /** Messages delivered between vehicles and managers */
+    MESSAGES_DELIVERED,
+    /** Messages lost because the receiver was out of range */
+    MESSAGES_DROPPED
+}
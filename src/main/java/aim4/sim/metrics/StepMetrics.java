@@ -0,0 +1,218 @@
+package aim4.sim.metrics;
+
+import org.json.simple.JSONValue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A {@link MetricsRegistry} that keeps running totals: the number of runs,
+ * wall time and allocation of each step phase, and the value of each
+ * counter. The totals can be written as a CSV row or a JSON object, and
+ * optionally dumped to a file every so many simulated seconds.
+ * <p>
+ * A CSV dump appends one row of totals per dump, so the rows of a run show
+ * how its costs grow; a JSON dump rewrites the file with the latest totals.
+ */
+public class StepMetrics implements MetricsRegistry {
+
+    /**
+     * The format of a periodic dump.
+     */
+    public enum Format {
+        CSV,
+        JSON
+    }
+
+    private static final StepPhase[] PHASES = StepPhase.values();
+    private static final SimCounter[] COUNTERS = SimCounter.values();
+
+    /**The number of runs of each phase**/
+    private final long[] phaseRuns = new long[PHASES.length];
+    /**The total wall time of each phase, in nanoseconds**/
+    private final long[] phaseNanos = new long[PHASES.length];
+    /**The total bytes allocated in each phase**/
+    private final long[] phaseAllocatedBytes = new long[PHASES.length];
+    /**The value of each counter**/
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTERS.length);
+    /**The number of completed steps**/
+    private long steps = 0;
+    /**The simulated time at the end of the last step**/
+    private double simulationTime = 0.0;
+
+    /**The file periodic dumps are written to, or null**/
+    private File dumpFile;
+    /**The format of the periodic dumps**/
+    private Format dumpFormat;
+    /**The simulated time between periodic dumps**/
+    private double dumpInterval;
+    /**The simulated time of the next periodic dump**/
+    private double nextDumpTime;
+    /**Whether nothing has been dumped yet**/
+    private boolean isFirstDump;
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    /**
+     * Dump the totals to a file every so many simulated seconds, starting
+     * after the first interval. The file is replaced.
+     *
+     * @param file      the file
+     * @param format    the format of the dumps
+     * @param interval  the simulated time between dumps, in seconds
+     */
+    public synchronized void dumpPeriodically(File file, Format format, double interval) {
+        if(interval <= 0)
+            throw new IllegalArgumentException("The dump interval must be positive: " + interval);
+        this.dumpFile = file;
+        this.dumpFormat = format;
+        this.dumpInterval = interval;
+        this.nextDumpTime = simulationTime + interval;
+        this.isFirstDump = true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public synchronized void recordPhase(StepPhase phase, long nanos, long allocatedBytes) {
+        int i = phase.ordinal();
+        phaseRuns[i]++;
+        phaseNanos[i] += nanos;
+        phaseAllocatedBytes[i] += allocatedBytes;
+    }
+
+    @Override
+    public void increment(SimCounter counter, long amount) {
+        counters.addAndGet(counter.ordinal(), amount);
+    }
+
+    @Override
+    public synchronized void stepCompleted(double simulationTime) {
+        steps++;
+        this.simulationTime = simulationTime;
+        if(dumpFile != null && simulationTime >= nextDumpTime) {
+            dump();
+            while(nextDumpTime <= simulationTime) {
+                nextDumpTime += dumpInterval;
+            }
+        }
+    }
+
+    /**
+     * Write the current totals to the dump file, if there is one.
+     */
+    public synchronized void dump() {
+        if(dumpFile == null)
+            return;
+        try {
+            if(dumpFormat == Format.JSON) {
+                write(dumpFile, false, toJSONString());
+            } else {
+                write(dumpFile, !isFirstDump,
+                      isFirstDump ? produceCSVHeader() + "\n" + produceCSV() : produceCSV());
+            }
+            isFirstDump = false;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write metrics to " + dumpFile, e);
+        }
+    }
+
+    public synchronized long getSteps() {
+        return steps;
+    }
+
+    public synchronized long getPhaseRuns(StepPhase phase) {
+        return phaseRuns[phase.ordinal()];
+    }
+
+    public synchronized long getPhaseNanos(StepPhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public synchronized long getPhaseAllocatedBytes(StepPhase phase) {
+        return phaseAllocatedBytes[phase.ordinal()];
+    }
+
+    public long getCount(SimCounter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    // CSV //
+    public static String produceCSVHeader() {
+        StringBuilder sb = new StringBuilder("Simulation Time,Steps");
+        for(StepPhase phase : PHASES) {
+            sb.append(',').append(phase).append(" Time (ms)");
+            sb.append(',').append(phase).append(" Allocated (bytes)");
+        }
+        for(SimCounter counter : COUNTERS) {
+            sb.append(',').append(counter);
+        }
+        return sb.toString();
+    }
+
+    public synchronized String produceCSV() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(simulationTime);
+        sb.append(',');
+        sb.append(steps);
+        for(int i = 0; i < PHASES.length; i++) {
+            sb.append(',');
+            sb.append(phaseNanos[i] / 1e6);
+            sb.append(',');
+            sb.append(phaseAllocatedBytes[i]);
+        }
+        for(int i = 0; i < COUNTERS.length; i++) {
+            sb.append(',');
+            sb.append(counters.get(i));
+        }
+        return sb.toString();
+    }
+
+    // JSON //
+    public synchronized String toJSONString() {
+        Map<String, Object> json = new LinkedHashMap<String, Object>();
+        json.put("simulationTime", simulationTime);
+        json.put("steps", steps);
+        Map<String, Object> phases = new LinkedHashMap<String, Object>();
+        for(int i = 0; i < PHASES.length; i++) {
+            Map<String, Object> phase = new LinkedHashMap<String, Object>();
+            phase.put("runs", phaseRuns[i]);
+            phase.put("timeMs", phaseNanos[i] / 1e6);
+            phase.put("allocatedBytes", phaseAllocatedBytes[i]);
+            phases.put(PHASES[i].name(), phase);
+        }
+        json.put("phases", phases);
+        Map<String, Object> counts = new LinkedHashMap<String, Object>();
+        for(int i = 0; i < COUNTERS.length; i++) {
+            counts.put(COUNTERS[i].name(), counters.get(i));
+        }
+        json.put("counters", counts);
+        return JSONValue.toJSONString(json);
+    }
+
+    /////////////////////////////////
+    // PRIVATE METHODS
+    /////////////////////////////////
+
+    private static void write(File file, boolean append, String text) throws IOException {
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(file, append), Charset.forName("UTF-8")));
+        try {
+            writer.println(text);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package aim4.sim.metrics;
+
+/**
+ * The phases of a simulation step that are timed separately. Not every
+ * simulator has every phase; the car park simulators have no managers and
+ * no communication.
+ */
+public enum StepPhase {
+    /** Spawning new vehicles */
+    SPAWN,
+    /** Giving the vehicles their sensor readings */
+    SENSOR_INPUT,
+    /** Letting the drivers act */
+    DRIVERS_ACT,
+    /** Letting the intersection or merge managers act */
+    MANAGERS_ACT,
+    /** Delivering messages between the vehicles and the managers */
+    COMMUNICATION,
+    /** Moving the vehicles */
+    MOVE,
+    /** Checking for collisions, removing completed vehicles and recording results */
+    CLEANUP
+}
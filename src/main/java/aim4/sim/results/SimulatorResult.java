@@ -5,4 +5,10 @@ package aim4.sim.results;
  */
 public interface SimulatorResult {
     public String produceCSVString();
+
+    /**
+     * Produces the single CSV row of global statistics for this result.
+     * @return String A CSV row matching the global stats header of the result type.
+     */
+    public String produceGlobalStatsCSV();
 }
@@ -30,6 +30,7 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.sim.setup;
 
+import aim4.sim.SimContext;
 import aim4.sim.Simulator;
 import aim4.sim.setup.aim.AIMSimSetup;
 import aim4.vehicle.VinRegistry;
@@ -53,4 +54,22 @@ public class SimFactory {
     return simSetup.getSimulator();
   }
 
+  /**
+   * Create a simulator that keeps its state in the given context rather
+   * than the shared one, so that it can run alongside other simulators in
+   * the same JVM.
+   *
+   * @param simSetup  the simulation setup
+   * @param context   a fresh context for the simulator
+   * @return a simulator
+   */
+  public static Simulator makeSimulator(SimSetup simSetup, SimContext context) {
+    SimContext previous = context.enter();
+    try {
+      return simSetup.getSimulator();
+    } finally {
+      SimContext.restore(previous);
+    }
+  }
+
 }
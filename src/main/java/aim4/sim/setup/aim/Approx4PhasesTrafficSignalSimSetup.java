@@ -151,8 +151,7 @@ public class Approx4PhasesTrafficSignalSimSetup extends BasicSimSetup
       GridMapUtil.setUniformRandomSpawnPoints(layout, trafficLevel);
     }
 
-    V2IPilot.DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION =
-      stopDistBeforeIntersection;
+    V2IPilot.setDefaultStopDistanceBeforeIntersection(stopDistBeforeIntersection);
 
     return new AutoDriverOnlySimulator(layout);
   }
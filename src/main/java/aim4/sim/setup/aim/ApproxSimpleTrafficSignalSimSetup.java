@@ -153,8 +153,7 @@ public class ApproxSimpleTrafficSignalSimSetup extends BasicSimSetup
       GridMapUtil.setUniformRandomSpawnPoints(layout, trafficLevel);
     }
 
-    V2IPilot.DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION =
-      stopDistBeforeIntersection;
+    V2IPilot.setDefaultStopDistanceBeforeIntersection(stopDistBeforeIntersection);
 
     return new AutoDriverOnlySimulator(layout);
   }
@@ -127,7 +127,7 @@ public class ApproxStopSignSimSetup extends BasicSimSetup
                                         true,
                                         1.0);
 
-    SimConfig.MUST_STOP_BEFORE_INTERSECTION = true;
+    SimConfig.setMustStopBeforeIntersection(true);
     Debug.SHOW_VEHICLE_COLOR_BY_MSG_STATE = false;
 
     GridMapUtil.setApproxStopSignManagers(layout, currentTime,
@@ -143,8 +143,7 @@ public class ApproxStopSignSimSetup extends BasicSimSetup
       GridMapUtil.setUniformRatioSpawnPoints(layout, trafficVolumeFileName);
     }
 
-    V2IPilot.DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION =
-      stopDistBeforeIntersection;
+    V2IPilot.setDefaultStopDistanceBeforeIntersection(stopDistBeforeIntersection);
 
     return new AutoDriverOnlySimulator(layout);
   }
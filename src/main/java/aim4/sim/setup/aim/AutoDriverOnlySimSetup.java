@@ -30,6 +30,9 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.sim.setup.aim;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import aim4.config.Debug;
 import aim4.config.SimConfig;
 import aim4.driver.aim.pilot.V2IPilot;
@@ -39,6 +42,8 @@ import aim4.map.aim.GridIntersectionMap;
 import aim4.map.aim.GridMapUtil;
 import aim4.sim.simulator.aim.AutoDriverOnlySimulator;
 import aim4.sim.Simulator;
+import aim4.vehicle.VehicleSpec;
+import aim4.vehicle.VehicleSpecDatabase;
 
 /**
  * The setup for the simulator in which all vehicles are autonomous.
@@ -85,8 +90,12 @@ public class AutoDriverOnlySimSetup extends BasicSimSetup implements AIMSimSetup
   private double granularity = 1.0;
   /** The processing interval for the batch mode */
   private double processingInterval = RoadBasedReordering.DEFAULT_PROCESSING_INTERVAL;
+  /** The number of threads evaluating the proposals of a batch */
+  private int batchModeParallelism = 1;
   /** The name of the file about the traffic volume */
   private String trafficVolumeFileName = null;
+  /** Whether the routes of all vehicles are found before the simulation */
+  private boolean isRoutePrecomputed = false;
 
   /////////////////////////////////
   // CONSTRUCTORS
@@ -160,6 +169,28 @@ public class AutoDriverOnlySimSetup extends BasicSimSetup implements AIMSimSetup
     this.processingInterval = processingInterval;
   }
 
+  /**
+   * Set the number of threads on which the proposals of a batch are
+   * evaluated in the batch mode.
+   *
+   * @param parallelism  the number of threads; 1 to evaluate the proposals
+   *                     one by one
+   */
+  public void setBatchModeParallelism(int parallelism) {
+    this.batchModeParallelism = parallelism;
+  }
+
+  /**
+   * Turn on or off finding the routes of every vehicle specification
+   * between every pair of roads when the simulator is created, rather than
+   * when vehicles first need them.
+   *
+   * @param b  whether the routes are found when the simulator is created
+   */
+  public void setIsRoutePrecomputed(boolean b) {
+    isRoutePrecomputed = b;
+  }
+
   /**
    * Set the uniform random traffic.
    *
@@ -278,7 +309,7 @@ public class AutoDriverOnlySimSetup extends BasicSimSetup implements AIMSimSetup
     if (!isBaseLineMode) {
       if (isBatchMode) {
         GridMapUtil.setBatchManagers(layout, currentTime, gridConfig,
-                processingInterval);
+                processingInterval, batchModeParallelism);
       } else {
         GridMapUtil.setFCFSManagers(layout, currentTime, gridConfig);
       }
@@ -305,8 +336,15 @@ public class AutoDriverOnlySimSetup extends BasicSimSetup implements AIMSimSetup
     }
 
 
-    V2IPilot.DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION =
-            stopDistBeforeIntersection;
+    if (isRoutePrecomputed) {
+      List<VehicleSpec> specs = new ArrayList<VehicleSpec>();
+      for (int specID = 0; specID < VehicleSpecDatabase.getNumOfSpec(); specID++) {
+        specs.add(VehicleSpecDatabase.getVehicleSpecById(specID));
+      }
+      layout.getRouteTable().precompute(specs);
+    }
+
+    V2IPilot.setDefaultStopDistanceBeforeIntersection(stopDistBeforeIntersection);
     return new AutoDriverOnlySimulator(layout);
   }
 }
@@ -96,11 +96,11 @@ public class MergeMimicSimSetup implements AIMSimSetup {
         }
         GridMapUtil.setFCFSManagers(layout, currentTime, gridConfig);
 
-        V2IPilot.DEFAULT_STOP_DISTANCE_BEFORE_INTERSECTION = 1.0;
+        V2IPilot.setDefaultStopDistanceBeforeIntersection(1.0);
 
         Map<String, Double> specToExpectedTimeMergeLane = simulateExpectedMergeLaneTimes(layout);
         Map<String, Double> specToExpectedTimeTargetLane = simulateExpectedTargetLaneTimes(layout);
-        Debug.currentMap = layout;
+        Debug.setCurrentMap(layout);
 
         return new AutoDriverOnlySimulator(layout, true, specToExpectedTimeMergeLane,specToExpectedTimeTargetLane);
     }
@@ -12,6 +12,23 @@ import java.util.Set;
  * Created by Callum on 28/11/2016.
  */
 public interface AIMSimulator extends Simulator {
+    /**
+     * Called by the simulation thread at the start and the end of each step,
+     * while the simulator is locked. Lets code outside the simulation apply
+     * what it has collected between steps without holding up the step.
+     */
+    interface StepListener {
+        /**
+         * Called before any vehicle is spawned or moved in the step.
+         */
+        void stepStarting();
+
+        /**
+         * Called after the vehicles have been moved and cleaned up.
+         */
+        void stepFinished();
+    }
+
     /**
      * Get the set of all active vehicles in the simulation.
      *
@@ -29,5 +46,21 @@ public interface AIMSimulator extends Simulator {
      */
     void addProxyVehicle(ProxyVehicleSimModel vehicle);
 
+    /**
+     * Add a listener called at the start and the end of each step. May be
+     * called from any thread, including from a listener during a step.
+     *
+     * @param listener  the listener
+     */
+    void addStepListener(StepListener listener);
+
+    /**
+     * Remove a step listener. May be called from any thread, including from
+     * a listener during a step.
+     *
+     * @param listener  the listener
+     */
+    void removeStepListener(StepListener listener);
+
     AIMResult produceResult();
 }
@@ -45,21 +45,27 @@ import aim4.map.lane.Lane;
 import aim4.map.merge.RoadNames;
 import aim4.msg.aim.i2v.I2VMessage;
 import aim4.msg.aim.v2i.V2IMessage;
+import aim4.sim.SimContext;
+import aim4.sim.metrics.PhaseTimer;
+import aim4.sim.metrics.SimCounter;
+import aim4.sim.metrics.StepPhase;
 import aim4.sim.results.AIMResult;
 import aim4.sim.results.AIMVehicleResult;
+import aim4.vehicle.LaneOccupancyIndex;
 import aim4.vehicle.VehicleSpec;
+import aim4.vehicle.VehicleSpatialIndex;
 import aim4.vehicle.VehicleSpecDatabase;
 import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.VinRegistry;
 import aim4.vehicle.aim.*;
 
 import java.awt.*;
-import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.*;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The autonomous drivers only simulator.
@@ -97,14 +103,46 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
         }
     }
 
+    /**
+     * Leaves out the vehicles that are already inside (partially or
+     * entirely) the intersection.
+     */
+    private static final LaneOccupancyIndex.LaneFilter<AIMVehicleSimModel>
+            OUTSIDE_INTERSECTION =
+            new LaneOccupancyIndex.LaneFilter<AIMVehicleSimModel>() {
+                @Override
+                public boolean accept(AIMVehicleSimModel vehicle, Lane lane) {
+                    // Find out what IntersectionManager is coming up for this vehicle
+                    IntersectionManager im =
+                            lane.getLaneIM().nextIntersectionManager(vehicle.getPosition());
+                    // Only include this Vehicle if it is not in the intersection.
+                    return lane.getLaneIM().distanceToNextIntersection(vehicle.getPosition())>0
+                            || im == null || !im.intersects(vehicle.getShape().getBounds2D());
+                }
+            };
+
     /////////////////////////////////
     // PRIVATE FIELDS
     /////////////////////////////////
 
+    /** The context the simulator was created in */
+    private final SimContext context = SimContext.current();
+    /** Times the phases of each step */
+    private final PhaseTimer phaseTimer = new PhaseTimer();
+    /** The listeners called at the start and the end of each step */
+    private final List<StepListener> stepListeners =
+            new CopyOnWriteArrayList<StepListener>();
     /** The map */
     private BasicIntersectionMap basicIntersectionMap;
     /** All active vehicles, in form of a map from VINs to vehicle objects. */
     private Map<Integer,AIMVehicleSimModel> vinToVehicles;
+    /** The bounding boxes of the active vehicles */
+    private VehicleSpatialIndex<AIMVehicleSimModel> vehicleIndex;
+    /** The vehicles on each lane, outside the intersections */
+    private LaneOccupancyIndex<AIMVehicleSimModel> laneIndex;
+    /** The vehicles found around a vehicle that is tracking others */
+    private final LaneOccupancyIndex.Neighbours<AIMVehicleSimModel> neighbours =
+            new LaneOccupancyIndex.Neighbours<AIMVehicleSimModel>();
     /** The current time */
     private double currentTime;
     /** The number of completed vehicles */
@@ -147,6 +185,9 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
         this.mergeMode = mergeMode;
         this.basicIntersectionMap = basicIntersectionMap;
         this.vinToVehicles = new HashMap<Integer,AIMVehicleSimModel>();
+        this.vehicleIndex = new VehicleSpatialIndex<AIMVehicleSimModel>();
+        this.laneIndex = new LaneOccupancyIndex<AIMVehicleSimModel>(
+                basicIntersectionMap.getRoads(), true);
         if(mergeMode) {
             Map<String, Double> fakeDelayTimes = new HashMap<String, Double>();
             for(int specID = 0; specID < VehicleSpecDatabase.getNumOfSpec(); specID++)
@@ -180,37 +221,64 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
      */
     @Override
     public synchronized AutoDriverOnlySimStepResult step(double timeStep) {
+        SimContext previous = context.enter();
+        try {
+            return runStep(timeStep);
+        } finally {
+            SimContext.restore(previous);
+        }
+    }
+
+    /**
+     * Move the simulator a time step forward with its context bound.
+     *
+     * @param timeStep  the time step
+     * @return the result of the step
+     */
+    private AutoDriverOnlySimStepResult runStep(double timeStep) {
         if (Debug.PRINT_SIMULATOR_STAGE) {
             System.err.printf("--------------------------------------\n");
             System.err.printf("------SIM:spawnVehicles---------------\n");
         }
+        phaseTimer.startStep(context.getMetrics());
+        for (StepListener listener : stepListeners) {
+            listener.stepStarting();
+        }
         spawnVehicles(timeStep);
+        phaseTimer.endPhase(StepPhase.SPAWN);
         if (Debug.PRINT_SIMULATOR_STAGE) {
             System.err.printf("------SIM:provideSensorInput---------------\n");
         }
         provideSensorInput();
+        phaseTimer.endPhase(StepPhase.SENSOR_INPUT);
         if (Debug.PRINT_SIMULATOR_STAGE) {
             System.err.printf("------SIM:letDriversAct---------------\n");
         }
         letDriversAct();
+        phaseTimer.endPhase(StepPhase.DRIVERS_ACT);
         if (Debug.PRINT_SIMULATOR_STAGE) {
             System.err.printf("------SIM:letIntersectionManagersAct--------------\n");
         }
         letIntersectionManagersAct(timeStep);
+        phaseTimer.endPhase(StepPhase.MANAGERS_ACT);
         if (Debug.PRINT_SIMULATOR_STAGE) {
             System.err.printf("------SIM:communication---------------\n");
         }
         communication();
+        phaseTimer.endPhase(StepPhase.COMMUNICATION);
         if (Debug.PRINT_SIMULATOR_STAGE) {
             System.err.printf("------SIM:moveVehicles---------------\n");
         }
         moveVehicles(timeStep);
+        phaseTimer.endPhase(StepPhase.MOVE);
         if (Debug.PRINT_SIMULATOR_STAGE) {
             System.err.printf("------SIM:cleanUpCompletedVehicles---------------\n");
         }
+        if (Debug.CHECK_FOR_COLLISIONS) {
+            checkForCollisions();
+        }
         List<AIMVehicleSimModel> completedVehicles = new ArrayList<AIMVehicleSimModel>();
         if(mergeMode) {
-            //checkForCollisions(); TODO: Fix collision prevention so that this can be run.
             completedVehicles = calculateCompletedVehicles();
         }
 
@@ -224,6 +292,11 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
         currentTime += timeStep;
         // debug
         checkClocks();
+        for (StepListener listener : stepListeners) {
+            listener.stepFinished();
+        }
+        phaseTimer.endPhase(StepPhase.CLEANUP);
+        phaseTimer.endStep(currentTime);
 
         return new AutoDriverOnlySimStepResult(completedVINs);
     }
@@ -234,6 +307,14 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
 
     // information retrieval
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SimContext getContext() {
+        return context;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -333,6 +414,23 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
         }
 
         vinToVehicles.put(vehicle.getVIN(), vehicle);
+        vehicleIndex.update(vehicle);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addStepListener(StepListener listener) {
+        stepListeners.add(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeStepListener(StepListener listener) {
+        stepListeners.remove(listener);
     }
 
 
@@ -358,6 +456,7 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
                         AIMVehicleSimModel vehicle = makeVehicle(spawnPoint, spawnSpec);
                         VinRegistry.registerVehicle(vehicle); // Get vehicle a VIN number
                         vinToVehicles.put(vehicle.getVIN(), vehicle);
+                        vehicleIndex.update(vehicle);
                         break; // only handle the first spawn vehicle
                         // TODO: need to fix this
                     }
@@ -374,15 +473,9 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
      * @return Whether the spawn point can spawn any vehicle
      */
     private boolean canSpawnVehicle(AIMSpawnPoint spawnPoint) {
-        // TODO: can be made much faster.
         assert spawnPoint.getNoVehicleZone() instanceof Rectangle2D;
         Rectangle2D noVehicleZone = (Rectangle2D) spawnPoint.getNoVehicleZone();
-        for(AIMVehicleSimModel vehicle : vinToVehicles.values()) {
-            if (vehicle.getShape().intersects(noVehicleZone)) {
-                return false;
-            }
-        }
-        return true;
+        return !vehicleIndex.anyShapeIntersects(noVehicleZone);
     }
 
     /**
@@ -431,92 +524,6 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
     // STEP 2
     /////////////////////////////////
 
-    /**
-     * Compute the lists of vehicles of all lanes.
-     *
-     * @return a mapping from lanes to lists of vehicles sorted by their
-     *         distance on their lanes
-     */
-    private Map<Lane,SortedMap<Double,AIMVehicleSimModel>> computeVehicleLists() {
-        // Set up the structure that will hold all the Vehicles as they are
-        // currently ordered in the Lanes
-        Map<Lane,SortedMap<Double,AIMVehicleSimModel>> vehicleLists =
-                new HashMap<Lane,SortedMap<Double,AIMVehicleSimModel>>();
-        for(Road road : basicIntersectionMap.getRoads()) {
-            for(Lane lane : road.getLanes()) {
-                vehicleLists.put(lane, new TreeMap<Double,AIMVehicleSimModel>());
-            }
-        }
-        // Now add each of the Vehicles, but make sure to exclude those that are
-        // already inside (partially or entirely) the intersection
-        for(AIMVehicleSimModel vehicle : vinToVehicles.values()) {
-            // Find out what lanes it is in.
-            Set<Lane> lanes = vehicle.getDriver().getCurrentlyOccupiedLanes();
-            for(Lane lane : lanes) {
-                // Find out what IntersectionManager is coming up for this vehicle
-                IntersectionManager im =
-                        lane.getLaneIM().nextIntersectionManager(vehicle.getPosition());
-                // Only include this Vehicle if it is not in the intersection.
-                if(lane.getLaneIM().distanceToNextIntersection(vehicle.getPosition())>0
-                        || im == null || !im.intersects(vehicle.getShape().getBounds2D())) {
-                    // Now find how far along the lane it is.
-                    double dst = lane.distanceAlongLane(vehicle.getPosition());
-                    // Now add it to the map.
-                    vehicleLists.get(lane).put(dst, vehicle);
-                }
-            }
-        }
-        // Now consolidate the lists based on lanes
-        for(Road road : basicIntersectionMap.getRoads()) {
-            for(Lane lane : road.getLanes()) {
-                // We may have already removed this Lane from the map
-                if(vehicleLists.containsKey(lane)) {
-                    Lane currLane = lane;
-                    // Now run through the lanes
-                    while(currLane.hasNextLane()) {
-                        currLane = currLane.getNextLane();
-                        // Put everything from the next lane into the original lane
-                        // and remove the mapping for the next lane
-                        vehicleLists.get(lane).putAll(vehicleLists.remove(currLane));
-                    }
-                }
-            }
-        }
-
-        return vehicleLists;
-    }
-
-    /**
-     * Compute the next vehicles of all vehicles.
-     *
-     * @param vehicleLists  a mapping from lanes to lists of vehicles sorted by
-     *                      their distance on their lanes
-     * @return a mapping from vehicles to next vehicles
-     */
-    private Map<AIMVehicleSimModel, AIMVehicleSimModel> computeNextVehicle(
-            Map<Lane,SortedMap<Double,AIMVehicleSimModel>> vehicleLists) {
-        // At this point we should only have mappings for start Lanes, and they
-        // should include all the Lanes they run into.  Now we need to turn this
-        // into a hash map that maps Vehicles to the next vehicle in the Lane
-        // or any Lane the Lane runs into
-        Map<AIMVehicleSimModel, AIMVehicleSimModel> nextVehicle =
-                new HashMap<AIMVehicleSimModel,AIMVehicleSimModel>();
-        // For each of the ordered lists of vehicles
-        for(SortedMap<Double,AIMVehicleSimModel> vehicleList : vehicleLists.values()) {
-            AIMVehicleSimModel lastVehicle = null;
-            // Go through the Vehicles in order of their position in the Lane
-            for(AIMVehicleSimModel currVehicle : vehicleList.values()) {
-                if(lastVehicle != null) {
-                    // Create the mapping from the previous Vehicle to the current one
-                    nextVehicle.put(lastVehicle,currVehicle);
-                }
-                lastVehicle = currVehicle;
-            }
-        }
-
-        return nextVehicle;
-    }
-
     /**
      * Provide each vehicle with sensor information to allow it to make
      * decisions.  This works first by making an ordered list for each Lane of
@@ -527,23 +534,17 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
      * state of its sensors, we provide it with the appropriate sensor input.
      */
     private void provideSensorInput() {
-        Map<Lane,SortedMap<Double,AIMVehicleSimModel>> vehicleLists =
-                computeVehicleLists();
-        Map<AIMVehicleSimModel, AIMVehicleSimModel> nextVehicle =
-                computeNextVehicle(vehicleLists);
+        laneIndex.update(vinToVehicles.values(), OUTSIDE_INTERSECTION);
 
-        provideIntervalInfo(nextVehicle);
-        provideVehicleTrackingInfo(vehicleLists);
+        provideIntervalInfo();
+        provideVehicleTrackingInfo();
         provideTrafficSignal();
     }
 
     /**
      * Provide sensing information to the intervalometers of all vehicles.
-     *
-     * @param nextVehicle  a mapping from vehicles to next vehicles
      */
-    private void provideIntervalInfo(
-            Map<AIMVehicleSimModel, AIMVehicleSimModel> nextVehicle) {
+    private void provideIntervalInfo() {
 
         // Now that we have this list set up, let's provide input to all the
         // Vehicles.
@@ -557,10 +558,11 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
                         // Find the interval to the next vehicle
                         double interval;
                         // If there is a next vehicle, then calculate it
-                        if(nextVehicle.containsKey(autoVehicle)) {
+                        AIMVehicleSimModel nextVehicle = laneIndex.getNextVehicle(autoVehicle);
+                        if(nextVehicle != null) {
                             // It's the distance from the front of this Vehicle to the point
                             // at the rear of the Vehicle in front of it
-                            interval = calcInterval(autoVehicle, nextVehicle.get(autoVehicle));
+                            interval = calcInterval(autoVehicle, nextVehicle);
                         } else { // Otherwise, just set it to the maximum possible value
                             interval = Double.MAX_VALUE;
                         }
@@ -587,12 +589,8 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
 
     /**
      * Provide tracking information to vehicles.
-     *
-     * @param vehicleLists  a mapping from lanes to lists of vehicles sorted by
-     *                      their distance on their lanes
      */
-    private void provideVehicleTrackingInfo(
-            Map<Lane, SortedMap<Double, AIMVehicleSimModel>> vehicleLists) {
+    private void provideVehicleTrackingInfo() {
         // Vehicle Tracking
         for(AIMVehicleSimModel vehicle: vinToVehicles.values()) {
             // If the vehicle is autonomous
@@ -605,32 +603,21 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
                     Point2D pos = autoVehicle.getPosition();
                     double dst = targetLane.distanceAlongLane(pos);
 
-                    // initialize the distances to infinity
+                    // only consider the vehicles on the target lane
+                    laneIndex.findNeighbours(targetLane, dst, neighbours);
+                    AIMVehicleSimModel frontVehicle = neighbours.getFrontVehicle();
+                    AIMVehicleSimModel rearVehicle = neighbours.getRearVehicle();
+
+                    // compute the distances, which are infinite if there is
+                    // no such vehicle
                     double frontDst = Double.MAX_VALUE;
                     double rearDst = Double.MAX_VALUE;
-                    AIMVehicleSimModel frontVehicle = null ;
-                    AIMVehicleSimModel rearVehicle = null ;
-
-                    // only consider the vehicles on the target lane
-                    SortedMap<Double,AIMVehicleSimModel> vehiclesOnTargetLane =
-                            vehicleLists.get(targetLane);
-
-                    // compute the distances and the corresponding vehicles
-                    try {
-                        double d = vehiclesOnTargetLane.tailMap(dst).firstKey();
-                        frontVehicle = vehiclesOnTargetLane.get(d);
-                        frontDst = (d-dst)-frontVehicle.getSpec().getLength();
-                    } catch(NoSuchElementException e) {
-                        frontDst = Double.MAX_VALUE;
-                        frontVehicle = null;
+                    if(frontVehicle != null) {
+                        frontDst = (neighbours.getFrontDistance()-dst)
+                                -frontVehicle.getSpec().getLength();
                     }
-                    try {
-                        double d = vehiclesOnTargetLane.headMap(dst).lastKey();
-                        rearVehicle = vehiclesOnTargetLane.get(d);
-                        rearDst = dst-d;
-                    } catch(NoSuchElementException e) {
-                        rearDst = Double.MAX_VALUE;
-                        rearVehicle = null;
+                    if(rearVehicle != null) {
+                        rearDst = dst-neighbours.getRearDistance();
                     }
 
                     // assign the sensor readings
@@ -692,20 +679,7 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
                                 AIMVehicleSimModel nextVehicle) {
         // From Chiu: Kurt, if you think this function is not okay, probably
         // we should talk to see what to do.
-        Point2D pos = vehicle.getPosition();
-        if(nextVehicle.getShape().contains(pos)) {
-            return 0.0;
-        } else {
-            // TODO: make it more efficient
-            double interval = Double.MAX_VALUE ;
-            for(Line2D edge : nextVehicle.getEdges()) {
-                double dst = edge.ptSegDist(pos);
-                if(dst < interval){
-                    interval = dst;
-                }
-            }
-            return interval;
-        }
+        return VehicleUtil.distanceToVehicle(nextVehicle, vehicle.getPosition());
     }
     // Kurt's code:
     // interval = vehicle.getPosition().
@@ -792,6 +766,8 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
      * Deliver the V2I messages.
      */
     private void deliverV2IMessages() {
+        int delivered = 0;
+        int dropped = 0;
         // Go through each vehicle and deliver each of its messages
         for(AIMVehicleSimModel vehicle : vinToVehicles.values()) {
             // Start with V2I messages
@@ -811,17 +787,23 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
                         // Actually deliver the message
                         receiver.receive(msg);
                         // Add the delivery to the debugging information
+                        delivered++;
+                    } else {
+                        dropped++;
                     }
                     // Either way, we increment the number of transmitted messages
                 }
             }
         }
+        countMessages(delivered, dropped);
     }
 
     /**
      * Deliver the I2V messages.
      */
     private void deliverI2VMessages() {
+        int delivered = 0;
+        int dropped = 0;
         // Now deliver all the I2V messages
         for(IntersectionManager im : basicIntersectionMap.getIntersectionManagers()) {
             V2IManager senderIM = (V2IManager)im;
@@ -831,6 +813,11 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
                 AIMAutoVehicleSimModel vehicle =
                         (AIMAutoVehicleSimModel)VinRegistry.getVehicleFromVIN(
                                 msg.getVin());
+                if(vehicle == null) {
+                    // the vehicle has left the map
+                    dropped++;
+                    continue;
+                }
                 // Calculate the distance the message must travel
                 double txDistance =
                         senderIM.getIntersection().getCentroid().distance(
@@ -839,12 +826,29 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
                 if(transmit(txDistance, senderIM.getTransmissionPower())) {
                     // Actually deliver the message
                     vehicle.receive(msg);
+                    delivered++;
+                } else {
+                    dropped++;
                 }
             }
             // Done delivering the IntersectionManager's messages, so clear the
             // outbox.
             senderIM.clearOutbox();
         }
+        countMessages(delivered, dropped);
+    }
+
+    /**
+     * Report the messages delivered and dropped to the metrics registry.
+     *
+     * @param delivered  the number of messages delivered
+     * @param dropped    the number of messages dropped
+     */
+    private void countMessages(int delivered, int dropped) {
+        if (context.getMetrics().isEnabled()) {
+            context.getMetrics().increment(SimCounter.MESSAGES_DELIVERED, delivered);
+            context.getMetrics().increment(SimCounter.MESSAGES_DROPPED, dropped);
+        }
     }
 
 //  private void deliverV2VMessages() {
@@ -947,6 +951,7 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
         for(AIMVehicleSimModel vehicle : vinToVehicles.values()) {
             Point2D p1 = vehicle.getPosition();
             vehicle.move(timeStep);
+            vehicleIndex.update(vehicle);
             Point2D p2 = vehicle.getPosition();
             for(DataCollectionLine line : basicIntersectionMap.getDataCollectionLines()) {
                 line.intersect(vehicle, currentTime, p1, p2);
@@ -958,21 +963,15 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
     }
 
     /**
-     * Detects collisions. Currently not used because vehicles collide - Go figure.
+     * Detects collisions. Only run when {@link Debug#CHECK_FOR_COLLISIONS} is
+     * set, because vehicles collide - Go figure.
      */
     private void checkForCollisions() {
-        Integer[] keys = vinToVehicles.keySet().toArray(new Integer[]{});
-        for(int i = 0; i < keys.length - 1; i++) { //-1 because we won't compare the last element with anything.
-            Integer[] keysToCompare = Arrays.copyOfRange(keys, i + 1, keys.length);
-            AIMVehicleSimModel vehicle1 = vinToVehicles.get(keys[i]);
-            for(int j = 0; j < keysToCompare.length; j++) {
-                AIMVehicleSimModel vehicle2 = vinToVehicles.get(keysToCompare[j]);
-                if(VehicleUtil.collision(vehicle1, vehicle2)) {
-                    throw new RuntimeException(String.format("There was a collision between vehicles %d and %d",
-                            vehicle1.getVIN(),
-                            vehicle2.getVIN()));
-                }
-            }
+        List<List<AIMVehicleSimModel>> collisions = vehicleIndex.findCollisions();
+        if(!collisions.isEmpty()) {
+            throw new RuntimeException(String.format("There was a collision between vehicles %d and %d",
+                    collisions.get(0).get(0).getVIN(),
+                    collisions.get(0).get(1).getVIN()));
         }
     }
 
@@ -996,7 +995,7 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
             AIMVehicleSimModel v = vinToVehicles.get(vin);
             // If the vehicle is no longer in the layout
             // TODO: this should be replaced with destination zone.
-            if(!v.getShape().intersects(mapBoundary)) {
+            if(vehicleIndex.isOutside(v, mapBoundary)) {
                 // Process all the things we need to from this vehicle
                 if (v instanceof AIMAutoVehicleSimModel) {
                     AIMAutoVehicleSimModel v2 = (AIMAutoVehicleSimModel)v;
@@ -1008,7 +1007,8 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
         }
         // Remove the marked vehicles
         for(int vin : removedVINs) {
-            vinToVehicles.remove(vin);
+            vehicleIndex.remove(vinToVehicles.remove(vin));
+            VinRegistry.unregisterVehicle(vin);
             completedVINs.add(vin);
             numOfCompletedVehicles++;
         }
@@ -1022,7 +1022,7 @@ public class AutoDriverOnlySimulator implements AIMSimulator {
 
         Rectangle2D mapBoundary = basicIntersectionMap.getDimensions();
         for(int vin : vinToVehicles.keySet()) {
-            if(!vinToVehicles.get(vin).getShape().intersects(mapBoundary))
+            if(vehicleIndex.isOutside(vinToVehicles.get(vin), mapBoundary))
                 completedVehicles.add(vinToVehicles.get(vin));
         }
 
@@ -4,23 +4,27 @@ import aim4.config.Debug;
 import aim4.config.DebugPoint;
 import aim4.driver.cpm.CPMV2VDriver;
 import aim4.map.DataCollectionLine;
-import aim4.map.Road;
 import aim4.map.cpm.*;
 import aim4.map.cpm.CPMSpawnPoint.CPMSpawnSpec;
 import aim4.map.cpm.parking.ParkingLane;
 import aim4.map.cpm.parking.SensoredLine;
 import aim4.map.cpm.parking.StatusMonitor;
 import aim4.map.lane.Lane;
+import aim4.sim.SimContext;
+import aim4.sim.metrics.PhaseTimer;
+import aim4.sim.metrics.StepPhase;
 import aim4.sim.Simulator;
 import aim4.sim.results.SimulatorResult;
 import aim4.vehicle.VehicleSimModel;
+import aim4.vehicle.LaneOccupancyIndex;
+import aim4.vehicle.VehicleSpatialIndex;
 import aim4.vehicle.VehicleSpec;
+import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.VinRegistry;
 import aim4.vehicle.cpm.CPMBasicAutoVehicle;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
 import java.awt.*;
-import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.*;
@@ -68,10 +72,24 @@ public class CPMAutoDriverSimulator implements Simulator {
     // PRIVATE FIELDS
     /////////////////////////////////
 
+    /** The context the simulator was created in */
+    private final SimContext context = SimContext.current();
+    /** Times the phases of each step */
+    private final PhaseTimer phaseTimer = new PhaseTimer();
     /** The map */
     protected CPMBasicMap map;
     /** All active vehicles, in form of a map from VINs to vehicle objects. */
     protected Map<Integer,CPMBasicAutoVehicle> vinToVehicles;
+    /** The bounding boxes of the active vehicles */
+    protected VehicleSpatialIndex<CPMBasicAutoVehicle> vehicleIndex;
+    /** The vehicles on each lane */
+    protected LaneOccupancyIndex<CPMBasicAutoVehicle> laneIndex;
+    /** The vehicles found around a vehicle that is tracking others */
+    private final LaneOccupancyIndex.Neighbours<CPMBasicAutoVehicle> neighbours =
+            new LaneOccupancyIndex.Neighbours<CPMBasicAutoVehicle>();
+    /** The vehicles on each parking lane, reused by every step */
+    private final Map<Lane, List<CPMBasicAutoVehicle>> vehiclesOnParkingLanes =
+            new HashMap<Lane, List<CPMBasicAutoVehicle>>();
     /** The current time */
     protected double currentTime;
     /** The number of completed vehicles */
@@ -86,6 +104,8 @@ public class CPMAutoDriverSimulator implements Simulator {
     public CPMAutoDriverSimulator(CPMBasicMap map){
         this.map = map;
         this.vinToVehicles = new HashMap<Integer,CPMBasicAutoVehicle>();
+        this.vehicleIndex = new VehicleSpatialIndex<CPMBasicAutoVehicle>();
+        this.laneIndex = new LaneOccupancyIndex<CPMBasicAutoVehicle>(map.getRoads(), true);
         this.parkedVehicles = new ArrayList<CPMBasicAutoVehicle>();
 
         currentTime = 0.0;
@@ -98,15 +118,37 @@ public class CPMAutoDriverSimulator implements Simulator {
 
     @Override
     public SimStepResult step(double timeStep) {
+        SimContext previous = context.enter();
+        try {
+            return runStep(timeStep);
+        } finally {
+            SimContext.restore(previous);
+        }
+    }
+
+    /**
+     * Move the simulator a time step forward with its context bound.
+     *
+     * @param timeStep  the time step
+     * @return the result of the step
+     */
+    private SimStepResult runStep(double timeStep) {
+        phaseTimer.startStep(context.getMetrics());
         spawnVehicles(timeStep);
+        phaseTimer.endPhase(StepPhase.SPAWN);
         provideSensorInput();
         findNextVehicles();
+        phaseTimer.endPhase(StepPhase.SENSOR_INPUT);
         letDriversAct();
+        phaseTimer.endPhase(StepPhase.DRIVERS_ACT);
         moveVehicles(timeStep);
+        phaseTimer.endPhase(StepPhase.MOVE);
         observeParkedVehicles();
         observeNumberOfVehiclesInCarPark();
         List<CPMBasicAutoVehicle> completedVehicles = cleanUpCompletedVehicles();
         currentTime += timeStep;
+        phaseTimer.endPhase(StepPhase.CLEANUP);
+        phaseTimer.endStep(currentTime);
         return new CPMAutoDriverSimStepResult(completedVehicles);
     }
 
@@ -136,6 +178,7 @@ public class CPMAutoDriverSimulator implements Simulator {
                             CPMBasicAutoVehicle vehicle = makeVehicle(spawnPoint, spawnSpec);
                             VinRegistry.registerVehicle(vehicle); // Get vehicle a VIN number
                             vinToVehicles.put(vehicle.getVIN(), vehicle);
+                            vehicleIndex.update(vehicle);
                             map.addVehicleToMap(vehicle);
                             break; // only handle the first spawn vehicle
                         } else {
@@ -154,15 +197,9 @@ public class CPMAutoDriverSimulator implements Simulator {
      * @return Whether the spawn point can spawn a vehicle
      */
     protected boolean canSpawnVehicle(CPMSpawnPoint spawnPoint) {
-        // TODO: can be made much faster.
         assert spawnPoint.getNoVehicleZone() instanceof Rectangle2D;
         Rectangle2D noVehicleZone = (Rectangle2D) spawnPoint.getNoVehicleZone();
-        for(CPMBasicAutoVehicle vehicle : vinToVehicles.values()) {
-            if (vehicle.getShape().intersects(noVehicleZone)) {
-                return false;
-            }
-        }
-        return true;
+        return !vehicleIndex.anyShapeIntersects(noVehicleZone);
     }
 
     /**
@@ -217,101 +254,18 @@ public class CPMAutoDriverSimulator implements Simulator {
      * state of its sensors, we provide it with the appropriate sensor input.
      */
     protected void provideSensorInput() {
-        Map<Lane,SortedMap<Double,CPMBasicAutoVehicle>> vehicleLists =
-                computeVehicleLists();
-        Map<CPMBasicAutoVehicle, CPMBasicAutoVehicle> nextVehicle =
-                computeNextVehicle(vehicleLists);
-
-        provideIntervalInfo(nextVehicle);
-        provideVehicleTrackingInfo(vehicleLists);
-    }
-
-    /**
-     * Compute the lists of vehicles of all lanes.
-     *
-     * @return a mapping from lanes to lists of vehicles sorted by their
-     *         distance on their lanes
-     */
-    private Map<Lane,SortedMap<Double,CPMBasicAutoVehicle>> computeVehicleLists() {
-        // Set up the structure that will hold all the Vehicles as they are
-        // currently ordered in the Lanes
-        Map<Lane,SortedMap<Double,CPMBasicAutoVehicle>> vehicleLists =
-                new HashMap<Lane,SortedMap<Double,CPMBasicAutoVehicle>>();
-        for(Road road : map.getRoads()) {
-            for(Lane lane : road.getLanes()) {
-                vehicleLists.put(lane, new TreeMap<Double,CPMBasicAutoVehicle>());
-            }
-        }
-        // Now add each of the Vehicles, but make sure to exclude those that are
-        // already inside (partially or entirely) the intersection
-        for(CPMBasicAutoVehicle vehicle : vinToVehicles.values()) {
-            // Find out what lanes it is in.
-            Set<Lane> lanes = vehicle.getDriver().getCurrentlyOccupiedLanes();
-            for(Lane lane : lanes) {
-                // Now find how far along the lane it is.
-                double dst = lane.distanceAlongLane(vehicle.getPosition());
-                // Now add it to the map.
-                vehicleLists.get(lane).put(dst, vehicle);
-            }
-        }
-        // Now consolidate the lists based on lanes
-        for(Road road : map.getRoads()) {
-            for(Lane lane : road.getLanes()) {
-                // We may have already removed this Lane from the map
-                if(vehicleLists.containsKey(lane)) {
-                    Lane currLane = lane;
-                    // Now run through the lanes
-                    while(currLane.hasNextLane()) {
-                        currLane = currLane.getNextLane();
-                        // Put everything from the next lane into the original lane
-                        // and remove the mapping for the next lane
-                        vehicleLists.get(lane).putAll(vehicleLists.remove(currLane));
-                    }
-                }
-            }
-        }
+        // pick up any roads added to the map since the last step
+        laneIndex.setRoads(map.getRoads());
+        laneIndex.update(vinToVehicles.values());
 
-        return vehicleLists;
-    }
-
-    /**
-     * Compute the next vehicles of all vehicles.
-     *
-     * @param vehicleLists  a mapping from lanes to lists of vehicles sorted by
-     *                      their distance on their lanes
-     * @return a mapping from vehicles to next vehicles
-     */
-    private Map<CPMBasicAutoVehicle, CPMBasicAutoVehicle> computeNextVehicle(
-            Map<Lane,SortedMap<Double,CPMBasicAutoVehicle>> vehicleLists) {
-        // At this point we should only have mappings for start Lanes, and they
-        // should include all the Lanes they run into.  Now we need to turn this
-        // into a hash map that maps Vehicles to the next vehicle in the Lane
-        // or any Lane the Lane runs into
-        Map<CPMBasicAutoVehicle, CPMBasicAutoVehicle> nextVehicle =
-                new HashMap<CPMBasicAutoVehicle,CPMBasicAutoVehicle>();
-        // For each of the ordered lists of vehicles
-        for(SortedMap<Double,CPMBasicAutoVehicle> vehicleList : vehicleLists.values()) {
-            CPMBasicAutoVehicle lastVehicle = null;
-            // Go through the Vehicles in order of their position in the Lane
-            for(CPMBasicAutoVehicle currVehicle : vehicleList.values()) {
-                if(lastVehicle != null) {
-                    // Create the mapping from the previous Vehicle to the current one
-                    nextVehicle.put(lastVehicle,currVehicle);
-                }
-                lastVehicle = currVehicle;
-            }
-        }
-
-        return nextVehicle;
+        provideIntervalInfo();
+        provideVehicleTrackingInfo();
     }
 
     /**
      * Provide sensing information to the intervalometers of all vehicles.
-     *
-     * @param nextVehicle  a mapping from vehicles to next vehicles
      */
-    private void provideIntervalInfo(
-            Map<CPMBasicAutoVehicle, CPMBasicAutoVehicle> nextVehicle) {
+    private void provideIntervalInfo() {
 
         // Now that we have this list set up, let's provide input to all the
         // Vehicles.
@@ -323,10 +277,11 @@ public class CPMAutoDriverSimulator implements Simulator {
                         // Find the interval to the next vehicle
                         double interval;
                         // If there is a next vehicle, then calculate it
-                        if(nextVehicle.containsKey(vehicle)) {
+                        CPMBasicAutoVehicle nextVehicle = laneIndex.getNextVehicle(vehicle);
+                        if(nextVehicle != null) {
                             // It's the distance from the front of this Vehicle to the point
                             // at the rear of the Vehicle in front of it
-                            interval = calcInterval(vehicle, nextVehicle.get(vehicle));
+                            interval = calcInterval(vehicle, nextVehicle);
                         } else { // Otherwise, just set it to the maximum possible value
                             interval = Double.MAX_VALUE;
                         }
@@ -362,30 +317,13 @@ public class CPMAutoDriverSimulator implements Simulator {
                                 CPMBasicAutoVehicle nextVehicle) {
         // From Chiu: Kurt, if you think this function is not okay, probably
         // we should talk to see what to do.
-        Point2D pos = vehicle.getPosition();
-        if(nextVehicle.getShape().contains(pos)) {
-            return 0.0;
-        } else {
-            // TODO: make it more efficient
-            double interval = Double.MAX_VALUE ;
-            for(Line2D edge : nextVehicle.getEdges()) {
-                double dst = edge.ptSegDist(pos);
-                if(dst < interval){
-                    interval = dst;
-                }
-            }
-            return interval;
-        }
+        return VehicleUtil.distanceToVehicle(nextVehicle, vehicle.getPosition());
     }
 
     /**
      * Provide tracking information to vehicles.
-     *
-     * @param vehicleLists  a mapping from lanes to lists of vehicles sorted by
-     *                      their distance on their lanes
      */
-    private void provideVehicleTrackingInfo(
-            Map<Lane, SortedMap<Double, CPMBasicAutoVehicle>> vehicleLists) {
+    private void provideVehicleTrackingInfo() {
         // Vehicle Tracking
         for(CPMBasicAutoVehicle vehicle: vinToVehicles.values()) {
             // If the vehicle is autonomous
@@ -398,32 +336,21 @@ public class CPMAutoDriverSimulator implements Simulator {
                     Point2D pos = autoVehicle.getPosition();
                     double dst = targetLane.distanceAlongLane(pos);
 
-                    // initialize the distances to infinity
+                    // only consider the vehicles on the target lane
+                    laneIndex.findNeighbours(targetLane, dst, neighbours);
+                    CPMBasicAutoVehicle frontVehicle = neighbours.getFrontVehicle();
+                    CPMBasicAutoVehicle rearVehicle = neighbours.getRearVehicle();
+
+                    // compute the distances, which are infinite if there is
+                    // no such vehicle
                     double frontDst = Double.MAX_VALUE;
                     double rearDst = Double.MAX_VALUE;
-                    CPMBasicAutoVehicle frontVehicle = null ;
-                    CPMBasicAutoVehicle rearVehicle = null ;
-
-                    // only consider the vehicles on the target lane
-                    SortedMap<Double,CPMBasicAutoVehicle> vehiclesOnTargetLane =
-                            vehicleLists.get(targetLane);
-
-                    // compute the distances and the corresponding vehicles
-                    try {
-                        double d = vehiclesOnTargetLane.tailMap(dst).firstKey();
-                        frontVehicle = vehiclesOnTargetLane.get(d);
-                        frontDst = (d-dst)-frontVehicle.getSpec().getLength();
-                    } catch(NoSuchElementException e) {
-                        frontDst = Double.MAX_VALUE;
-                        frontVehicle = null;
+                    if(frontVehicle != null) {
+                        frontDst = (neighbours.getFrontDistance()-dst)
+                                -frontVehicle.getSpec().getLength();
                     }
-                    try {
-                        double d = vehiclesOnTargetLane.headMap(dst).lastKey();
-                        rearVehicle = vehiclesOnTargetLane.get(d);
-                        rearDst = dst-d;
-                    } catch(NoSuchElementException e) {
-                        rearDst = Double.MAX_VALUE;
-                        rearVehicle = null;
+                    if(rearVehicle != null) {
+                        rearDst = dst-neighbours.getRearDistance();
                     }
 
                     // assign the sensor readings
@@ -465,14 +392,72 @@ public class CPMAutoDriverSimulator implements Simulator {
     // STEP 3
     /////////////////////////////////
 
+    /**
+     * Orders vehicles by the x-position of their position.
+     */
+    private static final Comparator<CPMBasicAutoVehicle> X_POSITION_ORDER =
+            new Comparator<CPMBasicAutoVehicle>() {
+        @Override
+        public int compare(CPMBasicAutoVehicle v1, CPMBasicAutoVehicle v2) {
+            return Double.compare(v1.getPosition().getX(),
+                                  v2.getPosition().getX());
+        }
+    };
+
     /**
      * Find the vehicle that is directly in front of each vehicle.
      * Ideally, would like to use sensors, but lack of time and
      * current understanding of LRF means we need a workaround.
+     * The vehicles are put in a list for each parking lane and sorted by
+     * x-position, so each vehicle's one is the next along its list. This
+     * gives the same vehicles as {@link #getVehicleInFront}.
      */
     protected void findNextVehicles() {
-        for (CPMBasicAutoVehicle vehicle : map.getVehicles()){
-            vehicle.setVehicleInFront(getVehicleInFront(vehicle, map));
+        for (List<CPMBasicAutoVehicle> vehicles : vehiclesOnParkingLanes.values()) {
+            vehicles.clear();
+        }
+        for (CPMBasicAutoVehicle vehicle : map.getVehicles()) {
+            Lane lane = vehicle.getDriver().getCurrentLane();
+            if (lane instanceof ParkingLane) {
+                List<CPMBasicAutoVehicle> vehicles = vehiclesOnParkingLanes.get(lane);
+                if (vehicles == null) {
+                    vehicles = new ArrayList<CPMBasicAutoVehicle>();
+                    vehiclesOnParkingLanes.put(lane, vehicles);
+                }
+                vehicles.add(vehicle);
+            } else {
+                vehicle.setVehicleInFront(null);
+            }
+        }
+
+        Iterator<List<CPMBasicAutoVehicle>> it =
+                vehiclesOnParkingLanes.values().iterator();
+        while (it.hasNext()) {
+            List<CPMBasicAutoVehicle> vehicles = it.next();
+            if (vehicles.isEmpty()) {
+                // forget lanes nobody is on, e.g. of roads which have gone
+                it.remove();
+                continue;
+            }
+            // stable, so of vehicles level with each other the first in the
+            // map's list is the one in front, as in getVehicleInFront
+            Collections.sort(vehicles, X_POSITION_ORDER);
+            CPMBasicAutoVehicle vehicleInFront = null;
+            int i = vehicles.size() - 1;
+            while (i >= 0) {
+                // vehicles level with each other are not in front of each other
+                double x = vehicles.get(i).getPosition().getX();
+                int firstLevel = i;
+                while (firstLevel > 0 &&
+                        vehicles.get(firstLevel - 1).getPosition().getX() == x) {
+                    firstLevel--;
+                }
+                for (int j = firstLevel; j <= i; j++) {
+                    vehicles.get(j).setVehicleInFront(vehicleInFront);
+                }
+                vehicleInFront = vehicles.get(firstLevel);
+                i = firstLevel - 1;
+            }
         }
     }
 
@@ -540,6 +525,7 @@ public class CPMAutoDriverSimulator implements Simulator {
         for(CPMBasicAutoVehicle vehicle : vinToVehicles.values()) {
             Point2D p1 = vehicle.getPosition();
             vehicle.move(timeStep);
+            vehicleIndex.update(vehicle);
             Point2D p2 = vehicle.getPosition();
 
             CPMMapUtil.checkVehicleStillOnMap(map, p2, vehicle.getDriver().getCurrentLane());
@@ -626,7 +612,7 @@ public class CPMAutoDriverSimulator implements Simulator {
         for(int vin : vinToVehicles.keySet()) {
             CPMBasicAutoVehicle vehicle = vinToVehicles.get(vin);
             // If the vehicle is no longer in the layout
-            if(!vehicle.getShape().intersects(mapBoundary)) {
+            if(vehicleIndex.isOutside(vehicle, mapBoundary)) {
                 // Process anything we need to from this vehicle
                 // TODO CPM Do we need to get anything? Maybe distance travelled
                 map.removeCompletedVehicle(vehicle);
@@ -636,13 +622,19 @@ public class CPMAutoDriverSimulator implements Simulator {
         // Remove the marked vehicles
         for(int vin : removedVINs) {
             completedVehicles.add(vinToVehicles.get(vin));
-            vinToVehicles.remove(vin);
+            vehicleIndex.remove(vinToVehicles.remove(vin));
+            VinRegistry.unregisterVehicle(vin);
             numOfCompletedVehicles++;
         }
         return completedVehicles;
     }
 
 
+    @Override
+    public SimContext getContext() {
+        return context;
+    }
+
     @Override
     public CPMMap getMap() {
         return map;
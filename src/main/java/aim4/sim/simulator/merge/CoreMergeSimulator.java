@@ -1,14 +1,19 @@
 package aim4.sim.simulator.merge;
 
+import aim4.config.Debug;
 import aim4.map.DataCollectionLine;
 import aim4.map.merge.MergeMap;
 import aim4.map.merge.RoadNames;
+import aim4.sim.SimContext;
+import aim4.sim.metrics.PhaseTimer;
+import aim4.sim.metrics.StepPhase;
 import aim4.sim.results.CoreMergeResult;
 import aim4.sim.results.CoreMergeVehicleResult;
 import aim4.sim.setup.merge.enums.ProtocolType;
 import aim4.sim.simulator.merge.helper.SensorInputHelper;
 import aim4.sim.simulator.merge.helper.SpawnHelper;
-import aim4.vehicle.VehicleUtil;
+import aim4.vehicle.VehicleSpatialIndex;
+import aim4.vehicle.VinRegistry;
 import aim4.vehicle.merge.MergeVehicleSimModel;
 
 import java.awt.geom.Point2D;
@@ -31,10 +36,14 @@ public class CoreMergeSimulator implements MergeSimulator {
     }
 
     //PROPERTIES//
+    /*The context the simulator was created in*/
+    private final SimContext context = SimContext.current();
     /*The map for the simulation*/
     private MergeMap map;
     /* All active vehicles, in form of a map from VINs to vehicle objects. */
     private Map<Integer, MergeVehicleSimModel> vinToVehicles;
+    /**The bounding boxes of the active vehicles**/
+    private VehicleSpatialIndex<MergeVehicleSimModel> vehicleIndex;
     /* The current time */
     private double currentTime;
     /* The number of vehicles that passed through the merge zone */
@@ -50,6 +59,7 @@ public class CoreMergeSimulator implements MergeSimulator {
     //HELPERS//
     SpawnHelper spawnHelper;
     SensorInputHelper sensorInputHelper;
+    PhaseTimer phaseTimer = new PhaseTimer();
 
     //PUBLIC METHODS//
     public CoreMergeSimulator(MergeMap map, ProtocolType protocolType){
@@ -63,12 +73,13 @@ public class CoreMergeSimulator implements MergeSimulator {
         this.map = map;
         this.protocolType = protocolType;
         this.vinToVehicles = new HashMap<Integer, MergeVehicleSimModel>();
+        this.vehicleIndex = new VehicleSpatialIndex<MergeVehicleSimModel>();
         this.vehiclesRecord = new ArrayList<CoreMergeVehicleResult>();
 
         currentTime = 0.0;
         numberOfCompletedVehicles = 0;
 
-        this.spawnHelper = new SpawnHelper(map, vinToVehicles);
+        this.spawnHelper = new SpawnHelper(map, vinToVehicles, vehicleIndex);
         this.sensorInputHelper = new SensorInputHelper(map, vinToVehicles);
         this.specToExpectedTimeMergeLane = specToExpectedTimeMergeLane;
         this.specToExpectedTimeTargetLane = specToExpectedTimeTargetLane;
@@ -76,21 +87,50 @@ public class CoreMergeSimulator implements MergeSimulator {
 
     @Override
     public synchronized CoreMergeSimStepResult step(double timeStep) {
+        SimContext previous = context.enter();
+        try {
+            return runStep(timeStep);
+        } finally {
+            SimContext.restore(previous);
+        }
+    }
+
+    /**
+     * Move the simulator a time step forward. Called by {@link #step(double)}
+     * with the simulator's context bound.
+     *
+     * @param timeStep the time step
+     * @return the result of the step
+     */
+    protected CoreMergeSimStepResult runStep(double timeStep) {
+        phaseTimer.startStep(context.getMetrics());
         spawnHelper.spawnVehicles(timeStep, protocolType);
+        phaseTimer.endPhase(StepPhase.SPAWN);
         sensorInputHelper.provideSensorInput();
+        phaseTimer.endPhase(StepPhase.SENSOR_INPUT);
         letDriversAct();
+        phaseTimer.endPhase(StepPhase.DRIVERS_ACT);
         moveVehicles(timeStep);
-        //checkForCollisions(); TODO: Fix collision prevention so that this can be run.
+        phaseTimer.endPhase(StepPhase.MOVE);
+        if(Debug.CHECK_FOR_COLLISIONS)
+            checkForCollisions();
 
         Map<Integer, MergeVehicleSimModel> completedVehicles = cleanUpCompletedVehicles();
         provideCompletedVehiclesWithResultsInfo(completedVehicles);
         recordCompletedVehicles(completedVehicles);
         updateMaxMinVelocities();
         incrementCurrentTime(timeStep);
+        phaseTimer.endPhase(StepPhase.CLEANUP);
+        phaseTimer.endStep(getSimulationTime());
 
         return new CoreMergeSimStepResult(completedVehicles);
     }
 
+    @Override
+    public SimContext getContext() {
+        return context;
+    }
+
     @Override
     public MergeMap getMap() {
         return map;
@@ -141,6 +181,7 @@ public class CoreMergeSimulator implements MergeSimulator {
         for(MergeVehicleSimModel vehicle : vinToVehicles.values()) {
             Point2D p1 = vehicle.getPosition();
             vehicle.move(timestep);
+            vehicleIndex.update(vehicle);
             Point2D p2 = vehicle.getPosition();
             for(DataCollectionLine line : map.getDataCollectionLines()){
                 line.intersect(vehicle, currentTime, p1, p2);
@@ -157,12 +198,14 @@ public class CoreMergeSimulator implements MergeSimulator {
         List<MergeVehicleSimModel> removedVehicles = new ArrayList<MergeVehicleSimModel>(vinToVehicles.size());
         for(int vin : vinToVehicles.keySet()) {
             MergeVehicleSimModel v = vinToVehicles.get(vin);
-            if(!v.getShape().intersects(mapBoundary)){
+            if(vehicleIndex.isOutside(v, mapBoundary)){
                 removedVehicles.add(v);
             }
         }
         for(MergeVehicleSimModel vehicle : removedVehicles) {
             vinToVehicles.remove(vehicle.getVIN());
+            vehicleIndex.remove(vehicle);
+            VinRegistry.unregisterVehicle(vehicle.getVIN());
             completedVehicles.put(vehicle.getVIN(), vehicle);
             numberOfCompletedVehicles++;
         }
@@ -172,21 +215,15 @@ public class CoreMergeSimulator implements MergeSimulator {
 
     //CHECKS//
     /**
-     * Detects collisions. Currently not used because vehicles collide - Go figure.
+     * Detects collisions. Only run when {@link Debug#CHECK_FOR_COLLISIONS} is set, because vehicles collide - Go
+     * figure.
      */
     protected void checkForCollisions() {
-        Integer[] keys = vinToVehicles.keySet().toArray(new Integer[]{});
-        for(int i = 0; i < keys.length - 1; i++) { //-1 because we won't compare the last element with anything.
-            Integer[] keysToCompare = Arrays.copyOfRange(keys, i + 1, keys.length);
-            MergeVehicleSimModel vehicle1 = vinToVehicles.get(keys[i]);
-            for(int j = 0; j < keysToCompare.length; j++) {
-                MergeVehicleSimModel vehicle2 = vinToVehicles.get(keysToCompare[j]);
-                if(VehicleUtil.collision(vehicle1, vehicle2)) {
-                    throw new RuntimeException(String.format("There was a collision between vehicles %d and %d",
-                            vehicle1.getVIN(),
-                            vehicle2.getVIN()));
-                }
-            }
+        List<List<MergeVehicleSimModel>> collisions = vehicleIndex.findCollisions();
+        if(!collisions.isEmpty()) {
+            throw new RuntimeException(String.format("There was a collision between vehicles %d and %d",
+                    collisions.get(0).get(0).getVIN(),
+                    collisions.get(0).get(1).getVIN()));
         }
     }
 
@@ -1,10 +1,13 @@
 package aim4.sim.simulator.merge;
 
+import aim4.config.Debug;
 import aim4.im.merge.MergeManager;
 import aim4.im.merge.V2IEnabledMergeManager;
 import aim4.map.merge.MergeMap;
 import aim4.msg.merge.i2v.I2VMergeMessage;
 import aim4.msg.merge.v2i.V2IMergeMessage;
+import aim4.sim.metrics.SimCounter;
+import aim4.sim.metrics.StepPhase;
 import aim4.sim.setup.merge.enums.ProtocolType;
 import aim4.vehicle.VinRegistry;
 import aim4.vehicle.merge.MergeV2IAutoVehicleSimModel;
@@ -33,20 +36,30 @@ public class V2IMergeSimulator extends CoreMergeSimulator {
 
     // ACTION //
     @Override
-    public synchronized CoreMergeSimStepResult step(double timeStep) {
+    protected CoreMergeSimStepResult runStep(double timeStep) {
+        phaseTimer.startStep(getContext().getMetrics());
         spawnHelper.spawnVehicles(timeStep, protocolType);
+        phaseTimer.endPhase(StepPhase.SPAWN);
         sensorInputHelper.provideSensorInput();
+        phaseTimer.endPhase(StepPhase.SENSOR_INPUT);
         letDriversAct();
+        phaseTimer.endPhase(StepPhase.DRIVERS_ACT);
         letMergeManagersAct(timeStep);
+        phaseTimer.endPhase(StepPhase.MANAGERS_ACT);
         communication();
+        phaseTimer.endPhase(StepPhase.COMMUNICATION);
         moveVehicles(timeStep);
-        //checkForCollisions(); TODO: Fix collision prevention so that this can be run.
+        phaseTimer.endPhase(StepPhase.MOVE);
+        if(Debug.CHECK_FOR_COLLISIONS)
+            checkForCollisions();
 
         Map<Integer, MergeVehicleSimModel> completedVehicles = cleanUpCompletedVehicles();
         provideCompletedVehiclesWithResultsInfo(completedVehicles);
         recordCompletedVehicles(completedVehicles);
         updateMaxMinVelocities();
         incrementCurrentTime(timeStep);
+        phaseTimer.endPhase(StepPhase.CLEANUP);
+        phaseTimer.endStep(getSimulationTime());
 
         return new CoreMergeSimStepResult(completedVehicles);
     }
@@ -63,6 +76,8 @@ public class V2IMergeSimulator extends CoreMergeSimulator {
     }
 
     private void deliverV2IMessages() {
+        int delivered = 0;
+        int dropped = 0;
         //Loop each vehicle and deliver messages
         for(MergeVehicleSimModel vehicle : getVinToVehicles().values()){
             if(vehicle instanceof MergeV2IAutoVehicleSimModel) {
@@ -79,16 +94,22 @@ public class V2IMergeSimulator extends CoreMergeSimulator {
                     //Find out if message can make it there.
                     if(transmit(txDistance, sender.getTransmissionPower())) {
                         receiver.receive(msg);
+                        delivered++;
+                    } else {
+                        dropped++;
                     }
                 }
             }
         }
+        countMessages(delivered, dropped);
     }
 
     /**
      * Deliver the I2V messages.
      */
     private void deliverI2VMessages() {
+        int delivered = 0;
+        int dropped = 0;
         // Now deliver all the I2V messages
         for(MergeManager im : getMap().getMergeManagers()) {
             V2IEnabledMergeManager senderMM = (V2IEnabledMergeManager)im;
@@ -98,6 +119,11 @@ public class V2IMergeSimulator extends CoreMergeSimulator {
                 MergeV2IAutoVehicleSimModel vehicle =
                         (MergeV2IAutoVehicleSimModel) VinRegistry.getVehicleFromVIN(
                                 msg.getVin());
+                if(vehicle == null) {
+                    // the vehicle has left the map
+                    dropped++;
+                    continue;
+                }
                 // Calculate the distance the message must travel
                 double txDistance =
                         senderMM.getMergeConnection().getCentroid().distance(
@@ -106,12 +132,29 @@ public class V2IMergeSimulator extends CoreMergeSimulator {
                 if(transmit(txDistance, senderMM.getTransmissionPower())) {
                     // Actually deliver the message
                     vehicle.receive(msg);
+                    delivered++;
+                } else {
+                    dropped++;
                 }
             }
             // Done delivering the IntersectionManager's messages, so clear the
             // outbox.
             senderMM.clearOutbox();
         }
+        countMessages(delivered, dropped);
+    }
+
+    /**
+     * Report the messages delivered and dropped to the metrics registry.
+     *
+     * @param delivered  the number of messages delivered
+     * @param dropped    the number of messages dropped
+     */
+    private void countMessages(int delivered, int dropped) {
+        if(getContext().getMetrics().isEnabled()) {
+            getContext().getMetrics().increment(SimCounter.MESSAGES_DELIVERED, delivered);
+            getContext().getMetrics().increment(SimCounter.MESSAGES_DROPPED, dropped);
+        }
     }
 
     /**
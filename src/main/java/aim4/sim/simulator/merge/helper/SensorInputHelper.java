@@ -1,13 +1,13 @@
 package aim4.sim.simulator.merge.helper;
 
 import aim4.driver.merge.MergeAutoDriver;
-import aim4.map.Road;
 import aim4.map.lane.Lane;
 import aim4.map.merge.MergeMap;
+import aim4.vehicle.LaneOccupancyIndex;
+import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.merge.MergeAutoVehicleSimModel;
 import aim4.vehicle.merge.MergeVehicleSimModel;
 
-import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.util.*;
 
@@ -17,6 +17,11 @@ import java.util.*;
 public class SensorInputHelper {
     MergeMap map;
     Map<Integer, MergeVehicleSimModel> vinToVehicles;
+    /**The vehicles on each lane of the map**/
+    LaneOccupancyIndex<MergeVehicleSimModel> laneIndex;
+    /**The vehicles found around a vehicle that is tracking others**/
+    private final LaneOccupancyIndex.Neighbours<MergeVehicleSimModel> neighbours =
+            new LaneOccupancyIndex.Neighbours<MergeVehicleSimModel>();
 
     /**
      * Provides sensor input for the
@@ -27,79 +32,29 @@ public class SensorInputHelper {
     public SensorInputHelper(MergeMap map, Map<Integer, MergeVehicleSimModel> vinToVehicles) {
         this.map = map;
         this.vinToVehicles = vinToVehicles;
+        this.laneIndex = new LaneOccupancyIndex<MergeVehicleSimModel>(map.getRoads(), false);
     }
 
     /**
      * Provides sensor input to all of the vehicles on all of the lanes.
      */
     public void provideSensorInput() {
-        Map<Lane, SortedMap<Double, MergeVehicleSimModel>> vehicleLists = computeVehicleLists();
-        Map<MergeVehicleSimModel, MergeVehicleSimModel> nextVehicle = computeNextVehicle(vehicleLists);
+        laneIndex.update(vinToVehicles.values());
 
-        provideIntervalInfo(nextVehicle);
-        providePrecedingVehicleVIN(nextVehicle);
-        provideVehicleTrackingInfo(vehicleLists);
+        provideIntervalInfo();
+        providePrecedingVehicleVIN();
+        provideVehicleTrackingInfo();
     }
 
-    /**
-     * Computes a list of all of the vehicles on the lanes.
-     *
-     * @return a mapping from lanes to lists of vehicles sorted by their distance on their lanes.
-     */
-    private Map<Lane, SortedMap<Double, MergeVehicleSimModel>> computeVehicleLists() {
-        //Creating the structure for the vehicle mapping
-        Map<Lane, SortedMap<Double, MergeVehicleSimModel>> vehicleLists =
-                new HashMap<Lane, SortedMap<Double, MergeVehicleSimModel>>();
-        for (Road road : map.getRoads()) {
-            for (Lane lane : road.getLanes()) {
-                vehicleLists.put(lane, new TreeMap<Double, MergeVehicleSimModel>());
-            }
-        }
-
-        //Adding all of the vehicles
-        for (MergeVehicleSimModel vehicle : vinToVehicles.values()) {
-            Set<Lane> lanes = vehicle.getDriver().getCurrentlyOccupiedLanes();
-            for (Lane lane : lanes) {
-                double distanceAlongLane = lane.distanceAlongLane(vehicle.getPosition());
-                vehicleLists.get(lane).put(distanceAlongLane, vehicle);
-            }
-        }
-
-        return vehicleLists;
-    }
-
-    /**
-     * Finds the preceding vehicle for all of the vehicles. This is the preceding vehicle for the lane the vehicle is
-     * currently on.
-     *
-     * @param vehicleLists
-     * @return
-     */
-    private Map<MergeVehicleSimModel, MergeVehicleSimModel> computeNextVehicle(
-            Map<Lane, SortedMap<Double, MergeVehicleSimModel>> vehicleLists) {
-        Map<MergeVehicleSimModel, MergeVehicleSimModel> nextVehicle =
-                new HashMap<MergeVehicleSimModel, MergeVehicleSimModel>();
-        for (SortedMap<Double, MergeVehicleSimModel> vehicleList : vehicleLists.values()) {
-            MergeVehicleSimModel lastVehicle = null;
-            for (MergeVehicleSimModel currVehicle : vehicleList.values()) {
-                if (lastVehicle != null) {
-                    nextVehicle.put(lastVehicle, currVehicle);
-                }
-                lastVehicle = currVehicle;
-            }
-        }
-
-        return nextVehicle;
-    }
-
-    private void provideIntervalInfo(Map<MergeVehicleSimModel, MergeVehicleSimModel> nextVehicle) {
+    private void provideIntervalInfo() {
         for (MergeVehicleSimModel mergeVehicle : vinToVehicles.values()) {
             if (mergeVehicle instanceof MergeAutoVehicleSimModel) {
                 MergeAutoVehicleSimModel autoVehicle = (MergeAutoVehicleSimModel) mergeVehicle;
 
                 double interval;
-                if (nextVehicle.containsKey(autoVehicle)) {
-                    interval = calcInterval(autoVehicle, nextVehicle.get(autoVehicle));
+                MergeVehicleSimModel nextVehicle = laneIndex.getNextVehicle(autoVehicle);
+                if (nextVehicle != null) {
+                    interval = calcInterval(autoVehicle, nextVehicle);
                 } else {
                     interval = Double.MAX_VALUE;
                 }
@@ -110,20 +65,21 @@ public class SensorInputHelper {
 
     }
 
-    private void providePrecedingVehicleVIN(Map<MergeVehicleSimModel, MergeVehicleSimModel> nextVehicle) {
+    private void providePrecedingVehicleVIN() {
         for (MergeVehicleSimModel mergeVehicle : vinToVehicles.values()) {
             if(mergeVehicle instanceof MergeAutoVehicleSimModel) {
                 MergeAutoVehicleSimModel autoVehicle = (MergeAutoVehicleSimModel) mergeVehicle;
 
-                if(nextVehicle.containsKey(autoVehicle))
-                    autoVehicle.setPrecedingVehicleVIN(nextVehicle.get(autoVehicle).getVIN());
+                MergeVehicleSimModel nextVehicle = laneIndex.getNextVehicle(autoVehicle);
+                if(nextVehicle != null)
+                    autoVehicle.setPrecedingVehicleVIN(nextVehicle.getVIN());
                 else
                     autoVehicle.setPrecedingVehicleVIN(0);
             }
         }
     }
 
-    private void provideVehicleTrackingInfo(Map<Lane, SortedMap<Double, MergeVehicleSimModel>> vehicleLists) {
+    private void provideVehicleTrackingInfo() {
         for(MergeVehicleSimModel vehicle : vinToVehicles.values()) {
             if(vehicle instanceof MergeVehicleSimModel) {
                 MergeAutoVehicleSimModel autoVehicle = (MergeAutoVehicleSimModel) vehicle;
@@ -134,33 +90,18 @@ public class SensorInputHelper {
                     Point2D pos = autoVehicle.getPosition();
                     double dst = targetLaneForTracking.distanceAlongLane(pos);
 
-                    //initialise distances to infinity
+                    //only consider the vehicles on the target tracking lane
+                    laneIndex.findNeighbours(targetLaneForTracking, dst, neighbours);
+                    MergeVehicleSimModel frontVehicle = neighbours.getFrontVehicle();
+                    MergeVehicleSimModel rearVehicle = neighbours.getRearVehicle();
+
+                    //compute the distances, which are infinite if there is no such vehicle
                     double frontDst = Double.MAX_VALUE;
                     double rearDst = Double.MAX_VALUE;
-                    MergeVehicleSimModel frontVehicle = null;
-                    MergeVehicleSimModel rearVehicle = null;
-
-                    //only consider the vehicles on the target tracking lane
-                    SortedMap<Double, MergeVehicleSimModel> vehiclesOnTargetLane =
-                            vehicleLists.get(targetLaneForTracking);
-
-                    // compute the distances and the corresponding vehicles
-                    try {
-                        double d = vehiclesOnTargetLane.tailMap(dst).firstKey();
-                        frontVehicle = vehiclesOnTargetLane.get(d);
-                        frontDst = (d-dst)-frontVehicle.getSpec().getLength();
-                    } catch(NoSuchElementException e) {
-                        frontDst = Double.MAX_VALUE;
-                        frontVehicle = null;
-                    }
-                    try {
-                        double d = vehiclesOnTargetLane.headMap(dst).lastKey();
-                        rearVehicle = vehiclesOnTargetLane.get(d);
-                        rearDst = dst-d;
-                    } catch(NoSuchElementException e) {
-                        rearDst = Double.MAX_VALUE;
-                        rearVehicle = null;
-                    }
+                    if(frontVehicle != null)
+                        frontDst = (neighbours.getFrontDistance()-dst)-frontVehicle.getSpec().getLength();
+                    if(rearVehicle != null)
+                        rearDst = dst-neighbours.getRearDistance();
 
                     //assign the sensor readings
 
@@ -186,18 +127,6 @@ public class SensorInputHelper {
     }
 
     private double calcInterval(MergeVehicleSimModel vehicle, MergeVehicleSimModel nextVehicle) {
-        Point2D pos = vehicle.getPosition();
-        if(nextVehicle.getShape().contains(pos)) {
-            return 0.0;
-        } else {
-            double interval = Double.MAX_VALUE;
-            for(Line2D edge : nextVehicle.getEdges()) {
-                double dst = edge.ptSegDist(pos);
-                if(dst < interval) {
-                    interval = dst;
-                }
-            }
-            return interval;
-        }
+        return VehicleUtil.distanceToVehicle(nextVehicle, vehicle.getPosition());
     }
 }
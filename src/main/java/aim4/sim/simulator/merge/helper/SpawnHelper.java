@@ -7,6 +7,7 @@ import aim4.map.merge.MergeMap;
 import aim4.map.merge.MergeSpawnPoint;
 import aim4.map.merge.RoadNames;
 import aim4.sim.setup.merge.enums.ProtocolType;
+import aim4.vehicle.VehicleSpatialIndex;
 import aim4.vehicle.VehicleSpec;
 import aim4.vehicle.VinRegistry;
 import aim4.vehicle.merge.*;
@@ -22,10 +23,25 @@ import java.util.Map;
 public class SpawnHelper {
     private MergeMap map;
     private Map<Integer, MergeVehicleSimModel> vinToVehicles;
+    private VehicleSpatialIndex<MergeVehicleSimModel> vehicleIndex;
 
     public SpawnHelper(MergeMap map, Map<Integer, MergeVehicleSimModel> vinToVehicles){
+        this(map, vinToVehicles, null);
+    }
+
+    /**
+     * Creates a spawn helper that checks the no spawn zones against a spatial index of the vehicles. The index is
+     * expected to be kept up to date by the caller; spawned vehicles are added to it.
+     * @param map The map
+     * @param vinToVehicles The active vehicles
+     * @param vehicleIndex The index of the active vehicles, or null to check every vehicle
+     */
+    public SpawnHelper(MergeMap map,
+                       Map<Integer, MergeVehicleSimModel> vinToVehicles,
+                       VehicleSpatialIndex<MergeVehicleSimModel> vehicleIndex){
         this.map = map;
         this.vinToVehicles = vinToVehicles;
+        this.vehicleIndex = vehicleIndex;
     }
 
     /**
@@ -44,6 +60,8 @@ public class SpawnHelper {
                         MergeVehicleSimModel vehicle = setupVehicle(spawnPoint, spawnSpec, protocolType);
                         VinRegistry.registerVehicle(vehicle);
                         vinToVehicles.put(vehicle.getVIN(), vehicle);
+                        if(vehicleIndex != null)
+                            vehicleIndex.update(vehicle);
                         spawnedVehicles.add(vehicle);
                         if(!canSpawnVehicle(spawnPoint))
                             break;
@@ -63,6 +81,8 @@ public class SpawnHelper {
     private boolean canSpawnVehicle(MergeSpawnPoint spawnPoint) {
         assert spawnPoint.getNoVehicleZone() instanceof Path2D;
         Path2D noVehicleZone = (Path2D) spawnPoint.getNoVehicleZone();
+        if(vehicleIndex != null)
+            return !vehicleIndex.anyBoundsIntersect(noVehicleZone);
         for(MergeVehicleSimModel vehicle : vinToVehicles.values()) {
             if (noVehicleZone.intersects(vehicle.getShape().getBounds2D())) {
                 return false;
@@ -5,7 +5,6 @@ import aim4.config.DebugPoint;
 import aim4.driver.mixedcpm.MixedCPMAutoDriver;
 import aim4.driver.mixedcpm.MixedCPMManualDriver;
 import aim4.map.DataCollectionLine;
-import aim4.map.Road;
 import aim4.map.mixedcpm.*;
 import aim4.map.mixedcpm.MixedCPMSpawnPoint.*;
 /*
@@ -13,11 +12,17 @@ import aim4.map.mixedcpm.parking.SensoredLine;
 import aim4.map.mixedcpm.statusmonitor.IStatusMonitor;
 */
 import aim4.map.lane.Lane;
+import aim4.sim.SimContext;
+import aim4.sim.metrics.PhaseTimer;
+import aim4.sim.metrics.StepPhase;
 import aim4.sim.Simulator;
 import aim4.sim.results.SimulatorResult;
 import aim4.util.Logging;
 import aim4.vehicle.VehicleSimModel;
+import aim4.vehicle.LaneOccupancyIndex;
+import aim4.vehicle.VehicleSpatialIndex;
 import aim4.vehicle.VehicleSpec;
+import aim4.vehicle.VehicleUtil;
 import aim4.vehicle.VinRegistry;
 import aim4.vehicle.mixedcpm.MixedCPMBasicAutoVehicle;
 import aim4.vehicle.mixedcpm.MixedCPMBasicManualVehicle;
@@ -25,7 +30,6 @@ import aim4.vehicle.mixedcpm.MixedCPMBasicVehicle;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
 import java.awt.*;
-import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.*;
@@ -41,14 +45,17 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
     // STATE VARIABLES FOR SIMULATION BEHAVIOUR
     //////////////////////////////////////////////
 
-    private static MixedCPMMapUtil.MapType mapType;
-
+    /**
+     * Get the map type of the current simulation.
+     *
+     * @return the map type of the current {@link SimContext}
+     */
     public static MixedCPMMapUtil.MapType mapType(){
-        return mapType;
+        return SimContext.current().getMixedCPMMapType();
     }
 
     public static void setMapType(MixedCPMMapUtil.MapType type){
-        mapType = type;
+        SimContext.current().setMixedCPMMapType(type);
     }
 
 
@@ -96,10 +103,21 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
     // PRIVATE FIELDS
     /////////////////////////////////
 
+    /** The context the simulator was created in */
+    private final SimContext context = SimContext.current();
+    /** Times the phases of each step */
+    private final PhaseTimer phaseTimer = new PhaseTimer();
     /** The map */
     protected MixedCPMBasicMap map;
     /** All active vehicles, in form of a map from VINs to vehicle objects. */
     protected Map<Integer,MixedCPMBasicVehicle> vinToVehicles;
+    /** The bounding boxes of the active vehicles */
+    protected VehicleSpatialIndex<MixedCPMBasicVehicle> vehicleIndex;
+    /** The vehicles on each lane */
+    protected LaneOccupancyIndex<MixedCPMBasicVehicle> laneIndex;
+    /** The vehicles found around a vehicle that is tracking others */
+    private final LaneOccupancyIndex.Neighbours<MixedCPMBasicVehicle> neighbours =
+            new LaneOccupancyIndex.Neighbours<MixedCPMBasicVehicle>();
     /** The current time */
     protected double currentTime;
     /** The number of completed vehicles */
@@ -115,6 +133,8 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
     public MixedCPMAutoDriverSimulator(MixedCPMBasicMap map){
         this.map = map;
         this.vinToVehicles = new HashMap<Integer,MixedCPMBasicVehicle>();
+        this.vehicleIndex = new VehicleSpatialIndex<MixedCPMBasicVehicle>();
+        this.laneIndex = new LaneOccupancyIndex<MixedCPMBasicVehicle>(map.getRoads(), true);
         this.parkedVehicles = new ArrayList<MixedCPMBasicVehicle>();
 
         currentTime = 0.0;
@@ -122,27 +142,49 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
         totalBitsTransmittedByCompletedVehicles = 0;
         totalBitsReceivedByCompletedVehicles = 0;
 
-        System.out.println("CPM Simulator created!");
+        Logging.info("CPM Simulator created!");
     }
 
     @Override
     public SimStepResult step(double timeStep) {
+        SimContext previous = context.enter();
+        try {
+            return runStep(timeStep);
+        } finally {
+            SimContext.restore(previous);
+        }
+    }
+
+    /**
+     * Move the simulator a time step forward with its context bound.
+     *
+     * @param timeStep  the time step
+     * @return the result of the step
+     */
+    private SimStepResult runStep(double timeStep) {
+        phaseTimer.startStep(context.getMetrics());
         this.map.update();
         spawnVehicles(timeStep);
+        phaseTimer.endPhase(StepPhase.SPAWN);
         provideSensorInput();
+        phaseTimer.endPhase(StepPhase.SENSOR_INPUT);
         letDriversAct();
+        phaseTimer.endPhase(StepPhase.DRIVERS_ACT);
         moveVehicles(timeStep);
+        phaseTimer.endPhase(StepPhase.MOVE);
         observeParkedVehicles();
         observeNumberOfVehiclesInCarPark();
         List<MixedCPMBasicVehicle> completedVehicles = cleanUpCompletedVehicles();
 
         // Only log stats every other timestep
         if (logToggle) {
-            Logging.logStats(map.getStatusMonitor());
+            Logging.logStats(currentTime, map.getStatusMonitor());
         }
         logToggle = !logToggle;
 
         currentTime += timeStep;
+        phaseTimer.endPhase(StepPhase.CLEANUP);
+        phaseTimer.endStep(currentTime);
 
         boolean completed = map.getSpawnPoints().get(0).getVehicleSpecChooser().isDone();
 
@@ -167,7 +209,7 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
                     double vehicleWidth = spawnSpec.getVehicleSpec().getWidth();
                     double parkingLaneWidth = map.getManualParkingArea().getLaneWidth();
                     if (parkingLaneWidth < (vehicleWidth+MIN_DISTANCE_BETWEEN_PARKED_VEHICLES)) {
-                        System.out.println("Spawned vehicle discarded: car park doesn't cater for vehicles this wide.");
+                        Logging.debug("Spawned vehicle discarded: car park doesn't cater for vehicles this wide.");
                     } else {
 
 
@@ -176,21 +218,24 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
                         if (map.getStatusMonitor().addNewVehicle(vehicle)) {
                             VinRegistry.registerVehicle(vehicle); // Get vehicle a VIN number
                             vinToVehicles.put(vehicle.getVIN(), vehicle);
+                            vehicleIndex.update(vehicle);
                             vehicle.setEntryTime(getSimulationTime());
                             map.addVehicleToMap(vehicle);
-                            System.out.println("Vehicle " + vehicle.getVIN() + " Spec " + vehicle.getSpec().getName() + " spawned at time " + currentTime);
 
                             // LOG TO CSV FILE
                             Logging.logVehicleSpawn(vehicle);
 
-                            if (vehicle instanceof MixedCPMBasicManualVehicle ){
-                                System.out.println("Vehicle " + vehicle.getVIN() + " is a manual vehicle");
-                                if (((MixedCPMBasicManualVehicle)vehicle).isDisabledVehicle()) {
+                            if (Logging.isConsoleLevelEnabled(Logging.Level.DEBUG)) {
+                                Logging.debug("Vehicle " + vehicle.getVIN() + " Spec " + vehicle.getSpec().getName() + " spawned at time " + currentTime);
+                                if (vehicle instanceof MixedCPMBasicManualVehicle ){
+                                    Logging.debug("Vehicle " + vehicle.getVIN() + " is a manual vehicle");
+                                    if (((MixedCPMBasicManualVehicle)vehicle).isDisabledVehicle()) {
 
-                                    System.out.println("Vehicle " + vehicle.getVIN() + " is a disabled vehicle");
+                                        Logging.debug("Vehicle " + vehicle.getVIN() + " is a disabled vehicle");
+                                    }
+                                }else{
+                                    Logging.debug("Vehicle " + vehicle.getVIN() + " is an automated vehicle");
                                 }
-                            }else{
-                                System.out.println("Vehicle " + vehicle.getVIN() + " is an automated vehicle");
                             }
                             break; // only handle the first spawn vehicle
                         } else {
@@ -210,16 +255,9 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
      * @return Whether the spawn point can spawn a vehicle
      */
     protected boolean canSpawnVehicle(MixedCPMSpawnPoint spawnPoint) {
-        // TODO: can be made much faster.
         assert spawnPoint.getNoVehicleZone() instanceof Rectangle2D;
         Rectangle2D noVehicleZone = (Rectangle2D) spawnPoint.getNoVehicleZone();
-        for(MixedCPMBasicVehicle vehicle : vinToVehicles.values()) {
-            double heading = vehicle.getHeading();
-            if (vehicle.getShape().intersects(noVehicleZone)) {
-                return false;
-            }
-        }
-        return true;
+        return !vehicleIndex.anyShapeIntersects(noVehicleZone);
     }
 
     /**
@@ -295,103 +333,18 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
      * state of its sensors, we provide it with the appropriate sensor input.
      */
     protected void provideSensorInput() {
-        Map<Lane,SortedMap<Double,MixedCPMBasicVehicle>> vehicleLists =
-                computeVehicleLists();
-        Map<MixedCPMBasicVehicle, MixedCPMBasicVehicle> nextVehicle =
-                computeNextVehicle(vehicleLists);
+        // the roads of the map can change as parking spaces are laid out
+        laneIndex.setRoads(map.getRoads());
+        laneIndex.update(vinToVehicles.values());
 
-        provideIntervalInfo(nextVehicle);
-        provideVehicleTrackingInfo(vehicleLists);
-    }
-
-    /**
-     * Compute the lists of vehicles of all lanes.
-     *
-     * @return a mapping from lanes to lists of vehicles sorted by their
-     *         distance on their lanes
-     */
-    private Map<Lane,SortedMap<Double,MixedCPMBasicVehicle>> computeVehicleLists() {
-        // Set up the structure that will hold all the Vehicles as they are
-        // currently ordered in the Lanes
-        Map<Lane,SortedMap<Double,MixedCPMBasicVehicle>> vehicleLists =
-                new HashMap<>();
-        for(Road road : map.getRoads()) {
-            for(Lane lane : road.getLanes()) {
-                vehicleLists.put(lane, new TreeMap<Double,MixedCPMBasicVehicle>());
-            }
-        }
-        // Now add each of the Vehicles, but make sure to exclude those that are
-        // already inside (partially or entirely) the intersection
-        for(MixedCPMBasicVehicle vehicle : vinToVehicles.values()) {
-            // Find out what lanes it is in.
-            Set<Lane> lanes = vehicle.getDriver().getCurrentlyOccupiedLanes();
-            for(Lane lane : lanes) {
-                // Now find how far along the lane it is.
-                double dst = lane.distanceAlongLane(vehicle.getPosition());
-                // Now add it to the map.
-                if (vehicleLists.containsKey(lane)) {
-                    vehicleLists.get(lane).put(dst, vehicle);
-                }
-            }
-        }
-        // Now consolidate the lists based on lanes
-        for(Road road : map.getRoads()) {
-            for(Lane lane : road.getLanes()) {
-                // We may have already removed this Lane from the map
-                if(vehicleLists.containsKey(lane)) {
-                    Lane currLane = lane;
-                    // Now run through the lanes
-                    while(currLane.hasNextLane()) {
-                        currLane = currLane.getNextLane();
-                        // Put everything from the next lane into the original lane
-                        // and remove the mapping for the next lane
-                        vehicleLists.get(lane).putAll(vehicleLists.remove(currLane));
-                    }
-                }
-            }
-        }
-
-        return vehicleLists;
-    }
-
-    /**
-     * Compute the next vehicles of all vehicles.
-     *
-     * @param vehicleLists  a mapping from lanes to lists of vehicles sorted by
-     *                      their distance on their lanes
-     * @return a mapping from vehicles to next vehicles
-     */
-    private Map<MixedCPMBasicVehicle, MixedCPMBasicVehicle> computeNextVehicle(
-            Map<Lane,SortedMap<Double,MixedCPMBasicVehicle>> vehicleLists) {
-        // At this point we should only have mappings for start Lanes, and they
-        // should include all the Lanes they run into.  Now we need to turn this
-        // into a hash map that maps Vehicles to the next vehicle in the Lane
-        // or any Lane the Lane runs into
-        Map<MixedCPMBasicVehicle, MixedCPMBasicVehicle> nextVehicle =
-                new HashMap<>();
-        // For each of the ordered lists of vehicles
-        for(SortedMap<Double,MixedCPMBasicVehicle> vehicleList : vehicleLists.values()) {
-            MixedCPMBasicVehicle lastVehicle = null;
-            // Go through the Vehicles in order of their position in the Lane
-            for(MixedCPMBasicVehicle currVehicle : vehicleList.values()) {
-                if(lastVehicle != null) {
-                    // Create the mapping from the previous Vehicle to the current one
-                    nextVehicle.put(lastVehicle,currVehicle);
-                }
-                lastVehicle = currVehicle;
-            }
-        }
-
-        return nextVehicle;
+        provideIntervalInfo();
+        provideVehicleTrackingInfo();
     }
 
     /**
      * Provide sensing information to the intervalometers of all vehicles.
-     *
-     * @param nextVehicle  a mapping from vehicles to next vehicles
      */
-    private void provideIntervalInfo(
-            Map<MixedCPMBasicVehicle, MixedCPMBasicVehicle> nextVehicle) {
+    private void provideIntervalInfo() {
 
         // Now that we have this list set up, let's provide input to all the
         // Vehicles.
@@ -403,10 +356,11 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
                         // Find the interval to the next vehicle
                         double interval;
                         // If there is a next vehicle, then calculate it
-                        if(nextVehicle.containsKey(vehicle)) {
+                        MixedCPMBasicVehicle nextVehicle = laneIndex.getNextVehicle(vehicle);
+                        if(nextVehicle != null) {
                             // It's the distance from the front of this Vehicle to the point
                             // at the rear of the Vehicle in front of it
-                            interval = calcInterval(vehicle, nextVehicle.get(vehicle));
+                            interval = calcInterval(vehicle, nextVehicle);
                         } else { // Otherwise, just set it to the maximum possible value
                             interval = Double.MAX_VALUE;
                         }
@@ -442,30 +396,13 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
                                 MixedCPMBasicVehicle nextVehicle) {
         // From Chiu: Kurt, if you think this function is not okay, probably
         // we should talk to see what to do.
-        Point2D pos = vehicle.getPosition();
-        if(nextVehicle.getShape().contains(pos)) {
-            return 0.0;
-        } else {
-            // TODO: make it more efficient
-            double interval = Double.MAX_VALUE ;
-            for(Line2D edge : nextVehicle.getEdges()) {
-                double dst = edge.ptSegDist(pos);
-                if(dst < interval){
-                    interval = dst;
-                }
-            }
-            return interval;
-        }
+        return VehicleUtil.distanceToVehicle(nextVehicle, vehicle.getPosition());
     }
 
     /**
      * Provide tracking information to vehicles.
-     *
-     * @param vehicleLists  a mapping from lanes to lists of vehicles sorted by
-     *                      their distance on their lanes
      */
-    private void provideVehicleTrackingInfo(
-            Map<Lane, SortedMap<Double, MixedCPMBasicVehicle>> vehicleLists) {
+    private void provideVehicleTrackingInfo() {
         // Vehicle Tracking
         for(MixedCPMBasicVehicle vehicle: vinToVehicles.values()) {
             // If the vehicle is autonomous
@@ -477,32 +414,21 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
                     Point2D pos = autoVehicle.getPosition();
                     double dst = targetLane.distanceAlongLane(pos);
 
-                    // initialize the distances to infinity
+                    // only consider the vehicles on the target lane
+                    laneIndex.findNeighbours(targetLane, dst, neighbours);
+                    MixedCPMBasicVehicle frontVehicle = neighbours.getFrontVehicle();
+                    MixedCPMBasicVehicle rearVehicle = neighbours.getRearVehicle();
+
+                    // compute the distances, which are infinite if there is
+                    // no such vehicle
                     double frontDst = Double.MAX_VALUE;
                     double rearDst = Double.MAX_VALUE;
-                    MixedCPMBasicVehicle frontVehicle = null ;
-                    MixedCPMBasicVehicle rearVehicle = null ;
-
-                    // only consider the vehicles on the target lane
-                    SortedMap<Double,MixedCPMBasicVehicle> vehiclesOnTargetLane =
-                            vehicleLists.get(targetLane);
-
-                    // compute the distances and the corresponding vehicles
-                    try {
-                        double d = vehiclesOnTargetLane.tailMap(dst).firstKey();
-                        frontVehicle = vehiclesOnTargetLane.get(d);
-                        frontDst = (d-dst)-frontVehicle.getSpec().getLength();
-                    } catch(NoSuchElementException e) {
-                        frontDst = Double.MAX_VALUE;
-                        frontVehicle = null;
+                    if(frontVehicle != null) {
+                        frontDst = (neighbours.getFrontDistance()-dst)
+                                -frontVehicle.getSpec().getLength();
                     }
-                    try {
-                        double d = vehiclesOnTargetLane.headMap(dst).lastKey();
-                        rearVehicle = vehiclesOnTargetLane.get(d);
-                        rearDst = dst-d;
-                    } catch(NoSuchElementException e) {
-                        rearDst = Double.MAX_VALUE;
-                        rearVehicle = null;
+                    if(rearVehicle != null) {
+                        rearDst = dst-neighbours.getRearDistance();
                     }
 
                     // assign the sensor readings
@@ -569,6 +495,7 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
         for(MixedCPMBasicVehicle vehicle : vinToVehicles.values()) {
             Point2D p1 = vehicle.getPosition();
             vehicle.move(timeStep);
+            vehicleIndex.update(vehicle);
             Point2D p2 = vehicle.getPosition();
             MixedCPMMapUtil.checkVehicleStillOnMap(map, p2, vehicle.getDriver().getCurrentLane(), vehicle);
 
@@ -640,7 +567,7 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
         for(int vin : vinToVehicles.keySet()) {
             MixedCPMBasicVehicle vehicle = vinToVehicles.get(vin);
             // If the vehicle is no longer in the layout
-            if(!vehicle.getShape().intersects(mapBoundary)) {
+            if(vehicleIndex.isOutside(vehicle, mapBoundary)) {
                 // Process anything we need to from this vehicle
                 // TODO CPM Do we need to get anything? Maybe distance travelled
                 map.getStatusMonitor().vehicleOnExit(vehicle);
@@ -650,19 +577,25 @@ public class MixedCPMAutoDriverSimulator implements Simulator {
                 vehicle.setExitTime(getSimulationTime());
                 map.removeCompletedVehicle(vehicle);
                 removedVINs.add(vin);
-                System.out.println("Vehicle " + vin + " exited car park and deleted");
+                Logging.debug("Vehicle " + vin + " exited car park and deleted");
             }
         }
         // Remove the marked vehicles
         for(int vin : removedVINs) {
             completedVehicles.add(vinToVehicles.get(vin));
-            vinToVehicles.remove(vin);
+            vehicleIndex.remove(vinToVehicles.remove(vin));
+            VinRegistry.unregisterVehicle(vin);
             numOfCompletedVehicles++;
         }
         return completedVehicles;
     }
 
 
+    @Override
+    public SimContext getContext() {
+        return context;
+    }
+
     @Override
     public MixedCPMMap getMap() {
         return map;
@@ -5,15 +5,109 @@ import aim4.vehicle.mixedcpm.MixedCPMBasicAutoVehicle;
 import aim4.vehicle.mixedcpm.MixedCPMBasicManualVehicle;
 import aim4.vehicle.mixedcpm.MixedCPMBasicVehicle;
 
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.sql.Timestamp;
 
 public final class Logging {
 
+    /**
+     * How much the simulators print to the console.
+     */
+    public enum Level {
+        /** Print nothing */
+        QUIET,
+        /** Print what happens to the simulation as a whole */
+        INFO,
+        /** Also print what happens to each vehicle */
+        DEBUG
+    }
+
+    /** The header of the stats log */
+    private static final String STATS_HEADER = "SimulationTime\tLineType\tNoOfParkedVehicles\tEfficiency\tAreaPerVehicle\tAllowedEntries\tDeniedEntries\tCompletedVehicles\tParkedVehicles";
+    /** The names of the lines of stats, indexed by the line type of a record */
+    private static final String[] STATS_LINE_TYPES = {"Overall Stats", "Manual Stats", "Automated Stats"};
+    /** The fields of a stats record: time, line type, then up to 9 values */
+    private static final int STATS_RECORD_SIZE = 11;
+    /** The size of the buffer of the stats log file */
+    private static final int STATS_FILE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Writes a stats record as a tab separated line. The third and fourth
+     * fields (efficiency and area per vehicle) are the only ones which are
+     * not whole numbers.
+     */
+    private static final StatsLogWriter.RecordFormatter STATS_FORMATTER =
+            new StatsLogWriter.RecordFormatter() {
+        @Override
+        public void format(double[] records, int offset, StringBuilder out) {
+            out.append(records[offset]);
+            out.append('\t');
+            int lineType = (int) records[offset + 1];
+            out.append(STATS_LINE_TYPES[lineType]);
+            int numberOfValues = lineType == 1 ? 9 : 7;
+            for (int i = 0; i < numberOfValues; i++) {
+                out.append('\t');
+                double value = records[offset + 2 + i];
+                if (i == 1 || i == 2) {
+                    out.append(value);
+                } else {
+                    out.append((int) value);
+                }
+            }
+            out.append(System.lineSeparator());
+        }
+    };
+
     private static PrintWriter spawnLogFileWriter = null;
-    private static PrintWriter logFileWriter = null;
+    private static StatsLogWriter logFileWriter = null;
+    /** The record being filled by logStats */
+    private static final double[] statsRecord = new double[STATS_RECORD_SIZE];
+    /** How much is printed to the console */
+    private static volatile Level consoleLevel = Level.INFO;
+
+    /**
+     * Set how much is printed to the console.
+     * @param level the level
+     */
+    public static void setConsoleLevel(Level level) {
+        consoleLevel = level;
+    }
+
+    /**
+     * Whether messages of a level are printed to the console. Check this
+     * before building a message which is expensive to make.
+     * @param level the level of the message
+     * @return whether it would be printed
+     */
+    public static boolean isConsoleLevelEnabled(Level level) {
+        return level != Level.QUIET && level.compareTo(consoleLevel) <= 0;
+    }
+
+    /**
+     * Print a message about the simulation as a whole.
+     * @param message the message
+     */
+    public static void info(String message) {
+        if (isConsoleLevelEnabled(Level.INFO)) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Print a message about a vehicle.
+     * @param message the message
+     */
+    public static void debug(String message) {
+        if (isConsoleLevelEnabled(Level.DEBUG)) {
+            System.out.println(message);
+        }
+    }
 
     public static void initialiseLogWriter(String csvFilename){
         Timestamp timestamp = new Timestamp(System.currentTimeMillis());
@@ -27,9 +121,7 @@ public final class Logging {
         logFilename += "_log_" + timestamp.toString() + ".log";
         // TODO ED Log file name - make it more meaningful (include CSV filename if possible)
         try {
-            logFileWriter = new PrintWriter(logFilename, "UTF-8");
-            logFileWriter.println("Timestamp\tLineType\tNoOfParkedVehicles\tEfficiency\tAreaPerVehicle\tAllowedEntries\tDeniedEntries\tCompletedVehicles\tParkedVehicles");
-
+            openStatsLog(logFilename);
         } catch (FileNotFoundException ex){ }
         catch (UnsupportedEncodingException ex) { }
     }
@@ -41,8 +133,7 @@ public final class Logging {
 
 
             String logFilename = "Log_" + timestamp.toString() + ".log";
-            logFileWriter = new PrintWriter(logFilename, "UTF-8");
-            logFileWriter.println("Timestamp\tLineType\tNoOfParkedVehicles\tEfficiency\tAreaPerVehicle\tAllowedEntries\tDeniedEntries\tCompletedVehicles\tParkedVehicles");
+            openStatsLog(logFilename);
 
         } catch (FileNotFoundException ex){ }
         catch (UnsupportedEncodingException ex) { }
@@ -92,101 +183,78 @@ public final class Logging {
         }
     }
 
-    public static void logStats(IStatusMonitor monitor){
+    /**
+     * Log the stats of the car park. The numbers are copied and written to
+     * the log file in the background.
+     * @param simulationTime the simulation time of the stats
+     * @param monitor the status monitor of the car park
+     */
+    public static void logStats(double simulationTime, IStatusMonitor monitor){
         if (logFileWriter != null) {
-            Timestamp timestamp = new Timestamp(System.currentTimeMillis());
-            String logLine = timestamp.toString();
-            logLine += "\t";
-            logLine += "Overall Stats";
-            logLine += "\t";
-            logLine += monitor.getNoOfParkedVehicles();
-            logLine += "\t";
-            logLine += monitor.getCurrentEfficiency();
-            logLine += "\t";
-            logLine += monitor.getAreaPerVehicle();
-            logLine += "\t";
-            logLine += monitor.getNumberOfAllowedEntries();
-            logLine += "\t";
-            logLine += monitor.getNumberOfDeniedEntries();
-            logLine += "\t";
-            logLine += monitor.getNumberOfCompletedVehicles();
-            logLine += "\t";
-            logLine += monitor.getNoOfParkedVehicles();
-            logFileWriter.println(logLine);
-            
-            logLine = timestamp.toString();
-            logLine += "\t";
-            logLine += "Manual Stats";
-            logLine += "\t";
-            logLine += monitor.getNoOfParkedManualVehicles();
-            logLine += "\t";
-            logLine += monitor.getCurrentManualEfficiency();
-            logLine += "\t";
-            logLine += monitor.getAreaPerManualVehicle();
-            logLine += "\t";
-            logLine += monitor.getNumberOfAllowedManualEntries();
-            logLine += "\t";
-            logLine += monitor.getNumberOfDeniedManualEntries();
-            logLine += "\t";
-            logLine += monitor.getNumberOfCompletedManualVehicles();
-            logLine += "\t";
-            logLine += monitor.getMostNumberOfParkedManualVehicles();
-            logLine += "\t";
-            logLine += monitor.getNoOfParkedDisabledVehicles();
-            logLine += "\t";
-            logLine += monitor.getMostNumberOfParkedDisabledVehicles();
-            logFileWriter.println(logLine);
-
-            logLine = timestamp.toString();
-            logLine += "\t";
-            logLine += "Automated Stats";
-            logLine += "\t";
-            logLine += monitor.getNoOfParkedAutoVehicles();
-            logLine += "\t";
-            logLine += monitor.getCurrentAutoEfficiency();
-            logLine += "\t";
-            logLine += monitor.getAreaPerAutoVehicle();
-            logLine += "\t";
-            logLine += monitor.getNumberOfAllowedAutoEntries();
-            logLine += "\t";
-            logLine += monitor.getNumberOfDeniedAutoEntries();
-            logLine += "\t";
-            logLine += monitor.getNumberOfCompletedAutoVehicles();
-            logLine += "\t";
-            logLine += monitor.getMostNumberOfParkedAutoVehicles();
-            logFileWriter.println(logLine);
+            statsRecord[0] = simulationTime;
+            statsRecord[1] = 0;
+            statsRecord[2] = monitor.getNoOfParkedVehicles();
+            statsRecord[3] = monitor.getCurrentEfficiency();
+            statsRecord[4] = monitor.getAreaPerVehicle();
+            statsRecord[5] = monitor.getNumberOfAllowedEntries();
+            statsRecord[6] = monitor.getNumberOfDeniedEntries();
+            statsRecord[7] = monitor.getNumberOfCompletedVehicles();
+            statsRecord[8] = monitor.getNoOfParkedVehicles();
+            logFileWriter.log(statsRecord);
+
+            statsRecord[1] = 1;
+            statsRecord[2] = monitor.getNoOfParkedManualVehicles();
+            statsRecord[3] = monitor.getCurrentManualEfficiency();
+            statsRecord[4] = monitor.getAreaPerManualVehicle();
+            statsRecord[5] = monitor.getNumberOfAllowedManualEntries();
+            statsRecord[6] = monitor.getNumberOfDeniedManualEntries();
+            statsRecord[7] = monitor.getNumberOfCompletedManualVehicles();
+            statsRecord[8] = monitor.getMostNumberOfParkedManualVehicles();
+            statsRecord[9] = monitor.getNoOfParkedDisabledVehicles();
+            statsRecord[10] = monitor.getMostNumberOfParkedDisabledVehicles();
+            logFileWriter.log(statsRecord);
+
+            statsRecord[1] = 2;
+            statsRecord[2] = monitor.getNoOfParkedAutoVehicles();
+            statsRecord[3] = monitor.getCurrentAutoEfficiency();
+            statsRecord[4] = monitor.getAreaPerAutoVehicle();
+            statsRecord[5] = monitor.getNumberOfAllowedAutoEntries();
+            statsRecord[6] = monitor.getNumberOfDeniedAutoEntries();
+            statsRecord[7] = monitor.getNumberOfCompletedAutoVehicles();
+            statsRecord[8] = monitor.getMostNumberOfParkedAutoVehicles();
+            logFileWriter.log(statsRecord);
         }
     }
 
     public static void logFinalStats(IStatusMonitor monitor){
         if (logFileWriter != null) {
-            logFileWriter.println();
-            logFileWriter.println("FINAL STATISTICS");
-            logFileWriter.println();
-            logFileWriter.println("CAR PARK");
-            logFileWriter.println("CAR PARK Max Efficiency:\t" + String.valueOf(monitor.getMaxEfficiency()));
-            logFileWriter.println("CAR PARK Min Area Per Vehicle:\t" + String.valueOf(monitor.getMinAreaPerVehicle()));
-            logFileWriter.println("CAR PARK Max No Of Parked Vehicles:\t" + String.valueOf(monitor.getMostNumberOfParkedVehicles()));
-            logFileWriter.println("CAR PARK No Of Allowed Entries:\t" + String.valueOf(monitor.getNumberOfAllowedEntries()));
-            logFileWriter.println("CAR PARK No Of Denied Entries:\t" + String.valueOf(monitor.getNumberOfDeniedEntries()));
-            logFileWriter.println("CAR PARK No Of Completed Vehicles:\t" + String.valueOf(monitor.getNumberOfCompletedVehicles()));
-            logFileWriter.println();
-            logFileWriter.println("MANUAL PARKING AREA");
-            logFileWriter.println("MANUAL PARKING AREA Max Efficiency:\t" + String.valueOf(monitor.getMaxManualEfficiency()));
-            logFileWriter.println("MANUAL PARKING AREA Min Area Per Vehicle:\t" + String.valueOf(monitor.getMinAreaPerManualVehicle()));
-            logFileWriter.println("MANUAL PARKING AREA Max No Of Parked Vehicles:\t" + String.valueOf(monitor.getMostNumberOfParkedManualVehicles()));
-            logFileWriter.println("MANUAL PARKING AREA Max No Of Parked Disabled Vehicles:\t" + String.valueOf(monitor.getMostNumberOfParkedDisabledVehicles()));
-            logFileWriter.println("MANUAL PARKING AREA No Of Allowed Entries:\t" + String.valueOf(monitor.getNumberOfAllowedManualEntries()));
-            logFileWriter.println("MANUAL PARKING AREA No Of Denied Entries:\t" + String.valueOf(monitor.getNumberOfDeniedManualEntries()));
-            logFileWriter.println("MANUAL PARKING AREA No Of Completed Vehicles:\t" + String.valueOf(monitor.getNumberOfCompletedManualVehicles()));
-            logFileWriter.println();
-            logFileWriter.println("AUTOMATED PARKING AREA");
-            logFileWriter.println("AUTOMATED PARKING AREA Max Efficiency:\t" + String.valueOf(monitor.getMaxAutoEfficiency()));
-            logFileWriter.println("AUTOMATED PARKING AREA Min Area Per Vehicle:\t" + String.valueOf(monitor.getMinAreaPerAutoVehicle()));
-            logFileWriter.println("AUTOMATED PARKING AREA Max No Of Parked Vehicles:\t" + String.valueOf(monitor.getMostNumberOfParkedAutoVehicles()));
-            logFileWriter.println("AUTOMATED PARKING AREA No Of Allowed Entries:\t" + String.valueOf(monitor.getNumberOfAllowedAutoEntries()));
-            logFileWriter.println("AUTOMATED PARKING AREA No Of Denied Entries:\t" + String.valueOf(monitor.getNumberOfDeniedAutoEntries()));
-            logFileWriter.println("AUTOMATED PARKING AREA No Of Completed Vehicles:\t" + String.valueOf(monitor.getNumberOfCompletedAutoVehicles()));
+            logFileWriter.writeLine("");
+            logFileWriter.writeLine("FINAL STATISTICS");
+            logFileWriter.writeLine("");
+            logFileWriter.writeLine("CAR PARK");
+            logFileWriter.writeLine("CAR PARK Max Efficiency:\t" + String.valueOf(monitor.getMaxEfficiency()));
+            logFileWriter.writeLine("CAR PARK Min Area Per Vehicle:\t" + String.valueOf(monitor.getMinAreaPerVehicle()));
+            logFileWriter.writeLine("CAR PARK Max No Of Parked Vehicles:\t" + String.valueOf(monitor.getMostNumberOfParkedVehicles()));
+            logFileWriter.writeLine("CAR PARK No Of Allowed Entries:\t" + String.valueOf(monitor.getNumberOfAllowedEntries()));
+            logFileWriter.writeLine("CAR PARK No Of Denied Entries:\t" + String.valueOf(monitor.getNumberOfDeniedEntries()));
+            logFileWriter.writeLine("CAR PARK No Of Completed Vehicles:\t" + String.valueOf(monitor.getNumberOfCompletedVehicles()));
+            logFileWriter.writeLine("");
+            logFileWriter.writeLine("MANUAL PARKING AREA");
+            logFileWriter.writeLine("MANUAL PARKING AREA Max Efficiency:\t" + String.valueOf(monitor.getMaxManualEfficiency()));
+            logFileWriter.writeLine("MANUAL PARKING AREA Min Area Per Vehicle:\t" + String.valueOf(monitor.getMinAreaPerManualVehicle()));
+            logFileWriter.writeLine("MANUAL PARKING AREA Max No Of Parked Vehicles:\t" + String.valueOf(monitor.getMostNumberOfParkedManualVehicles()));
+            logFileWriter.writeLine("MANUAL PARKING AREA Max No Of Parked Disabled Vehicles:\t" + String.valueOf(monitor.getMostNumberOfParkedDisabledVehicles()));
+            logFileWriter.writeLine("MANUAL PARKING AREA No Of Allowed Entries:\t" + String.valueOf(monitor.getNumberOfAllowedManualEntries()));
+            logFileWriter.writeLine("MANUAL PARKING AREA No Of Denied Entries:\t" + String.valueOf(monitor.getNumberOfDeniedManualEntries()));
+            logFileWriter.writeLine("MANUAL PARKING AREA No Of Completed Vehicles:\t" + String.valueOf(monitor.getNumberOfCompletedManualVehicles()));
+            logFileWriter.writeLine("");
+            logFileWriter.writeLine("AUTOMATED PARKING AREA");
+            logFileWriter.writeLine("AUTOMATED PARKING AREA Max Efficiency:\t" + String.valueOf(monitor.getMaxAutoEfficiency()));
+            logFileWriter.writeLine("AUTOMATED PARKING AREA Min Area Per Vehicle:\t" + String.valueOf(monitor.getMinAreaPerAutoVehicle()));
+            logFileWriter.writeLine("AUTOMATED PARKING AREA Max No Of Parked Vehicles:\t" + String.valueOf(monitor.getMostNumberOfParkedAutoVehicles()));
+            logFileWriter.writeLine("AUTOMATED PARKING AREA No Of Allowed Entries:\t" + String.valueOf(monitor.getNumberOfAllowedAutoEntries()));
+            logFileWriter.writeLine("AUTOMATED PARKING AREA No Of Denied Entries:\t" + String.valueOf(monitor.getNumberOfDeniedAutoEntries()));
+            logFileWriter.writeLine("AUTOMATED PARKING AREA No Of Completed Vehicles:\t" + String.valueOf(monitor.getNumberOfCompletedAutoVehicles()));
 
             /*
             Final Efficiency
@@ -212,9 +280,27 @@ public final class Logging {
         }
 
         if (logFileWriter != null) {
-            logFileWriter.close();
+            try {
+                logFileWriter.close();
+            } catch (IOException ex) { }
             logFileWriter = null;
         }
     }
 
+    /**
+     * Open the stats log file and write its header.
+     * @param logFilename the name of the file
+     */
+    private static void openStatsLog(String logFilename)
+            throws FileNotFoundException, UnsupportedEncodingException {
+        BufferedWriter writer = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(logFilename), "UTF-8"),
+                STATS_FILE_BUFFER_SIZE);
+        logFileWriter = new StatsLogWriter(writer,
+                                           STATS_RECORD_SIZE,
+                                           StatsLogWriter.DEFAULT_CAPACITY,
+                                           STATS_FORMATTER);
+        logFileWriter.writeLine(STATS_HEADER);
+    }
+
 }
@@ -0,0 +1,384 @@
+package aim4.util;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Line2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A rectangle at an arbitrary orientation, such as the footprint of a
+ * vehicle, held as four corners in a primitive array so that it can be
+ * updated in place rather than rebuilt every time the vehicle moves.
+ * <p>
+ * The corners are stored at float precision, as the {@link
+ * java.awt.geom.GeneralPath} vehicle shapes used to be, so that the
+ * containment, bounds and path of this shape are identical to the
+ * GeneralPath built from the same corners. Intersection tests against
+ * rectangles and other oriented rectangles use the separating axis theorem
+ * and treat shapes that only touch as not intersecting, like {@link
+ * java.awt.geom.Area} does.
+ */
+public class OrientedRectangle implements Shape {
+
+  /////////////////////////////////
+  // PRIVATE FIELDS
+  /////////////////////////////////
+
+  /** The corners, in order, as x0, y0, x1, y1, x2, y2, x3, y3 */
+  private final double[] corners = new double[8];
+  /** The bounding box */
+  private double minX, minY, maxX, maxY;
+
+  /////////////////////////////////
+  // CLASS CONSTRUCTORS
+  /////////////////////////////////
+
+  /**
+   * Create a rectangle with all corners at the origin.
+   */
+  public OrientedRectangle() {
+  }
+
+  /**
+   * Create a rectangle from its corners.
+   *
+   * @param corners  the corners, in order, as x0, y0, ..., x3, y3
+   */
+  public OrientedRectangle(double[] corners) {
+    setCorners(corners);
+  }
+
+  /////////////////////////////////
+  // PUBLIC METHODS
+  /////////////////////////////////
+
+  // update
+
+  /**
+   * Move the rectangle to new corners.
+   *
+   * @param src  the corners, in order, as x0, y0, ..., x3, y3
+   */
+  public void setCorners(double[] src) {
+    for(int i = 0; i < 8; i++) {
+      corners[i] = (float) src[i];
+    }
+    minX = maxX = corners[0];
+    minY = maxY = corners[1];
+    for(int i = 2; i < 8; i += 2) {
+      minX = Math.min(minX, corners[i]);
+      maxX = Math.max(maxX, corners[i]);
+      minY = Math.min(minY, corners[i + 1]);
+      maxY = Math.max(maxY, corners[i + 1]);
+    }
+  }
+
+  // corners
+
+  /**
+   * Get the x-coordinate of a corner.
+   *
+   * @param i  the index of the corner, from 0 to 3
+   * @return the x-coordinate of the corner
+   */
+  public double getCornerX(int i) {
+    return corners[2 * i];
+  }
+
+  /**
+   * Get the y-coordinate of a corner.
+   *
+   * @param i  the index of the corner, from 0 to 3
+   * @return the y-coordinate of the corner
+   */
+  public double getCornerY(int i) {
+    return corners[2 * i + 1];
+  }
+
+  public double getMinX() {
+    return minX;
+  }
+
+  public double getMinY() {
+    return minY;
+  }
+
+  public double getMaxX() {
+    return maxX;
+  }
+
+  public double getMaxY() {
+    return maxY;
+  }
+
+  // geometric tests
+
+  /**
+   * Whether this rectangle and another one overlap.
+   *
+   * @param other  the other rectangle
+   * @return whether the interiors of the two rectangles intersect
+   */
+  public boolean intersects(OrientedRectangle other) {
+    if (maxX <= other.minX || other.maxX <= minX ||
+        maxY <= other.minY || other.maxY <= minY) {
+      return false;
+    }
+    return !separatedAlongEdgeNormals(this, other.corners)
+        && !separatedAlongEdgeNormals(other, corners);
+  }
+
+  /**
+   * The distance from a point to this rectangle, or zero if the point is
+   * inside it.
+   *
+   * @param px  the x-coordinate of the point
+   * @param py  the y-coordinate of the point
+   * @return the distance from the point to the nearest edge, or zero
+   */
+  public double distance(double px, double py) {
+    if (contains(px, py)) {
+      return 0.0;
+    }
+    double dst = Double.MAX_VALUE;
+    for(int i = 0; i < 4; i++) {
+      int j = (i + 1) % 4;
+      dst = Math.min(dst, Line2D.ptSegDist(corners[2 * i], corners[2 * i + 1],
+                                           corners[2 * j], corners[2 * j + 1],
+                                           px, py));
+    }
+    return dst;
+  }
+
+  /**
+   * Get the edges of the rectangle.
+   *
+   * @return the four edges, each from a corner to the next
+   */
+  public List<Line2D> getEdges() {
+    List<Line2D> edges = new ArrayList<Line2D>(4);
+    for(int i = 0; i < 4; i++) {
+      int j = (i + 1) % 4;
+      edges.add(new Line2D.Double(corners[2 * i], corners[2 * i + 1],
+                                  corners[2 * j], corners[2 * j + 1]));
+    }
+    return edges;
+  }
+
+  // Shape
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Rectangle getBounds() {
+    return getBounds2D().getBounds();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Rectangle2D getBounds2D() {
+    float x1 = (float) minX;
+    float y1 = (float) minY;
+    float x2 = (float) maxX;
+    float y2 = (float) maxY;
+    return new Rectangle2D.Float(x1, y1, x2 - x1, y2 - y1);
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Uses the non-zero winding rule with the same crossing test as {@link
+   * java.awt.geom.Path2D}, so points on the edges are classified the same
+   * way.
+   */
+  @Override
+  public boolean contains(double x, double y) {
+    if (x < minX || x >= maxX || y < minY || y >= maxY) {
+      return false;
+    }
+    int crossings = 0;
+    for(int i = 0; i < 4; i++) {
+      int j = (i + 1) % 4;
+      crossings += pointCrossingsForLine(x, y,
+                                         corners[2 * i], corners[2 * i + 1],
+                                         corners[2 * j], corners[2 * j + 1]);
+    }
+    return crossings != 0;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean contains(Point2D p) {
+    return contains(p.getX(), p.getY());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean intersects(double x, double y, double w, double h) {
+    if (Double.isNaN(x + w) || Double.isNaN(y + h) || w <= 0 || h <= 0) {
+      return false;
+    }
+    if (maxX <= x || x + w <= minX || maxY <= y || y + h <= minY) {
+      return false;
+    }
+    double[] rect = { x, y, x + w, y, x + w, y + h, x, y + h };
+    return !separatedAlongEdgeNormals(this, rect);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean intersects(Rectangle2D r) {
+    return intersects(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean contains(double x, double y, double w, double h) {
+    if (w <= 0 || h <= 0) {
+      return false;
+    }
+    // the rectangle is convex, so it contains a box if it contains its corners
+    return contains(x, y) && contains(x + w, y) &&
+           contains(x, y + h) && contains(x + w, y + h);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean contains(Rectangle2D r) {
+    return contains(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PathIterator getPathIterator(final AffineTransform at) {
+    return new PathIterator() {
+      /** The index of the current segment; 4 is the close */
+      private int index = 0;
+
+      @Override
+      public int getWindingRule() {
+        return WIND_NON_ZERO;
+      }
+
+      @Override
+      public boolean isDone() {
+        return index > 4;
+      }
+
+      @Override
+      public void next() {
+        index++;
+      }
+
+      @Override
+      public int currentSegment(float[] coords) {
+        if (index == 4) {
+          return SEG_CLOSE;
+        }
+        coords[0] = (float) corners[2 * index];
+        coords[1] = (float) corners[2 * index + 1];
+        if (at != null) {
+          at.transform(coords, 0, coords, 0, 1);
+        }
+        return index == 0 ? SEG_MOVETO : SEG_LINETO;
+      }
+
+      @Override
+      public int currentSegment(double[] coords) {
+        if (index == 4) {
+          return SEG_CLOSE;
+        }
+        coords[0] = corners[2 * index];
+        coords[1] = corners[2 * index + 1];
+        if (at != null) {
+          at.transform(coords, 0, coords, 0, 1);
+        }
+        return index == 0 ? SEG_MOVETO : SEG_LINETO;
+      }
+    };
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public PathIterator getPathIterator(AffineTransform at, double flatness) {
+    return getPathIterator(at);
+  }
+
+  /////////////////////////////////
+  // PRIVATE METHODS
+  /////////////////////////////////
+
+  /**
+   * Whether the projections of a convex polygon and a rectangle onto either
+   * of the rectangle's edge normals are disjoint.
+   *
+   * @param r        the rectangle supplying the axes
+   * @param polygon  the corners of the polygon, as x0, y0, x1, y1, ...
+   * @return whether one of the rectangle's axes separates the two
+   */
+  private static boolean separatedAlongEdgeNormals(OrientedRectangle r,
+                                                   double[] polygon) {
+    double[] c = r.corners;
+    for(int edge = 0; edge < 2; edge++) {
+      // the normal of the edge from corner edge to corner edge + 1
+      double nx = c[2 * edge + 3] - c[2 * edge + 1];
+      double ny = c[2 * edge] - c[2 * edge + 2];
+      // the rectangle projects onto the normal of one of its edges as the
+      // interval between that edge and the opposite one
+      double r1 = nx * c[2 * edge] + ny * c[2 * edge + 1];
+      double r2 = nx * c[(2 * edge + 4) % 8] + ny * c[(2 * edge + 5) % 8];
+      double rMin = Math.min(r1, r2);
+      double rMax = Math.max(r1, r2);
+      double pMin = Double.POSITIVE_INFINITY;
+      double pMax = Double.NEGATIVE_INFINITY;
+      for(int i = 0; i < polygon.length; i += 2) {
+        double p = nx * polygon[i] + ny * polygon[i + 1];
+        pMin = Math.min(pMin, p);
+        pMax = Math.max(pMax, p);
+      }
+      if (pMax <= rMin || rMax <= pMin) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * The number of times a ray cast to the right of a point crosses a line
+   * segment, counting the direction of the crossing. This is the same test
+   * as {@code sun.awt.geom.Curve.pointCrossingsForLine}.
+   */
+  private static int pointCrossingsForLine(double px, double py,
+                                           double x0, double y0,
+                                           double x1, double y1) {
+    if (py <  y0 && py <  y1) return 0;
+    if (py >= y0 && py >= y1) return 0;
+    if (px >= x0 && px >= x1) return 0;
+    if (px <  x0 && px <  x1) return (y0 < y1) ? 1 : -1;
+    double xintercept = x0 + (py - y0) * (x1 - x0) / (y1 - y0);
+    if (px >= xintercept) return 0;
+    return (y0 < y1) ? 1 : -1;
+  }
+}
@@ -0,0 +1,149 @@
+package aim4.util;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+
+/**
+ * A family of independent random number streams derived from one master
+ * seed. Each stream is named, e.g. after the spawn point that draws from it,
+ * and its seed depends only on the master seed and the name, so the numbers
+ * a component draws do not depend on how many numbers other components have
+ * drawn, or in what order. Streams can be handed to different threads
+ * without changing the results of a run.
+ * <p>
+ * Seeds are derived the way a splittable generator splits: the name is
+ * hashed and mixed into the master seed with the SplitMix64 finalizer.
+ * The streams themselves are {@link Random}s so that they can be used
+ * wherever the global {@link Util#random} was.
+ */
+public class RandomStreams {
+
+  /////////////////////////////////
+  // CONSTANTS
+  /////////////////////////////////
+
+  /** The increment of the SplitMix64 generator */
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  /** The charset names are hashed in */
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /////////////////////////////////
+  // PRIVATE FIELDS
+  /////////////////////////////////
+
+  /** The master seed */
+  private final long masterSeed;
+
+  /////////////////////////////////
+  // CLASS CONSTRUCTORS
+  /////////////////////////////////
+
+  /**
+   * Create a family of random number streams.
+   *
+   * @param masterSeed  the seed all streams are derived from
+   */
+  public RandomStreams(long masterSeed) {
+    this.masterSeed = masterSeed;
+  }
+
+  /////////////////////////////////
+  // PUBLIC METHODS
+  /////////////////////////////////
+
+  /**
+   * Get the master seed.
+   *
+   * @return the master seed
+   */
+  public long getMasterSeed() {
+    return masterSeed;
+  }
+
+  /**
+   * Create the stream with the given name. Streams created with the same
+   * name produce the same numbers.
+   *
+   * @param name  the name of the stream
+   * @return a new generator of the stream
+   */
+  public Random stream(String name) {
+    return new Random(seedOf(name));
+  }
+
+  /**
+   * Create one of a numbered set of streams, e.g. one per vehicle.
+   *
+   * @param name   the name of the set of streams
+   * @param index  the number of the stream in the set
+   * @return a new generator of the stream
+   */
+  public Random stream(String name, long index) {
+    return new Random(seedOf(name, index));
+  }
+
+  /**
+   * Derive a family of streams from one of this family, e.g. for one run of
+   * a batch.
+   *
+   * @param name   the name of the family
+   * @param index  the number of the family
+   * @return the derived family
+   */
+  public RandomStreams split(String name, long index) {
+    return new RandomStreams(seedOf(name, index));
+  }
+
+  /**
+   * Get the seed of the stream with the given name.
+   *
+   * @param name  the name of the stream
+   * @return the seed of the stream
+   */
+  public long seedOf(String name) {
+    return mix64(masterSeed + GOLDEN_GAMMA * (hash(name) | 1L));
+  }
+
+  /**
+   * Get the seed of one of a numbered set of streams.
+   *
+   * @param name   the name of the set of streams
+   * @param index  the number of the stream in the set
+   * @return the seed of the stream
+   */
+  public long seedOf(String name, long index) {
+    return mix64(seedOf(name) + GOLDEN_GAMMA * (index + 1));
+  }
+
+  /////////////////////////////////
+  // PRIVATE METHODS
+  /////////////////////////////////
+
+  /**
+   * The SplitMix64 finalizer.
+   *
+   * @param z  the value to mix
+   * @return the mixed value
+   */
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * A 64-bit FNV-1a hash of a name.
+   *
+   * @param name  the name
+   * @return the hash of the name
+   */
+  private static long hash(String name) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : name.getBytes(UTF_8)) {
+      h ^= (b & 0xff);
+      h *= 0x100000001b3L;
+    }
+    return h;
+  }
+}
@@ -0,0 +1,242 @@
+package aim4.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes fixed-size records of numbers to a log on a background thread.
+ * The simulation thread copies each record into a ring buffer and carries
+ * on; the writer thread formats the records and writes them in large
+ * chunks. There must be only one thread logging records.
+ */
+public final class StatsLogWriter {
+
+    /////////////////////////////////
+    // NESTED CLASSES
+    /////////////////////////////////
+
+    /**
+     * Turns a record into text. Called on the writer thread.
+     */
+    public interface RecordFormatter {
+        /**
+         * Append a record to the text to write.
+         *
+         * @param records  the ring buffer of records
+         * @param offset   the index of the first field of the record
+         * @param out      where to append the text, including the line end
+         */
+        void format(double[] records, int offset, StringBuilder out);
+    }
+
+    /////////////////////////////////
+    // CONSTANTS
+    /////////////////////////////////
+
+    /** The number of records the ring buffer holds by default */
+    public static final int DEFAULT_CAPACITY = 4096;
+    /** The amount of text collected before it is written */
+    private static final int WRITE_CHUNK_SIZE = 1 << 16;
+    /** How long the writer thread sleeps when there is nothing to write */
+    private static final long IDLE_WAIT_NANOS = 10000000L;
+    /** How long the logging thread sleeps when the ring buffer is full */
+    private static final long FULL_WAIT_NANOS = 100000L;
+
+    /////////////////////////////////
+    // PRIVATE FIELDS
+    /////////////////////////////////
+
+    /** The ring buffer of records, one after another */
+    private final double[] records;
+    /** The number of fields in a record */
+    private final int recordSize;
+    /** The number of records the ring buffer holds */
+    private final int capacity;
+    /** The number of records logged so far */
+    private volatile long logged = 0;
+    /** The number of records taken out of the ring buffer so far */
+    private volatile long taken = 0;
+    /** Whether no more records will be logged */
+    private volatile boolean closed = false;
+    /** Where the text goes */
+    private final Writer out;
+    /** Turns the records into text */
+    private final RecordFormatter formatter;
+    /** The text not yet written; guarded by itself */
+    private final StringBuilder chunk = new StringBuilder(WRITE_CHUNK_SIZE);
+    /** The characters of the chunk being written; guarded by the chunk */
+    private char[] chunkChars = new char[WRITE_CHUNK_SIZE];
+    /** The background thread */
+    private final Thread writerThread;
+    /** The first error writing the log; nothing more is written after it */
+    private volatile IOException error = null;
+
+    /////////////////////////////////
+    // CLASS CONSTRUCTORS
+    /////////////////////////////////
+
+    /**
+     * Create a log writer and start its background thread.
+     *
+     * @param out         where to write the text; closed with this writer
+     * @param recordSize  the number of fields in a record
+     * @param capacity    the number of records the ring buffer holds
+     * @param formatter   turns the records into text
+     */
+    public StatsLogWriter(Writer out, int recordSize, int capacity,
+                          RecordFormatter formatter) {
+        this.out = out;
+        this.recordSize = recordSize;
+        this.capacity = capacity;
+        this.records = new double[recordSize * capacity];
+        this.formatter = formatter;
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeRecords();
+            }
+        }, "StatsLogWriter");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    /**
+     * Add a record to the log. Waits only if the ring buffer is full.
+     *
+     * @param record  the fields of the record; only the first recordSize are
+     *                used, and the array may be reused once this returns
+     */
+    public void log(double[] record) {
+        if (closed) {
+            throw new IllegalStateException("The log has been closed.");
+        }
+        long n = logged;
+        while (n - taken >= capacity) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(FULL_WAIT_NANOS);
+        }
+        System.arraycopy(record, 0, records, (int) (n % capacity) * recordSize,
+                         recordSize);
+        logged = n + 1;
+        if (n - taken == capacity / 2) {
+            // don't let the buffer fill up while the writer is asleep
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * Write a line of text after all the records logged so far.
+     *
+     * @param line  the line, without a line end
+     */
+    public void writeLine(String line) {
+        waitUntilTaken();
+        synchronized (chunk) {
+            chunk.append(line).append(System.lineSeparator());
+            if (chunk.length() >= WRITE_CHUNK_SIZE) {
+                writeChunk();
+            }
+        }
+    }
+
+    /**
+     * Write everything logged, stop the background thread and close the
+     * underlying writer.
+     *
+     * @throws IOException if the log could not be written
+     */
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writerThread);
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        synchronized (chunk) {
+            writeChunk();
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /////////////////////////////////
+    // PRIVATE METHODS
+    /////////////////////////////////
+
+    /**
+     * The loop of the writer thread.
+     */
+    private void writeRecords() {
+        while (true) {
+            long n = taken;
+            if (n == logged) {
+                if (closed && n == logged) {
+                    return;
+                }
+                LockSupport.parkNanos(IDLE_WAIT_NANOS);
+                continue;
+            }
+            synchronized (chunk) {
+                for (long end = logged; n < end; n++) {
+                    formatter.format(records, (int) (n % capacity) * recordSize,
+                                     chunk);
+                    taken = n + 1;
+                    if (chunk.length() >= WRITE_CHUNK_SIZE) {
+                        writeChunk();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait until the writer thread has taken every record logged.
+     */
+    private void waitUntilTaken() {
+        while (taken != logged && writerThread.isAlive()) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(FULL_WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Write the collected text. Must hold the lock on the chunk.
+     */
+    private void writeChunk() {
+        if (chunk.length() == 0) {
+            return;
+        }
+        if (error == null) {
+            if (chunkChars.length < chunk.length()) {
+                chunkChars = new char[chunk.length()];
+            }
+            chunk.getChars(0, chunk.length(), chunkChars, 0);
+            try {
+                out.write(chunkChars, 0, chunk.length());
+            } catch (IOException e) {
+                error = e;
+            }
+        }
+        chunk.setLength(0);
+    }
+}
@@ -33,6 +33,9 @@ package aim4.util;
 import java.awt.Shape;
 import java.awt.geom.Area;
 import java.awt.geom.Rectangle2D;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -167,6 +170,62 @@ public class TiledArea {
     identifyEdgeTiles();
   }
 
+  /**
+   * Create a tiled area for an area which is a translation of the area of
+   * another tiled area.  The tiles are laid out from the bounding box of the
+   * area as usual, but which of them are in the area and which are edge
+   * tiles is copied from the other tiled area instead of being tested
+   * against the area.
+   *
+   * @param area      the area
+   * @param template  the tiled area of the area before the translation
+   */
+  public TiledArea(Area area, TiledArea template) {
+    this.area = area;
+    this.rectangle = area.getBounds2D();
+    this.xLength = template.xLength;
+    this.yLength = template.yLength;
+    this.xNum = template.xNum;
+    this.yNum = template.yNum;
+    tiles = new Tile[xNum][yNum];
+    idToTiles = new ArrayList<Tile>(template.numberOfTiles);
+    for(Tile templateTile : template.idToTiles) {
+      int x = templateTile.getX();
+      int y = templateTile.getY();
+      tiles[x][y] = new Tile(tileRectangle(x, y), x, y, templateTile.getId());
+      tiles[x][y].setEdgeTile(templateTile.isEdgeTile());
+      idToTiles.add(tiles[x][y]);
+    }
+    numberOfTiles = template.numberOfTiles;
+  }
+
+  /**
+   * Create a tiled area from the tiles written by
+   * {@link #writeTo(DataOutput)}.
+   *
+   * @param in    the buffer to read the tiles from
+   * @param area  the area, which has the bounding box of the area of the
+   *              written tiled area
+   */
+  private TiledArea(ByteBuffer in, Area area) {
+    this.area = area;
+    this.rectangle = area.getBounds2D();
+    this.xLength = in.getDouble();
+    this.yLength = in.getDouble();
+    this.xNum = in.getInt();
+    this.yNum = in.getInt();
+    numberOfTiles = in.getInt();
+    tiles = new Tile[xNum][yNum];
+    idToTiles = new ArrayList<Tile>(numberOfTiles);
+    for(int id = 0; id < numberOfTiles; id++) {
+      int x = in.getInt();
+      int y = in.getInt();
+      tiles[x][y] = new Tile(tileRectangle(x, y), x, y, id);
+      tiles[x][y].setEdgeTile(in.get() != 0);
+      idToTiles.add(tiles[x][y]);
+    }
+  }
+
   /**
    * Create the tiles
    */
@@ -174,20 +233,7 @@ public class TiledArea {
     numberOfTiles = 0;
     for(int x = 0; x < xNum; x++) {
       for(int y = 0; y < yNum; y++) {
-        // Create a tile
-        // Start by finding the offset for this particular tile
-        double xOffset = x * xLength;
-        double yOffset = y * yLength;
-        // These should be granularity most of the time, except on the
-        // last row/column
-        double width = Math.min(xLength, rectangle.getWidth() - xOffset);
-        double height = Math.min(yLength, rectangle.getHeight() - yOffset);
-        // Don't forget to offset from the starting coordinates of the
-        // intersection bounding box
-        Rectangle2D tileRect =
-          new Rectangle2D.Double(rectangle.getMinX() + xOffset,
-                                 rectangle.getMinY() + yOffset,
-                                 width, height);
+        Rectangle2D tileRect = tileRectangle(x, y);
         // Now that we have a rectangle for the tile, we can figure out
         // whether it is actually in the area
         if(area.intersects(tileRect)) {
@@ -200,6 +246,28 @@ public class TiledArea {
     }
   }
 
+  /**
+   * Get the rectangle of a tile.
+   *
+   * @param x  the x-coordinate of the tile
+   * @param y  the y-coordinate of the tile
+   * @return the rectangle of the tile
+   */
+  private Rectangle2D tileRectangle(int x, int y) {
+    // Start by finding the offset for this particular tile
+    double xOffset = x * xLength;
+    double yOffset = y * yLength;
+    // These should be granularity most of the time, except on the
+    // last row/column
+    double width = Math.min(xLength, rectangle.getWidth() - xOffset);
+    double height = Math.min(yLength, rectangle.getHeight() - yOffset);
+    // Don't forget to offset from the starting coordinates of the
+    // intersection bounding box
+    return new Rectangle2D.Double(rectangle.getMinX() + xOffset,
+                                  rectangle.getMinY() + yOffset,
+                                  width, height);
+  }
+
   /**
    * Identify the tiles that are on the edge of the area managed by this
    * tiled area.
@@ -310,6 +378,41 @@ public class TiledArea {
   // PUBLIC METHODS
   /////////////////////////////////
 
+  /**
+   * Write the layout of the tiles, so that it can be read back with
+   * {@link #readFrom(ByteBuffer, Area)} instead of testing each tile against
+   * the area.
+   *
+   * @param out  where to write the tiles
+   * @throws IOException if the tiles cannot be written
+   */
+  public void writeTo(DataOutput out) throws IOException {
+    out.writeDouble(xLength);
+    out.writeDouble(yLength);
+    out.writeInt(xNum);
+    out.writeInt(yNum);
+    out.writeInt(numberOfTiles);
+    for(Tile tile : idToTiles) {
+      out.writeInt(tile.getX());
+      out.writeInt(tile.getY());
+      out.writeByte(tile.isEdgeTile() ? 1 : 0);
+    }
+  }
+
+  /**
+   * Read the tiles written by {@link #writeTo(DataOutput)}.
+   *
+   * @param in    the buffer to read the tiles from
+   * @param area  the area, which has the bounding box of the area of the
+   *              written tiled area
+   * @return the tiled area
+   * @throws java.nio.BufferUnderflowException if the buffer ends before the
+   *                                           tiles
+   */
+  public static TiledArea readFrom(ByteBuffer in, Area area) {
+    return new TiledArea(in, area);
+  }
+
   /**
    * Whether or not the tile are squares.
    *
@@ -279,11 +279,12 @@ public class Util {
    * Choose a number according to a finite probability distribution.
    *
    * @param distribution  the probability distribution
+   * @param random        the random number generator to draw from
    * @return an index of the distribution that is randomly chosen according
    *         to the distribution
    */
-  public static int randomIndex(double[] distribution) {
-    double a = Util.random.nextDouble();
+  public static int randomIndex(double[] distribution, Random random) {
+    double a = random.nextDouble();
     for(int i=0; i<distribution.length; i++) {
       a -= distribution[i];
       if (a<0.0) {
@@ -297,11 +298,12 @@ public class Util {
    * Choose a number according to a finite probability distribution.
    *
    * @param distribution  the probability distribution
+   * @param random        the random number generator to draw from
    * @return an index of the distribution that is randomly chosen according
    *         to the distribution
    */
-  public static int randomIndex(List<Double> distribution) {
-    double a = Util.random.nextDouble();
+  public static int randomIndex(List<Double> distribution, Random random) {
+    double a = random.nextDouble();
     for(int i=0; i<distribution.size(); i++) {
       a -= distribution.get(i);
       if (a<0.0) {
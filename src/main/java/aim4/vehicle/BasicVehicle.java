@@ -43,7 +43,7 @@ import aim4.driver.Driver;
 import aim4.map.track.TrackPosition;
 import aim4.noise.DoubleGauge;
 import aim4.util.GeomMath;
-import aim4.util.GeomUtil;
+import aim4.util.OrientedRectangle;
 import aim4.util.Util;
 
 /**
@@ -1151,13 +1151,18 @@ public abstract class BasicVehicle implements VehicleSimModel {
    */
   private Point2D memoGaugePointBetweenFrontWheels;
   /**
-   * Memoization cache for {@link #getShape()}.
+   * Memoization cache for {@link #getShape()}, updated in place.
    */
-  private Shape memoGetShape;
+  private final OrientedRectangle memoGetShape = new OrientedRectangle();
   /**
-   * Memoization cache for {@link #gaugeShape()}.
+   * Memoization cache for {@link #gaugeShape()}, updated in place.
    */
-  private Shape memoGaugeShape;
+  private final OrientedRectangle memoGaugeShape = new OrientedRectangle();
+  /**
+   * Scratch space for the corners of {@link #memoGetShape} and
+   * {@link #memoGaugeShape}.
+   */
+  private final double[] cornerScratch = new double[8];
 
   /////////////////////////////////
   // CONSTRUCTORS
@@ -1200,23 +1205,6 @@ public abstract class BasicVehicle implements VehicleSimModel {
     clock.record(currentTime);
   }
 
-  /////////////////////////////////
-  // FINALIZE
-  /////////////////////////////////
-
-  /**
-   * {@inheritDoc}
-   */
-  @Override
-  protected void finalize() throws Throwable {
-    super.finalize();
-    // Make sure that the vehicle is unregistered from the Vehicle Registry.
-    if (vin >= 0) {
-      VinRegistry.unregisterVehicle(vin);
-      vin = -1;
-    }
-  }
-
   /////////////////////////////////
   // PUBLIC METHODS
   /////////////////////////////////
@@ -1395,10 +1383,10 @@ public abstract class BasicVehicle implements VehicleSimModel {
    */
   @Override
   public Shape getShape(double extra) {
-    Point2D[] points = spec.getCornerPoints(extra,
-                                            movement.getPosition(),
-                                            movement.getHeading());
-    return GeomUtil.convertPointsToShape(points);
+    double[] corners = new double[8];
+    spec.getCornerPoints(extra, movement.getPosition(), movement.getHeading(),
+                         corners);
+    return new OrientedRectangle(corners);
   }
 
   /**
@@ -1406,7 +1394,7 @@ public abstract class BasicVehicle implements VehicleSimModel {
    */
   @Override
   public List<Line2D> getEdges() {
-    return GeomMath.polygonalShapePerimeterSegments(getShape());
+    return memoGetShape.getEdges();
   }
 
   /**
@@ -1710,8 +1698,11 @@ public abstract class BasicVehicle implements VehicleSimModel {
     speedometer.record(movement.getVelocity());
 
     memoGaugePosition = new Point2D.Double(xometer.read(), yometer.read());
-    memoGetShape = GeomUtil.convertPointsToShape(getCornerPoints());
-    memoGaugeShape = GeomUtil.convertPointsToShape(gaugeCornerPoints());
+    spec.getCornerPoints(movement.getPosition(), movement.getHeading(),
+                         cornerScratch);
+    memoGetShape.setCorners(cornerScratch);
+    spec.getCornerPoints(memoGaugePosition, gaugeHeading(), cornerScratch);
+    memoGaugeShape.setCorners(cornerScratch);
     memoGaugePointBetweenFrontWheels =
         spec.getPointBetweenFrontWheels(gaugePosition(), gaugeHeading());
   }
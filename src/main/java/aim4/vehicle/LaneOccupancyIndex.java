@@ -0,0 +1,405 @@
+package aim4.vehicle;
+
+import aim4.map.Road;
+import aim4.map.lane.Lane;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The vehicles on each lane of a map, sorted by their distance along the
+ * lane. The lanes of a road that run into one another can share one list,
+ * ordered by the distance of each vehicle along its own lane, as the
+ * simulators have always done for the intervalometers.
+ * <p>
+ * The index is kept up to date by calling {@link #update(Collection)} once
+ * per step, after the vehicles have moved. The lists are kept between steps:
+ * the distances of the vehicles already on a list are recomputed in place,
+ * vehicles that left a lane are dropped, vehicles that entered one are
+ * appended, and each list is re-sorted with an insertion sort, which is
+ * close to linear since vehicles rarely overtake one another. Nothing is
+ * allocated unless a vehicle is seen for the first time or a list grows.
+ *
+ * @param <V> the type of the vehicles
+ */
+public class LaneOccupancyIndex<V extends VehicleSimModel> {
+
+    /////////////////////////////////
+    // NESTED CLASSES
+    /////////////////////////////////
+
+    /**
+     * Decides which lanes a vehicle is listed on.
+     *
+     * @param <V> the type of the vehicles
+     */
+    public interface LaneFilter<V> {
+        /**
+         * Whether a vehicle should be listed on a lane it occupies.
+         *
+         * @param vehicle the vehicle
+         * @param lane    a lane the vehicle occupies
+         * @return whether the vehicle should be listed on the lane
+         */
+        boolean accept(V vehicle, Lane lane);
+    }
+
+    /**
+     * The vehicles immediately ahead of and behind a point on a lane.
+     * Reused across queries so that tracking does not allocate.
+     *
+     * @param <V> the type of the vehicles
+     */
+    public static class Neighbours<V> {
+        private V frontVehicle;
+        private double frontDistance;
+        private V rearVehicle;
+        private double rearDistance;
+
+        /**
+         * Get the first vehicle at or after the point.
+         *
+         * @return the vehicle, or null if there is none
+         */
+        public V getFrontVehicle() {
+            return frontVehicle;
+        }
+
+        /**
+         * Get the distance along its lane of the front vehicle.
+         *
+         * @return the distance; undefined if there is no front vehicle
+         */
+        public double getFrontDistance() {
+            return frontDistance;
+        }
+
+        /**
+         * Get the last vehicle before the point.
+         *
+         * @return the vehicle, or null if there is none
+         */
+        public V getRearVehicle() {
+            return rearVehicle;
+        }
+
+        /**
+         * Get the distance along its lane of the rear vehicle.
+         *
+         * @return the distance; undefined if there is no rear vehicle
+         */
+        public double getRearDistance() {
+            return rearDistance;
+        }
+    }
+
+    /**
+     * The indexed state of one vehicle.
+     */
+    private static class Record<V> {
+        private final V vehicle;
+        /**The lanes the vehicle is listed on**/
+        private Lane[] lanes = new Lane[2];
+        private int laneCount = 0;
+        /**The update in which the vehicle was last seen**/
+        private int stamp;
+        /**The vehicle in front of it on its lists**/
+        private V next;
+
+        private Record(V vehicle) {
+            this.vehicle = vehicle;
+        }
+
+        private boolean isListedOn(Lane lane) {
+            for(int i = 0; i < laneCount; i++) {
+                if(lanes[i] == lane)
+                    return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The vehicles on one lane, or on a lane and the lanes it runs into,
+     * sorted by their distance along their own lane.
+     */
+    private static class LaneList<V> {
+        private Record<V>[] records;
+        private Lane[] lanes;
+        private double[] distances;
+        private int size = 0;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private LaneList() {
+            records = new Record[8];
+            lanes = new Lane[8];
+            distances = new double[8];
+        }
+
+        private void add(Record<V> record, Lane lane) {
+            if(size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+                lanes = Arrays.copyOf(lanes, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            records[size] = record;
+            lanes[size] = lane;
+            size++;
+        }
+
+        /**
+         * The index of the first vehicle whose distance is no less than the
+         * given one, or size if there is none.
+         */
+        private int ceilingIndex(double distance) {
+            int low = 0;
+            int high = size;
+            while(low < high) {
+                int mid = (low + high) >>> 1;
+                if(distances[mid] < distance)
+                    low = mid + 1;
+                else
+                    high = mid;
+            }
+            return low;
+        }
+    }
+
+    /////////////////////////////////
+    // PRIVATE FIELDS
+    /////////////////////////////////
+
+    /**Whether a lane shares its list with the lanes it runs into**/
+    private final boolean chainsNextLanes;
+    /**The lists, in the order of the roads and lanes of the map**/
+    private LaneList<V>[] lists;
+    /**The list each lane of the map is on**/
+    private final Map<Lane, LaneList<V>> laneToList = new HashMap<Lane, LaneList<V>>();
+    /**The number of lanes of the roads the lists were built from**/
+    private int roadLaneCount;
+    /**The record of each vehicle seen in the last update, keyed by VIN**/
+    private final Map<Integer, Record<V>> records = new HashMap<Integer, Record<V>>();
+    /**The number of the current update**/
+    private int stamp = 0;
+    /**The lanes of the vehicle being updated**/
+    private Lane[] laneBuffer = new Lane[2];
+
+    /////////////////////////////////
+    // CLASS CONSTRUCTORS
+    /////////////////////////////////
+
+    /**
+     * Create an empty index.
+     *
+     * @param roads             the roads of the map
+     * @param chainsNextLanes   whether a lane shares its list with the lanes it
+     *                          runs into
+     */
+    public LaneOccupancyIndex(List<Road> roads, boolean chainsNextLanes) {
+        this.chainsNextLanes = chainsNextLanes;
+        buildLists(roads);
+    }
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    /**
+     * Follow a map whose roads can change. If the lanes of the roads are not
+     * the ones the lists were built from, the lists are rebuilt and filled
+     * again on the next update; otherwise nothing happens.
+     *
+     * @param roads the current roads of the map
+     */
+    public void setRoads(List<Road> roads) {
+        int count = 0;
+        for(Road road : roads) {
+            for(Lane lane : road.getLanes()) {
+                if(!laneToList.containsKey(lane)) {
+                    rebuild(roads);
+                    return;
+                }
+                count++;
+            }
+        }
+        if(count != roadLaneCount)
+            rebuild(roads);
+    }
+
+    /**
+     * List every vehicle on every lane it occupies.
+     *
+     * @param vehicles all vehicles in the simulation
+     */
+    public void update(Collection<? extends V> vehicles) {
+        update(vehicles, null);
+    }
+
+    /**
+     * List every vehicle on the lanes it occupies that the filter accepts.
+     * Lanes that are not part of the map are ignored.
+     *
+     * @param vehicles all vehicles in the simulation
+     * @param filter   which lanes to list a vehicle on; null for all of them
+     */
+    public void update(Collection<? extends V> vehicles, LaneFilter<? super V> filter) {
+        stamp++;
+        // find the lanes of each vehicle, appending it to the lists of lanes
+        // it was not on before
+        for(V vehicle : vehicles) {
+            Record<V> record = records.get(vehicle.getVIN());
+            if(record == null) {
+                record = new Record<V>(vehicle);
+                records.put(vehicle.getVIN(), record);
+            }
+            int laneCount = 0;
+            for(Lane lane : vehicle.getDriver().getCurrentlyOccupiedLanes()) {
+                LaneList<V> list = laneToList.get(lane);
+                if(list == null || (filter != null && !filter.accept(vehicle, lane)))
+                    continue;
+                if(laneCount == laneBuffer.length)
+                    laneBuffer = Arrays.copyOf(laneBuffer, laneCount * 2);
+                laneBuffer[laneCount++] = lane;
+                if(!record.isListedOn(lane))
+                    list.add(record, lane);
+            }
+            if(record.lanes.length < laneCount)
+                record.lanes = new Lane[laneBuffer.length];
+            System.arraycopy(laneBuffer, 0, record.lanes, 0, laneCount);
+            record.laneCount = laneCount;
+            record.stamp = stamp;
+            record.next = null;
+        }
+        // forget the vehicles that have left the simulation
+        for(Iterator<Record<V>> iter = records.values().iterator(); iter.hasNext();) {
+            if(iter.next().stamp != stamp)
+                iter.remove();
+        }
+        // drop the stale entries, recompute the distances and re-sort
+        for(LaneList<V> list : lists) {
+            int n = 0;
+            for(int i = 0; i < list.size; i++) {
+                Record<V> record = list.records[i];
+                Lane lane = list.lanes[i];
+                if(record.stamp == stamp && record.isListedOn(lane)) {
+                    list.records[n] = record;
+                    list.lanes[n] = lane;
+                    list.distances[n] = lane.distanceAlongLane(record.vehicle.getPosition());
+                    n++;
+                }
+            }
+            for(int i = n; i < list.size; i++) {
+                list.records[i] = null;
+                list.lanes[i] = null;
+            }
+            list.size = n;
+            insertionSort(list);
+            // a vehicle on several lists takes the next vehicle from the last
+            // list on which it has one
+            for(int i = 0; i + 1 < list.size; i++) {
+                list.records[i].next = list.records[i + 1].vehicle;
+            }
+        }
+    }
+
+    /**
+     * Get the vehicle immediately in front of a vehicle on the lanes it is
+     * listed on.
+     *
+     * @param vehicle the vehicle
+     * @return the vehicle in front of it, or null if there is none
+     */
+    public V getNextVehicle(V vehicle) {
+        Record<V> record = records.get(vehicle.getVIN());
+        return record == null ? null : record.next;
+    }
+
+    /**
+     * Find the vehicles immediately ahead of and behind a point on a lane.
+     * The front vehicle is the first one whose distance is no less than the
+     * given distance; the rear vehicle is the last one whose distance is
+     * less than it.
+     *
+     * @param lane       the lane
+     * @param distance   the distance along the lane
+     * @param neighbours where to put the vehicles found
+     */
+    public void findNeighbours(Lane lane, double distance, Neighbours<V> neighbours) {
+        neighbours.frontVehicle = null;
+        neighbours.rearVehicle = null;
+        LaneList<V> list = laneToList.get(lane);
+        if(list == null)
+            return;
+        int i = list.ceilingIndex(distance);
+        if(i < list.size) {
+            neighbours.frontVehicle = list.records[i].vehicle;
+            neighbours.frontDistance = list.distances[i];
+        }
+        if(i > 0) {
+            neighbours.rearVehicle = list.records[i - 1].vehicle;
+            neighbours.rearDistance = list.distances[i - 1];
+        }
+    }
+
+    /////////////////////////////////
+    // PRIVATE METHODS
+    /////////////////////////////////
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void buildLists(List<Road> roads) {
+        List<LaneList<V>> orderedLists = new ArrayList<LaneList<V>>();
+        laneToList.clear();
+        roadLaneCount = 0;
+        for(Road road : roads) {
+            for(Lane lane : road.getLanes()) {
+                roadLaneCount++;
+                if(laneToList.containsKey(lane))
+                    continue;
+                LaneList<V> list = new LaneList<V>();
+                orderedLists.add(list);
+                laneToList.put(lane, list);
+                if(chainsNextLanes) {
+                    Lane currLane = lane;
+                    while(currLane.hasNextLane()) {
+                        currLane = currLane.getNextLane();
+                        laneToList.put(currLane, list);
+                    }
+                }
+            }
+        }
+        lists = orderedLists.toArray(new LaneList[orderedLists.size()]);
+    }
+
+    private void rebuild(List<Road> roads) {
+        buildLists(roads);
+        // the new lists are empty, so every vehicle has to be added again
+        for(Record<V> record : records.values()) {
+            record.laneCount = 0;
+        }
+    }
+
+    private static <V> void insertionSort(LaneList<V> list) {
+        for(int i = 1; i < list.size; i++) {
+            double distance = list.distances[i];
+            if(distance >= list.distances[i - 1])
+                continue;
+            Record<V> record = list.records[i];
+            Lane lane = list.lanes[i];
+            int j = i - 1;
+            while(j >= 0 && list.distances[j] > distance) {
+                list.records[j + 1] = list.records[j];
+                list.lanes[j + 1] = list.lanes[j];
+                list.distances[j + 1] = list.distances[j];
+                j--;
+            }
+            list.records[j + 1] = record;
+            list.lanes[j + 1] = lane;
+            list.distances[j + 1] = distance;
+        }
+    }
+}
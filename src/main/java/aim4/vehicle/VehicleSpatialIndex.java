@@ -0,0 +1,298 @@
+package aim4.vehicle;
+
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A uniform grid over the bounding boxes of the active vehicles of a
+ * simulation. Each vehicle is stored in every cell its bounding box
+ * overlaps, so region queries and collision checks only look at the
+ * vehicles near the region rather than every vehicle in the simulation.
+ * <p>
+ * The index is kept up to date by calling {@link #update(VehicleSimModel)}
+ * after a vehicle moves (which also inserts vehicles not yet indexed) and
+ * {@link #remove(VehicleSimModel)} when it leaves the simulation.
+ *
+ * @param <V> the type of the vehicles
+ */
+public class VehicleSpatialIndex<V extends VehicleSimModel> {
+
+    /////////////////////////////////
+    // CONSTANTS
+    /////////////////////////////////
+
+    /**
+     * The default width and height of a cell, in meters. Roughly one car
+     * length, so most vehicles overlap at most four cells.
+     */
+    public static final double DEFAULT_CELL_SIZE = 8.0;
+
+    /////////////////////////////////
+    // NESTED CLASSES
+    /////////////////////////////////
+
+    /**
+     * The indexed state of one vehicle: its bounding box at the last update
+     * and the range of cells that box overlaps.
+     */
+    private static class Entry<V> {
+        private final V vehicle;
+        private Rectangle2D bounds;
+        private int minCellX;
+        private int minCellY;
+        private int maxCellX;
+        private int maxCellY;
+
+        private Entry(V vehicle) {
+            this.vehicle = vehicle;
+        }
+    }
+
+    /////////////////////////////////
+    // PRIVATE FIELDS
+    /////////////////////////////////
+
+    /**The width and height of a cell**/
+    private final double cellSize;
+    /**The entries of the vehicles in each non-empty cell**/
+    private final Map<Long, List<Entry<V>>> cells = new HashMap<Long, List<Entry<V>>>();
+    /**The entry of each indexed vehicle, keyed by VIN**/
+    private final Map<Integer, Entry<V>> entries = new HashMap<Integer, Entry<V>>();
+
+    /////////////////////////////////
+    // CLASS CONSTRUCTORS
+    /////////////////////////////////
+
+    public VehicleSpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Create an empty index.
+     *
+     * @param cellSize the width and height of a grid cell, in meters
+     */
+    public VehicleSpatialIndex(double cellSize) {
+        if(cellSize <= 0)
+            throw new IllegalArgumentException("Cell size must be positive: " + cellSize);
+        this.cellSize = cellSize;
+    }
+
+    /////////////////////////////////
+    // PUBLIC METHODS
+    /////////////////////////////////
+
+    /**
+     * Record the current position of a vehicle, inserting it if it is not
+     * indexed yet.
+     *
+     * @param vehicle the vehicle
+     */
+    public void update(V vehicle) {
+        Entry<V> entry = entries.get(vehicle.getVIN());
+        Rectangle2D bounds = vehicle.getShape().getBounds2D();
+        int minCellX = cellIndex(bounds.getMinX());
+        int minCellY = cellIndex(bounds.getMinY());
+        int maxCellX = cellIndex(bounds.getMaxX());
+        int maxCellY = cellIndex(bounds.getMaxY());
+        if(entry == null) {
+            entry = new Entry<V>(vehicle);
+            entries.put(vehicle.getVIN(), entry);
+        } else if(entry.minCellX == minCellX && entry.minCellY == minCellY &&
+                entry.maxCellX == maxCellX && entry.maxCellY == maxCellY) {
+            entry.bounds = bounds;
+            return;
+        } else {
+            removeFromCells(entry);
+        }
+        entry.bounds = bounds;
+        entry.minCellX = minCellX;
+        entry.minCellY = minCellY;
+        entry.maxCellX = maxCellX;
+        entry.maxCellY = maxCellY;
+        for(int x = minCellX; x <= maxCellX; x++) {
+            for(int y = minCellY; y <= maxCellY; y++) {
+                Long key = cellKey(x, y);
+                List<Entry<V>> cell = cells.get(key);
+                if(cell == null) {
+                    cell = new ArrayList<Entry<V>>(4);
+                    cells.put(key, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Remove a vehicle from the index. Does nothing if it is not indexed.
+     *
+     * @param vehicle the vehicle
+     */
+    public void remove(V vehicle) {
+        Entry<V> entry = entries.remove(vehicle.getVIN());
+        if(entry != null)
+            removeFromCells(entry);
+    }
+
+    /**
+     * Remove all vehicles from the index.
+     */
+    public void clear() {
+        cells.clear();
+        entries.clear();
+    }
+
+    /**
+     * Get the number of indexed vehicles.
+     *
+     * @return the number of indexed vehicles
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Whether the shape of any vehicle intersects a rectangle. Equivalent to
+     * testing {@code vehicle.getShape().intersects(region)} for every vehicle.
+     *
+     * @param region the rectangle
+     * @return whether any vehicle intersects the rectangle
+     */
+    public boolean anyShapeIntersects(Rectangle2D region) {
+        for(Entry<V> entry : candidates(region)) {
+            if(entry.vehicle.getShape().intersects(region))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether a shape intersects the bounding box of any vehicle. Equivalent
+     * to testing {@code zone.intersects(vehicle.getShape().getBounds2D())}
+     * for every vehicle.
+     *
+     * @param zone the shape
+     * @return whether the shape intersects any vehicle's bounding box
+     */
+    public boolean anyBoundsIntersect(Shape zone) {
+        for(Entry<V> entry : candidates(zone.getBounds2D())) {
+            if(zone.intersects(entry.bounds))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether a vehicle's shape lies entirely outside a rectangle, i.e.
+     * {@code !vehicle.getShape().intersects(region)}. The exact test is only
+     * done when the vehicle's indexed bounding box straddles the rectangle's
+     * edge; vehicles not in the index are always tested exactly.
+     *
+     * @param vehicle the vehicle
+     * @param region  the rectangle, usually the map boundary
+     * @return whether the vehicle is outside the rectangle
+     */
+    public boolean isOutside(V vehicle, Rectangle2D region) {
+        Entry<V> entry = entries.get(vehicle.getVIN());
+        if(entry != null && entry.vehicle == vehicle) {
+            if(region.contains(entry.bounds))
+                return false;
+            if(!region.intersects(entry.bounds))
+                return true;
+        }
+        return !vehicle.getShape().intersects(region);
+    }
+
+    /**
+     * Find every pair of vehicles whose shapes overlap. Only vehicles that
+     * share a cell and whose bounding boxes overlap are tested with
+     * {@link VehicleUtil#collision(VehicleSimModel, VehicleSimModel)}.
+     *
+     * @return the colliding pairs, each as a two element list
+     */
+    public List<List<V>> findCollisions() {
+        List<List<V>> collisions = new ArrayList<List<V>>();
+        for(Map.Entry<Long, List<Entry<V>>> cell : cells.entrySet()) {
+            List<Entry<V>> occupants = cell.getValue();
+            if(occupants.size() < 2)
+                continue;
+            long key = cell.getKey();
+            for(int i = 0; i < occupants.size() - 1; i++) {
+                Entry<V> a = occupants.get(i);
+                for(int j = i + 1; j < occupants.size(); j++) {
+                    Entry<V> b = occupants.get(j);
+                    if(!a.bounds.intersects(b.bounds))
+                        continue;
+                    // a pair sharing several cells is only tested in the cell
+                    // holding the corner of their overlap, so it is reported once
+                    if(cellKey(Math.max(a.minCellX, b.minCellX), Math.max(a.minCellY, b.minCellY)) != key)
+                        continue;
+                    if(VehicleUtil.collision(a.vehicle, b.vehicle)) {
+                        List<V> pair = new ArrayList<V>(2);
+                        pair.add(a.vehicle);
+                        pair.add(b.vehicle);
+                        collisions.add(pair);
+                    }
+                }
+            }
+        }
+        return collisions;
+    }
+
+    /////////////////////////////////
+    // PRIVATE METHODS
+    /////////////////////////////////
+
+    /**
+     * Get the entries of the vehicles sharing a cell with a rectangle whose
+     * bounding boxes intersect it. Each entry appears at most once.
+     */
+    private List<Entry<V>> candidates(Rectangle2D region) {
+        int minCellX = cellIndex(region.getMinX());
+        int minCellY = cellIndex(region.getMinY());
+        int maxCellX = cellIndex(region.getMaxX());
+        int maxCellY = cellIndex(region.getMaxY());
+        List<Entry<V>> candidates = new ArrayList<Entry<V>>();
+        for(int x = minCellX; x <= maxCellX; x++) {
+            for(int y = minCellY; y <= maxCellY; y++) {
+                List<Entry<V>> cell = cells.get(cellKey(x, y));
+                if(cell == null)
+                    continue;
+                for(Entry<V> entry : cell) {
+                    // report each entry from the first cell it shares with the region only
+                    if(x != Math.max(minCellX, entry.minCellX) || y != Math.max(minCellY, entry.minCellY))
+                        continue;
+                    if(entry.bounds.intersects(region))
+                        candidates.add(entry);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private void removeFromCells(Entry<V> entry) {
+        for(int x = entry.minCellX; x <= entry.maxCellX; x++) {
+            for(int y = entry.minCellY; y <= entry.maxCellY; y++) {
+                Long key = cellKey(x, y);
+                List<Entry<V>> cell = cells.get(key);
+                if(cell == null)
+                    continue;
+                cell.remove(entry);
+                if(cell.isEmpty())
+                    cells.remove(key);
+            }
+        }
+    }
+
+    private int cellIndex(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+}
@@ -453,26 +453,40 @@ public class VehicleSpec {
    * @return         an array of points representing the four corners.
    */
   public Point2D[] getCornerPoints(Point2D pos, double heading) {
-    Point2D[] result = new Point2D.Double[4];
+    double[] corners = new double[8];
+    getCornerPoints(pos, heading, corners);
+    return toPoints(corners);
+  }
+
+  /**
+   * Get the current global coordinates of the corners of this Vehicle
+   * without allocating any points.
+   *
+   * @param pos      the position of the vehicle
+   * @param heading  the heading of the vehicle
+   * @param result   an array of at least eight elements to which the
+   *                 corners are written, counterclockwise, as
+   *                 x0, y0, x1, y1, x2, y2, x3, y3
+   */
+  public void getCornerPoints(Point2D pos, double heading, double[] result) {
     double x;
     double y;
     // First point, counterclockwise
     x = pos.getX() + halfWidth * Math.cos(heading + Math.PI/2);
     y = pos.getY() + halfWidth * Math.sin(heading + Math.PI/2);
-    result[0] = new Point2D.Double(x,y);
+    result[0] = x;
+    result[1] = y;
     // Second point
-    x = x + length * Math.cos(heading + Math.PI);
-    y = y + length * Math.sin(heading + Math.PI);
-    result[1] = new Point2D.Double(x,y);
+    result[2] = x + length * Math.cos(heading + Math.PI);
+    result[3] = y + length * Math.sin(heading + Math.PI);
     // Fourth point
     x = pos.getX() + halfWidth * Math.cos(heading - Math.PI/2);
     y = pos.getY() + halfWidth * Math.sin(heading - Math.PI/2);
-    result[3] = new Point2D.Double(x,y);
+    result[6] = x;
+    result[7] = y;
     // Third point
-    x = x + length * Math.cos(heading - Math.PI);
-    y = y + length * Math.sin(heading - Math.PI);
-    result[2] = new Point2D.Double(x,y);
-    return result;
+    result[4] = x + length * Math.cos(heading - Math.PI);
+    result[5] = y + length * Math.sin(heading - Math.PI);
   }
 
 
@@ -486,7 +500,25 @@ public class VehicleSpec {
    * @return         an array of points representing the four "inflated" corners
    */
   public Point2D[] getCornerPoints(double extra, Point2D pos, double heading) {
-    Point2D[] result = new Point2D.Double[4];
+    double[] corners = new double[8];
+    getCornerPoints(extra, pos, heading, corners);
+    return toPoints(corners);
+  }
+
+  /**
+   * Get the current global coordinates of the corners of the Vehicle,
+   * assuming it is larger in each dimension by a fixed amount, without
+   * allocating any points.
+   *
+   * @param extra    the fixed amount to add to each dimension of the Vehicle.
+   * @param pos      the position of the vehicle
+   * @param heading  the heading of the vehicle
+   * @param result   an array of at least eight elements to which the
+   *                 "inflated" corners are written, counterclockwise, as
+   *                 x0, y0, x1, y1, x2, y2, x3, y3
+   */
+  public void getCornerPoints(double extra, Point2D pos, double heading,
+                              double[] result) {
     double x;
     double y;
     // First point, counterclockwise
@@ -494,21 +526,31 @@ public class VehicleSpec {
         ((width + extra)/2) * Math.cos(heading + Math.PI/2);
     y = pos.getY() + (extra/2) * Math.sin(heading) +
         ((width + extra)/2) * Math.sin(heading + Math.PI/2);
-    result[0] = new Point2D.Double(x,y);
+    result[0] = x;
+    result[1] = y;
     // Second point
-    x = x + (length + extra) * Math.cos(heading + Math.PI);
-    y = y + (length + extra) * Math.sin(heading + Math.PI);
-    result[1] = new Point2D.Double(x,y);
+    result[2] = x + (length + extra) * Math.cos(heading + Math.PI);
+    result[3] = y + (length + extra) * Math.sin(heading + Math.PI);
     // Fourth point
     x = pos.getX() + (extra/2) * Math.cos(heading) +
         ((width + extra)/2) * Math.cos(heading - Math.PI/2);
     y = pos.getY() + (extra/2) * Math.sin(heading) +
         ((width + extra)/2) * Math.sin(heading - Math.PI/2);
-    result[3] = new Point2D.Double(x,y);
+    result[6] = x;
+    result[7] = y;
     // Third point
-    x = x + (length + extra) * Math.cos(heading - Math.PI);
-    y = y + (length + extra) * Math.sin(heading - Math.PI);
-    result[2] = new Point2D.Double(x,y);
+    result[4] = x + (length + extra) * Math.cos(heading - Math.PI);
+    result[5] = y + (length + extra) * Math.sin(heading - Math.PI);
+  }
+
+  /**
+   * Convert corners written as x0, y0, ..., x3, y3 to points.
+   */
+  private static Point2D[] toPoints(double[] corners) {
+    Point2D[] result = new Point2D.Double[4];
+    for (int i = 0; i < 4; i++) {
+      result[i] = new Point2D.Double(corners[2 * i], corners[2 * i + 1]);
+    }
     return result;
   }
 
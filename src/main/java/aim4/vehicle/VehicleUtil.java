@@ -39,16 +39,20 @@ import aim4.im.aim.IntersectionManager;
 import aim4.im.merge.MergeManager;
 import aim4.map.lane.Lane;
 import aim4.map.merge.MergeMap;
+import aim4.sim.SimContext;
 import aim4.util.GeomMath;
+import aim4.util.OrientedRectangle;
 import aim4.util.Util;
 import aim4.vehicle.aim.AIMBasicAutoVehicle;
 import aim4.vehicle.merge.MergeBasicAutoVehicle;
 
+import java.awt.Shape;
 import java.awt.geom.Area;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.awt.geom.Line2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The utility functions for vehicles.
@@ -97,17 +101,58 @@ public class VehicleUtil {
 
 
     /////////////////////////////////
-    // PRIVATE FIELDS
+    // NESTED CLASSES
     /////////////////////////////////
 
     /**
-     * Memoization caches for max turn velocities for various vehicle
-     * specification.
+     * The max turn velocities computed in one simulation. Lanes and managers
+     * are told apart by identity, as their IDs are only unique within a map.
+     * The velocities may be looked up and added from several threads at once.
      */
-    private static Map<String,Map<List<Integer>, Double>>
-            memoMaxTurnVelocity = new HashMap<String,Map<List<Integer>,Double>>();
-    private static Map<String,Map<List<Integer>, Double>>
-            memoMaxTurnVelocityMerge = new HashMap<String,Map<List<Integer>,Double>>();
+    public static class TurnVelocityMemo {
+        /** The max turn velocity of each turn */
+        private final ConcurrentMap<TurnKey,Double> velocities =
+                new ConcurrentHashMap<TurnKey,Double>();
+    }
+
+    /**
+     * A turn of a vehicle specification from one lane to another through an
+     * intersection or a merge.
+     */
+    private static final class TurnKey {
+        private final String specName;
+        private final Lane arrivalLane;
+        private final Lane departureLane;
+        private final Object manager;
+
+        private TurnKey(String specName, Lane arrivalLane, Lane departureLane,
+                        Object manager) {
+            this.specName = specName;
+            this.arrivalLane = arrivalLane;
+            this.departureLane = departureLane;
+            this.manager = manager;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TurnKey)) {
+                return false;
+            }
+            TurnKey other = (TurnKey) obj;
+            return specName.equals(other.specName)
+                    && arrivalLane == other.arrivalLane
+                    && departureLane == other.departureLane
+                    && manager == other.manager;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = specName.hashCode();
+            hash = 31 * hash + System.identityHashCode(arrivalLane);
+            hash = 31 * hash + System.identityHashCode(departureLane);
+            return 31 * hash + System.identityHashCode(manager);
+        }
+    }
 
 
     /////////////////////////////////
@@ -116,11 +161,9 @@ public class VehicleUtil {
 
     /**
      * Get the maximum velocity that this Vehicle should make the
-     * turn between lanes through an intersection.  This method relies heavily
-     * on two types of caches.  First, there is a cache for each instance
-     * that is used if the vehicle is a CUSTOM type.  Second, there is a
-     * cache that belongs to the whole Vehicle class that is indexed by
-     * VehicleType, which essentially keeps a shared cache for each VehicleType.
+     * turn between lanes through an intersection.  The velocities are
+     * memoized, per vehicle specification, in the {@link TurnVelocityMemo}
+     * of the current simulation.
      *
      * @param spec          the vehicle's specification
      * @param arrivalLane   the Lane from which the Vehicle is turning
@@ -136,38 +179,30 @@ public class VehicleUtil {
                                          Lane departureLane,
                                          IntersectionManager im) {
 
-        // check to see if the spec has been seem before.
-        if (!memoMaxTurnVelocity.containsKey(spec.getName())) {
-            // if not, create a map for it
-            memoMaxTurnVelocity.put(spec.getName(),
-                    new HashMap<List<Integer>,Double>());
-        }
-
         // check to see if the max turn velocity has been stored in the cache
-        Map<List<Integer>, Double> mmtvs = memoMaxTurnVelocity.get(spec.getName());
-        List<Integer> key = Arrays.asList(arrivalLane.getId(),
-                departureLane.getId(),
-                im.getId());
-        if (!mmtvs.containsKey(key)) {
-            // if not, calculate it and store it in the cache
-            double mtv = calculateMaxTurnVelocity(spec,
+        ConcurrentMap<TurnKey,Double> mmtvs =
+                SimContext.current().getTurnVelocityMemo().velocities;
+        TurnKey key = new TurnKey(spec.getName(), arrivalLane, departureLane, im);
+        Double mtv = mmtvs.get(key);
+        if (mtv == null) {
+            // if not, calculate it and store it in the cache; threads that
+            // race here calculate the same value
+            mtv = calculateMaxTurnVelocity(spec,
                     arrivalLane,
                     departureLane,
                     im);
-            mmtvs.put(key, mtv);
+            mmtvs.putIfAbsent(key, mtv);
         }
 
         // FIXME try to see why we need this hack
-        return Math.max(mmtvs.get(key), MIN_MAX_TURN_VELOCITY);
+        return Math.max(mtv, MIN_MAX_TURN_VELOCITY);
     }
 
     /**
      * Get the maximum velocity that this Vehicle should make the
-     * turn between lanes through a merge.  This method relies heavily
-     * on two types of caches.  First, there is a cache for each instance
-     * that is used if the vehicle is a CUSTOM type.  Second, there is a
-     * cache that belongs to the whole Vehicle class that is indexed by
-     * VehicleType, which essentially keeps a shared cache for each VehicleType.
+     * turn between lanes through a merge.  The velocities are
+     * memoized, per vehicle specification, in the {@link TurnVelocityMemo}
+     * of the current simulation.
      *
      * @param spec          the vehicle's specification
      * @param arrivalLane   the Lane from which the Vehicle is turning
@@ -184,29 +219,22 @@ public class VehicleUtil {
                                          MergeManager mm,
                                          MergeMap map) {
 
-        // check to see if the spec has been seem before.
-        if (!memoMaxTurnVelocityMerge.containsKey(spec.getName())) {
-            // if not, create a map for it
-            memoMaxTurnVelocityMerge.put(spec.getName(),
-                    new HashMap<List<Integer>,Double>());
-        }
-
         // check to see if the max turn velocity has been stored in the cache
-        Map<List<Integer>, Double> mmtvs = memoMaxTurnVelocityMerge.get(spec.getName());
-        List<Integer> key = Arrays.asList(arrivalLane.getId(),
-                departureLane.getId(),
-                mm.getId());
-        if (!mmtvs.containsKey(key)) {
+        ConcurrentMap<TurnKey,Double> mmtvs =
+                SimContext.current().getTurnVelocityMemo().velocities;
+        TurnKey key = new TurnKey(spec.getName(), arrivalLane, departureLane, mm);
+        Double mtv = mmtvs.get(key);
+        if (mtv == null) {
             // if not, calculate it and store it in the cache
-            double mtv = calculateMaxTurnVelocity(spec,
+            mtv = calculateMaxTurnVelocity(spec,
                     arrivalLane,
                     departureLane,
                     mm,
                     map);
-            mmtvs.put(key, mtv);
+            mmtvs.putIfAbsent(key, mtv);
         }
 
-        return Math.max(mmtvs.get(key), MIN_MAX_TURN_VELOCITY);
+        return Math.max(mtv, MIN_MAX_TURN_VELOCITY);
     }
 
 
@@ -752,10 +780,7 @@ public class VehicleUtil {
             // We actually have to check to see if the Area of the
             // Vehicle and the Area of the IntersectionManager have a nonempty
             // intersection
-            Area vehicleArea = new Area(v.getShape());
-            // Important that it is in this order, as it is destructive to the caller
-            vehicleArea.intersect(area);
-            return !vehicleArea.isEmpty();
+            return shapeIntersectsArea(v.getShape(), area);
         }
     }
 
@@ -776,11 +801,55 @@ public class VehicleUtil {
             // We actually have to check to see if the Area of the
             // Vehicle and the Area of the IntersectionManager have a nonempty
             // intersection
-            Area vehicleArea = new Area(v.getShape());
-            // Important that it is in this order, as it is destructive to the caller
-            vehicleArea.intersect(area);
-            return !vehicleArea.isEmpty();
+            return shapeIntersectsArea(v.getShape(), area);
+        }
+    }
+
+    /**
+     * Determine whether the interior of a shape, usually that of a vehicle,
+     * overlaps an area. Shapes whose bounding boxes miss the area are
+     * rejected without building an {@link Area} for the shape, and oriented
+     * rectangles are tested against rectangular areas directly.
+     *
+     * @param shape  the shape
+     * @param area   the area, which is not modified
+     * @return       whether the shape and the area have a nonempty intersection
+     */
+    public static boolean shapeIntersectsArea(Shape shape, Area area) {
+        Rectangle2D areaBounds = area.getBounds2D();
+        if (!shape.getBounds2D().intersects(areaBounds)) {
+            return false;
+        }
+        if (shape instanceof OrientedRectangle && area.isRectangular()) {
+            return shape.intersects(areaBounds);
+        }
+        Area shapeArea = new Area(shape);
+        // Important that it is in this order, as it is destructive to the caller
+        shapeArea.intersect(area);
+        return !shapeArea.isEmpty();
+    }
+
+    /**
+     * Calculate the distance from a point to the nearest edge of a vehicle,
+     * or zero if the point is inside the vehicle.
+     *
+     * @param v    the vehicle
+     * @param pos  the point
+     * @return     the distance from the point to the vehicle
+     */
+    public static double distanceToVehicle(VehicleSimModel v, Point2D pos) {
+        Shape shape = v.getShape();
+        if (shape instanceof OrientedRectangle) {
+            return ((OrientedRectangle) shape).distance(pos.getX(), pos.getY());
+        }
+        if (shape.contains(pos)) {
+            return 0.0;
         }
+        double interval = Double.MAX_VALUE;
+        for (Line2D edge : v.getEdges()) {
+            interval = Math.min(interval, edge.ptSegDist(pos));
+        }
+        return interval;
     }
 
     /**
@@ -791,8 +860,16 @@ public class VehicleUtil {
      * @return      true if the two vehicles have collided, false otherwise
      */
     public static boolean collision(VehicleSimModel v1, VehicleSimModel v2) {
-        Area vehicle1Area = new Area(v1.getShape());
-        Area vehicle2Area = new Area(v2.getShape());
+        Shape shape1 = v1.getShape();
+        Shape shape2 = v2.getShape();
+        if (shape1 instanceof OrientedRectangle && shape2 instanceof OrientedRectangle) {
+            return ((OrientedRectangle) shape1).intersects((OrientedRectangle) shape2);
+        }
+        if (!shape1.getBounds2D().intersects(shape2.getBounds2D())) {
+            return false;
+        }
+        Area vehicle1Area = new Area(shape1);
+        Area vehicle2Area = new Area(shape2);
 
         vehicle1Area.intersect(vehicle2Area);
         return !vehicle1Area.isEmpty();
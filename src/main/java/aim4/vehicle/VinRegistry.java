@@ -30,7 +30,6 @@ OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
 */
 package aim4.vehicle;
 
-import java.lang.ref.WeakReference;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -38,61 +37,223 @@ import aim4.driver.aim.AIMDriver;
 import aim4.driver.cpm.CPMV2VDriver;
 import aim4.map.Road;
 import aim4.map.SpawnPoint;
+import aim4.sim.SimContext;
 
 /**
  * The Vehicle Registry, the class that issues VIN to vehicles.
+ * The static methods operate on the registry of the current
+ * {@link SimContext}, so concurrent simulations issue VINs independently.
  */
 public class VinRegistry {
 
   /////////////////////////////////
-  // PRIVATE FIELDS
+  // NESTED CLASSES
   /////////////////////////////////
 
   /**
-   * This generates a unique identifier for each vehicle, starting with 1000.
+   * The VINs issued within a single simulation. A vehicle is registered
+   * when it is spawned and unregistered by the simulator when it leaves the
+   * map. Its methods are synchronized because the registry may be read from
+   * another thread, such as the GUI's.
    */
-  private static int vinGenerator = 1000;
+  public static class Store {
+
+    /**
+     * This generates a unique identifier for each vehicle, starting with 1000.
+     */
+    private int vinGenerator = 1000;
+
+    /**
+     * A map from VINs to the vehicles in the simulation.
+     */
+    private Map<Integer,VehicleSimModel> vinToVehicle =
+      new HashMap<Integer,VehicleSimModel>();
+
+    /**
+     * A map from VINs to VehicleSpec.
+     */
+    private Map<Integer,VehicleSpec> vinToVehicleSpec =
+      new HashMap<Integer,VehicleSpec>();
+
+    // TODO: remove the following in the future
+
+    /**
+     * A map from VINs to spawn points.
+     */
+    private Map<Integer,SpawnPoint> vinToSpawnPoint =
+      new HashMap<Integer,SpawnPoint>();
+
+    /**
+     * A map from VINs to destination roads.
+     */
+    private Map<Integer,Road> vinToDestRoad =
+      new HashMap<Integer,Road>();
+
+    /**
+     * Reset the registry.
+     */
+    public synchronized void reset() {
+      vinGenerator = 1000;
+      vinToVehicle = new HashMap<Integer,VehicleSimModel>();
+      vinToVehicleSpec = new HashMap<Integer,VehicleSpec>();
+      vinToSpawnPoint = new HashMap<Integer,SpawnPoint>();
+      vinToDestRoad = new HashMap<Integer,Road>();
+    }
 
-  /**
-   * A map from VINs to Vehicles.
-   */
-  private static Map<Integer,WeakReference<VehicleSimModel>> vinToVehicle =
-    new HashMap<Integer,WeakReference<VehicleSimModel>>();
+    /**
+     * Put the vehicle to the registry.
+     *
+     * @param vehicle  the vehicle
+     * @return  a new VIN for the vehicle
+     */
+    public synchronized int registerVehicle(VehicleSimModel vehicle) {
+      assert vinToVehicle.get(vinGenerator) == null;
+      int vin = vinGenerator;
+      vinToVehicle.put(vin, vehicle);
+      vinToVehicleSpec.put(vin, vehicle.getSpec());
+      if(vehicle.getDriver() instanceof AIMDriver) { //TODO: Ugly, fix.
+        vinToSpawnPoint.put(vin, ((AIMDriver) vehicle.getDriver()).getSpawnPoint());
+        vinToDestRoad.put(vin, ((AIMDriver) vehicle.getDriver()).getDestination());
+      }
+      if(vehicle.getDriver() instanceof CPMV2VDriver) { //TODO: Ugly, fix.
+        vinToSpawnPoint.put(vin, ((CPMV2VDriver) vehicle.getDriver()).getSpawnPoint());
+      }
 
-  /**
-   * A map from VINs to VehicleSpec.
-   */
-  private static Map<Integer,VehicleSpec> vinToVehicleSpec =
-    new HashMap<Integer,VehicleSpec>();
 
-  // TODO: remove the following in the future
+      vehicle.setVIN(vin);
 
-  /**
-   * A map from VINs to spawn points.
-   */
-  private static Map<Integer,SpawnPoint> vinToSpawnPoint =
-    new HashMap<Integer,SpawnPoint>();
+      vinGenerator++;
+      return vin;
+    }
 
-  /**
-   * A map from VINs to destination roads.
-   */
-  private static Map<Integer,Road> vinToDestRoad =
-    new HashMap<Integer,Road>();
+    /**
+     * Register the vehicle with an existing VIN.
+     *
+     * @param vehicle  the vehicle
+     * @param vin      the given VIN
+     * @return true if the VIN has not been issued to other vehicle; false if
+     *         the VIN has been used by other vehicle.
+     */
+    public synchronized boolean registerVehicleWithExistingVIN(
+        VehicleSimModel vehicle, int vin) {
+      assert vin >= 0;
+      if (vinToVehicle.containsKey(vin)) {
+        return false;  // the VIN has been used by some other vehicle
+      } else {
+        assert vehicle.getVIN() < 0;
+
+        vinToVehicle.put(vin, vehicle);
+        vinToVehicleSpec.put(vin, vehicle.getSpec());
+        // TODO: think how to resolve the problem.
+        if(vehicle.getDriver() instanceof AIMDriver) { //TODO: Ugly, fix.
+            if (vehicle.getDriver() != null) {
+                vinToSpawnPoint.put(vin, ((AIMDriver) vehicle.getDriver()).getSpawnPoint());
+                vinToDestRoad.put(vin, ((AIMDriver) vehicle.getDriver()).getDestination());
+            } else {
+                vinToSpawnPoint.put(vin, null);
+                vinToDestRoad.put(vin, null);
+            }
+        }
+
+        vehicle.setVIN(vin);
+        if (vin >= vinGenerator) {
+          vinGenerator = vin + 1;
+        }  // else vin < vinGenerator and it would not affect the next vehicle
+        return true;
+      }
+    }
+
+    /**
+     * Remove the vehicle from the registry once it has left the simulation.
+     * The VIN stays issued, and its vehicle specification, spawn point and
+     * destination road can still be looked up.
+     *
+     * @param vin  the VIN of the vehicle
+     */
+    public synchronized void unregisterVehicle(int vin) {
+      if (vinToVehicle.containsKey(vin)) {
+        vinToVehicle.remove(vin);
+        // do not remove the following
+//        vinToVehicleSpec.remove(vin);
+//        vinToSpawnPoint.remove(vin);
+//        vinToDestRoad.remove(vin);
+      } else {
+        throw new RuntimeException("VehicleRegistry:unregisterVehicle: " +
+                                   "Cannot unregister a vehicle twice");
+      }
+    }
+
+    /**
+     * Whether or not the VIN has been issued.
+     *
+     * @param vin  the VIN of the vehicle
+     * @return whether of not the VIN has been issued.
+     */
+    public synchronized boolean isVINexist(int vin) {
+      return vinToVehicleSpec.containsKey(vin);
+    }
+
+    /**
+     * Given a VIN, get the vehicle with that VIN.
+     *
+     * @param vin the VIN of the desired vehicle
+     * @return the corresponding vehicle object; null if the vehicle has
+     *         left the simulation.
+     */
+    public synchronized VehicleSimModel getVehicleFromVIN(int vin) {
+      return vinToVehicle.get(vin);
+    }
+
+    /**
+     * Given a VIN, get the vehicle specification with that VIN.
+     *
+     * @param vin  the VIN of the desired vehicle
+     * @return the corresponding vehicle specification
+     */
+    public synchronized VehicleSpec getVehicleSpecFromVIN(int vin) {
+      return vinToVehicleSpec.get(vin);
+    }
+
+    /**
+     * Get a spawn point from the VIN of a vehicle
+     *
+     * @param vin  the VIN of the vehicle
+     * @return the spawn point
+     */
+    public synchronized SpawnPoint getSpawnPointFromVIN(int vin) {
+      return vinToSpawnPoint.get(vin);
+    }
+
+    /**
+     * Get the destination road from the VIN of a vehicle
+     *
+     * @param vin  the VIN of the vehicle
+     * @return the destination road
+     */
+    public synchronized Road getDestRoadFromVIN(int vin) {
+      return vinToDestRoad.get(vin);
+    }
+  }
 
 
   /////////////////////////////////
   // PUBLIC METHODS
   /////////////////////////////////
 
+  /**
+   * Get the registry of the current simulation.
+   *
+   * @return the registry of the current {@link SimContext}
+   */
+  public static Store getStore() {
+    return SimContext.current().getVinRegistry();
+  }
+
   /**
    * Reset the registry.
    */
   public static void reset() {
-    vinGenerator = 1000;
-    vinToVehicle = new HashMap<Integer,WeakReference<VehicleSimModel>>();
-    vinToVehicleSpec = new HashMap<Integer,VehicleSpec>();
-    vinToSpawnPoint = new HashMap<Integer,SpawnPoint>();
-    vinToDestRoad = new HashMap<Integer,Road>();
+    getStore().reset();
   }
 
   /**
@@ -102,23 +263,7 @@ public class VinRegistry {
    * @return  a new VIN for the vehicle
    */
   public static int registerVehicle(VehicleSimModel vehicle) {
-    assert vinToVehicle.get(vinGenerator) == null;
-    int vin = vinGenerator;
-    vinToVehicle.put(vin, new WeakReference<VehicleSimModel>(vehicle));
-    vinToVehicleSpec.put(vin, vehicle.getSpec());
-    if(vehicle.getDriver() instanceof AIMDriver) { //TODO: Ugly, fix.
-      vinToSpawnPoint.put(vin, ((AIMDriver) vehicle.getDriver()).getSpawnPoint());
-      vinToDestRoad.put(vin, ((AIMDriver) vehicle.getDriver()).getDestination());
-    }
-    if(vehicle.getDriver() instanceof CPMV2VDriver) { //TODO: Ugly, fix.
-      vinToSpawnPoint.put(vin, ((CPMV2VDriver) vehicle.getDriver()).getSpawnPoint());
-    }
-
-
-    vehicle.setVIN(vin);
-
-    vinGenerator++;
-    return vin;
+    return getStore().registerVehicle(vehicle);
   }
 
   /**
@@ -131,50 +276,16 @@ public class VinRegistry {
    */
   public static boolean registerVehicleWithExistingVIN(VehicleSimModel vehicle,
                                                        int vin) {
-    assert vin >= 0;
-    if (vinToVehicle.containsKey(vin)) {
-      return false;  // the VIN has been used by some other vehicle
-    } else {
-      assert vehicle.getVIN() < 0;
-
-      vinToVehicle.put(vin, new WeakReference<VehicleSimModel>(vehicle));
-      vinToVehicleSpec.put(vin, vehicle.getSpec());
-      // TODO: think how to resolve the problem.
-      if(vehicle.getDriver() instanceof AIMDriver) { //TODO: Ugly, fix.
-          if (vehicle.getDriver() != null) {
-              vinToSpawnPoint.put(vin, ((AIMDriver) vehicle.getDriver()).getSpawnPoint());
-              vinToDestRoad.put(vin, ((AIMDriver) vehicle.getDriver()).getDestination());
-          } else {
-              vinToSpawnPoint.put(vin, null);
-              vinToDestRoad.put(vin, null);
-          }
-      }
-
-      vehicle.setVIN(vin);
-      if (vin >= vinGenerator) {
-        vinGenerator = vin + 1;
-      }  // else vin < vinGenerator and it would not affect the next vehicle
-      return true;
-    }
+    return getStore().registerVehicleWithExistingVIN(vehicle, vin);
   }
 
   /**
-   * Remove the vehicle from the registry.
-   * This function should only be used by BasicVehicle.java
+   * Remove the vehicle from the registry once it has left the simulation.
    *
    * @param vin  the VIN of the vehicle
    */
   public static void unregisterVehicle(int vin) {
-    if (vinToVehicle.containsKey(vin)) {
-      vinToVehicle.remove(vin);
-      // do not remove the following
-//      vinToVehicleSpec.remove(vin);
-//      vinToSpawnPoint.remove(vin);
-//      vinToDestRoad.remove(vin);
-    } else {
-      throw new RuntimeException("VehicleRegistry:unregisterVehicle: " +
-                                 "Cannot unregister a vehicle twice");
-    }
+    getStore().unregisterVehicle(vin);
   }
 
   /**
@@ -184,28 +295,18 @@ public class VinRegistry {
    * @return whether of not the VIN has been issued.
    */
   public static boolean isVINexist(int vin) {
-    return vinToVehicleSpec.containsKey(vin);
+    return getStore().isVINexist(vin);
   }
 
   /**
    * Given a VIN, get the vehicle with that VIN.
    *
    * @param vin the VIN of the desired vehicle
-   * @return the corresponding vehicle object; null if the vehicle object
-   *         has been destroyed.
+   * @return the corresponding vehicle object; null if the vehicle has
+   *         left the simulation.
    */
   public static VehicleSimModel getVehicleFromVIN(int vin) {
-    WeakReference<VehicleSimModel> wr = vinToVehicle.get(vin);
-    if(wr == null) {
-      return null;
-    }
-    // Unwrap the reference
-    VehicleSimModel v = wr.get();
-    // If it's null, then the Vehicle no longer exists
-    if(v == null) {
-      vinToVehicle.remove(vin);
-    }
-    return v;
+    return getStore().getVehicleFromVIN(vin);
   }
 
   /**
@@ -215,7 +316,7 @@ public class VinRegistry {
    * @return the corresponding vehicle specification
    */
   public static VehicleSpec getVehicleSpecFromVIN(int vin) {
-    return vinToVehicleSpec.get(vin);
+    return getStore().getVehicleSpecFromVIN(vin);
   }
 
   /**
@@ -225,7 +326,7 @@ public class VinRegistry {
    * @return the spawn point
    */
   public static SpawnPoint getSpawnPointFromVIN(int vin) {
-    return vinToSpawnPoint.get(vin);
+    return getStore().getSpawnPointFromVIN(vin);
   }
 
   /**
@@ -235,7 +336,7 @@ public class VinRegistry {
    * @return the destination road
    */
   public static Road getDestRoadFromVIN(int vin) {
-    return vinToDestRoad.get(vin);
+    return getStore().getDestRoadFromVIN(vin);
   }
 
   /////////////////////////////////
@@ -37,6 +37,7 @@ import java.lang.Math;
 
 import aim4.msg.aim.v2i.Done;
 import aim4.msg.aim.udp.Proxy2RealAdapter;
+import aim4.msg.aim.udp.Proxy2RealOutbox;
 import aim4.msg.aim.udp.Real2ProxyCancel;
 import aim4.msg.aim.udp.Real2ProxyMsg;
 import aim4.msg.aim.udp.Real2ProxyRequest;
@@ -53,7 +54,7 @@ import aim4.msg.aim.udp.Real2ProxyPVUpdate;
 import aim4.msg.aim.v2i.V2IMessage;
 import aim4.msg.aim.v2i.Request.Proposal;
 import aim4.vehicle.BasicVehicle;
-import aim4.vehicle.VehicleSpecDatabase;
+import aim4.vehicle.VehicleSpec;
 
 import java.io.IOException;
 import java.net.DatagramPacket;
@@ -86,6 +87,26 @@ public class ProxyVehicle extends AIMBasicAutoVehicle
    */
   private static final double SEND_INTERVALOMETER_READING_PERIOD = 1.0;
 
+  /**
+   * The specification of MARVIN, the real vehicle.  It is kept out of the
+   * VehicleSpecDatabase so that it is never chosen for spawned vehicles.
+   */
+  private static final VehicleSpec MARVIN_SPEC =
+    new VehicleSpec("MARVIN",
+                    1.01,        // maxAcceleration (m/s/s)
+                  -13.0,        // maxDeceleration (m/s/s)
+                   25.0,        // maxVelocity (m/s)
+                   -0.1,        // minVelocity (m/s)
+                    5.131,      // length (meters)
+                    2.0,        // width (meters)
+                    1.18,       // frontAxleDisplacement (meters)
+                    4.126,      // rearAxleDisplacement (meters)
+                  (2.0-0.33)/2, // wheelSpan (meters)
+                    0.375,      // wheelRadius (meters)
+                    0.33,       // wheelWidth (meters)
+                  Math.PI/3,    // maxSteeringAngle (radian)
+                  Math.PI/3);   // maxTurnPerSecond (radian)
+
 
   /////////////////////////////////
   // PRIVATE FIELDS
@@ -93,6 +114,8 @@ public class ProxyVehicle extends AIMBasicAutoVehicle
 
   /** The socket address */
   SocketAddress sa;
+  /** The outbox of the messages to the real vehicle */
+  private Proxy2RealOutbox outbox;
   /** The last time stamp */
   private double lastTimeStamp;
   /** The next request Id */
@@ -124,10 +147,11 @@ public class ProxyVehicle extends AIMBasicAutoVehicle
                       double targetVelocity,
                       double acceleration,
                       double currentTime) {
-    super(VehicleSpecDatabase.getVehicleSpecByName("MARVIN"), pos, heading,
+    super(MARVIN_SPEC, pos, heading,
           steeringAngle, velocity, targetVelocity, acceleration, currentTime);
     driver = null;
     sa = null;
+    outbox = null;
     lastTimeStamp = Double.MIN_VALUE;
     nextRequestId = 0;
     pvUpdate = null;
@@ -178,6 +202,14 @@ public class ProxyVehicle extends AIMBasicAutoVehicle
     this.sa = sa;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void setOutbox(Proxy2RealOutbox outbox) {
+    this.outbox = outbox;
+  }
+
   /////////////////////////////////
   // PUBLIC METHODS
   /////////////////////////////////
@@ -244,6 +276,29 @@ public class ProxyVehicle extends AIMBasicAutoVehicle
     // super.receive(msg);  // do not call this!
     bitsReceived += msg.getSize();
 
+    if (outbox != null) {
+      // the outbox sends it with the other messages of this time step
+      switch(msg.getMessageType()) {
+      case CONFIRM:
+        Proxy2RealAdapter.writeToByteBuffer((Confirm)msg, outbox.nextBuffer(sa),
+                                            gaugeTime());
+        break;
+      case REJECT:
+        Proxy2RealAdapter.writeToByteBuffer((Reject)msg, outbox.nextBuffer(sa),
+                                            gaugeTime());
+        break;
+      default:
+        assert (false):("Cannot create the UdpAdaptor for a I2VMessage " +
+                        "because the adaptor message has not been " +
+                        "implemented yet");
+        return;  // nothing is queued
+      }
+      if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
+        System.err.printf("Sending a message to real vehicle: %s\n", msg);
+      }
+      return;
+    }
+
     DatagramPacket dp = null;
     switch(msg.getMessageType()) {
     case CONFIRM:
@@ -300,23 +355,29 @@ public class ProxyVehicle extends AIMBasicAutoVehicle
       if (currentTime >= nextIntervalometerReadingTime) {
         System.err.printf("Try sending the intervalometer reading %.2f to " +
         		  "Marvin...\n", getIntervalometer().read());
-        DatagramPacket dp = null;
-        try {
-          dp = Proxy2RealAdapter.toDatagramPacket(getIntervalometer().read(),
-                                                  sa, gaugeTime());
-        } catch (IOException e) {
-          System.err.println("Failed to convert getIntervalometer().read() " +
-          		         "message to a datagram");
-          e.printStackTrace();
-        }
-        try {
-          DatagramSocket ds = new DatagramSocket();
-          ds.send(dp);
-          ds.close();
-          System.err.printf("intervalometer reading sent.\n");
-        } catch (IOException e) {
-          System.err.println("Failed to send a datagram to a real vehicle.");
-          e.printStackTrace();
+        if (outbox != null) {
+          Proxy2RealAdapter.writeToByteBuffer(getIntervalometer().read(),
+                                              outbox.nextBuffer(sa),
+                                              gaugeTime());
+        } else {
+          DatagramPacket dp = null;
+          try {
+            dp = Proxy2RealAdapter.toDatagramPacket(getIntervalometer().read(),
+                                                    sa, gaugeTime());
+          } catch (IOException e) {
+            System.err.println("Failed to convert getIntervalometer().read() " +
+            		         "message to a datagram");
+            e.printStackTrace();
+          }
+          try {
+            DatagramSocket ds = new DatagramSocket();
+            ds.send(dp);
+            ds.close();
+            System.err.printf("intervalometer reading sent.\n");
+          } catch (IOException e) {
+            System.err.println("Failed to send a datagram to a real vehicle.");
+            e.printStackTrace();
+          }
         }
         nextIntervalometerReadingTime =
           currentTime + SEND_INTERVALOMETER_READING_PERIOD;
@@ -399,8 +460,11 @@ public class ProxyVehicle extends AIMBasicAutoVehicle
                                //msg.arrivalVelocity,
                                maxTurnVelocity));
 
-    System.err.printf("msg.arrivalVelocity = %.5f\n", msg.arrivalVelocity);
-    System.err.printf("this.velocity       = %.5f\n\n", movement.getVelocity());
+    if (Debug.SHOW_PROXY_VEHICLE_DEBUG_MSG) {
+      System.err.printf("msg.arrivalVelocity = %.5f\n", msg.arrivalVelocity);
+      System.err.printf("this.velocity       = %.5f\n\n",
+                        movement.getVelocity());
+    }
 
     Request request =
       new Request(vin, // sourceID
@@ -33,6 +33,7 @@ package aim4.vehicle.aim;
 import java.net.SocketAddress;
 
 import aim4.driver.aim.ProxyDriver;
+import aim4.msg.aim.udp.Proxy2RealOutbox;
 import aim4.msg.aim.udp.Real2ProxyMsg;
 
 /**
@@ -63,6 +64,14 @@ public interface ProxyVehicleSimModel extends AIMAutoVehicleSimModel {
    */
   void setSa(SocketAddress sa);
 
+  /**
+   * Set the outbox through which the messages to the real vehicle are sent.
+   * Without an outbox, each message is sent through a socket of its own.
+   *
+   * @param outbox  the outbox, or null for none
+   */
+  void setOutbox(Proxy2RealOutbox outbox);
+
   /**
    * Process the incoming Real2Proxy message
    *
@@ -9,6 +9,7 @@ import aim4.map.lane.Lane;
 import aim4.map.mixedcpm.parking.ManualStall;
 import aim4.map.mixedcpm.parking.StallSpec;
 import aim4.map.mixedcpm.parking.StallType;
+import aim4.util.Logging;
 import aim4.vehicle.BasicAutoVehicle;
 import aim4.vehicle.VehicleSpec;
 import javafx.util.Pair;
@@ -246,7 +247,7 @@ public class MixedCPMBasicManualVehicle extends MixedCPMBasicVehicle {
     }
 
     public void clearV2Vinbox() {
-        System.out.println("V2V inbox cleared");
+        Logging.debug("V2V inbox cleared");
         V2Vinbox = null;
     }
 
@@ -5,6 +5,7 @@ import aim4.driver.Driver;
 import aim4.driver.mixedcpm.MixedCPMDriver;
 import aim4.driver.mixedcpm.coordinator.MixedCPMManualCoordinator;
 import aim4.map.connections.BasicConnection;
+import aim4.util.Logging;
 import aim4.vehicle.BasicAutoVehicle;
 import aim4.vehicle.VehicleSpec;
 
@@ -103,7 +104,7 @@ public abstract class MixedCPMBasicVehicle extends BasicAutoVehicle {
     }
 
     public void clearV2Vinbox() {
-        System.out.println("V2V inbox cleared");
+        Logging.debug("V2V inbox cleared");
         V2Vinbox = null;
     }
 
@@ -0,0 +1,98 @@
+package aim4.im.aim.v2i.reservation;
+
+import aim4.config.SimConfig;
+import aim4.im.aim.Intersection;
+import aim4.im.aim.v2i.V2IManager;
+import aim4.map.aim.GridIntersectionMap;
+import aim4.map.aim.GridMapUtil;
+import aim4.map.lane.Lane;
+import aim4.msg.aim.v2i.Request.VehicleSpecForRequestMsg;
+import aim4.sim.SimContext;
+import aim4.vehicle.VehicleSpecDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ProposalSearchTest {
+    private SimContext previous;
+    private ReservationGridManager manager;
+    private List<Lane> entryLanes;
+    private List<Lane> exitLanes;
+    private VehicleSpecForRequestMsg spec;
+
+    @Before
+    public void setUp() {
+        previous = new SimContext().enter();
+        GridIntersectionMap layout = new GridIntersectionMap(0.0, 1, 1, 4, 25.0, 2, 2, 150);
+        ReservationGridManager.Config config =
+                new ReservationGridManager.Config(SimConfig.TIME_STEP, SimConfig.GRID_TIME_STEP,
+                        0.25, 0.1, 0.25, true, 1.0);
+        GridMapUtil.setFCFSManagers(layout, 0.0, config);
+        V2IManager im = (V2IManager) layout.getManager(0, 0);
+        manager = im.getReservationGridManager();
+        Intersection intersection = im.getIntersection();
+        entryLanes = intersection.getEntryLanes();
+        exitLanes = new ArrayList<Lane>(intersection.getExitLanes());
+        spec = new VehicleSpecForRequestMsg(VehicleSpecDatabase.getVehicleSpecByName("SEDAN"));
+    }
+
+    @After
+    public void tearDown() {
+        SimContext.restore(previous);
+    }
+
+    private ReservationGridManager.Query query(int vin, double arrivalTime, Lane arrival, Lane departure) {
+        return new ReservationGridManager.Query(vin, arrivalTime, 10.0, arrival.getId(), departure.getId(),
+                spec, 10.0, true);
+    }
+
+    /** Reserve a scattering of crossings so that some queries fail. */
+    private void reserveTraffic() {
+        int vin = 1000;
+        for (int i = 0; i < 12; i++) {
+            Lane arrival = entryLanes.get(i % entryLanes.size());
+            Lane departure = exitLanes.get((i * 5) % exitLanes.size());
+            ReservationGridManager.Plan plan = manager.query(query(vin, 1.0 + 0.37 * i, arrival, departure));
+            if (plan != null)
+                manager.accept(plan);
+            vin++;
+        }
+    }
+
+    private static void assertSamePlan(ReservationGridManager.Plan expected, ReservationGridManager.Plan actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertNotNull(actual);
+        assertEquals(expected.getExitTime(), actual.getExitTime(), 0.0);
+        assertEquals(expected.getExitVelocity(), actual.getExitVelocity(), 0.0);
+        assertEquals(expected.getWorkingList().size(), actual.getWorkingList().size());
+        for (int i = 0; i < expected.getWorkingList().size(); i++)
+            assertTrue(expected.getWorkingList().get(i).equals(actual.getWorkingList().get(i)));
+    }
+
+    @Test
+    public void searchAgreesWithQueries() {
+        reserveTraffic();
+        ReservationGridManager.ProposalSearch search = manager.newProposalSearch();
+        int failures = 0;
+        for (Lane arrival : entryLanes) {
+            for (Lane departure : exitLanes) {
+                for (double arrivalTime = 0.5; arrivalTime < 6.0; arrivalTime += 0.23) {
+                    ReservationGridManager.Query q = query(1, arrivalTime, arrival, departure);
+                    ReservationGridManager.Plan expected = manager.query(q);
+                    if (expected == null)
+                        failures++;
+                    assertSamePlan(expected, search.query(q));
+                }
+            }
+        }
+        assertTrue("The traffic should block some queries", failures > 0);
+    }
+}
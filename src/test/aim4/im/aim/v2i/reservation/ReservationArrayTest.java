@@ -0,0 +1,116 @@
+package aim4.im.aim.v2i.reservation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReservationArrayTest {
+    private static final int TILES = 16;
+
+    private static List<ReservationArray.TimeTile> timeTiles(int... dtAndTid) {
+        List<ReservationArray.TimeTile> tiles = new ArrayList<ReservationArray.TimeTile>();
+        for (int i = 0; i < dtAndTid.length; i += 2)
+            tiles.add(new ReservationArray.TimeTile(dtAndTid[i], dtAndTid[i + 1]));
+        return tiles;
+    }
+
+    private static List<Integer> sorted(List<Integer> list) {
+        List<Integer> copy = new ArrayList<Integer>(list);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    private static void assertSameState(ReservationArray expected, ReservationArray actual, int maxTime, int maxRid) {
+        assertEquals(expected.getLastReservedDiscreteTime(), actual.getLastReservedDiscreteTime());
+        for (int dt = -1; dt <= maxTime; dt++) {
+            for (int tid = 0; tid < TILES; tid++)
+                assertEquals(expected.getReservationId(dt, tid), actual.getReservationId(dt, tid));
+            assertEquals(sorted(expected.getReservedTilesAtTime(dt)), sorted(actual.getReservedTilesAtTime(dt)));
+            assertEquals(expected.getVinOfReservedTilesAtTime(dt), actual.getVinOfReservedTilesAtTime(dt));
+            long[] expectedMask = new long[1];
+            long[] actualMask = new long[] { -1L };
+            assertEquals(expected.fillReservedTileMask(dt, expectedMask), actual.fillReservedTileMask(dt, actualMask));
+            assertArrayEquals(expectedMask, actualMask);
+            assertEquals(expected.getReservedTilesAtTime(dt).size(), Long.bitCount(expectedMask[0]));
+        }
+        for (int rid = 0; rid <= maxRid; rid++) {
+            assertEquals(expected.hasReservation(rid), actual.hasReservation(rid));
+            assertEquals(expected.getLastReservedDiscreteTime(rid), actual.getLastReservedDiscreteTime(rid));
+        }
+    }
+
+    @Test
+    public void ringBufferBehavesLikeTreeMap() {
+        Random random = new Random(3);
+        ReservationArray map = new ReservationArray(TILES);
+        // a small horizon so the ring has to grow
+        ReservationArray ring = new ReservationArray(TILES, ReservationArray.Storage.RING_BUFFER, 4);
+        int now = 0;
+        int rid = 0;
+        for (int step = 0; step < 3000; step++) {
+            int op = random.nextInt(10);
+            if (op < 6) {
+                List<ReservationArray.TimeTile> tiles = new ArrayList<ReservationArray.TimeTile>();
+                int start = now - 2 + random.nextInt(30);
+                int length = 1 + random.nextInt(8);
+                int tid = random.nextInt(TILES - 2);
+                for (int dt = start; dt < start + length; dt++) {
+                    tiles.add(new ReservationArray.TimeTile(dt, tid));
+                    tiles.add(new ReservationArray.TimeTile(dt, tid + 1));
+                }
+                assertEquals(map.reserve(rid, tiles), ring.reserve(rid, tiles));
+                rid++;
+            } else if (op < 8) {
+                int victim = random.nextInt(rid + 1);
+                assertEquals(map.cancel(victim), ring.cancel(victim));
+            } else {
+                now += random.nextInt(6);
+                map.cleanUp(now);
+                ring.cleanUp(now);
+            }
+            if (step % 50 == 0)
+                assertSameState(map, ring, now + 40, rid);
+        }
+        assertSameState(map, ring, now + 40, rid);
+    }
+
+    @Test
+    public void reservationsBeforeTheEarliestReservedTimeAreIgnored() {
+        ReservationArray ring = new ReservationArray(TILES, ReservationArray.Storage.RING_BUFFER, 8);
+        assertTrue(ring.reserve(1, timeTiles(10, 0, 11, 0)));
+        assertTrue(ring.reserve(2, timeTiles(8, 1, 12, 1)));
+        assertFalse(ring.isReserved(8, 1));
+        assertTrue(ring.isReserved(12, 1));
+        assertEquals(12, ring.getLastReservedDiscreteTime(2));
+    }
+
+    @Test
+    public void cancelledReservationsFreeTheirTiles() {
+        ReservationArray ring = new ReservationArray(TILES, ReservationArray.Storage.RING_BUFFER, 8);
+        assertTrue(ring.reserve(1, timeTiles(3, 4, 4, 4)));
+        assertFalse(ring.reserve(2, timeTiles(4, 4)));
+        assertTrue(ring.cancel(1));
+        assertFalse(ring.hasReservation(1));
+        assertTrue(ring.reserve(2, timeTiles(4, 4)));
+        assertEquals(4, ring.getLastReservedDiscreteTime());
+    }
+
+    @Test
+    public void cleanUpDropsPastReservations() {
+        ReservationArray ring = new ReservationArray(TILES, ReservationArray.Storage.RING_BUFFER, 8);
+        assertTrue(ring.reserve(1, timeTiles(0, 0, 1, 0)));
+        assertTrue(ring.reserve(2, timeTiles(1, 1, 5, 1)));
+        ring.cleanUp(2);
+        assertFalse(ring.hasReservation(1));
+        assertTrue(ring.hasReservation(2));
+        assertFalse(ring.isReserved(1, 1));
+        assertTrue(ring.isReserved(5, 1));
+        ring.cleanUp(6);
+        assertEquals(-1, ring.getLastReservedDiscreteTime());
+    }
+}
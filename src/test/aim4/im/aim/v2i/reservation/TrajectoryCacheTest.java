@@ -0,0 +1,59 @@
+package aim4.im.aim.v2i.reservation;
+
+import aim4.msg.aim.v2i.Request.VehicleSpecForRequestMsg;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TrajectoryCacheTest {
+    private static final VehicleSpecForRequestMsg SPEC =
+            new VehicleSpecForRequestMsg(2.5, -5.0, 0.0, 4.5, 1.8, 1.0, 3.5, 0.5, 1.0);
+
+    private static ReservationGridManager.Query query(int arrivalLane, double arrivalVelocity) {
+        return new ReservationGridManager.Query(1, 10.0, arrivalVelocity, arrivalLane, 7, SPEC, 15.0, true);
+    }
+
+    private static TrajectoryCache.Trajectory trajectory(int tile) {
+        return new TrajectoryCache.Trajectory(new int[][] { { tile }, { tile, tile + 1 } }, 12.0);
+    }
+
+    @Test
+    public void exactKeysOnlyMatchIdenticalInputs() {
+        TrajectoryCache cache = new TrajectoryCache(8, 0.0, 0.0);
+        cache.put(cache.keyOf(query(1, 10.0), 0.005), trajectory(3));
+        assertNotNull(cache.get(cache.keyOf(query(1, 10.0), 0.005)));
+        assertNull(cache.get(cache.keyOf(query(1, 10.000001), 0.005)));
+        assertNull(cache.get(cache.keyOf(query(2, 10.0), 0.005)));
+        assertNull(cache.get(cache.keyOf(query(1, 10.0), 0.006)));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void roundedKeysMatchNearbyInputs() {
+        TrajectoryCache cache = new TrajectoryCache(8, 0.01, 0.001);
+        cache.put(cache.keyOf(query(1, 10.0), 0.005), trajectory(3));
+        assertNotNull(cache.get(cache.keyOf(query(1, 10.001), 0.0051)));
+        assertNull(cache.get(cache.keyOf(query(1, 10.1), 0.005)));
+    }
+
+    @Test
+    public void leastRecentlyUsedFootprintIsEvicted() {
+        TrajectoryCache cache = new TrajectoryCache(2, 0.0, 0.0);
+        cache.put(cache.keyOf(query(1, 10.0), 0.0), trajectory(1));
+        cache.put(cache.keyOf(query(2, 10.0), 0.0), trajectory(2));
+        // touch the first so the second is the eldest
+        assertNotNull(cache.get(cache.keyOf(query(1, 10.0), 0.0)));
+        cache.put(cache.keyOf(query(3, 10.0), 0.0), trajectory(3));
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(cache.keyOf(query(1, 10.0), 0.0)));
+        assertNull(cache.get(cache.keyOf(query(2, 10.0), 0.0)));
+    }
+
+    @Test
+    public void footprintsCompareTileByTile() {
+        assertTrue(trajectory(3).isSameAs(trajectory(3)));
+        assertFalse(trajectory(3).isSameAs(trajectory(4)));
+        assertFalse(trajectory(3).isSameAs(new TrajectoryCache.Trajectory(new int[][] { { 3 }, { 3, 4 } }, 12.5)));
+    }
+}
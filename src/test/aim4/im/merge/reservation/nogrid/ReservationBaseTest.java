@@ -0,0 +1,89 @@
+package aim4.im.merge.reservation.nogrid;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReservationBaseTest {
+
+    private static List<ReservationBase.TimeReservation> times(int from, int to) {
+        List<ReservationBase.TimeReservation> times = new ArrayList<ReservationBase.TimeReservation>();
+        for (int dt = from; dt < to; dt++)
+            times.add(new ReservationBase.TimeReservation(dt));
+        return times;
+    }
+
+    private static int firstReserved(ReservationBase reservations, int from) {
+        int last = reservations.getLastReservedDiscreteTime();
+        for (int dt = from; dt <= last; dt++) {
+            if (reservations.isReserved(dt))
+                return dt;
+        }
+        return from;
+    }
+
+    @Test
+    public void intervalsBehaveLikeTreeMap() {
+        // the checked store throws as soon as the two stores disagree
+        ReservationBase reservations = new ReservationBase(ReservationBase.Storage.INTERVALS, true);
+        Random random = new Random(7);
+        int now = 0;
+        int nextRid = 0;
+        List<Integer> rids = new ArrayList<Integer>();
+        for (int i = 0; i < 5000; i++) {
+            int op = random.nextInt(10);
+            if (op < 6) {
+                // the tree map store cannot take times before its earliest reserved time
+                int start = Math.max(firstReserved(reservations, now), now + random.nextInt(200));
+                if (reservations.reserve(nextRid, times(start, start + 1 + random.nextInt(40))))
+                    rids.add(nextRid);
+                nextRid++;
+            } else if (op < 8 && !rids.isEmpty()) {
+                reservations.cancel(rids.remove(random.nextInt(rids.size())));
+            } else {
+                now += random.nextInt(20);
+                reservations.cleanUp(now);
+            }
+            for (int dt = now - 5; dt < now + 250; dt += 3) {
+                reservations.isReserved(dt);
+                reservations.getReservationID(dt);
+            }
+            for (int rid = Math.max(0, nextRid - 50); rid < nextRid; rid++)
+                reservations.hasReservation(rid);
+        }
+    }
+
+    @Test
+    public void overlappingReservationsAreRefused() {
+        ReservationBase reservations = new ReservationBase(ReservationBase.Storage.INTERVALS, false);
+        assertTrue(reservations.reserve(1, times(10, 20)));
+        assertFalse(reservations.reserve(2, times(19, 25)));
+        assertFalse(reservations.reserve(2, times(5, 11)));
+        assertFalse(reservations.reserve(2, times(12, 14)));
+        assertFalse(reservations.hasReservation(2));
+        assertTrue(reservations.reserve(2, times(20, 25)));
+        assertEquals(1, reservations.getReservationID(19));
+        assertEquals(2, reservations.getReservationID(20));
+        assertEquals(-1, reservations.getReservationID(25));
+        assertEquals(24, reservations.getLastReservedDiscreteTime());
+    }
+
+    @Test
+    public void cleanUpTrimsIntervals() {
+        ReservationBase reservations = new ReservationBase(ReservationBase.Storage.INTERVALS, false);
+        reservations.reserve(1, times(10, 20));
+        reservations.reserve(2, times(30, 40));
+        reservations.cleanUp(15);
+        assertFalse(reservations.isReserved(14));
+        assertTrue(reservations.isReserved(15));
+        reservations.cleanUp(25);
+        assertFalse(reservations.hasReservation(1));
+        assertTrue(reservations.hasReservation(2));
+        assertTrue(reservations.cancel(2));
+        assertEquals(-1, reservations.getLastReservedDiscreteTime());
+    }
+}
@@ -0,0 +1,131 @@
+package aim4.map.aim;
+
+import aim4.im.aim.RoadBasedIntersection;
+import aim4.im.aim.RoadBasedTrackModel;
+import aim4.map.Road;
+import aim4.map.lane.Lane;
+import aim4.sim.SimContext;
+import aim4.util.TiledArea;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GridMapCacheTest {
+    private static final double GRANULARITY = 1.0;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private SimContext previous;
+    private List<Road> roads;
+    private GridMapCache cache;
+
+    @Before
+    public void setUp() {
+        previous = new SimContext().enter();
+        GridIntersectionMap layout = new GridIntersectionMap(0.0, 2, 2, 4, 25.0, 2, 2, 150);
+        roads = layout.getRoads(0, 0);
+        cache = new GridMapCache(folder.getRoot());
+    }
+
+    @After
+    public void tearDown() {
+        SimContext.restore(previous);
+    }
+
+    @Test
+    public void loadedGeometryMatchesTheStoredGeometry() throws Exception {
+        IntersectionTemplate expected = new IntersectionTemplate(roads, GRANULARITY);
+        cache.store(roads, GRANULARITY, expected);
+        IntersectionTemplate actual = cache.load(roads, GRANULARITY);
+        assertNotNull(actual);
+
+        RoadBasedIntersection e = expected.getIntersection();
+        RoadBasedIntersection a = actual.getIntersection();
+        assertEquals(e.getLanes(), a.getLanes());
+        assertEquals(e.getEntryRoads(), a.getEntryRoads());
+        assertEquals(e.getExitRoads(), a.getExitRoads());
+        assertEquals(e.getEntryLanes(), a.getEntryLanes());
+        assertEquals(e.getExitLanes(), a.getExitLanes());
+        for (Lane lane : e.getEntryLanes()) {
+            assertEquals(e.getEntryPoint(lane), a.getEntryPoint(lane));
+            assertEquals(e.getEntryHeading(lane), a.getEntryHeading(lane), 0.0);
+        }
+        for (Lane lane : e.getExitLanes()) {
+            assertEquals(e.getExitPoint(lane), a.getExitPoint(lane));
+            assertEquals(e.getExitHeading(lane), a.getExitHeading(lane), 0.0);
+        }
+        assertEquals(e.getCentroid(), a.getCentroid());
+        assertEquals(e.getBoundingBox(), a.getBoundingBox());
+        assertTrue(e.getArea().equals(a.getArea()));
+        assertTrue(e.getAreaPlus().equals(a.getAreaPlus()));
+        assertEquals(e.getEdges().size(), a.getEdges().size());
+
+        RoadBasedTrackModel et = expected.getTrackModel();
+        RoadBasedTrackModel at = actual.getTrackModel();
+        for (Lane entry : e.getEntryLanes()) {
+            for (Road exitRoad : e.getExitRoads()) {
+                assertEquals(et.getSortedDepartureLanes(entry, exitRoad),
+                        at.getSortedDepartureLanes(entry, exitRoad));
+            }
+        }
+        for (Lane l11 : e.getEntryLanes()) {
+            for (Lane l12 : e.getExitLanes()) {
+                for (Lane l21 : e.getEntryLanes()) {
+                    for (Lane l22 : e.getExitLanes()) {
+                        assertEquals(
+                                et.trajectoriesConflict(l11.getId(), l12.getId(), l21.getId(), l22.getId()),
+                                at.trajectoriesConflict(l11.getId(), l12.getId(), l21.getId(), l22.getId()));
+                    }
+                }
+            }
+        }
+
+        TiledArea ea = expected.getTiledArea();
+        TiledArea aa = actual.getTiledArea();
+        assertEquals(ea.getXNum(), aa.getXNum());
+        assertEquals(ea.getYNum(), aa.getYNum());
+        assertEquals(ea.getNumberOfTiles(), aa.getNumberOfTiles());
+        for (int id = 0; id < ea.getNumberOfTiles(); id++) {
+            assertEquals(ea.getTileById(id).getRectangle(), aa.getTileById(id).getRectangle());
+            assertEquals(ea.getTileById(id).isEdgeTile(), aa.getTileById(id).isEdgeTile());
+        }
+    }
+
+    @Test
+    public void otherParametersMiss() throws Exception {
+        cache.store(roads, GRANULARITY, new IntersectionTemplate(roads, GRANULARITY));
+        assertNull(cache.load(roads, 0.5));
+        GridIntersectionMap wider = new GridIntersectionMap(0.0, 2, 2, 5, 25.0, 2, 2, 150);
+        assertNull(cache.load(wider.getRoads(0, 0), GRANULARITY));
+    }
+
+    @Test
+    public void damagedFileIsIgnoredAndReplaced() throws Exception {
+        cache.getTemplate(roads, GRANULARITY);
+        File[] files = folder.getRoot().listFiles();
+        assertEquals(1, files.length);
+        RandomAccessFile file = new RandomAccessFile(files[0], "rw");
+        try {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xFF);
+        } finally {
+            file.close();
+        }
+        assertNull(cache.load(roads, GRANULARITY));
+
+        assertNotNull(cache.getTemplate(roads, GRANULARITY));
+        assertNotNull(cache.load(roads, GRANULARITY));
+        assertEquals(1, folder.getRoot().listFiles().length);
+    }
+}
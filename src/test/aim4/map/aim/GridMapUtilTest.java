@@ -0,0 +1,150 @@
+package aim4.map.aim;
+
+import aim4.config.SimConfig;
+import aim4.im.aim.RoadBasedIntersection;
+import aim4.im.aim.RoadBasedTrackModel;
+import aim4.im.aim.TrackModel;
+import aim4.im.aim.v2i.V2IManager;
+import aim4.im.aim.v2i.reservation.ReservationGridManager;
+import aim4.map.Road;
+import aim4.map.lane.Lane;
+import aim4.sim.SimContext;
+import aim4.util.TiledArea;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+import static org.junit.Assert.*;
+
+public class GridMapUtilTest {
+    private static final double EPSILON = 1e-9;
+    // the outlines of the areas are in single precision
+    private static final double AREA_EPSILON = 1e-4;
+
+    private SimContext previous;
+    private GridIntersectionMap layout;
+    private ReservationGridManager.Config config;
+
+    @Before
+    public void setUp() {
+        previous = new SimContext().enter();
+        layout = new GridIntersectionMap(0.0, 3, 2, 4, 25.0, 2, 2, 150);
+        config = new ReservationGridManager.Config(SimConfig.TIME_STEP, SimConfig.GRID_TIME_STEP,
+                0.25, 0.1, 0.25, true, 1.0);
+        GridMapUtil.setFCFSManagers(layout, 0.0, config);
+    }
+
+    @After
+    public void tearDown() {
+        SimContext.restore(previous);
+    }
+
+    @Test
+    public void translatedIntersectionsMatchFreshlyBuiltOnes() {
+        for (int column = 0; column < layout.getColumns(); column++) {
+            for (int row = 0; row < layout.getRows(); row++) {
+                RoadBasedIntersection expected =
+                        new RoadBasedIntersection(layout.getRoads(column, row));
+                RoadBasedIntersection actual =
+                        (RoadBasedIntersection) layout.getManager(column, row).getIntersection();
+
+                assertEquals(expected.getRoads(), actual.getRoads());
+                assertEquals(expected.getLanes(), actual.getLanes());
+                assertEquals(expected.getEntryRoads(), actual.getEntryRoads());
+                assertEquals(expected.getExitRoads(), actual.getExitRoads());
+                assertEquals(expected.getEntryLanes(), actual.getEntryLanes());
+                assertEquals(expected.getExitLanes(), actual.getExitLanes());
+                for (Lane lane : expected.getEntryLanes()) {
+                    assertPointEquals(expected.getEntryPoint(lane), actual.getEntryPoint(lane));
+                    assertEquals(expected.getEntryHeading(lane), actual.getEntryHeading(lane), EPSILON);
+                }
+                for (Lane lane : expected.getExitLanes()) {
+                    assertPointEquals(expected.getExitPoint(lane), actual.getExitPoint(lane));
+                    assertEquals(expected.getExitHeading(lane), actual.getExitHeading(lane), EPSILON);
+                }
+                assertPointEquals(expected.getCentroid(), actual.getCentroid());
+                assertRectangleEquals(expected.getBoundingBox(), actual.getBoundingBox(),
+                        AREA_EPSILON);
+                assertRectangleEquals(expected.getAreaPlus().getBounds2D(),
+                        actual.getAreaPlus().getBounds2D(), AREA_EPSILON);
+                assertEquals(expected.getEdges().size(), actual.getEdges().size());
+            }
+        }
+    }
+
+    @Test
+    public void translatedTrackModelsMatchFreshlyBuiltOnes() {
+        for (int column = 0; column < layout.getColumns(); column++) {
+            for (int row = 0; row < layout.getRows(); row++) {
+                TrackModel actual = layout.getManager(column, row).getTrackModel();
+                RoadBasedIntersection intersection =
+                        (RoadBasedIntersection) actual.getIntersection();
+                RoadBasedTrackModel expected = new RoadBasedTrackModel(intersection);
+
+                for (Lane entry : intersection.getEntryLanes()) {
+                    for (Road exitRoad : intersection.getExitRoads()) {
+                        assertEquals(expected.getSortedDepartureLanes(entry, exitRoad),
+                                actual.getSortedDepartureLanes(entry, exitRoad));
+                    }
+                }
+                int conflicts = 0;
+                for (Lane l11 : intersection.getEntryLanes()) {
+                    for (Lane l12 : intersection.getExitLanes()) {
+                        for (Lane l21 : intersection.getEntryLanes()) {
+                            for (Lane l22 : intersection.getExitLanes()) {
+                                boolean conflict = expected.trajectoriesConflict(
+                                        l11.getId(), l12.getId(), l21.getId(), l22.getId());
+                                assertEquals(conflict, actual.trajectoriesConflict(
+                                        l11.getId(), l12.getId(), l21.getId(), l22.getId()));
+                                if (conflict) {
+                                    conflicts++;
+                                }
+                            }
+                        }
+                    }
+                }
+                assertTrue(conflicts > 0);
+            }
+        }
+    }
+
+    @Test
+    public void translatedTilesMatchFreshlyBuiltOnes() {
+        for (int column = 0; column < layout.getColumns(); column++) {
+            for (int row = 0; row < layout.getRows(); row++) {
+                V2IManager im = (V2IManager) layout.getManager(column, row);
+                TiledArea actual = im.getReservationGridManager().getTiledArea();
+                TiledArea expected = new TiledArea(im.getIntersection().getArea(),
+                        config.getGranularity());
+
+                assertEquals(expected.getXNum(), actual.getXNum());
+                assertEquals(expected.getYNum(), actual.getYNum());
+                assertEquals(expected.getNumberOfTiles(), actual.getNumberOfTiles());
+                for (int id = 0; id < expected.getNumberOfTiles(); id++) {
+                    TiledArea.Tile expectedTile = expected.getTileById(id);
+                    TiledArea.Tile actualTile = actual.getTileById(id);
+                    assertEquals(expectedTile.getX(), actualTile.getX());
+                    assertEquals(expectedTile.getY(), actualTile.getY());
+                    assertEquals(expectedTile.isEdgeTile(), actualTile.isEdgeTile());
+                    assertEquals(expectedTile.getRectangle(), actualTile.getRectangle());
+                }
+            }
+        }
+    }
+
+    private static void assertPointEquals(Point2D expected, Point2D actual) {
+        assertEquals(expected.getX(), actual.getX(), EPSILON);
+        assertEquals(expected.getY(), actual.getY(), EPSILON);
+    }
+
+    private static void assertRectangleEquals(Rectangle2D expected, Rectangle2D actual,
+                                              double epsilon) {
+        assertEquals(expected.getMinX(), actual.getMinX(), epsilon);
+        assertEquals(expected.getMinY(), actual.getMinY(), epsilon);
+        assertEquals(expected.getMaxX(), actual.getMaxX(), epsilon);
+        assertEquals(expected.getMaxY(), actual.getMaxY(), epsilon);
+    }
+}
@@ -0,0 +1,93 @@
+package aim4.map.aim;
+
+import aim4.config.SimConfig;
+import aim4.im.aim.IntersectionManager;
+import aim4.im.aim.v2i.reservation.ReservationGridManager;
+import aim4.map.Road;
+import aim4.sim.SimContext;
+import aim4.vehicle.VehicleSpec;
+import aim4.vehicle.VehicleSpecDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RouteTableTest {
+    private SimContext previous;
+    private GridIntersectionMap layout;
+    private ReservationGridManager.Config config;
+    private VehicleSpec spec;
+
+    @Before
+    public void setUp() {
+        previous = new SimContext().enter();
+        layout = new GridIntersectionMap(0.0, 3, 2, 4, 25.0, 1, 2, 150);
+        config = new ReservationGridManager.Config(SimConfig.TIME_STEP, SimConfig.GRID_TIME_STEP,
+                0.25, 0.1, 0.25, true, 1.0);
+        GridMapUtil.setFCFSManagers(layout, 0.0, config);
+        spec = VehicleSpecDatabase.getVehicleSpecByName("SEDAN");
+    }
+
+    @After
+    public void tearDown() {
+        SimContext.restore(previous);
+    }
+
+    @Test
+    public void routesLeadToTheDestination() {
+        RouteTable table = layout.getRouteTable();
+        IntersectionManager im = layout.getManager(0, 0);
+        for (Road road : im.getIntersection().getEntryRoads()) {
+            for (Road destination : layout.getDestinationRoads()) {
+                RouteTable.Route route = table.findRoute(spec, road, im, destination);
+                if (route == null)
+                    continue;
+                List<Integer> path = route.getPath();
+                assertEquals(road.getIndexLane().getId(), (int) path.get(0));
+                assertEquals(destination.getIndexLane().getId(), (int) path.get(path.size() - 1));
+                assertEquals(im.getId(), (int) route.getPathIMs().get(0));
+                assertEquals(-1, (int) route.getPathIMs().get(path.size() - 1));
+            }
+        }
+    }
+
+    @Test
+    public void routesAreSharedAndMatchAFreshSearch() {
+        layout.getRouteTable().precompute(Collections.singletonList(spec));
+        int entries = 0;
+        for (IntersectionManager im : layout.getIntersectionManagers())
+            entries += im.getIntersection().getEntryRoads().size();
+        assertEquals(entries * layout.getDestinationRoads().size(), layout.getRouteTable().size());
+
+        RouteTable fresh = new RouteTable(layout);
+        for (IntersectionManager im : layout.getIntersectionManagers()) {
+            for (Road road : im.getIntersection().getEntryRoads()) {
+                for (Road destination : layout.getDestinationRoads()) {
+                    RouteTable.Route route = layout.getRouteTable().findRoute(spec, road, im, destination);
+                    assertSame(route, layout.getRouteTable().findRoute(spec, road, im, destination));
+                    RouteTable.Route expected = fresh.findRoute(spec, road, im, destination);
+                    if (expected == null) {
+                        assertNull(route);
+                    } else {
+                        assertEquals(expected.getPath(), route.getPath());
+                        assertEquals(expected.getPathIMs(), route.getPathIMs());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void changingManagersClearsTheTable() {
+        IntersectionManager im = layout.getManager(1, 1);
+        Road road = im.getIntersection().getEntryRoads().get(0);
+        layout.getRouteTable().findRoute(spec, road, im, layout.getDestinationRoads().get(0));
+        assertEquals(1, layout.getRouteTable().size());
+        layout.removeAllManagers();
+        assertEquals(0, layout.getRouteTable().size());
+    }
+}
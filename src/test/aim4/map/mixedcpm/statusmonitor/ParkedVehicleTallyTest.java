@@ -0,0 +1,83 @@
+package aim4.map.mixedcpm.statusmonitor;
+
+import aim4.vehicle.VehicleSpec;
+import aim4.vehicle.mixedcpm.MixedCPMBasicAutoVehicle;
+import aim4.vehicle.mixedcpm.MixedCPMBasicManualVehicle;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ParkedVehicleTallyTest {
+    private ParkedVehicleTally tally;
+
+    private static VehicleSpec spec(double width, double length) {
+        VehicleSpec spec = mock(VehicleSpec.class);
+        when(spec.getWidth()).thenReturn(width);
+        when(spec.getLength()).thenReturn(length);
+        return spec;
+    }
+
+    private static MixedCPMBasicManualVehicle manualVehicle(double width, double length, boolean disabled) {
+        MixedCPMBasicManualVehicle vehicle = mock(MixedCPMBasicManualVehicle.class);
+        VehicleSpec spec = spec(width, length);
+        when(vehicle.getSpec()).thenReturn(spec);
+        when(vehicle.isDisabledVehicle()).thenReturn(disabled);
+        return vehicle;
+    }
+
+    @Before
+    public void setUp() {
+        tally = new ParkedVehicleTally();
+    }
+
+    @Test
+    public void parkingAddsToTheTotals() {
+        tally.park(manualVehicle(2, 4, false));
+        tally.park(manualVehicle(2, 5, true));
+        assertEquals(2, tally.getNumberOfParkedVehicles());
+        assertEquals(1, tally.getNumberOfParkedDisabledVehicles());
+        assertEquals(18, tally.getTotalAreaOfParkedVehicles(), 1e-9);
+    }
+
+    @Test
+    public void unparkingRemovesFromTheTotals() {
+        MixedCPMBasicManualVehicle car = manualVehicle(2, 4, false);
+        MixedCPMBasicManualVehicle disabled = manualVehicle(2, 5, true);
+        tally.park(car);
+        tally.park(disabled);
+        tally.unpark(disabled);
+        assertEquals(1, tally.getNumberOfParkedVehicles());
+        assertEquals(0, tally.getNumberOfParkedDisabledVehicles());
+        assertEquals(8, tally.getTotalAreaOfParkedVehicles(), 1e-9);
+        tally.unpark(car);
+        assertEquals(0, tally.getNumberOfParkedVehicles());
+        assertEquals(0, tally.getTotalAreaOfParkedVehicles(), 0);
+    }
+
+    @Test
+    public void repeatedEventsAreCountedOnce() {
+        MixedCPMBasicManualVehicle car = manualVehicle(2, 4, true);
+        tally.park(car);
+        tally.park(car);
+        assertEquals(1, tally.getNumberOfParkedVehicles());
+        assertEquals(1, tally.getNumberOfParkedDisabledVehicles());
+        tally.unpark(car);
+        tally.unpark(car);
+        tally.unpark(manualVehicle(1, 1, true));
+        assertEquals(0, tally.getNumberOfParkedVehicles());
+        assertEquals(0, tally.getNumberOfParkedDisabledVehicles());
+    }
+
+    @Test
+    public void automatedVehiclesAreNeverDisabledVehicles() {
+        MixedCPMBasicAutoVehicle vehicle = mock(MixedCPMBasicAutoVehicle.class);
+        VehicleSpec spec = spec(2, 4);
+        when(vehicle.getSpec()).thenReturn(spec);
+        tally.park(vehicle);
+        assertEquals(1, tally.getNumberOfParkedVehicles());
+        assertEquals(0, tally.getNumberOfParkedDisabledVehicles());
+        assertEquals(8, tally.getTotalAreaOfParkedVehicles(), 1e-9);
+    }
+}
@@ -411,6 +411,58 @@ public class ManualParkingAreaTest {
         assertEquals(0, testArea.getParkingRoads().size());
     }
 
+    @Test
+    public void testFindSpaceSetsIdealWidthOfEmptyStacksTooShortForAnyGap(){
+        double stallWidth0 = 5;
+        double stallWidth1 = 3;
+        StallSpec stallSpec0 = new StallSpec(stallWidth0, testArea.getDimensions().getWidth()/4, StallType.NoPadding);
+        StallSpec stallSpec1 = new StallSpec(stallWidth0, testArea.getDimensions().getWidth()/5, StallType.NoPadding);
+        StallSpec longStallSpec = new StallSpec(stallWidth1, testArea.getDimensions().getWidth()/3, StallType.NoPadding);
+
+        ManualStall testStall0 = testArea.findSpace(stallSpec0);
+        ManualStall testStall1 = testArea.findSpace(stallSpec1);
+        StallStack[] stallStacks = testArea.getParkingRoads().get(0).getStallStackPair();
+        assertTrue(stallStacks[0].getManualStalls().contains(testStall0));
+        assertTrue(stallStacks[1].getManualStalls().contains(testStall1));
+
+        // Empty the first stack, which keeps its length as it isn't the last
+        testArea.removeManualStall(testStall0.getName());
+        assertEquals(stallWidth0, stallStacks[0].getIdealStallWidth(), 0);
+
+        // The stall is too long for the first stack, but trying it there in
+        // the any gap search sets the stack's ideal width
+        ManualStall longStall = testArea.findSpace(longStallSpec);
+        assertFalse(stallStacks[0].getManualStalls().contains(longStall));
+        assertEquals(stallWidth1, stallStacks[0].getIdealStallWidth(), 0);
+    }
+
+    @Test
+    public void testFindSpaceReusesGapInFirstStallStack(){
+        double stallLength0 = testArea.getDimensions().getWidth()/4;
+        double stallLength1 = testArea.getDimensions().getWidth()/4-1;
+        double stallWidth = 5;
+        StallSpec stallSpec0 = new StallSpec(stallWidth, stallLength0, StallType.NoPadding);
+        StallSpec stallSpec1 = new StallSpec(stallWidth, stallLength1, StallType.NoPadding);
+
+        ManualStall testStall0 = testArea.findSpace(stallSpec0);
+        ManualStall testStall1 = testArea.findSpace(stallSpec0);
+        testArea.findSpace(stallSpec1);
+
+        StallStack leftStallStackRoad1 = testArea.getParkingRoads().get(0).getStallStackPair()[0];
+
+        assertTrue(leftStallStackRoad1.getManualStalls().contains(testStall1));
+        assertEquals(testStall0.getMaxY(), testStall1.getMinY(), 0);
+
+        // Leave a gap at the top of the first stack
+        testArea.removeManualStall(testStall0.getName());
+
+        ManualStall stallInGap = testArea.findSpace(stallSpec0);
+
+        assertTrue(leftStallStackRoad1.getManualStalls().contains(stallInGap));
+        assertEquals(leftStallStackRoad1.getBounds().getMinY(), stallInGap.getMinY(), 0);
+        assertEquals(2, leftStallStackRoad1.getManualStalls().size());
+    }
+
     // TODO ED Make these tests
     // Test removeParkingRoad when it has some spaces - make sure the spaces roads are all removed too
 
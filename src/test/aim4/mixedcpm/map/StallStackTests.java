@@ -291,6 +291,30 @@ public class StallStackTests {
 
     }
 
+    @Test
+    public void testFillJoinedGapFromBottomShorterLength(){
+        double vehicleWidth = stallStackHeight/5;
+        double vehicleLength = maxStallLength;
+        StallSpec stallSpec = new StallSpec(vehicleWidth, vehicleLength, StallType.NoPadding);
+        StallSpec stallSpecShortAndWide = new StallSpec(vehicleWidth*2, vehicleLength-1, StallType.NoPadding);
+        existingLengthStallStack.addManualStall(stallSpec);
+        ManualStall stallToRemove0 = existingLengthStallStack.addManualStall(stallSpec);
+        ManualStall stallToRemove1 = existingLengthStallStack.addManualStall(stallSpec);
+        existingLengthStallStack.addManualStall(stallSpec);
+        existingLengthStallStack.addManualStall(stallSpec);
+
+        // Create two gaps next to each other, removing the lower one first
+        existingLengthStallStack.removeManualStall(stallToRemove1.getName());
+        existingLengthStallStack.removeManualStall(stallToRemove0.getName());
+
+        ManualStall stallToFitInGap = existingLengthStallStack.addManualStall(stallSpecShortAndWide);
+
+        assertNotNull(stallToFitInGap);
+        assertEquals(4, existingLengthStallStack.getManualStalls().size());
+        assertEquals(vehicleWidth, stallToFitInGap.getMinY(), 0);
+        assertEquals(vehicleWidth*3, stallToFitInGap.getMaxY(), 0);
+    }
+
     @Test
     public void testCantFillGapSmallInMiddleOfStackAllSpacesSameSizeAndExactLength(){
         double vehicleWidth = stallStackHeight/5;
@@ -0,0 +1,79 @@
+package aim4.msg.aim.udp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import static org.junit.Assert.*;
+
+public class Proxy2RealOutboxTest {
+
+    @Test
+    public void testPVUpdateFromByteBufferMatchesDataInputStream() throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(baos);
+        new UdpHeader(1.5f, UdpHeader.UdpMessageType.PVUpdate).writeToDataOutputStream(dos);
+        dos.writeInt(7);
+        for (float value : new float[] {10f, 20f, 0.5f, 0.1f, 3f, 4f, 0.25f}) {
+            dos.writeFloat(value);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(UdpHeader.MAX_MESSENGE_PACKAGE_LENGTH);
+        buffer.put(baos.toByteArray()).flip();
+
+        UdpHeader header = new UdpHeader(buffer);
+        Real2ProxyPVUpdate msg = new Real2ProxyPVUpdate(buffer, 2.0);
+
+        assertEquals(UdpHeader.UdpMessageType.PVUpdate, header.getMessageType());
+        assertEquals(1.5f, header.getTimestamp(), 0);
+        assertEquals(7, msg.vin);
+        assertEquals(10.0, msg.position.getX(), 1e-6);
+        assertEquals(20.0, msg.position.getY(), 1e-6);
+        assertEquals(0.5, msg.heading, 1e-6);
+        assertEquals(0.1, msg.steeringAngle, 1e-6);
+        assertEquals(3.0, msg.velocity, 1e-6);
+        assertEquals(4.0, msg.targetVelocity, 1e-6);
+        assertEquals(0.25, msg.acceleration, 1e-6);
+        assertEquals(2.0, msg.receivedTime, 0);
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testFlushSendsEveryQueuedDatagramAndReusesBuffers() throws Exception {
+        DatagramChannel receiver = DatagramChannel.open();
+        try {
+            receiver.bind(new InetSocketAddress("127.0.0.1", 0));
+            InetSocketAddress sa = (InetSocketAddress) receiver.getLocalAddress();
+            Proxy2RealOutbox outbox = new Proxy2RealOutbox();
+
+            Proxy2RealAdapter.writeToByteBuffer(12.5, outbox.nextBuffer(sa), 3.0);
+            Proxy2RealAdapter.writeToByteBuffer(7.5, outbox.nextBuffer(sa), 3.0);
+            assertEquals(2, outbox.size());
+            assertEquals(2, outbox.flush());
+            assertEquals(0, outbox.size());
+            assertEquals(0, outbox.flush());
+
+            ByteBuffer received = ByteBuffer.allocate(UdpHeader.MAX_MESSENGE_PACKAGE_LENGTH);
+            for (double expected : new double[] {12.5, 7.5}) {
+                received.clear();
+                receiver.receive(received);
+                received.flip();
+                assertEquals(UdpHeader.LENGTH + 4, received.remaining());
+                UdpHeader header = new UdpHeader(received);
+                assertEquals(UdpHeader.UdpMessageType.I2V_DistToFrontVehicle,
+                             header.getMessageType());
+                assertEquals(expected, received.getFloat(), 0);
+            }
+
+            ByteBuffer first = outbox.nextBuffer(sa);
+            assertEquals(0, first.position());
+            outbox.close();
+            assertEquals(0, outbox.size());
+        } finally {
+            receiver.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package aim4.sim;
+
+import aim4.config.SimConfig;
+import aim4.vehicle.VinRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SimContextTest {
+
+    @After
+    public void tearDown() {
+        SimContext.restore(null);
+    }
+
+    @Test
+    public void unboundThreadsUseTheSharedContext() {
+        assertSame(SimContext.getShared(), SimContext.current());
+    }
+
+    @Test
+    public void enterAndRestoreNest() {
+        SimContext outer = new SimContext();
+        SimContext inner = new SimContext();
+        SimContext beforeOuter = outer.enter();
+        SimContext beforeInner = inner.enter();
+        assertSame(inner, SimContext.current());
+        SimContext.restore(beforeInner);
+        assertSame(outer, SimContext.current());
+        SimContext.restore(beforeOuter);
+        assertSame(SimContext.getShared(), SimContext.current());
+    }
+
+    @Test
+    public void staticAccessorsResolveToTheBoundContext() {
+        SimContext context = new SimContext();
+        SimContext previous = context.enter();
+        try {
+            SimConfig.setTotalSimulationTime(42.0);
+            assertSame(context.getVinRegistry(), VinRegistry.getStore());
+        } finally {
+            SimContext.restore(previous);
+        }
+        assertEquals(42.0, context.getTotalSimulationTime(), 0);
+        assertEquals(-1.0, SimContext.getShared().getTotalSimulationTime(), 0);
+    }
+
+    @Test
+    public void contextsAreIsolatedAcrossThreads() throws Exception {
+        final SimContext other = new SimContext();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                SimContext previous = other.enter();
+                try {
+                    SimConfig.setMustStopBeforeIntersection(true);
+                } finally {
+                    SimContext.restore(previous);
+                }
+            }
+        });
+        thread.start();
+        thread.join();
+        assertTrue(other.isMustStopBeforeIntersection());
+        assertFalse(SimConfig.isMustStopBeforeIntersection());
+    }
+
+    @Test
+    public void evaluationPoolIsKeptUntilResizedOrShutDown() {
+        SimContext context = new SimContext();
+        assertNull(context.getEvaluationPool(1));
+        ForkJoinPool pool = context.getEvaluationPool(2);
+        assertSame(pool, context.getEvaluationPool(2));
+
+        ForkJoinPool resized = context.getEvaluationPool(3);
+        assertNotSame(pool, resized);
+        assertTrue(pool.isShutdown());
+
+        context.shutdown();
+        assertTrue(resized.isShutdown());
+    }
+}
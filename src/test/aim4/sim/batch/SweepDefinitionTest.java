@@ -0,0 +1,77 @@
+package aim4.sim.batch;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SweepDefinitionTest {
+
+    private static SweepDefinition parse(String json) throws Exception {
+        return new SweepDefinition((JSONObject) new JSONParser().parse(json), null);
+    }
+
+    @Test
+    public void expandIsCrossProductWithPairedShorthands() throws Exception {
+        SweepDefinition sweep = parse(
+                "{\"protocols\":[\"QUEUE\",\"AIM_GRID\"]," +
+                "\"trafficRates\":[500,1000,1500]," +
+                "\"speedLimits\":[10,20]," +
+                "\"mergeAngles\":[45]," +
+                "\"seeds\":{\"from\":1,\"to\":4}}");
+        List<Scenario> scenarios = sweep.expand();
+        assertEquals(2 * 3 * 2 * 4, scenarios.size());
+
+        Set<String> names = new HashSet<String>();
+        for(Scenario scenario : scenarios) {
+            assertEquals(scenario.getTargetSpeedLimit(), scenario.getMergeSpeedLimit(), 0);
+            assertFalse(scenario.hasSchedules());
+            names.add(scenario.getName());
+        }
+        assertEquals("Scenario names must be unique", scenarios.size(), names.size());
+    }
+
+    @Test
+    public void independentSpeedLimitsAreCrossed() throws Exception {
+        SweepDefinition sweep = parse(
+                "{\"protocols\":\"QUEUE\"," +
+                "\"targetSpeedLimits\":[10,20,30]," +
+                "\"mergeSpeedLimits\":[10,20]}");
+        assertEquals(6, sweep.expand().size());
+    }
+
+    @Test
+    public void schedulesAreResolvedBySeed() throws Exception {
+        String dir = new File("schedules/trafficLevel").getAbsolutePath().replace("\\", "/");
+        SweepDefinition sweep = parse(
+                "{\"protocols\":[\"AIM\"],\"trafficRates\":[500],\"seeds\":[3]," +
+                "\"scheduleDirectory\":\"" + dir + "\"}");
+        Scenario scenario = sweep.expand().get(0);
+        assertTrue(scenario.hasSchedules());
+        assertEquals("M_500_3.json", scenario.getMergeSchedule().getName());
+        assertEquals("T_500_3.json", scenario.getTargetSchedule().getName());
+        assertEquals(SweepDefinition.DEFAULT_TIME_LIMIT * SweepDefinition.DEFAULT_DRAIN_TIME_FACTOR,
+                scenario.getStopTime(), 0);
+    }
+
+    @Test
+    public void scenarioRoundTripsThroughJSON() throws Exception {
+        Scenario scenario = parse("{\"protocols\":[\"AIM_NO_GRID\"],\"mergeAngles\":[22.5],\"seeds\":[7]}")
+                .expand().get(0);
+        Scenario copy = Scenario.fromJSONString(scenario.toJSONString());
+        assertEquals(scenario.getName(), copy.getName());
+        assertEquals(scenario.produceCSV(), copy.produceCSV());
+        assertEquals(scenario.getStopTime(), copy.getStopTime(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownProtocolIsRejected() throws Exception {
+        parse("{\"protocols\":[\"NOT_A_PROTOCOL\"]}").expand();
+    }
+}
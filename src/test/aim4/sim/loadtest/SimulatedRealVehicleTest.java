@@ -0,0 +1,101 @@
+package aim4.sim.loadtest;
+
+import aim4.msg.aim.udp.Real2ProxyPVUpdate;
+import aim4.msg.aim.udp.Real2ProxyRequest;
+import aim4.msg.aim.udp.UdpHeader;
+import aim4.msg.aim.udp.UdpHeader.UdpMessageType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SimulatedRealVehicleTest {
+
+    private static final long MILLIS = 1000000L;
+    private static final SimulatedRealVehicle.Timing TIMING =
+            new SimulatedRealVehicle.Timing(100 * MILLIS, 1000 * MILLIS, 500 * MILLIS, 0.0);
+
+    private DatagramChannel listener;
+    private DatagramChannel vehicleChannel;
+    private SimulatedRealVehicle vehicle;
+    private LoadStatistics stats;
+
+    @Before
+    public void setUp() throws Exception {
+        listener = DatagramChannel.open();
+        listener.bind(new InetSocketAddress("127.0.0.1", 0));
+        vehicleChannel = DatagramChannel.open();
+        vehicleChannel.bind(new InetSocketAddress("127.0.0.1", 0));
+        vehicle = new SimulatedRealVehicle(42, vehicleChannel, listener.getLocalAddress(),
+                new Point2D.Double(10, 20), 0.5, 12.5, 3, 4.0, TIMING, new Random(0), 0);
+        stats = new LoadStatistics();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        listener.close();
+        vehicleChannel.close();
+    }
+
+    @Test
+    public void testMessagesAreReadableByTheProxySide() throws Exception {
+        vehicle.act(0, stats);
+        vehicle.act(vehicle.getNextActionTime() + 2000 * MILLIS, stats);
+
+        ByteBuffer in = ByteBuffer.allocate(UdpHeader.MAX_MESSENGE_PACKAGE_LENGTH);
+        listener.receive(in);
+        in.flip();
+        assertEquals(UdpMessageType.PVUpdate, new UdpHeader(in).getMessageType());
+        Real2ProxyPVUpdate update = new Real2ProxyPVUpdate(in, 0);
+        assertEquals(42, update.vin);
+        assertEquals(10.0, update.position.getX(), 1e-6);
+        assertEquals(20.0, update.position.getY(), 1e-6);
+        assertEquals(12.5, update.velocity, 1e-6);
+
+        // a PV update and then the first request
+        boolean foundRequest = false;
+        for (int i = 0; i < 2 && !foundRequest; i++) {
+            in.clear();
+            listener.receive(in);
+            in.flip();
+            if (new UdpHeader(in).getMessageType() == UdpMessageType.V2I_Request) {
+                Real2ProxyRequest request = new Real2ProxyRequest(in, 0);
+                assertEquals(42, request.vin);
+                assertEquals(3, request.departureLaneId);
+                assertEquals(4.0, request.arrivalTimeSpan, 1e-6);
+                foundRequest = true;
+            }
+        }
+        assertTrue(foundRequest);
+        assertEquals(1, stats.getSent(UdpMessageType.V2I_Request));
+    }
+
+    @Test
+    public void testRejectRecordsLatencyAndDelaysTheNextRequest() throws Exception {
+        long requestTime = 2000 * MILLIS;
+        vehicle.act(requestTime, stats);
+        assertEquals(1, stats.getSent(UdpMessageType.V2I_Request));
+
+        ByteBuffer reject = ByteBuffer.allocate(UdpHeader.LENGTH);
+        new UdpHeader(1.0f, UdpMessageType.I2V_Reject).writeToByteBuffer(reject);
+        reject.flip();
+        vehicle.receive(reject, requestTime + 30 * MILLIS, stats);
+
+        assertEquals(1, stats.getReceived(UdpMessageType.I2V_Reject));
+        assertEquals(1, stats.getNumOfLatencies());
+        assertEquals(30 * MILLIS, stats.getLatencyPercentile(100));
+
+        vehicle.act(requestTime + 900 * MILLIS, stats);
+        assertEquals(1, stats.getSent(UdpMessageType.V2I_Request));
+        assertEquals(0, stats.getTimeouts());
+        vehicle.act(requestTime + 1030 * MILLIS, stats);
+        assertEquals(2, stats.getSent(UdpMessageType.V2I_Request));
+    }
+}
@@ -0,0 +1,94 @@
+package aim4.sim.metrics;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class StepMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void phaseTimerReportsEachPhaseOncePerStep() {
+        StepMetrics metrics = new StepMetrics();
+        PhaseTimer timer = new PhaseTimer();
+        for(int i = 1; i <= 3; i++) {
+            timer.startStep(metrics);
+            timer.endPhase(StepPhase.SPAWN);
+            timer.endPhase(StepPhase.MOVE);
+            timer.endStep(i * 0.5);
+        }
+        assertEquals(3, metrics.getSteps());
+        assertEquals(3, metrics.getPhaseRuns(StepPhase.SPAWN));
+        assertEquals(3, metrics.getPhaseRuns(StepPhase.MOVE));
+        assertEquals(0, metrics.getPhaseRuns(StepPhase.MANAGERS_ACT));
+        assertTrue(metrics.getPhaseNanos(StepPhase.MOVE) >= 0);
+    }
+
+    @Test
+    public void disabledRegistryIsNotTimed() {
+        PhaseTimer timer = new PhaseTimer();
+        timer.startStep(MetricsRegistry.DISABLED);
+        timer.endPhase(StepPhase.SPAWN);
+        timer.endStep(1.0);
+        assertSame(MetricsRegistry.DISABLED, timer.getRegistry());
+        assertFalse(MetricsRegistry.DISABLED.isEnabled());
+    }
+
+    @Test
+    public void countersAreSummed() throws Exception {
+        StepMetrics metrics = new StepMetrics();
+        metrics.increment(SimCounter.RESERVATION_QUERIES, 2);
+        metrics.increment(SimCounter.RESERVATION_QUERIES, 3);
+        metrics.increment(SimCounter.MESSAGES_DROPPED, 1);
+        assertEquals(5, metrics.getCount(SimCounter.RESERVATION_QUERIES));
+
+        JSONObject json = (JSONObject) new JSONParser().parse(metrics.toJSONString());
+        JSONObject counters = (JSONObject) json.get("counters");
+        assertEquals(5L, counters.get("RESERVATION_QUERIES"));
+        assertEquals(1L, counters.get("MESSAGES_DROPPED"));
+        assertEquals(0L, counters.get("MESSAGES_DELIVERED"));
+    }
+
+    @Test
+    public void csvDumpAppendsOneRowPerInterval() throws Exception {
+        File file = folder.newFile("metrics.csv");
+        StepMetrics metrics = new StepMetrics();
+        metrics.dumpPeriodically(file, StepMetrics.Format.CSV, 1.0);
+        for(int i = 1; i <= 25; i++) {
+            metrics.stepCompleted(i * 0.1);
+        }
+
+        List<String> lines = Files.readAllLines(file.toPath(), Charset.forName("UTF-8"));
+        assertEquals(StepMetrics.produceCSVHeader(), lines.get(0));
+        assertEquals(3, lines.size());
+        int columns = StepMetrics.produceCSVHeader().split(",").length;
+        for(String line : lines.subList(1, lines.size())) {
+            assertEquals(columns, line.split(",").length);
+        }
+    }
+
+    @Test
+    public void jsonDumpKeepsOnlyTheLatestTotals() throws Exception {
+        File file = folder.newFile("metrics.json");
+        StepMetrics metrics = new StepMetrics();
+        metrics.dumpPeriodically(file, StepMetrics.Format.JSON, 1.0);
+        for(int i = 1; i <= 30; i++) {
+            metrics.stepCompleted(i * 0.1);
+        }
+
+        String text = new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8"));
+        JSONObject json = (JSONObject) new JSONParser().parse(text);
+        assertEquals(30L, json.get("steps"));
+    }
+}
@@ -0,0 +1,96 @@
+package aim4.util;
+
+import org.junit.Test;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OrientedRectangleTest {
+    private static double[] corners(double x, double y, double heading, double length, double width) {
+        double[] c = new double[8];
+        double fx = Math.cos(heading), fy = Math.sin(heading);
+        double sx = -fy * width / 2, sy = fx * width / 2;
+        c[0] = x + sx;                   c[1] = y + sy;
+        c[2] = x + sx - fx * length;     c[3] = y + sy - fy * length;
+        c[4] = x - sx - fx * length;     c[5] = y - sy - fy * length;
+        c[6] = x - sx;                   c[7] = y - sy;
+        return c;
+    }
+
+    private static Shape path(double[] c) {
+        Point2D[] points = new Point2D[4];
+        for (int i = 0; i < 4; i++)
+            points[i] = new Point2D.Double(c[2 * i], c[2 * i + 1]);
+        return GeomUtil.convertPointsToShape(points);
+    }
+
+    private static boolean areaOverlap(Shape a, Shape b) {
+        Area area = new Area(a);
+        area.intersect(new Area(b));
+        return !area.isEmpty();
+    }
+
+    @Test
+    public void boundsAndContainmentMatchGeneralPath() {
+        Random random = new Random(1);
+        for (int i = 0; i < 2000; i++) {
+            double[] c = corners(random.nextDouble() * 100, random.nextDouble() * 100,
+                    random.nextDouble() * 2 * Math.PI, 4.5, 2.0);
+            OrientedRectangle rectangle = new OrientedRectangle(c);
+            Shape path = path(c);
+            assertEquals(path.getBounds2D(), rectangle.getBounds2D());
+            for (int j = 0; j < 20; j++) {
+                double px = rectangle.getMinX() - 1 + random.nextDouble() * 8;
+                double py = rectangle.getMinY() - 1 + random.nextDouble() * 8;
+                assertEquals(path.contains(px, py), rectangle.contains(px, py));
+            }
+        }
+    }
+
+    @Test
+    public void intersectionsMatchArea() {
+        Random random = new Random(2);
+        for (int i = 0; i < 2000; i++) {
+            double[] a = corners(random.nextDouble() * 10, random.nextDouble() * 10,
+                    random.nextDouble() * 2 * Math.PI, 4.5, 2.0);
+            double[] b = corners(random.nextDouble() * 10, random.nextDouble() * 10,
+                    random.nextDouble() * 2 * Math.PI, 4.5, 2.0);
+            Rectangle2D tile = new Rectangle2D.Double(random.nextDouble() * 10, random.nextDouble() * 10, 1, 1);
+            OrientedRectangle ra = new OrientedRectangle(a);
+            OrientedRectangle rb = new OrientedRectangle(b);
+            assertEquals(areaOverlap(path(a), path(b)), ra.intersects(rb));
+            assertEquals(areaOverlap(path(a), tile), ra.intersects(tile));
+        }
+    }
+
+    @Test
+    public void touchingRectanglesDoNotIntersect() {
+        OrientedRectangle a = new OrientedRectangle(new double[] { 0, 0, 4, 0, 4, 2, 0, 2 });
+        OrientedRectangle b = new OrientedRectangle(new double[] { 4, 0, 8, 0, 8, 2, 4, 2 });
+        assertFalse(a.intersects(b));
+        assertFalse(a.intersects(new Rectangle2D.Double(4, 0, 1, 1)));
+        assertTrue(a.intersects(new Rectangle2D.Double(3.5, 1.5, 1, 1)));
+    }
+
+    @Test
+    public void distanceIsZeroInsideAndToNearestEdgeOutside() {
+        OrientedRectangle rectangle = new OrientedRectangle(new double[] { 0, 0, 4, 0, 4, 2, 0, 2 });
+        assertEquals(0.0, rectangle.distance(1, 1), 0.0);
+        assertEquals(3.0, rectangle.distance(7, 1), 1e-9);
+        assertEquals(5.0, rectangle.distance(7, 6), 1e-9);
+    }
+
+    @Test
+    public void updatingInPlaceMovesTheShape() {
+        OrientedRectangle rectangle = new OrientedRectangle(corners(0, 0, 0, 4, 2));
+        assertTrue(rectangle.contains(-1, 0));
+        rectangle.setCorners(corners(50, 50, Math.PI / 2, 4, 2));
+        assertFalse(rectangle.contains(-1, 0));
+        assertTrue(rectangle.contains(50, 49));
+    }
+}
@@ -0,0 +1,90 @@
+package aim4.util;
+
+import aim4.map.merge.MergeMap;
+import aim4.map.merge.MergeSpawnPoint;
+import aim4.map.merge.S2SMergeMap;
+import aim4.noise.GaussianNoiseFunction;
+import aim4.noise.NoiseFunction;
+import aim4.sim.SimContext;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RandomStreamsTest {
+    private static long[] draw(Random random, int n) {
+        long[] values = new long[n];
+        for (int i = 0; i < n; i++)
+            values[i] = random.nextLong();
+        return values;
+    }
+
+    @Test
+    public void sameNameGivesSameStream() {
+        RandomStreams streams = new RandomStreams(42);
+        assertArrayEquals(draw(streams.stream("spawn", 3), 20), draw(new RandomStreams(42).stream("spawn", 3), 20));
+        assertArrayEquals(draw(streams.stream("noise"), 20), draw(streams.stream("noise"), 20));
+    }
+
+    @Test
+    public void streamsAreIndependentOfDrawOrder() {
+        RandomStreams streams = new RandomStreams(7);
+        Random a = streams.stream("spawn", 1);
+        Random b = streams.stream("spawn", 2);
+        long[] aFirst = draw(a, 50);
+        long[] bSecond = draw(b, 50);
+
+        Random b2 = streams.stream("spawn", 2);
+        draw(b2, 50);
+        Random a2 = streams.stream("spawn", 1);
+        assertArrayEquals(aFirst, draw(a2, 50));
+        assertArrayEquals(bSecond, draw(streams.stream("spawn", 2), 50));
+    }
+
+    @Test
+    public void differentKeysGiveDifferentSeeds() {
+        RandomStreams streams = new RandomStreams(7);
+        assertTrue(streams.seedOf("spawn", 1) != streams.seedOf("spawn", 2));
+        assertTrue(streams.seedOf("spawn", 0) != streams.seedOf("noise", 0));
+        assertTrue(streams.seedOf("spawn") != new RandomStreams(8).seedOf("spawn"));
+        assertEquals(streams.split("run", 4).getMasterSeed(), streams.seedOf("run", 4));
+    }
+
+    @Test
+    public void spawnPointsDrawFromTheStreamsOfTheirContext() {
+        SimContext context = new SimContext();
+        context.setRandomStreams(new RandomStreams(11));
+        SimContext previous = context.enter();
+        try {
+            MergeMap map = new S2SMergeMap(0, 20, 20, 150, 150, 150, 45);
+            MergeSpawnPoint spawnPoint = map.getSpawnPoints().get(0);
+            long[] expected = draw(new RandomStreams(11).stream("spawn", spawnPoint.getLane().getId()), 20);
+            assertArrayEquals(expected, draw(spawnPoint.getRandom(), 20));
+        } finally {
+            SimContext.restore(previous);
+        }
+    }
+
+    private static double[] noise(SimContext context) {
+        SimContext previous = context.enter();
+        try {
+            NoiseFunction first = new GaussianNoiseFunction(1.0);
+            NoiseFunction second = new GaussianNoiseFunction(1.0);
+            return new double[] { first.apply(0.0), first.apply(0.0), second.apply(0.0), second.apply(0.0) };
+        } finally {
+            SimContext.restore(previous);
+        }
+    }
+
+    @Test
+    public void noiseIsDrawnFromTheStreamsOfItsContext() {
+        SimContext context = new SimContext();
+        context.setRandomStreams(new RandomStreams(5));
+        SimContext other = new SimContext();
+        other.setRandomStreams(new RandomStreams(5));
+        double[] values = noise(context);
+        assertArrayEquals(values, noise(other), 0.0);
+        assertTrue(values[0] != values[2]);
+    }
+}
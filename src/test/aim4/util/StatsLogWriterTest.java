@@ -0,0 +1,58 @@
+package aim4.util;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class StatsLogWriterTest {
+
+    private static final StatsLogWriter.RecordFormatter FORMATTER =
+            new StatsLogWriter.RecordFormatter() {
+        @Override
+        public void format(double[] records, int offset, StringBuilder out) {
+            out.append((int) records[offset]).append(',')
+               .append(records[offset + 1]).append('\n');
+        }
+    };
+
+    @Test
+    public void testRecordsAreWrittenInOrderWhenBufferWrapsAround() throws Exception {
+        StringWriter out = new StringWriter();
+        StatsLogWriter writer = new StatsLogWriter(out, 2, 4, FORMATTER);
+        double[] record = new double[2];
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            record[0] = i;
+            record[1] = i * 0.5;
+            writer.log(record);
+            expected.append(i).append(',').append(i * 0.5).append('\n');
+        }
+        writer.close();
+
+        assertEquals(expected.toString(), out.toString());
+    }
+
+    @Test
+    public void testLineIsWrittenAfterRecordsLoggedBeforeIt() throws Exception {
+        StringWriter out = new StringWriter();
+        StatsLogWriter writer = new StatsLogWriter(out, 2, 16, FORMATTER);
+        writer.writeLine("header");
+        writer.log(new double[] {1, 2.5});
+        writer.log(new double[] {2, 3.5});
+        writer.writeLine("footer");
+        writer.close();
+
+        String lineEnd = System.lineSeparator();
+        assertEquals("header" + lineEnd + "1,2.5\n2,3.5\nfooter" + lineEnd,
+                     out.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCannotLogAfterClose() throws Exception {
+        StatsLogWriter writer = new StatsLogWriter(new StringWriter(), 1, 4, FORMATTER);
+        writer.close();
+        writer.log(new double[] {1});
+    }
+}
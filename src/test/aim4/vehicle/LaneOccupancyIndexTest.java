@@ -0,0 +1,150 @@
+package aim4.vehicle;
+
+import aim4.driver.Driver;
+import aim4.map.Road;
+import aim4.map.lane.Lane;
+import aim4.map.lane.LineSegmentLane;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class LaneOccupancyIndexTest {
+    private Lane first;
+    private Lane second;
+    private Lane other;
+    private List<Road> roads;
+
+    private static VehicleSimModel vehicleAt(int vin, double x, Lane... lanes) {
+        VehicleSimModel vehicle = mock(VehicleSimModel.class);
+        when(vehicle.getVIN()).thenReturn(vin);
+        when(vehicle.getDriver()).thenReturn(mock(Driver.class));
+        moveTo(vehicle, x, lanes);
+        return vehicle;
+    }
+
+    private static void moveTo(VehicleSimModel vehicle, double x, Lane... lanes) {
+        when(vehicle.getPosition()).thenReturn(new Point2D.Double(x, 0));
+        Driver driver = vehicle.getDriver();
+        when(driver.getCurrentlyOccupiedLanes()).thenReturn(new HashSet<Lane>(Arrays.asList(lanes)));
+    }
+
+    @Before
+    public void setUp() {
+        first = new LineSegmentLane(0, 0, 100, 0, 4, 20);
+        second = new LineSegmentLane(100, 0, 200, 0, 4, 20);
+        first.setNextLane(second);
+        other = new LineSegmentLane(0, 10, 100, 10, 4, 20);
+        Road road = new Road("road", null);
+        road.addTheRightMostLane(first);
+        road.addTheRightMostLane(second);
+        Road otherRoad = new Road("other", null);
+        otherRoad.addTheRightMostLane(other);
+        roads = Arrays.asList(road, otherRoad);
+    }
+
+    @Test
+    public void nextVehiclesFollowTheOrderAlongTheLane() {
+        LaneOccupancyIndex<VehicleSimModel> index = new LaneOccupancyIndex<VehicleSimModel>(roads, false);
+        VehicleSimModel a = vehicleAt(1, 50, first);
+        VehicleSimModel b = vehicleAt(2, 10, first);
+        VehicleSimModel c = vehicleAt(3, 30, first);
+        index.update(Arrays.asList(a, b, c));
+        assertSame(c, index.getNextVehicle(b));
+        assertSame(a, index.getNextVehicle(c));
+        assertNull(index.getNextVehicle(a));
+
+        // b overtakes both
+        moveTo(b, 70, first);
+        index.update(Arrays.asList(a, b, c));
+        assertSame(a, index.getNextVehicle(c));
+        assertSame(b, index.getNextVehicle(a));
+        assertNull(index.getNextVehicle(b));
+    }
+
+    @Test
+    public void chainedLanesShareAList() {
+        LaneOccupancyIndex<VehicleSimModel> chained = new LaneOccupancyIndex<VehicleSimModel>(roads, true);
+        LaneOccupancyIndex<VehicleSimModel> separate = new LaneOccupancyIndex<VehicleSimModel>(roads, false);
+        // distances are along each vehicle's own lane
+        VehicleSimModel a = vehicleAt(1, 20, first);
+        VehicleSimModel b = vehicleAt(2, 130, second);
+        List<VehicleSimModel> vehicles = Arrays.asList(a, b);
+        chained.update(vehicles);
+        separate.update(vehicles);
+        assertSame(b, chained.getNextVehicle(a));
+        assertNull(separate.getNextVehicle(a));
+    }
+
+    @Test
+    public void vehiclesThatLeaveALaneOrTheSimulationAreDropped() {
+        LaneOccupancyIndex<VehicleSimModel> index = new LaneOccupancyIndex<VehicleSimModel>(roads, false);
+        VehicleSimModel a = vehicleAt(1, 10, first);
+        VehicleSimModel b = vehicleAt(2, 20, first);
+        VehicleSimModel c = vehicleAt(3, 30, first);
+        index.update(Arrays.asList(a, b, c));
+        moveTo(b, 20, other);
+        index.update(Arrays.asList(a, b, c));
+        assertSame(c, index.getNextVehicle(a));
+        index.update(Arrays.asList(a, b));
+        assertNull(index.getNextVehicle(a));
+        assertNull(index.getNextVehicle(c));
+
+        LaneOccupancyIndex.Neighbours<VehicleSimModel> neighbours = new LaneOccupancyIndex.Neighbours<VehicleSimModel>();
+        index.findNeighbours(other, 15, neighbours);
+        assertSame(b, neighbours.getFrontVehicle());
+        assertEquals(20, neighbours.getFrontDistance(), 1e-9);
+        assertNull(neighbours.getRearVehicle());
+    }
+
+    @Test
+    public void neighboursIncludeAVehicleAtThePointAhead() {
+        LaneOccupancyIndex<VehicleSimModel> index = new LaneOccupancyIndex<VehicleSimModel>(roads, false);
+        VehicleSimModel a = vehicleAt(1, 10, first);
+        VehicleSimModel b = vehicleAt(2, 40, first);
+        index.update(Arrays.asList(a, b));
+        LaneOccupancyIndex.Neighbours<VehicleSimModel> neighbours = new LaneOccupancyIndex.Neighbours<VehicleSimModel>();
+        index.findNeighbours(first, 40, neighbours);
+        assertSame(b, neighbours.getFrontVehicle());
+        assertSame(a, neighbours.getRearVehicle());
+        assertEquals(10, neighbours.getRearDistance(), 1e-9);
+    }
+
+    @Test
+    public void filteredLanesAndUnknownLanesAreIgnored() {
+        LaneOccupancyIndex<VehicleSimModel> index = new LaneOccupancyIndex<VehicleSimModel>(roads, false);
+        Lane unknown = new LineSegmentLane(0, 50, 100, 50, 4, 20);
+        VehicleSimModel a = vehicleAt(1, 10, first);
+        VehicleSimModel b = vehicleAt(2, 20, first, unknown);
+        VehicleSimModel c = vehicleAt(3, 30, first);
+        final VehicleSimModel skipped = b;
+        index.update(Arrays.asList(a, b, c), new LaneOccupancyIndex.LaneFilter<VehicleSimModel>() {
+            @Override
+            public boolean accept(VehicleSimModel vehicle, Lane lane) {
+                return vehicle != skipped;
+            }
+        });
+        assertSame(c, index.getNextVehicle(a));
+    }
+
+    @Test
+    public void newRoadsRebuildTheLists() {
+        LaneOccupancyIndex<VehicleSimModel> index = new LaneOccupancyIndex<VehicleSimModel>(
+                Collections.singletonList(roads.get(0)), false);
+        VehicleSimModel a = vehicleAt(1, 10, other);
+        VehicleSimModel b = vehicleAt(2, 20, other);
+        index.update(Arrays.asList(a, b));
+        assertNull(index.getNextVehicle(a));
+        index.setRoads(new ArrayList<Road>(roads));
+        index.update(Arrays.asList(a, b));
+        assertSame(b, index.getNextVehicle(a));
+    }
+}
@@ -0,0 +1,92 @@
+package aim4.vehicle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class VehicleSpatialIndexTest {
+    private VehicleSpatialIndex<VehicleSimModel> index;
+
+    private static VehicleSimModel vehicleAt(int vin, double x, double y, double length, double width) {
+        VehicleSimModel vehicle = mock(VehicleSimModel.class);
+        when(vehicle.getVIN()).thenReturn(vin);
+        when(vehicle.getShape()).thenReturn(new Rectangle2D.Double(x, y, length, width));
+        return vehicle;
+    }
+
+    private static void moveTo(VehicleSimModel vehicle, double x, double y, double length, double width) {
+        when(vehicle.getShape()).thenReturn(new Rectangle2D.Double(x, y, length, width));
+    }
+
+    @Before
+    public void setUp() {
+        index = new VehicleSpatialIndex<VehicleSimModel>(5.0);
+    }
+
+    @Test
+    public void regionQueriesOnlySeeNearbyVehicles() {
+        index.update(vehicleAt(1, 0, 0, 4, 2));
+        index.update(vehicleAt(2, 100, 100, 4, 2));
+        assertTrue(index.anyShapeIntersects(new Rectangle2D.Double(3, 1, 5, 5)));
+        assertFalse(index.anyShapeIntersects(new Rectangle2D.Double(20, 20, 5, 5)));
+        assertTrue(index.anyBoundsIntersect(new Rectangle2D.Double(95, 95, 6, 6)));
+    }
+
+    @Test
+    public void movedVehiclesAreRebucketed() {
+        VehicleSimModel vehicle = vehicleAt(1, 0, 0, 4, 2);
+        index.update(vehicle);
+        moveTo(vehicle, 50, 50, 4, 2);
+        index.update(vehicle);
+        assertFalse(index.anyShapeIntersects(new Rectangle2D.Double(0, 0, 4, 2)));
+        assertTrue(index.anyShapeIntersects(new Rectangle2D.Double(51, 51, 1, 1)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void removedVehiclesAreForgotten() {
+        VehicleSimModel vehicle = vehicleAt(1, 0, 0, 4, 2);
+        index.update(vehicle);
+        index.remove(vehicle);
+        assertEquals(0, index.size());
+        assertFalse(index.anyShapeIntersects(new Rectangle2D.Double(0, 0, 4, 2)));
+    }
+
+    @Test
+    public void isOutsideMatchesExactTest() {
+        Rectangle2D boundary = new Rectangle2D.Double(0, 0, 50, 50);
+        VehicleSimModel inside = vehicleAt(1, 10, 10, 4, 2);
+        VehicleSimModel straddling = vehicleAt(2, 48, 10, 4, 2);
+        VehicleSimModel outside = vehicleAt(3, 60, 10, 4, 2);
+        VehicleSimModel notIndexed = vehicleAt(4, 70, 10, 4, 2);
+        index.update(inside);
+        index.update(straddling);
+        index.update(outside);
+        assertFalse(index.isOutside(inside, boundary));
+        assertFalse(index.isOutside(straddling, boundary));
+        assertTrue(index.isOutside(outside, boundary));
+        assertTrue(index.isOutside(notIndexed, boundary));
+    }
+
+    @Test
+    public void collisionsSpanningSeveralCellsAreReportedOnce() {
+        // both vehicles overlap each other across four shared cells
+        index.update(vehicleAt(1, 3, 3, 4, 4));
+        index.update(vehicleAt(2, 4, 4, 4, 4));
+        index.update(vehicleAt(3, 30, 30, 4, 2));
+        List<List<VehicleSimModel>> collisions = index.findCollisions();
+        assertEquals(1, collisions.size());
+    }
+
+    @Test
+    public void touchingVehiclesDoNotCollide() {
+        index.update(vehicleAt(1, 0, 0, 4, 2));
+        index.update(vehicleAt(2, 4, 0, 4, 2));
+        assertTrue(index.findCollisions().isEmpty());
+    }
+}
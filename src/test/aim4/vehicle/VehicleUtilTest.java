@@ -0,0 +1,110 @@
+package aim4.vehicle;
+
+import aim4.config.SimConfig;
+import aim4.im.aim.IntersectionManager;
+import aim4.im.aim.v2i.reservation.ReservationGridManager;
+import aim4.map.aim.GridIntersectionMap;
+import aim4.map.aim.GridMapUtil;
+import aim4.map.lane.Lane;
+import aim4.sim.SimContext;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class VehicleUtilTest {
+    private static final int ROUNDS = 50;
+
+    /** Build a map with one intersection in a context */
+    private static GridIntersectionMap layout(SimContext context, double laneWidth) {
+        SimContext previous = context.enter();
+        try {
+            GridIntersectionMap layout = new GridIntersectionMap(0.0, 1, 1, laneWidth, 25.0, 2, 1, 150);
+            ReservationGridManager.Config config =
+                    new ReservationGridManager.Config(SimConfig.TIME_STEP, SimConfig.GRID_TIME_STEP,
+                            0.25, 0.1, 0.25, true, 1.0);
+            GridMapUtil.setFCFSManagers(layout, 0.0, config);
+            return layout;
+        } finally {
+            SimContext.restore(previous);
+        }
+    }
+
+    /** The max turn velocities of every turn through an intersection */
+    private static List<Double> turnVelocities(SimContext context, GridIntersectionMap layout) {
+        // the lanes' roads are looked up in the current map
+        context.setCurrentMap(layout);
+        SimContext previous = context.enter();
+        try {
+            IntersectionManager im = layout.getManager(0, 0);
+            VehicleSpec spec = VehicleSpecDatabase.getVehicleSpecByName("SEDAN");
+            List<Double> velocities = new ArrayList<Double>();
+            for (Lane arrival : im.getIntersection().getEntryLanes()) {
+                for (Lane departure : im.getIntersection().getExitLanes()) {
+                    velocities.add(VehicleUtil.maxTurnVelocity(spec, arrival, departure, im));
+                }
+            }
+            return velocities;
+        } finally {
+            SimContext.restore(previous);
+        }
+    }
+
+    @Test
+    public void mapsRunTogetherKeepTheirOwnTurnVelocities() throws Exception {
+        final SimContext narrowContext = new SimContext();
+        final SimContext wideContext = new SimContext();
+        final GridIntersectionMap narrow = layout(narrowContext, 3);
+        final GridIntersectionMap wide = layout(wideContext, 5);
+        // the two maps number their lanes and managers the same way
+        assertEquals(narrow.getManager(0, 0).getId(), wide.getManager(0, 0).getId());
+        List<Double> narrowExpected = turnVelocities(new SimContext(), narrow);
+        List<Double> wideExpected = turnVelocities(new SimContext(), wide);
+        assertFalse(narrowExpected.equals(wideExpected));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Double>> narrowRun = executor.submit(new Callable<List<Double>>() {
+                @Override
+                public List<Double> call() {
+                    List<Double> velocities = null;
+                    for (int i = 0; i < ROUNDS; i++)
+                        velocities = turnVelocities(narrowContext, narrow);
+                    return velocities;
+                }
+            });
+            Future<List<Double>> wideRun = executor.submit(new Callable<List<Double>>() {
+                @Override
+                public List<Double> call() {
+                    List<Double> velocities = null;
+                    for (int i = 0; i < ROUNDS; i++)
+                        velocities = turnVelocities(wideContext, wide);
+                    return velocities;
+                }
+            });
+            assertEquals(narrowExpected, narrowRun.get());
+            assertEquals(wideExpected, wideRun.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void mapsRunInOneContextKeepTheirOwnTurnVelocities() {
+        SimContext context = new SimContext();
+        GridIntersectionMap narrow = layout(context, 3);
+        GridIntersectionMap wide = layout(context, 5);
+        List<Double> narrowExpected = turnVelocities(new SimContext(), narrow);
+        List<Double> wideExpected = turnVelocities(new SimContext(), wide);
+        assertFalse(narrowExpected.equals(wideExpected));
+
+        assertEquals(narrowExpected, turnVelocities(context, narrow));
+        assertEquals(wideExpected, turnVelocities(context, wide));
+    }
+}
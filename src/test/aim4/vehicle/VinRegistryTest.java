@@ -0,0 +1,57 @@
+package aim4.vehicle;
+
+import aim4.sim.SimContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class VinRegistryTest {
+    private SimContext previous;
+
+    private static VehicleSimModel vehicle(VehicleSpec spec) {
+        VehicleSimModel vehicle = mock(VehicleSimModel.class);
+        when(vehicle.getSpec()).thenReturn(spec);
+        return vehicle;
+    }
+
+    @Before
+    public void setUp() {
+        previous = new SimContext().enter();
+    }
+
+    @After
+    public void tearDown() {
+        SimContext.restore(previous);
+    }
+
+    @Test
+    public void registeredVehiclesAreHeldUntilUnregistered() {
+        VehicleSimModel vehicle = vehicle(mock(VehicleSpec.class));
+        int vin = VinRegistry.registerVehicle(vehicle);
+        verify(vehicle).setVIN(vin);
+        assertSame(vehicle, VinRegistry.getVehicleFromVIN(vin));
+
+        VinRegistry.unregisterVehicle(vin);
+        assertNull(VinRegistry.getVehicleFromVIN(vin));
+    }
+
+    @Test
+    public void unregisteredVinsKeepTheirRecords() {
+        VehicleSpec spec = mock(VehicleSpec.class);
+        int vin = VinRegistry.registerVehicle(vehicle(spec));
+        VinRegistry.unregisterVehicle(vin);
+        assertTrue(VinRegistry.isVINexist(vin));
+        assertSame(spec, VinRegistry.getVehicleSpecFromVIN(vin));
+        assertTrue(VinRegistry.registerVehicle(vehicle(spec)) != vin);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void vehiclesCannotBeUnregisteredTwice() {
+        int vin = VinRegistry.registerVehicle(vehicle(mock(VehicleSpec.class)));
+        VinRegistry.unregisterVehicle(vin);
+        VinRegistry.unregisterVehicle(vin);
+    }
+}
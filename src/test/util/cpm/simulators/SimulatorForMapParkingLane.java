@@ -78,6 +78,7 @@ public class SimulatorForMapParkingLane extends CPMAutoDriverSimulator {
                             CPMBasicAutoVehicle vehicle = makeVehicle(spawnPoint, spawnSpec);
                             VinRegistry.registerVehicle(vehicle); // Get vehicle a VIN number
                             vinToVehicles.put(vehicle.getVIN(), vehicle);
+                            vehicleIndex.update(vehicle);
                             map.addVehicleToMap(vehicle);
                             break; // only handle the first spawn vehicle
                         } else {
@@ -141,6 +142,7 @@ public class SimulatorForMapParkingLane extends CPMAutoDriverSimulator {
         for(CPMBasicAutoVehicle vehicle : vinToVehicles.values()) {
             Point2D p1 = vehicle.getPosition();
             vehicle.move(timeStep);
+            vehicleIndex.update(vehicle);
             Point2D p2 = vehicle.getPosition();
 
             CPMMapUtil.checkVehicleStillOnMap(map, p2, vehicle.getDriver().getCurrentLane());